@@ -0,0 +1,34 @@
+#!/usr/bin/env bash
+# Compara rendimiento y latencia p99 de varios valores de una propiedad de
+# compilación con la misma carga. Necesita el PostgreSQL de
+# docker/docker-compose.yml en marcha.
+#
+#   src/benchmark/carga/comparar-modos.sh tasku.persistencia bloqueante reactiva
+#   USUARIOS=5000 PAUSA=200 src/benchmark/carga/comparar-modos.sh tasku.hilos plataforma virtuales
+set -euo pipefail
+
+if [ $# -lt 2 ]; then
+    echo "Uso: $0 <propiedad> <valor>..." >&2
+    exit 1
+fi
+propiedad=$1
+shift
+
+cd "$(dirname "$0")/../../.."
+USUARIOS=${USUARIOS:-200}
+DURACION=${DURACION:-60}
+PAUSA=${PAUSA:-0}
+URL=http://localhost:8080/api/taskus
+
+for valor in "$@"; do
+    mvn -B -q package -DskipTests -D"$propiedad"="$valor"
+    java -jar target/quarkus-app/quarkus-run.jar > "target/carga-$valor.log" 2>&1 &
+    pid=$!
+    trap 'kill $pid 2>/dev/null || true' EXIT
+    until curl -sf "$URL/estadisticas" > /dev/null; do
+        sleep 1
+    done
+    java src/benchmark/java/com/tasku/benchmark/PruebaCarga.java "$URL" "$USUARIOS" "$DURACION" "$valor" "$PAUSA"
+    kill "$pid"
+    wait "$pid" || true
+done
@@ -0,0 +1,122 @@
+package com.tasku.benchmark;
+
+import com.tasku.almacen.AlmacenLog;
+import com.tasku.almacen.AlmacenTaskus;
+import com.tasku.model.Tasku;
+import com.tasku.repository.TaskuRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Las mismas operaciones del almacén sobre Hibernate y H2 y sobre el log en
+ * proceso, sembrados con las mismas tareas. El log fuerza cada escritura a
+ * disco; H2 en memoria no escribe en disco, así que en las escrituras la
+ * comparación favorece a jdbc. Al terminar se imprime cuánto tardó el log en
+ * reabrirse, que es lo que tarda en arrancar la aplicación con él.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AlmacenBenchmark {
+
+    @Param({"10000"})
+    long filas;
+
+    @Param({AlmacenTaskus.MOTOR_JDBC, AlmacenTaskus.MOTOR_LOG})
+    String motor;
+
+    AlmacenTaskus almacen;
+
+    private Path directorio;
+    private long milisAbrir;
+
+    @Setup(Level.Trial)
+    public void preparar() throws IOException {
+        if (AlmacenTaskus.MOTOR_LOG.equals(motor)) {
+            directorio = Files.createTempDirectory("tasku-almacen-benchmark");
+            AlmacenLog sembrado = AlmacenLog.abrir(directorio, false);
+            for (long id = 1; id <= filas; id++) {
+                Tasku tasku = new Tasku("Tarea " + id, "Descripción de la tarea " + id);
+                tasku.setCompletada(id % 3 == 0);
+                sembrado.guardar(tasku);
+            }
+            sembrado.cerrar();
+            long inicio = System.nanoTime();
+            almacen = AlmacenLog.abrir(directorio, true);
+            milisAbrir = (System.nanoTime() - inicio) / 1_000_000;
+        } else {
+            almacen = ContextoBenchmark.bean(TaskuRepository.class);
+            SembradorBenchmark.sembrar(filas);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void terminar() throws IOException {
+        if (almacen instanceof AlmacenLog log) {
+            System.out.printf("Log de %d tareas reabierto en %d ms%n", filas, milisAbrir);
+            log.cerrar();
+            try (Stream<Path> archivos = Files.walk(directorio)) {
+                archivos.sorted(Comparator.reverseOrder()).forEach(archivo -> {
+                    try {
+                        Files.delete(archivo);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        } else {
+            // actualizarDirecto() cambia el estado de las tareas sembradas
+            SembradorBenchmark.invalidar();
+        }
+    }
+
+    @Benchmark
+    public Optional<Tasku> buscarPorId() {
+        long id = ThreadLocalRandom.current().nextLong(1, filas + 1);
+        return ContextoBenchmark.enPeticion(() -> almacen.buscarPorId(id));
+    }
+
+    @Benchmark
+    public List<Tasku> listarPaginaPendientes() {
+        return ContextoBenchmark.enPeticion(() -> almacen.listarPagina(false, null, null, 100));
+    }
+
+    @Benchmark
+    public List<Tasku> listarPaginaPorTitulo() {
+        return ContextoBenchmark.enPeticion(() -> almacen.listarPagina(null, "tarea 99", null, 100));
+    }
+
+    @Benchmark
+    public long[] contarResumen() {
+        LocalDateTime inicio = LocalDateTime.now().minusDays(7);
+        return ContextoBenchmark.enPeticion(() -> almacen.contarResumen(inicio));
+    }
+
+    @Benchmark
+    public Optional<Tasku> actualizarDirecto() {
+        long id = ThreadLocalRandom.current().nextLong(1, filas + 1);
+        boolean completada = ThreadLocalRandom.current().nextBoolean();
+        return QuarkusTransaction.requiringNew().call(() ->
+                almacen.actualizarDirecto(id, null, null, completada, null));
+    }
+}
@@ -0,0 +1,72 @@
+package com.tasku.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.tasku.H2TestProfile;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * Punto de entrada de {@code mvn -Pbenchmark test}. Arranca la aplicación sobre
+ * H2 y lanza JMH en el mismo proceso, para que los benchmarks usen los beans
+ * reales (Panache, transacciones, caché) en lugar de copias sin aumentar.
+ *
+ * <p>Propiedades del sistema:
+ * <ul>
+ *   <li>{@code tasku.bench.incluir}: expresión de los benchmarks a ejecutar</li>
+ *   <li>{@code tasku.bench.filas}: tamaños de tabla separados por comas</li>
+ *   <li>{@code tasku.bench.gc=true}: añade el perfilador de asignaciones</li>
+ *   <li>{@code tasku.bench.tolerancia}: empeoramiento admitido frente a la baseline (0.10)</li>
+ *   <li>{@code tasku.bench.actualizar-baseline=true}: guarda el resultado como nueva baseline</li>
+ * </ul>
+ */
+@QuarkusTest
+@TestProfile(H2TestProfile.class)
+class BenchmarksTest {
+
+    @Test
+    void ejecutarBenchmarks() throws Exception {
+        Path resultado = Path.of(System.getProperty("tasku.bench.resultado", "target/jmh-result.json"));
+        Path baseline = Path.of(System.getProperty("tasku.bench.baseline", "src/benchmark/resources/baseline.json"));
+
+        ChainedOptionsBuilder opciones = new OptionsBuilder()
+                .include(System.getProperty("tasku.bench.incluir", "com\\.tasku\\.benchmark\\..*Benchmark"))
+                .forks(0)
+                .warmupIterations(Integer.getInteger("tasku.bench.calentamiento", 3))
+                .warmupTime(TimeValue.seconds(2))
+                .measurementIterations(Integer.getInteger("tasku.bench.iteraciones", 5))
+                .measurementTime(TimeValue.seconds(2))
+                .resultFormat(ResultFormatType.JSON)
+                .result(resultado.toString());
+        String filas = System.getProperty("tasku.bench.filas");
+        if (filas != null) {
+            opciones.param("filas", filas.split(","));
+        }
+        if (Boolean.getBoolean("tasku.bench.gc")) {
+            opciones.addProfiler(GCProfiler.class);
+        }
+        new Runner(opciones.build()).run();
+
+        if (Boolean.getBoolean("tasku.bench.actualizar-baseline")) {
+            Files.copy(resultado, baseline, StandardCopyOption.REPLACE_EXISTING);
+            return;
+        }
+        double tolerancia = Double.parseDouble(System.getProperty("tasku.bench.tolerancia", "0.10"));
+        List<String> regresiones = new ComparadorBaseline(tolerancia).comparar(resultado, baseline);
+        assertThat(regresiones)
+                .as("Regresiones frente a %s (sin baseline: -Dtasku.bench.actualizar-baseline=true en la máquina de referencia)",
+                        baseline)
+                .isEmpty();
+    }
+}
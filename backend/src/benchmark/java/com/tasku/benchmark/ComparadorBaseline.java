@@ -0,0 +1,74 @@
+package com.tasku.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compara el resultado JSON de JMH con la baseline guardada en el repositorio.
+ * Una medición es regresión cuando empeora más que la tolerancia: menos
+ * operaciones por unidad de tiempo en modo throughput, o más tiempo por
+ * operación en el resto de modos. Una medición sin baseline también falla: una
+ * baseline vacía o vieja no puede dejar pasar nada sin compararlo. Se registra
+ * con {@code -Dtasku.bench.actualizar-baseline=true}.
+ */
+public class ComparadorBaseline {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final double tolerancia;
+
+    public ComparadorBaseline(double tolerancia) {
+        this.tolerancia = tolerancia;
+    }
+
+    public List<String> comparar(Path resultado, Path baseline) throws IOException {
+        if (!Files.exists(baseline)) {
+            return List.of("No existe la baseline " + baseline);
+        }
+        Map<String, JsonNode> referencias = indexar(objectMapper.readTree(baseline.toFile()));
+        List<String> regresiones = new ArrayList<>();
+        for (JsonNode medicion : objectMapper.readTree(resultado.toFile())) {
+            JsonNode referencia = referencias.get(clave(medicion));
+            if (referencia == null) {
+                regresiones.add(clave(medicion) + ": sin medición en la baseline");
+                continue;
+            }
+            double actual = puntuacion(medicion);
+            double esperada = puntuacion(referencia);
+            boolean masEsMejor = "thrpt".equals(medicion.path("mode").asText());
+            double cambio = masEsMejor ? (esperada - actual) / esperada : (actual - esperada) / esperada;
+            if (cambio > tolerancia) {
+                regresiones.add(String.format("%s: %.3f frente a %.3f %s (%.1f%% peor)",
+                        clave(medicion), actual, esperada,
+                        medicion.path("primaryMetric").path("scoreUnit").asText(), cambio * 100));
+            }
+        }
+        return regresiones;
+    }
+
+    private Map<String, JsonNode> indexar(JsonNode mediciones) {
+        Map<String, JsonNode> indice = new HashMap<>();
+        for (JsonNode medicion : mediciones) {
+            indice.put(clave(medicion), medicion);
+        }
+        return indice;
+    }
+
+    private static String clave(JsonNode medicion) {
+        Map<String, String> parametros = new TreeMap<>();
+        medicion.path("params").fields()
+                .forEachRemaining(parametro -> parametros.put(parametro.getKey(), parametro.getValue().asText()));
+        return medicion.path("benchmark").asText() + parametros;
+    }
+
+    private static double puntuacion(JsonNode medicion) {
+        return medicion.path("primaryMetric").path("score").asDouble();
+    }
+}
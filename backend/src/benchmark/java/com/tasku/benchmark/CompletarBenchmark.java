@@ -0,0 +1,93 @@
+package com.tasku.benchmark;
+
+import com.tasku.metricas.SentenciasPeticion;
+import com.tasku.model.Tasku;
+import com.tasku.service.TaskuService;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Alternar el estado de una tarea con un solo UPDATE que devuelve la fila
+ * frente a cargarla bloqueada y dejar que Hibernate escriba lo que cambió, que
+ * es lo que sigue haciendo la escritura con If-Match. Las sentencias JDBC de
+ * cada cambio, sin contar la del registro de cambios que llevan los dos, se
+ * imprimen al terminar.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CompletarBenchmark {
+
+    @Param({"10000"})
+    long filas;
+
+    TaskuService service;
+
+    // Estado de cada tarea sembrada, para pedir siempre el contrario
+    boolean[] completadas;
+
+    private final AtomicLong cambiosCargando = new AtomicLong();
+    private final AtomicLong sentenciasCargando = new AtomicLong();
+    private final AtomicLong cambiosDirectos = new AtomicLong();
+    private final AtomicLong sentenciasDirectas = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        service = ContextoBenchmark.bean(TaskuService.class);
+        SembradorBenchmark.sembrar(filas);
+        completadas = new boolean[(int) filas + 1];
+        for (int id = 1; id <= filas; id++) {
+            completadas[id] = id % 3 == 0;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void terminar() {
+        System.out.printf("Sentencias por cambio: cargando %.2f, directo %.2f%n",
+                porCambio(sentenciasCargando, cambiosCargando), porCambio(sentenciasDirectas, cambiosDirectos));
+        // Los cambios quedan en la tabla sembrada
+        SembradorBenchmark.invalidar();
+    }
+
+    @Benchmark
+    public Optional<Tasku> alternarCargando() {
+        int id = ThreadLocalRandom.current().nextInt(1, (int) filas + 1);
+        boolean completada = completadas[id] = !completadas[id];
+        return ContextoBenchmark.enPeticion(() -> contar(cambiosCargando, sentenciasCargando,
+                () -> service.marcarCompletada((long) id, completada, tasku -> true)));
+    }
+
+    @Benchmark
+    public Optional<Tasku> alternarDirecto() {
+        int id = ThreadLocalRandom.current().nextInt(1, (int) filas + 1);
+        boolean completada = completadas[id] = !completadas[id];
+        return ContextoBenchmark.enPeticion(() -> contar(cambiosDirectos, sentenciasDirectas,
+                () -> service.marcarCompletada((long) id, completada)));
+    }
+
+    private static Optional<Tasku> contar(AtomicLong cambios, AtomicLong sentencias,
+                                          Supplier<Optional<Tasku>> cambio) {
+        Optional<Tasku> tasku = cambio.get();
+        cambios.incrementAndGet();
+        // Una sentencia es la del registro de cambios, común a los dos caminos
+        sentencias.addAndGet(ContextoBenchmark.bean(SentenciasPeticion.class).getSentencias() - 1);
+        return tasku;
+    }
+
+    private static double porCambio(AtomicLong sentencias, AtomicLong cambios) {
+        return cambios.get() == 0 ? 0 : (double) sentencias.get() / cambios.get();
+    }
+}
@@ -0,0 +1,31 @@
+package com.tasku.benchmark;
+
+import io.quarkus.arc.Arc;
+import io.quarkus.arc.ManagedContext;
+import java.util.function.Supplier;
+
+/**
+ * Acceso a los beans de la aplicación arrancada por {@link BenchmarksTest}. Los
+ * benchmarks se ejecutan en el mismo proceso (forks = 0) pero fuera de una
+ * petición HTTP, así que cada invocación abre su propio contexto de petición,
+ * igual que lo haría el servidor.
+ */
+public final class ContextoBenchmark {
+
+    private ContextoBenchmark() {
+    }
+
+    public static <T> T bean(Class<T> tipo) {
+        return Arc.container().instance(tipo).get();
+    }
+
+    public static <T> T enPeticion(Supplier<T> accion) {
+        ManagedContext contexto = Arc.container().requestContext();
+        contexto.activate();
+        try {
+            return accion.get();
+        } finally {
+            contexto.terminate();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.tasku.benchmark;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tasku.model.Tasku;
+import com.tasku.resource.CborProvider;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * JSON frente a CBOR para una lista de tareas completas, como la intercambian
+ * los servicios internos con {@code /api/taskus}: codificar y decodificar. El
+ * tamaño de cada formato, con y sin gzip, se imprime al preparar.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class FormatoBenchmark {
+
+    @Param({"100", "1000"})
+    int tamano;
+
+    ObjectMapper json;
+    ObjectMapper cbor;
+    JavaType tipoLista;
+    List<Tasku> taskus;
+    byte[] enJson;
+    byte[] enCbor;
+
+    @Setup(Level.Trial)
+    public void preparar() throws IOException {
+        json = ContextoBenchmark.bean(ObjectMapper.class);
+        cbor = CborProvider.mapeador();
+        tipoLista = json.getTypeFactory().constructCollectionType(List.class, Tasku.class);
+        taskus = new ArrayList<>(tamano);
+        for (int i = 0; i < tamano; i++) {
+            Tasku tasku = new Tasku("Tarea " + i, "Descripción de la tarea " + i);
+            tasku.setId((long) i + 1);
+            tasku.setCompletada(i % 3 == 0);
+            taskus.add(tasku);
+        }
+        enJson = json.writeValueAsBytes(taskus);
+        enCbor = cbor.writeValueAsBytes(taskus);
+        System.out.printf("Bytes de %d tareas: JSON %d (gzip %d), CBOR %d (gzip %d)%n", tamano,
+                enJson.length, gzip(enJson), enCbor.length, gzip(enCbor));
+    }
+
+    @Benchmark
+    public void codificarJson() throws IOException {
+        json.writeValue(OutputStream.nullOutputStream(), taskus);
+    }
+
+    @Benchmark
+    public void codificarCbor() throws IOException {
+        cbor.writeValue(OutputStream.nullOutputStream(), taskus);
+    }
+
+    @Benchmark
+    public List<Tasku> decodificarJson() throws IOException {
+        return json.readValue(enJson, tipoLista);
+    }
+
+    @Benchmark
+    public List<Tasku> decodificarCbor() throws IOException {
+        return cbor.readValue(enCbor, tipoLista);
+    }
+
+    private static int gzip(byte[] datos) throws IOException {
+        ByteArrayOutputStream comprimidos = new ByteArrayOutputStream();
+        try (GZIPOutputStream salida = new GZIPOutputStream(comprimidos)) {
+            salida.write(datos);
+        }
+        return comprimidos.size();
+    }
+}
@@ -0,0 +1,85 @@
+package com.tasku.benchmark;
+
+import com.tasku.dto.TaskuParcial;
+import com.tasku.indice.AtributoTasku;
+import com.tasku.indice.IndiceEstados;
+import com.tasku.repository.ConsultaTaskus;
+import com.tasku.repository.TaskuRepository;
+import com.tasku.service.TaskuService;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Contar y paginar por estado con el índice de mapas de bits frente a la
+ * sentencia SQL. La página por el índice lee las filas por id, como hace el
+ * servicio. Con {@code -Dtasku.bench.filas=10000000} se mide con diez millones
+ * de tareas; al terminar se imprime lo que ocupa el índice.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class IndiceEstadosBenchmark {
+
+    private static final Map<AtributoTasku, Boolean> PENDIENTES = Map.of(AtributoTasku.COMPLETADA, false);
+
+    @Param({"10000"})
+    long filas;
+
+    IndiceEstados indice;
+    TaskuRepository repository;
+    TaskuService service;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        indice = ContextoBenchmark.bean(IndiceEstados.class);
+        repository = ContextoBenchmark.bean(TaskuRepository.class);
+        service = ContextoBenchmark.bean(TaskuService.class);
+        SembradorBenchmark.sembrar(filas);
+    }
+
+    @TearDown(Level.Trial)
+    public void terminar() {
+        System.out.printf("Índice de estados: %d tareas en %d bytes (%.2f bytes por tarea)%n",
+                indice.tamano(), indice.bytes(), (double) indice.bytes() / Math.max(indice.tamano(), 1));
+    }
+
+    @Benchmark
+    public long contarPendientesIndice() {
+        return indice.contar(PENDIENTES);
+    }
+
+    @Benchmark
+    public long contarPendientesSql() {
+        return ContextoBenchmark.enPeticion(() -> repository.contarPorCompletada(false));
+    }
+
+    @Benchmark
+    public List<TaskuParcial> paginaPendientesIndice() {
+        ConsultaTaskus consulta = consultaPendientes();
+        return ContextoBenchmark.enPeticion(() -> service.obtenerPagina(consulta, TaskuParcial.RESUMEN));
+    }
+
+    @Benchmark
+    public List<TaskuParcial> paginaPendientesSql() {
+        ConsultaTaskus consulta = consultaPendientes();
+        return ContextoBenchmark.enPeticion(() -> repository.listar(consulta, TaskuParcial.RESUMEN));
+    }
+
+    // Desde un punto al azar, para no medir siempre las primeras filas
+    private ConsultaTaskus consultaPendientes() {
+        long despuesDe = ThreadLocalRandom.current().nextLong(0, filas);
+        return ConsultaTaskus.porEstadoYTitulo(false, null, despuesDe, 100);
+    }
+}
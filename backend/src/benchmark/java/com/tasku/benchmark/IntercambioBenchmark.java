@@ -0,0 +1,85 @@
+package com.tasku.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tasku.intercambio.ExportadorTaskus;
+import com.tasku.intercambio.FormatoIntercambio;
+import com.tasku.intercambio.LectorTaskus;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Exportación completa de la tabla en cada formato, sobre una salida que solo
+ * cuenta bytes, y lectura de esa misma exportación como lo hace la
+ * importación, sin escribir en la base de datos. Con H2 la exportación recorre
+ * las tareas en lugar de usar COPY.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class IntercambioBenchmark {
+
+    @Param({"100000"})
+    long filas;
+
+    @Param({"NDJSON", "CSV"})
+    FormatoIntercambio formato;
+
+    ExportadorTaskus exportador;
+    ObjectMapper mapeador;
+    byte[] exportado;
+
+    @Setup(Level.Trial)
+    public void preparar() throws IOException {
+        exportador = ContextoBenchmark.bean(ExportadorTaskus.class);
+        mapeador = ContextoBenchmark.bean(ObjectMapper.class);
+        SembradorBenchmark.sembrar(filas);
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        exportador.exportar(formato, salida);
+        exportado = salida.toByteArray();
+    }
+
+    @Benchmark
+    public long exportar() throws IOException {
+        ContadorBytes salida = new ContadorBytes();
+        exportador.exportar(formato, salida);
+        return salida.bytes;
+    }
+
+    @Benchmark
+    public long leer() throws IOException {
+        long leidas = 0;
+        try (LectorTaskus lector = LectorTaskus.abrir(formato, new ByteArrayInputStream(exportado), mapeador)) {
+            while (lector.siguiente() != null) {
+                leidas++;
+            }
+        }
+        return leidas;
+    }
+
+    private static final class ContadorBytes extends OutputStream {
+
+        long bytes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int desde, int longitud) {
+            bytes += longitud;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.tasku.benchmark;
+
+import com.tasku.dto.ResultadoLote;
+import com.tasku.model.Tasku;
+import com.tasku.service.TaskuLoteService;
+import com.tasku.service.TaskuService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Alta de {@code tamano} tareas una a una, como hacen hoy los importadores,
+ * frente a una sola llamada al servicio de lotes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class LoteBenchmark {
+
+    @Param({"500"})
+    int tamano;
+
+    TaskuService service;
+    TaskuLoteService loteService;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        service = ContextoBenchmark.bean(TaskuService.class);
+        loteService = ContextoBenchmark.bean(TaskuLoteService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void terminar() {
+        SembradorBenchmark.invalidar();
+    }
+
+    @Benchmark
+    public int crearUnaAUna() {
+        int creadas = 0;
+        for (Tasku tasku : generar()) {
+            service.crear(tasku);
+            creadas++;
+        }
+        return creadas;
+    }
+
+    @Benchmark
+    public List<ResultadoLote> crearEnLote() {
+        return loteService.crear(generar());
+    }
+
+    private List<Tasku> generar() {
+        List<Tasku> taskus = new ArrayList<>(tamano);
+        for (int i = 0; i < tamano; i++) {
+            taskus.add(new Tasku("Tarea importada " + i, "Descripción de la tarea importada " + i));
+        }
+        return taskus;
+    }
+}
@@ -0,0 +1,152 @@
+package com.tasku.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Carga HTTP de bucle cerrado contra {@code /api/taskus}: cada usuario virtual
+ * lanza una petición tras otra con la mezcla 60% páginas, 20% lecturas por id,
+ * 10% altas y 10% cambios de estado. Imprime rendimiento y latencias p50/p99.
+ * Con una pausa entre peticiones simula muchos clientes lentos que mantienen
+ * su conexión abierta.
+ *
+ * <p>Solo usa el JDK, así que se ejecuta como fichero suelto:
+ * {@code java PruebaCarga.java <url> <usuarios> <segundos> <etiqueta> [pausa en ms]}.
+ * Lo usa {@code src/benchmark/carga/comparar-modos.sh}.
+ */
+public class PruebaCarga {
+
+    private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+    private static final int TAREAS_INICIALES = 500;
+
+    public static void main(String[] args) throws Exception {
+        String url = args.length > 0 ? args[0] : "http://localhost:8080/api/taskus";
+        int usuarios = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        long segundos = args.length > 2 ? Long.parseLong(args[2]) : 60;
+        String etiqueta = args.length > 3 ? args[3] : url;
+        long pausa = args.length > 4 ? Long.parseLong(args[4]) : 0;
+
+        HttpClient cliente = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        long[] ids = sembrar(cliente, url);
+
+        // Calentamiento sin medir, y después la medición
+        ejecutar(cliente, url, ids, usuarios, pausa, Math.max(5, segundos / 6));
+        Resultado resultado = ejecutar(cliente, url, ids, usuarios, pausa, segundos);
+
+        System.out.printf("%s: %.0f peticiones/s, p50 %.2f ms, p99 %.2f ms, errores %d de %d%n",
+                etiqueta, resultado.latencias.length / (double) segundos,
+                percentil(resultado.latencias, 0.50), percentil(resultado.latencias, 0.99),
+                resultado.errores, resultado.latencias.length);
+    }
+
+    private static long[] sembrar(HttpClient cliente, String url) throws Exception {
+        long[] ids = new long[TAREAS_INICIALES];
+        for (int i = 0; i < ids.length; i++) {
+            HttpResponse<String> respuesta = cliente.send(alta(url, "Tarea de carga " + i),
+                    HttpResponse.BodyHandlers.ofString());
+            Matcher id = ID.matcher(respuesta.body());
+            if (respuesta.statusCode() != 201 || !id.find()) {
+                throw new IllegalStateException("No se pudo crear la tarea inicial: " + respuesta.statusCode());
+            }
+            ids[i] = Long.parseLong(id.group(1));
+        }
+        return ids;
+    }
+
+    private static Resultado ejecutar(HttpClient cliente, String url, long[] ids, int usuarios, long pausa,
+                                      long segundos)
+            throws InterruptedException {
+        long fin = System.nanoTime() + Duration.ofSeconds(segundos).toNanos();
+        AtomicLong errores = new AtomicLong();
+        List<long[]> porUsuario = new ArrayList<>();
+        try (ExecutorService ejecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int u = 0; u < usuarios; u++) {
+                long[][] latencias = {new long[1024]};
+                int[] cuenta = {0};
+                ejecutor.submit(() -> {
+                    ThreadLocalRandom azar = ThreadLocalRandom.current();
+                    while (System.nanoTime() < fin) {
+                        long inicio = System.nanoTime();
+                        try {
+                            int estado = cliente.send(peticion(url, ids, azar), HttpResponse.BodyHandlers.discarding())
+                                    .statusCode();
+                            if (estado >= 400) {
+                                errores.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            errores.incrementAndGet();
+                        }
+                        if (cuenta[0] == latencias[0].length) {
+                            latencias[0] = Arrays.copyOf(latencias[0], cuenta[0] * 2);
+                        }
+                        latencias[0][cuenta[0]++] = System.nanoTime() - inicio;
+                        if (pausa > 0) {
+                            try {
+                                Thread.sleep(pausa);
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                                break;
+                            }
+                        }
+                    }
+                    synchronized (porUsuario) {
+                        porUsuario.add(Arrays.copyOf(latencias[0], cuenta[0]));
+                    }
+                });
+            }
+        }
+        long[] todas = porUsuario.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        return new Resultado(todas, errores.get());
+    }
+
+    private static HttpRequest peticion(String url, long[] ids, ThreadLocalRandom azar) {
+        int tipo = azar.nextInt(10);
+        long id = ids[azar.nextInt(ids.length)];
+        if (tipo < 6) {
+            return HttpRequest.newBuilder(URI.create(url + "?limit=20&after=" + (id - 1))).GET().build();
+        }
+        if (tipo < 8) {
+            return HttpRequest.newBuilder(URI.create(url + "/" + id)).GET().build();
+        }
+        if (tipo < 9) {
+            return alta(url, "Tarea de carga");
+        }
+        return HttpRequest.newBuilder(URI.create(url + "/" + id + "/completar?completada=" + azar.nextBoolean()))
+                .method("PATCH", HttpRequest.BodyPublishers.noBody())
+                .build();
+    }
+
+    private static HttpRequest alta(String url, String titulo) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"titulo\":\"" + titulo + "\",\"descripcion\":\"Generada por la prueba de carga\"}"))
+                .build();
+    }
+
+    private static double percentil(long[] ordenadas, double percentil) {
+        if (ordenadas.length == 0) {
+            return 0;
+        }
+        int indice = (int) Math.ceil(percentil * ordenadas.length) - 1;
+        return ordenadas[Math.max(indice, 0)] / 1_000_000.0;
+    }
+
+    private record Resultado(long[] latencias, long errores) {
+    }
+}
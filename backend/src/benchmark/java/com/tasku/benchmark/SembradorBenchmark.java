@@ -0,0 +1,65 @@
+package com.tasku.benchmark;
+
+import com.tasku.cache.TaskuCache;
+import com.tasku.indice.IndiceEstados;
+import com.tasku.search.BuscadorMemoria;
+import com.tasku.service.ContadoresTaskus;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.persistence.EntityManager;
+import org.jboss.logging.Logger;
+
+/**
+ * Llena la tabla taskus de H2 con {@code filas} tareas generadas en la propia
+ * base de datos, en bloques de un millón de filas por transacción. Un tercio de
+ * las tareas queda completada.
+ */
+public final class SembradorBenchmark {
+
+    private static final Logger LOG = Logger.getLogger(SembradorBenchmark.class);
+    private static final long FILAS_POR_BLOQUE = 1_000_000;
+
+    private static long filasSembradas = -1;
+
+    private SembradorBenchmark() {
+    }
+
+    public static synchronized void sembrar(long filas) {
+        if (filasSembradas == filas) {
+            return;
+        }
+        long inicio = System.nanoTime();
+        EntityManager entityManager = ContextoBenchmark.bean(EntityManager.class);
+        QuarkusTransaction.requiringNew().run(() ->
+                entityManager.createNativeQuery("TRUNCATE TABLE taskus").executeUpdate());
+        for (long desde = 1; desde <= filas; desde += FILAS_POR_BLOQUE) {
+            long hasta = Math.min(desde + FILAS_POR_BLOQUE - 1, filas);
+            long primera = desde;
+            QuarkusTransaction.requiringNew().run(() -> entityManager.createNativeQuery(
+                            "INSERT INTO taskus (id, titulo, descripcion, completada, fecha_creacion) "
+                                    + "SELECT X, CONCAT('Tarea ', X), CONCAT('Descripción de la tarea ', X), "
+                                    + "MOD(X, 3) = 0, CURRENT_TIMESTAMP FROM SYSTEM_RANGE(?1, ?2)")
+                    .setParameter(1, primera)
+                    .setParameter(2, hasta)
+                    .executeUpdate());
+        }
+        QuarkusTransaction.requiringNew().run(() -> entityManager.createNativeQuery(
+                "ALTER SEQUENCE taskus_seq RESTART WITH " + (filas + 1)).executeUpdate());
+
+        // El estado derivado no ve las inserciones nativas: se reconstruye a mano
+        ContextoBenchmark.bean(TaskuCache.class).invalidarTodo();
+        ContextoBenchmark.bean(ContadoresTaskus.class).reconciliar();
+        ContextoBenchmark.bean(BuscadorMemoria.class).reconstruir();
+        ContextoBenchmark.bean(IndiceEstados.class).reconstruir();
+
+        filasSembradas = filas;
+        LOG.infof("Sembradas %d tareas en %d ms", filas, (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    /**
+     * Las mediciones que insertan filas cambian el tamaño de la tabla; la
+     * siguiente siembra vuelve a empezar desde cero.
+     */
+    public static synchronized void invalidar() {
+        filasSembradas = -1;
+    }
+}
@@ -0,0 +1,91 @@
+package com.tasku.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tasku.dto.TaskuParcial;
+import com.tasku.json.EscritorJsonTaskus;
+import com.tasku.model.Tasku;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Serialización de una página de tareas: las entidades completas y el resumen
+ * sin descripción que escribe ahora {@code GET /api/taskus}, con el ObjectMapper
+ * de la aplicación y con {@link EscritorJsonTaskus}, que produce los mismos
+ * bytes. Con {@code -Dtasku.bench.gc=true} se ve también la asignación por
+ * página; el tamaño de cada página se imprime al preparar.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SerializacionBenchmark {
+
+    @Param({"100", "1000"})
+    int tamano;
+
+    ObjectMapper objectMapper;
+    List<Tasku> taskus;
+    List<TaskuParcial> resumen;
+
+    @Setup(Level.Trial)
+    public void preparar() throws IOException {
+        objectMapper = ContextoBenchmark.bean(ObjectMapper.class);
+        taskus = new ArrayList<>(tamano);
+        for (int i = 0; i < tamano; i++) {
+            Tasku tasku = new Tasku("Tarea " + i, "Descripción de la tarea " + i);
+            tasku.setId((long) i + 1);
+            tasku.setCompletada(i % 3 == 0);
+            taskus.add(tasku);
+        }
+        resumen = new ArrayList<>(tamano);
+        for (Tasku tasku : taskus) {
+            resumen.add(new TaskuParcial(TaskuParcial.RESUMEN, tasku.getId(), tasku.getTitulo(), null,
+                    tasku.getCompletada(), tasku.getFechaCreacion(), tasku.getFechaActualizacion()));
+        }
+        System.out.printf("Bytes por página de %d: completa %d, resumen %d%n", tamano,
+                objectMapper.writeValueAsBytes(taskus).length, objectMapper.writeValueAsBytes(resumen).length);
+    }
+
+    @Benchmark
+    public void jackson() throws IOException {
+        objectMapper.writeValue(OutputStream.nullOutputStream(), taskus);
+    }
+
+    @Benchmark
+    public void jacksonResumen() throws IOException {
+        objectMapper.writeValue(OutputStream.nullOutputStream(), resumen);
+    }
+
+    @Benchmark
+    public void escritor() throws IOException {
+        EscritorJsonTaskus escritor = new EscritorJsonTaskus(OutputStream.nullOutputStream());
+        escritor.inicioLista();
+        for (Tasku tasku : taskus) {
+            escritor.escribir(tasku);
+        }
+        escritor.finLista();
+        escritor.flush();
+    }
+
+    @Benchmark
+    public void escritorResumen() throws IOException {
+        EscritorJsonTaskus escritor = new EscritorJsonTaskus(OutputStream.nullOutputStream());
+        escritor.inicioLista();
+        for (TaskuParcial tasku : resumen) {
+            escritor.escribir(tasku);
+        }
+        escritor.finLista();
+        escritor.flush();
+    }
+}
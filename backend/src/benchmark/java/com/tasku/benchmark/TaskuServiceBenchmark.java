@@ -0,0 +1,87 @@
+package com.tasku.benchmark;
+
+import com.tasku.dto.EstadisticasTaskus;
+import com.tasku.dto.TaskuParcial;
+import com.tasku.model.Tasku;
+import com.tasku.repository.ConsultaTaskus;
+import com.tasku.service.TaskuService;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TaskuServiceBenchmark {
+
+    @Param({"10000"})
+    long filas;
+
+    TaskuService service;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        service = ContextoBenchmark.bean(TaskuService.class);
+        SembradorBenchmark.sembrar(filas);
+    }
+
+    @TearDown(Level.Trial)
+    public void terminar() {
+        // crear() agrega filas a la tabla sembrada
+        SembradorBenchmark.invalidar();
+    }
+
+    @Benchmark
+    public Tasku crear() {
+        return service.crear(new Tasku("Tarea de benchmark", "Descripción de benchmark"));
+    }
+
+    @Benchmark
+    public Optional<Tasku> obtenerPorId() {
+        long id = ThreadLocalRandom.current().nextLong(1, filas + 1);
+        return ContextoBenchmark.enPeticion(() -> service.obtenerPorId(id));
+    }
+
+    @Benchmark
+    public List<Tasku> obtenerPaginaPendientes() {
+        return ContextoBenchmark.enPeticion(() -> service.obtenerPagina(false, null, null, 100));
+    }
+
+    @Benchmark
+    public List<TaskuParcial> obtenerResumenPendientes() {
+        // La misma página que obtenerPaginaPendientes, con la proyección por defecto del listado
+        return ContextoBenchmark.enPeticion(() -> service.obtenerPagina(
+                ConsultaTaskus.porEstadoYTitulo(false, null, null, 100), TaskuParcial.RESUMEN));
+    }
+
+    @Benchmark
+    public List<Tasku> obtenerPaginaPorTitulo() {
+        return ContextoBenchmark.enPeticion(() -> service.obtenerPagina(null, "tarea 99", null, 100));
+    }
+
+    @Benchmark
+    public List<Tasku> buscar() {
+        return ContextoBenchmark.enPeticion(() -> service.buscar("tarea 99", 0, 20));
+    }
+
+    @Benchmark
+    public long contarEnBaseDeDatos() {
+        return ContextoBenchmark.enPeticion(() -> service.contarCompletadas() + service.contarPendientes());
+    }
+
+    @Benchmark
+    public EstadisticasTaskus obtenerEstadisticas() {
+        return service.obtenerEstadisticas();
+    }
+}
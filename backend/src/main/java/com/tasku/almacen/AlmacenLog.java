@@ -0,0 +1,601 @@
+package com.tasku.almacen;
+
+import com.tasku.dto.TaskuParcial;
+import com.tasku.model.RegistroCambio;
+import com.tasku.model.Tasku;
+import com.tasku.repository.ConsultaTaskus;
+import com.tasku.repository.RegistroCambioRepository;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Typed;
+import jakarta.inject.Inject;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Almacén de tareas en proceso: todas las tareas en un {@link IndiceTaskus} y
+ * cada escritura añadida a un {@link ArchivoLog} en
+ * {@code tasku.almacen.log.directorio}, forzada a disco antes de volver si
+ * {@code tasku.almacen.log.sincronizar}. Al arrancar se reconstruye el índice
+ * leyendo el log; una escritura que una caída dejó a medias se descarta. Cada
+ * {@code tasku.almacen.log.compactacion}, si los registros que ya no cuentan
+ * superan a las tareas vivas, el log se reescribe con una tarea por registro.
+ *
+ * <p>Las consultas se evalúan en memoria con la misma semántica que las
+ * sentencias de {@link com.tasku.repository.TaskuRepository}; el orden por
+ * id usa la búsqueda binaria del índice y los demás ordenan lo que filtran.
+ * Devuelve siempre copias: las tareas del índice no se modifican.
+ *
+ * <p>Las escrituras se hacen en el acto y no esperan a la transacción JTA en
+ * curso; si esta no se confirma, se deshacen al terminar. Cargar una tarea
+ * para actualizarla no la bloquea: {@link #guardarCambios} y {@link #eliminar}
+ * comprueban su versión, como el bloqueo optimista de Hibernate.
+ *
+ * <p>Solo las tareas salen de la base de datos. El registro de cambios, que
+ * tiene que confirmarse con la misma transacción que la escritura, y las
+ * claves de idempotencia siguen en ella, así que la aplicación necesita su
+ * datasource también con este almacén. La importación no está disponible:
+ * confirma su punto de control en la misma transacción que cada lote.
+ */
+@ApplicationScoped
+@Typed(AlmacenLog.class)
+public class AlmacenLog implements AlmacenTaskus {
+
+    private static final Logger LOG = Logger.getLogger(AlmacenLog.class);
+
+    static final String ARCHIVO = "taskus.log";
+
+    // Registros muertos por debajo de los que no compensa compactar
+    private static final int MINIMO_MUERTOS = 1000;
+
+    // Tareas que se seleccionan de cada vez bajo el cerrojo al recorrer
+    static final int LOTE = 500;
+
+    @ConfigProperty(name = "tasku.almacen.motor", defaultValue = MOTOR_JDBC)
+    String motor;
+
+    @ConfigProperty(name = "tasku.almacen.log.directorio", defaultValue = "data")
+    String directorio;
+
+    @ConfigProperty(name = "tasku.almacen.log.sincronizar", defaultValue = "true")
+    boolean sincronizar;
+
+    // Sin él (fuera de la aplicación) las escrituras no se deshacen con la transacción
+    @Inject
+    TransactionSynchronizationRegistry transacciones;
+
+    // Sin él (fuera de la aplicación) no hay cambios registrados que contar
+    @Inject
+    RegistroCambioRepository registro;
+
+    private final ReentrantReadWriteLock cerrojo = new ReentrantReadWriteLock();
+    private final IndiceTaskus indice = new IndiceTaskus();
+    private Path ruta;
+    private ArchivoLog archivo;
+    private long siguienteId = 1;
+    private long ultimaTransaccion;
+    // Transacciones con escrituras que aún no han terminado
+    private int abiertas;
+    // Registros del log, vivos o no
+    private long registros;
+
+    @PostConstruct
+    void iniciar() {
+        if (MOTOR_LOG.equals(motor)) {
+            abrir(Path.of(directorio));
+        }
+    }
+
+    /**
+     * Abre el log de {@code carpeta} fuera de la aplicación, para herramientas
+     * y benchmarks. Sus escrituras no se deshacen con ninguna transacción.
+     */
+    public static AlmacenLog abrir(Path carpeta, boolean sincronizar) {
+        AlmacenLog almacen = new AlmacenLog();
+        almacen.sincronizar = sincronizar;
+        almacen.abrir(carpeta);
+        return almacen;
+    }
+
+    void abrir(Path carpeta) {
+        try {
+            Files.createDirectories(carpeta);
+            ruta = carpeta.resolve(ARCHIVO);
+            ArchivoLog.descartarReescritura(ruta);
+            archivo = ArchivoLog.abrir(ruta, new ArchivoLog.Lector() {
+                @Override
+                public void escrita(Tasku tasku) {
+                    indice.poner(tasku);
+                    siguienteId = Math.max(siguienteId, tasku.getId() + 1);
+                    registros++;
+                }
+
+                @Override
+                public void eliminada(long id) {
+                    indice.quitar(id);
+                    registros++;
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se ha podido abrir el log de tareas en " + carpeta, e);
+        }
+        siguienteId = Math.max(siguienteId, archivo.primerIdLibre());
+        ultimaTransaccion = archivo.ultimaTransaccion();
+        if (archivo.descartados() > 0) {
+            LOG.warnf("Descartados %d bytes de una escritura incompleta al final del log de tareas",
+                    archivo.descartados());
+        }
+        LOG.infof("Log de tareas %s abierto con %d tareas en %d registros", ruta, indice.vivas(), registros);
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        cerrojo.writeLock().lock();
+        try {
+            if (archivo != null) {
+                archivo.close();
+                archivo = null;
+            }
+        } catch (IOException e) {
+            LOG.warnf("No se ha podido cerrar el log de tareas: %s", e.getMessage());
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Tasku> listarTodas() {
+        return leer(() -> {
+            List<Tasku> taskus = new ArrayList<>(indice.vivas());
+            indice.paraCada(tasku -> taskus.add(tasku.copiar()));
+            return taskus;
+        });
+    }
+
+    @Override
+    public List<Tasku> buscarPorCompletada(Boolean completada) {
+        if (completada == null) {
+            return List.of();
+        }
+        return listar(ConsultaTaskus.porEstadoYTitulo(completada, null, null, null));
+    }
+
+    @Override
+    public List<Tasku> buscarPorTitulo(String titulo) {
+        return listar(ConsultaTaskus.porEstadoYTitulo(null, titulo, null, null));
+    }
+
+    @Override
+    public Optional<Tasku> buscarPorId(Long id) {
+        return leer(() -> Optional.ofNullable(id == null ? null : indice.obtener(id)).map(Tasku::copiar));
+    }
+
+    @Override
+    public List<Tasku> buscarPorIds(List<Long> ids) {
+        return leer(() -> {
+            List<Tasku> taskus = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                Tasku tasku = indice.obtener(id);
+                if (tasku != null) {
+                    taskus.add(tasku.copiar());
+                }
+            }
+            return taskus;
+        });
+    }
+
+    @Override
+    public List<Tasku> listar(ConsultaTaskus consulta) {
+        List<Tasku> taskus = new ArrayList<>();
+        recorrer(consulta, taskus::add);
+        return taskus;
+    }
+
+    @Override
+    public List<TaskuParcial> listar(ConsultaTaskus consulta, Set<TaskuParcial.Campo> campos) {
+        List<TaskuParcial> taskus = new ArrayList<>();
+        recorrerCampos(consulta, campos, taskus::add);
+        return taskus;
+    }
+
+    @Override
+    public List<TaskuParcial> listarEntreIds(ConsultaTaskus consulta, List<Long> ids,
+                                             Set<TaskuParcial.Campo> campos) {
+        Set<TaskuParcial.Campo> columnas = consulta.columnas(campos);
+        return leer(() -> {
+            List<TaskuParcial> taskus = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                Tasku tasku = indice.obtener(id);
+                if (tasku != null && consulta.admite(tasku)) {
+                    taskus.add(TaskuParcial.de(campos, columnas, tasku));
+                }
+            }
+            return taskus;
+        });
+    }
+
+    /**
+     * La selección se hace por lotes, cada uno bajo el cerrojo, y se entrega
+     * fuera de él, así ni un consumidor lento ni un recorrido de todo el
+     * almacén frenan las escrituras. Solo se guardan referencias: las tareas
+     * del índice no se modifican, se sustituyen.
+     */
+    @Override
+    public void recorrer(ConsultaTaskus consulta, Consumer<Tasku> consumidor) {
+        seleccionar(consulta, tasku -> consumidor.accept(tasku.copiar()));
+    }
+
+    @Override
+    public void recorrerCampos(ConsultaTaskus consulta, Set<TaskuParcial.Campo> campos,
+                               Consumer<TaskuParcial> consumidor) {
+        Set<TaskuParcial.Campo> columnas = consulta.columnas(campos);
+        seleccionar(consulta, tasku -> consumidor.accept(TaskuParcial.de(campos, columnas, tasku)));
+    }
+
+    @Override
+    public List<Long> listarIds(ConsultaTaskus consulta) {
+        List<Long> ids = new ArrayList<>();
+        seleccionar(consulta, tasku -> ids.add(tasku.getId()));
+        return ids;
+    }
+
+    @Override
+    public Optional<LocalDateTime> buscarModificacion(Long id) {
+        return leer(() -> Optional.ofNullable(indice.obtener(id)).map(Tasku::modificadaEn));
+    }
+
+    /**
+     * No bloquea la tarea: el conflicto lo detecta {@link #guardarCambios} por la versión.
+     */
+    @Override
+    public Optional<Tasku> buscarPorIdParaActualizar(Long id) {
+        return buscarPorId(id);
+    }
+
+    @Override
+    public Tasku guardar(Tasku tasku) {
+        return escribir(() -> {
+            tasku.setId(siguienteId++);
+            tasku.setVersion(0L);
+            poner(tasku.copiar(), anotar(tasku.getId(), null, 0L));
+            return tasku;
+        });
+    }
+
+    /**
+     * No escribe nada si la tarea no ha cambiado, como Hibernate con una
+     * entidad gestionada sin cambios.
+     */
+    @Override
+    public void guardarCambios(Tasku tasku) {
+        escribir(() -> {
+            Tasku actual = vigente(tasku);
+            if (Objects.equals(actual.getTitulo(), tasku.getTitulo())
+                    && Objects.equals(actual.getDescripcion(), tasku.getDescripcion())
+                    && Objects.equals(actual.getCompletada(), tasku.getCompletada())
+                    && Objects.equals(actual.getFechaActualizacion(), tasku.getFechaActualizacion())) {
+                return null;
+            }
+            tasku.setFechaActualizacion(Tasku.ahora());
+            tasku.setVersion(actual.getVersion() + 1);
+            poner(tasku.copiar(), anotar(tasku.getId(), actual, tasku.getVersion()));
+            return null;
+        });
+    }
+
+    @Override
+    public Optional<Actualizacion> actualizarDirecto(Long id, String titulo, String descripcion,
+                                                    Boolean completada) {
+        return escribir(() -> {
+            Tasku actual = indice.obtener(id);
+            if (actual == null) {
+                return Optional.empty();
+            }
+            Tasku cambiada = actual.copiar();
+            if (titulo != null) {
+                cambiada.setTitulo(titulo);
+            }
+            if (descripcion != null) {
+                cambiada.setDescripcion(descripcion);
+            }
+            if (completada != null) {
+                cambiada.setCompletada(completada);
+            }
+            cambiada.setFechaActualizacion(Tasku.ahora());
+            cambiada.setVersion(actual.getVersion() + 1);
+            poner(cambiada, anotar(id, actual, cambiada.getVersion()));
+            return Optional.of(new Actualizacion(cambiada.copiar(), actual.getCompletada()));
+        });
+    }
+
+    @Override
+    public List<Tasku> completar(List<Long> ids) {
+        return escribir(() -> {
+            LocalDateTime ahora = Tasku.ahora();
+            List<Tasku> cambiadas = new ArrayList<>();
+            for (Long id : ids) {
+                Tasku actual = indice.obtener(id);
+                if (actual == null || Boolean.TRUE.equals(actual.getCompletada())) {
+                    continue;
+                }
+                Tasku cambiada = actual.copiar();
+                cambiada.setCompletada(true);
+                cambiada.setFechaActualizacion(ahora);
+                cambiada.setVersion(actual.getVersion() + 1);
+                poner(cambiada, anotar(id, actual, cambiada.getVersion()));
+                cambiadas.add(cambiada.copiar());
+            }
+            return cambiadas;
+        });
+    }
+
+    @Override
+    public Optional<Tasku> eliminarPorId(Long id) {
+        return escribir(() -> {
+            Tasku actual = indice.obtener(id);
+            if (actual == null) {
+                return Optional.empty();
+            }
+            quitar(id, anotar(id, actual, null));
+            return Optional.of(actual.copiar());
+        });
+    }
+
+    @Override
+    public void eliminar(Tasku tasku) {
+        escribir(() -> {
+            Tasku actual = vigente(tasku);
+            quitar(tasku.getId(), anotar(tasku.getId(), actual, null));
+            return null;
+        });
+    }
+
+    @Override
+    public long contarPorCompletada(boolean completada) {
+        return leer(() -> (long) (completada ? indice.completadas() : indice.vivas() - indice.completadas()));
+    }
+
+    /**
+     * Las tareas en memoria y el resto del registro de cambios, que sigue en la
+     * base de datos. Con log no hay otros nodos: sin escrituras a medias, que
+     * espera {@link com.tasku.service.ContadoresTaskus}, las dos lecturas ven lo
+     * mismo.
+     */
+    @Override
+    public Resumen contarResumen(LocalDateTime inicio, List<RegistroCambio.Tramo> sinEntregar) {
+        long[] totales = leer(() -> new long[]{indice.completadas(), indice.vivas() - indice.completadas()});
+        if (registro == null) {
+            return new Resumen(totales[0], totales[1], 0, 0, Set.of());
+        }
+        RegistroCambioRepository.Recuento recuento = registro.contarResumen(inicio, sinEntregar, List.of());
+        return new Resumen(totales[0], totales[1], recuento.valores()[0], recuento.valores()[1],
+                recuento.sinEntregar());
+    }
+
+    @Scheduled(every = "{tasku.almacen.log.compactacion}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void compactarSiCompensa() {
+        boolean compensa = leer(() -> archivo != null
+                && registros - indice.vivas() > Math.max(MINIMO_MUERTOS, indice.vivas()));
+        if (compensa) {
+            compactar();
+        }
+    }
+
+    /**
+     * Reescribe el log con un registro por tarea viva. Las escrituras esperan
+     * mientras tanto; las lecturas también, porque el archivo cambia. Con
+     * transacciones abiertas no se compacta: el índice tiene escrituras suyas
+     * que la reescritura daría por confirmadas.
+     */
+    void compactar() {
+        escribir(() -> {
+            if (abiertas > 0) {
+                LOG.debugf("Compactación del log de tareas aplazada por %d transacciones abiertas", abiertas);
+                return null;
+            }
+            List<Tasku> vivas = new ArrayList<>(indice.vivas());
+            indice.paraCada(vivas::add);
+            long antes = registros;
+            try {
+                ArchivoLog.reescribir(ruta, siguienteId, vivas);
+                archivo.close();
+                archivo = ArchivoLog.abrir(ruta, null);
+            } catch (IOException e) {
+                throw new UncheckedIOException("No se ha podido compactar el log de tareas", e);
+            }
+            registros = vivas.size();
+            LOG.infof("Log de tareas compactado de %d a %d registros", antes, registros);
+            return null;
+        });
+    }
+
+    /**
+     * Tamaño en bytes de lo escrito en el log.
+     */
+    long tamanoLog() {
+        return leer(() -> (long) archivo.tamano());
+    }
+
+    /**
+     * Entrega las tareas de la consulta en su orden, las del índice sin copiar.
+     * El índice se lee en orden de id, de {@link #LOTE} en {@link #LOTE} tareas
+     * que cumplen los filtros, cada lote bajo el cerrojo y siguiendo después
+     * del último id del anterior. Con una sola clave de orden, que siempre es
+     * el id, cada lote se entrega según llega hasta completar el límite; con
+     * otras se juntan todos, se ordenan y se entregan los del límite. Un
+     * recorrido no es una foto del almacén: ve lo que se escribe entre lotes.
+     */
+    private void seleccionar(ConsultaTaskus consulta, Consumer<Tasku> entrega) {
+        int limite = consulta.limite() != null ? consulta.limite() : Integer.MAX_VALUE;
+        List<ConsultaTaskus.Orden> orden = consulta.orden();
+        if (orden.size() == 1) {
+            Long despuesDe = consulta.cursor().isEmpty() ? null : (Long) consulta.cursor().get(0);
+            boolean descendente = orden.get(0).descendente();
+            int restantes = limite;
+            while (restantes > 0) {
+                int pedidas = Math.min(LOTE, restantes);
+                Long desde = despuesDe;
+                List<Tasku> lote = leer(() -> indice.porId(desde, descendente, consulta::admite, pedidas));
+                lote.forEach(entrega);
+                if (lote.size() < pedidas) {
+                    return;
+                }
+                despuesDe = lote.get(lote.size() - 1).getId();
+                restantes -= lote.size();
+            }
+            return;
+        }
+        List<Tasku> admitidas = new ArrayList<>();
+        Long despuesDe = null;
+        while (true) {
+            Long desde = despuesDe;
+            List<Tasku> lote = leer(() -> indice.porId(desde, false, consulta::admite, LOTE));
+            admitidas.addAll(lote);
+            if (lote.size() < LOTE) {
+                break;
+            }
+            despuesDe = lote.get(lote.size() - 1).getId();
+        }
+        admitidas.sort(consulta.comparador());
+        (admitidas.size() > limite ? admitidas.subList(0, limite) : admitidas).forEach(entrega);
+    }
+
+    private Tasku vigente(Tasku tasku) {
+        Tasku actual = indice.obtener(tasku.getId());
+        if (actual == null || !Objects.equals(actual.getVersion(), tasku.getVersion())) {
+            throw new OptimisticLockException("La tarea " + tasku.getId() + " cambió después de cargarla");
+        }
+        return actual;
+    }
+
+    private void poner(Tasku tasku, long transaccion) {
+        archivo.escribir(tasku, transaccion);
+        indice.poner(tasku);
+        registros++;
+    }
+
+    private void quitar(long id, long transaccion) {
+        archivo.eliminar(id, transaccion);
+        indice.quitar(id);
+        registros++;
+    }
+
+    /**
+     * Recuerda cómo estaba la tarea antes de escribirla dentro de una
+     * transacción, para deshacerlo si no se confirma, y devuelve el número con
+     * que se escribe en el log, cero fuera de una transacción.
+     * {@code versionEscrita} es la que deja la escritura, o null si la elimina.
+     */
+    private long anotar(long id, Tasku anterior, Long versionEscrita) {
+        if (transacciones == null || transacciones.getTransactionKey() == null) {
+            return 0;
+        }
+        EnTransaccion escrituras = (EnTransaccion) transacciones.getResource(EnTransaccion.class);
+        if (escrituras == null) {
+            escrituras = new EnTransaccion(++ultimaTransaccion);
+            transacciones.putResource(EnTransaccion.class, escrituras);
+            transacciones.registerInterposedSynchronization(escrituras);
+            abiertas++;
+        }
+        escrituras.anteriores.push(new Anterior(id, anterior, versionEscrita));
+        return escrituras.numero;
+    }
+
+    private <T> T leer(Supplier<T> lectura) {
+        cerrojo.readLock().lock();
+        try {
+            return lectura.get();
+        } finally {
+            cerrojo.readLock().unlock();
+        }
+    }
+
+    private <T> T escribir(Supplier<T> escritura) {
+        cerrojo.writeLock().lock();
+        try {
+            T resultado = escritura.get();
+            if (sincronizar) {
+                archivo.forzar();
+            }
+            return resultado;
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Las escrituras de una transacción. Antes del commit escribe en el log que
+     * está confirmada; sin ese registro, al abrir el log se saltan. Si la
+     * transacción no se confirma deshace en memoria sus escrituras de la última
+     * a la primera, y lo escribe como registros sueltos por si ya estaba
+     * confirmada en el log. Una tarea que otra escritura cambió después se deja
+     * como está.
+     */
+    private final class EnTransaccion implements Synchronization {
+
+        private final long numero;
+        private final Deque<Anterior> anteriores = new ArrayDeque<>();
+
+        private EnTransaccion(long numero) {
+            this.numero = numero;
+        }
+
+        @Override
+        public void beforeCompletion() {
+            escribir(() -> {
+                archivo.confirmar(numero);
+                return null;
+            });
+        }
+
+        @Override
+        public void afterCompletion(int estado) {
+            escribir(() -> {
+                abiertas--;
+                if (estado != Status.STATUS_COMMITTED) {
+                    for (Anterior anterior : anteriores) {
+                        restaurar(anterior);
+                    }
+                }
+                return null;
+            });
+        }
+
+        private void restaurar(Anterior anterior) {
+            Tasku actual = indice.obtener(anterior.id());
+            if (!Objects.equals(actual != null ? actual.getVersion() : null, anterior.versionEscrita())) {
+                return;
+            }
+            if (anterior.tasku() == null) {
+                quitar(anterior.id(), 0);
+                return;
+            }
+            // También la versión: la escritura anterior de la misma transacción la espera así
+            poner(anterior.tasku().copiar(), 0);
+        }
+    }
+
+    private record Anterior(long id, Tasku tasku, Long versionEscrita) {
+    }
+}
@@ -0,0 +1,184 @@
+package com.tasku.almacen;
+
+import com.tasku.dto.TaskuParcial;
+import com.tasku.model.RegistroCambio;
+import com.tasku.model.Tasku;
+import com.tasku.repository.ConsultaTaskus;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Dónde se guardan las tareas de la pila bloqueante. {@link com.tasku.repository.TaskuRepository}
+ * las guarda en la base de datos con Hibernate; {@link AlmacenLog} en proceso,
+ * con índices en memoria y un log en disco. Solo cambia dónde están las tareas:
+ * el registro de cambios y las claves de idempotencia siguen en la base de
+ * datos con los dos. {@link ConfiguracionAlmacen} elige uno con
+ * {@code tasku.almacen.motor}.
+ *
+ * <p>Las tareas que se cargan para escribirlas ({@link #buscarPorIdParaActualizar},
+ * {@link #buscarPorIds}) se cambian en el objeto y se entregan con
+ * {@link #guardarCambios} o {@link #eliminar}; con Hibernate son entidades
+ * gestionadas y esas llamadas no hacen nada que no hiciera ya el commit.
+ */
+public interface AlmacenTaskus {
+
+    String MOTOR_JDBC = "jdbc";
+    String MOTOR_LOG = "log";
+
+    List<Tasku> listarTodas();
+
+    /**
+     * Tareas con ese estado en orden de id; ninguna si el estado es nulo.
+     */
+    List<Tasku> buscarPorCompletada(Boolean completada);
+
+    /**
+     * Tareas cuyo título contiene {@code titulo}, sin distinguir mayúsculas.
+     */
+    List<Tasku> buscarPorTitulo(String titulo);
+
+    Optional<Tasku> buscarPorId(Long id);
+
+    /**
+     * Las tareas de {@code ids} que existen, en cualquier orden, listas para
+     * cambiarlas y entregarlas con {@link #guardarCambios} o {@link #eliminar}.
+     */
+    List<Tasku> buscarPorIds(List<Long> ids);
+
+    /**
+     * Devuelve como máximo {@code limite} tareas con id mayor que {@code despuesDe},
+     * ordenadas por id.
+     */
+    default List<Tasku> listarPagina(Boolean completada, String titulo, Long despuesDe, int limite) {
+        return listar(ConsultaTaskus.porEstadoYTitulo(completada, titulo, despuesDe, limite));
+    }
+
+    /**
+     * Página de la consulta: como máximo {@link ConsultaTaskus#limite()} tareas
+     * a partir de su cursor, en su orden.
+     */
+    List<Tasku> listar(ConsultaTaskus consulta);
+
+    /**
+     * Página de la consulta con solo {@code campos} y las claves de orden, que
+     * hacen falta para el cursor.
+     */
+    List<TaskuParcial> listar(ConsultaTaskus consulta, Set<TaskuParcial.Campo> campos);
+
+    /**
+     * Las tareas de {@code ids} que cumplen la consulta, en su orden y con la
+     * proyección de {@link #listar(ConsultaTaskus, Set)}: la página de una
+     * consulta cuyos ids ya se conocen, como los del índice de estados.
+     */
+    List<TaskuParcial> listarEntreIds(ConsultaTaskus consulta, List<Long> ids, Set<TaskuParcial.Campo> campos);
+
+    default void recorrer(Boolean completada, String titulo, Consumer<Tasku> consumidor) {
+        recorrer(ConsultaTaskus.porEstadoYTitulo(completada, titulo, null, null), consumidor);
+    }
+
+    /**
+     * Entrega una a una todas las tareas que cumplen la consulta, sin límite y
+     * sin que la memoria usada crezca con el tamaño del resultado.
+     */
+    void recorrer(ConsultaTaskus consulta, Consumer<Tasku> consumidor);
+
+    /**
+     * Como {@link #recorrer(ConsultaTaskus, Consumer)}, con la proyección de
+     * {@link #listar(ConsultaTaskus, Set)}.
+     */
+    void recorrerCampos(ConsultaTaskus consulta, Set<TaskuParcial.Campo> campos, Consumer<TaskuParcial> consumidor);
+
+    /**
+     * Ids de la página de la consulta, en su orden, sin cargar las tareas.
+     */
+    List<Long> listarIds(ConsultaTaskus consulta);
+
+    /**
+     * Momento de la última escritura de la tarea, sin cargarla entera.
+     */
+    Optional<LocalDateTime> buscarModificacion(Long id);
+
+    /**
+     * Carga la tarea para cambiarla: nadie más puede escribirla hasta el final
+     * de la transacción, o bien {@link #guardarCambios} falla si alguien lo hizo.
+     */
+    Optional<Tasku> buscarPorIdParaActualizar(Long id);
+
+    /**
+     * Da de alta la tarea y le asigna el id.
+     */
+    Tasku guardar(Tasku tasku);
+
+    /**
+     * Escribe lo que ha cambiado en una tarea cargada de este almacén, con la
+     * fecha de actualización y la versión siguiente. Lanza
+     * {@link jakarta.persistence.OptimisticLockException} si otra escritura la
+     * cambió después de cargarla.
+     */
+    void guardarCambios(Tasku tasku);
+
+    /**
+     * Cambia la tarea sin cargarla antes: escribe los valores no nulos, la
+     * fecha de actualización y la versión siguiente, y devuelve la tarea tal
+     * como queda con el estado que tenía antes. Vacío si no hay tarea con ese id.
+     */
+    Optional<Actualizacion> actualizarDirecto(Long id, String titulo, String descripcion, Boolean completada);
+
+    /**
+     * Marca como completadas las tareas pendientes de {@code ids} y devuelve
+     * las que cambiaron, tal como quedan.
+     */
+    List<Tasku> completar(List<Long> ids);
+
+    /**
+     * Elimina la tarea y la devuelve tal como estaba, o vacío si no existía.
+     */
+    Optional<Tasku> eliminarPorId(Long id);
+
+    /**
+     * Elimina una tarea cargada de este almacén, con la misma comprobación de
+     * versión que {@link #guardarCambios}.
+     */
+    void eliminar(Tasku tasku);
+
+    long contarPorCompletada(boolean completada);
+
+    /**
+     * Cuenta sobre una misma instantánea las tareas completadas y pendientes, y
+     * las creadas y completadas según los cambios registrados desde
+     * {@code inicio}. Devuelve también las secuencias de {@code sinEntregar} que
+     * ya se ven en esa instantánea, para no aplicar otra vez sus cambios cuando
+     * se entreguen.
+     */
+    Resumen contarResumen(LocalDateTime inicio, List<RegistroCambio.Tramo> sinEntregar);
+
+    /**
+     * Escribe ya lo pendiente de la transacción, para que los errores salgan aquí
+     * y no al confirmar. Los almacenes que escriben en cada llamada no hacen nada.
+     */
+    default void escribirPendientes() {
+    }
+
+    /**
+     * Suelta las tareas cargadas hasta ahora, que quien llama ya no va a usar.
+     * Los almacenes que no guardan lo cargado no hacen nada.
+     */
+    default void liberarCargadas() {
+    }
+
+    /**
+     * Resultado de {@link #actualizarDirecto}: la tarea como queda y si estaba
+     * completada antes del cambio, que hace falta para publicarlo.
+     */
+    record Actualizacion(Tasku tasku, boolean completadaAnterior) {
+    }
+
+    /**
+     * Resultado de {@link #contarResumen}.
+     */
+    record Resumen(long completadas, long pendientes, long creadas, long completadasDesde, Set<Long> sinEntregar) {
+    }
+}
@@ -0,0 +1,528 @@
+package com.tasku.almacen;
+
+import com.tasku.model.Tasku;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.CRC32C;
+
+/**
+ * Log de solo añadir de {@link AlmacenLog}, mapeado en memoria. Empieza con una
+ * cabecera (número mágico, formato y primer id libre) y sigue con registros
+ * {@code [longitud][crc32c][tipo][datos]}: la imagen completa de una tarea
+ * escrita o el id de una eliminada.
+ *
+ * <p>Lo que se escribe dentro de una transacción va envuelto con su número
+ * ({@code [EN_TRANSACCION][número][registro]}) y solo cuenta si más adelante
+ * está su registro {@code CONFIRMADA}. Al abrirlo se entregan en su orden los
+ * registros sueltos y los de transacciones confirmadas; los de una transacción
+ * que no llegó a confirmarse, porque se deshizo o porque el proceso cayó antes,
+ * se saltan.
+ *
+ * <p>El archivo se mapea por segmentos de hasta {@link #SEGMENTO} bytes, lo más
+ * que admite un {@link MappedByteBuffer}. Ningún registro cruza de un segmento
+ * al siguiente: si no cabe en lo que queda, se marca el salto con una longitud
+ * {@code -1} (o nada si no quedan ni cuatro bytes) y va al principio del
+ * siguiente. El último segmento crece al doble cuando el siguiente registro no
+ * cabe, así que el archivo acaba en ceros. Al abrirlo, el primer registro con
+ * longitud cero, que no cabe entero o cuyo CRC no coincide marca el final: lo
+ * que haya detrás es una escritura que un fallo dejó a medias, y se borra para
+ * que el siguiente registro ocupe su sitio. No es seguro entre hilos.
+ */
+final class ArchivoLog implements Closeable {
+
+    static final byte ESCRITA = 1;
+    static final byte ELIMINADA = 2;
+    static final byte EN_TRANSACCION = 3;
+    static final byte CONFIRMADA = 4;
+
+    // "TKU1"
+    private static final int MAGICO = 0x544B5531;
+    // El 1 no tenía transacciones: se lee igual y se marca como 2 al abrirlo
+    private static final int FORMATO = 2;
+    private static final int FORMATO_SIN_TRANSACCIONES = 1;
+    private static final int CABECERA = 16;
+    private static final int CABECERA_REGISTRO = 8;
+    private static final int MAPEO_INICIAL = 1 << 20;
+    private static final int BUFFER_REESCRITURA = 1 << 16;
+    private static final int SALTO = -1;
+    // Con el mayor posible, un log de cuando se mapeaba entero es un único segmento
+    static final int SEGMENTO = Integer.MAX_VALUE;
+
+    private final FileChannel canal;
+    private final long primerIdLibre;
+    private final int segmento;
+    // Todos ocupan un segmento entero menos el último
+    private final List<MappedByteBuffer> mapas = new ArrayList<>();
+    private long fin;
+    // Inicio de lo escrito que aún no se ha forzado a disco
+    private long pendiente;
+    private long descartados;
+    private long ultimaTransaccion;
+
+    private ArchivoLog(FileChannel canal, int segmento, long primerIdLibre) {
+        this.canal = canal;
+        this.segmento = segmento;
+        this.primerIdLibre = primerIdLibre;
+    }
+
+    /**
+     * Abre el log, o lo crea si no existe, y entrega a {@code lector} cada
+     * registro válido en el orden en que se escribió. Sin lector solo lo valida.
+     */
+    static ArchivoLog abrir(Path ruta, Lector lector) throws IOException {
+        return abrir(ruta, lector, SEGMENTO);
+    }
+
+    static ArchivoLog abrir(Path ruta, Lector lector, int segmento) throws IOException {
+        FileChannel canal = FileChannel.open(ruta, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            long tamano = canal.size();
+            List<MappedByteBuffer> mapas = new ArrayList<>();
+            for (long inicio = 0; inicio == 0 || inicio < tamano; inicio += segmento) {
+                long capacidad = Math.min(segmento, Math.max(tamano - inicio, MAPEO_INICIAL));
+                mapas.add(canal.map(FileChannel.MapMode.READ_WRITE, inicio, capacidad));
+            }
+            MappedByteBuffer mapa = mapas.get(0);
+            if (tamano == 0) {
+                mapa.putInt(0, MAGICO).putInt(4, FORMATO).putLong(8, 1);
+                mapa.force(0, CABECERA);
+            } else if (tamano < CABECERA || mapa.getInt(0) != MAGICO
+                    || mapa.getInt(4) != FORMATO && mapa.getInt(4) != FORMATO_SIN_TRANSACCIONES) {
+                throw new IOException("No es un log de tareas de este formato: " + ruta);
+            } else if (mapa.getInt(4) != FORMATO) {
+                // Que una versión anterior no tome los registros nuevos por una escritura a medias
+                mapa.putInt(4, FORMATO);
+                mapa.force(0, CABECERA);
+            }
+            ArchivoLog archivo = new ArchivoLog(canal, segmento, mapa.getLong(8));
+            archivo.mapas.addAll(mapas);
+            archivo.recuperar(lector);
+            return archivo;
+        } catch (IOException | RuntimeException e) {
+            canal.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reescribe el log con solo {@code taskus} en un archivo aparte, que
+     * sustituye al actual con un renombrado atómico cuando ya está en disco.
+     * Un fallo a mitad deja el log anterior intacto.
+     */
+    static void reescribir(Path ruta, long primerIdLibre, Iterable<Tasku> taskus) throws IOException {
+        reescribir(ruta, primerIdLibre, taskus, SEGMENTO);
+    }
+
+    static void reescribir(Path ruta, long primerIdLibre, Iterable<Tasku> taskus, int segmento)
+            throws IOException {
+        Path temporal = temporal(ruta);
+        try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer bloque = ByteBuffer.allocate(BUFFER_REESCRITURA);
+            bloque.putInt(MAGICO).putInt(FORMATO).putLong(primerIdLibre);
+            long posicion = CABECERA;
+            for (Tasku tasku : taskus) {
+                byte[] datos = codificar(tasku);
+                int total = CABECERA_REGISTRO + datos.length;
+                long resto = segmento - posicion % segmento;
+                if (total > resto) {
+                    // Salto al siguiente segmento, relleno de ceros hasta él
+                    vaciar(canal, bloque);
+                    if (resto >= 4) {
+                        bloque.putInt(SALTO);
+                    }
+                    vaciar(canal, bloque);
+                    canal.position(posicion + resto);
+                    posicion += resto;
+                }
+                if (bloque.remaining() < total) {
+                    vaciar(canal, bloque);
+                }
+                if (bloque.remaining() < total) {
+                    vaciar(canal, ByteBuffer.allocate(total).putInt(datos.length).putInt(crc(datos)).put(datos));
+                } else {
+                    bloque.putInt(datos.length).putInt(crc(datos)).put(datos);
+                }
+                posicion += total;
+            }
+            vaciar(canal, bloque);
+            canal.force(true);
+        }
+        Files.move(temporal, ruta, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        forzarDirectorio(ruta.toAbsolutePath().getParent());
+    }
+
+    /**
+     * Borra la reescritura que una compactación interrumpida dejase a medias.
+     */
+    static void descartarReescritura(Path ruta) throws IOException {
+        Files.deleteIfExists(temporal(ruta));
+    }
+
+    /**
+     * Escribe la tarea dentro de la transacción {@code transaccion}, o suelta
+     * si es cero.
+     */
+    void escribir(Tasku tasku, long transaccion) {
+        agregar(enTransaccion(codificar(tasku), transaccion));
+    }
+
+    void eliminar(long id, long transaccion) {
+        agregar(enTransaccion(ByteBuffer.allocate(9).put(ELIMINADA).putLong(id).array(), transaccion));
+    }
+
+    /**
+     * Da por buenos los registros de {@code transaccion}.
+     */
+    void confirmar(long transaccion) {
+        agregar(ByteBuffer.allocate(9).put(CONFIRMADA).putLong(transaccion).array());
+    }
+
+    /**
+     * Lleva a disco lo escrito desde la última vez. Sin esto lo escrito
+     * sobrevive a la caída del proceso, que no a la del sistema.
+     */
+    void forzar() {
+        while (pendiente < fin) {
+            int indice = (int) (pendiente / segmento);
+            int desde = (int) (pendiente % segmento);
+            int hasta = (int) Math.min(fin - (long) indice * segmento, mapas.get(indice).capacity());
+            mapas.get(indice).force(desde, hasta - desde);
+            pendiente = (long) indice * segmento + hasta;
+            if (hasta == mapas.get(indice).capacity() && pendiente < fin) {
+                pendiente = (long) (indice + 1) * segmento;
+            }
+        }
+    }
+
+    /**
+     * Primer id libre según la cabecera: el que había al compactar.
+     */
+    long primerIdLibre() {
+        return primerIdLibre;
+    }
+
+    /**
+     * Bytes de un registro a medias que se borraron al abrir.
+     */
+    long descartados() {
+        return descartados;
+    }
+
+    /**
+     * El número de transacción más alto que hay en el log, confirmada o no:
+     * los nuevos tienen que ser mayores.
+     */
+    long ultimaTransaccion() {
+        return ultimaTransaccion;
+    }
+
+    long tamano() {
+        return fin;
+    }
+
+    @Override
+    public void close() throws IOException {
+        forzar();
+        canal.close();
+    }
+
+    /**
+     * Busca el final del log validando cada registro y anotando las
+     * transacciones confirmadas; después entrega a {@code lector} lo que cuenta.
+     */
+    private void recuperar(Lector lector) {
+        Set<Long> confirmadas = new HashSet<>();
+        long posicion = CABECERA;
+        while ((posicion = saltar(posicion)) >= 0) {
+            ByteBuffer datos = registro(posicion);
+            if (datos == null || !valido(datos, confirmadas)) {
+                break;
+            }
+            posicion += CABECERA_REGISTRO + datos.capacity();
+        }
+        fin = posicion >= 0 ? posicion : -posicion - 1;
+        pendiente = fin;
+        if (lector != null) {
+            for (posicion = saltar(CABECERA); posicion >= 0 && posicion < fin;
+                 posicion = saltar(posicion + CABECERA_REGISTRO + registro(posicion).capacity())) {
+                entregar(registro(posicion), confirmadas, lector);
+            }
+        }
+
+        // Lo que haya detrás del final, en su segmento y en los siguientes
+        descartados = 0;
+        for (int indice = (int) (fin / segmento); indice < mapas.size(); indice++) {
+            MappedByteBuffer mapa = mapas.get(indice);
+            int desde = indice == fin / segmento ? (int) (fin % segmento) : 0;
+            int ultimo = mapa.capacity() - 1;
+            while (ultimo >= desde && mapa.get(ultimo) == 0) {
+                ultimo--;
+            }
+            if (ultimo >= desde) {
+                for (int i = desde; i <= ultimo; i++) {
+                    mapa.put(i, (byte) 0);
+                }
+                mapa.force(desde, ultimo - desde + 1);
+                descartados += ultimo - desde + 1;
+            }
+        }
+    }
+
+    /**
+     * La posición del registro que empieza en {@code posicion}, o en el
+     * siguiente segmento si ahí hay un salto o no cabe ni una cabecera. Si no
+     * hay registro, {@code -(final + 1)}, con el final donde iría el siguiente.
+     */
+    private long saltar(long posicion) {
+        int indice = (int) (posicion / segmento);
+        if (indice >= mapas.size()) {
+            return -posicion - 1;
+        }
+        MappedByteBuffer mapa = mapas.get(indice);
+        int dentro = (int) (posicion % segmento);
+        boolean ultimo = indice == mapas.size() - 1;
+        if (mapa.capacity() - dentro < CABECERA_REGISTRO || mapa.getInt(dentro) == SALTO) {
+            // Un segmento a medias es el último y no tiene saltos: ahí acaba el log
+            return ultimo && mapa.capacity() < segmento ? -posicion - 1 : saltar((long) (indice + 1) * segmento);
+        }
+        return posicion;
+    }
+
+    /**
+     * Los datos del registro que empieza en {@code posicion}, o null si no hay
+     * uno entero con su CRC.
+     */
+    private ByteBuffer registro(long posicion) {
+        MappedByteBuffer mapa = mapas.get((int) (posicion / segmento));
+        int dentro = (int) (posicion % segmento);
+        int longitud = mapa.getInt(dentro);
+        if (longitud <= 0 || longitud > mapa.capacity() - dentro - CABECERA_REGISTRO) {
+            return null;
+        }
+        ByteBuffer datos = mapa.slice(dentro + CABECERA_REGISTRO, longitud);
+        return crc(datos.duplicate()) == mapa.getInt(dentro + 4) ? datos : null;
+    }
+
+    private boolean valido(ByteBuffer datos, Set<Long> confirmadas) {
+        if (datos.remaining() < 1) {
+            return false;
+        }
+        byte tipo = datos.get(0);
+        if (tipo == ESCRITA || tipo == ELIMINADA) {
+            return true;
+        }
+        if (datos.remaining() < 9 || tipo != EN_TRANSACCION && tipo != CONFIRMADA) {
+            return false;
+        }
+        long transaccion = datos.getLong(1);
+        ultimaTransaccion = Math.max(ultimaTransaccion, transaccion);
+        if (tipo == CONFIRMADA) {
+            confirmadas.add(transaccion);
+            return true;
+        }
+        return datos.remaining() > 9 && (datos.get(9) == ESCRITA || datos.get(9) == ELIMINADA);
+    }
+
+    private static void entregar(ByteBuffer datos, Set<Long> confirmadas, Lector lector) {
+        byte tipo = datos.get();
+        if (tipo == CONFIRMADA || tipo == EN_TRANSACCION && !confirmadas.contains(datos.getLong())) {
+            return;
+        }
+        if (tipo == EN_TRANSACCION) {
+            tipo = datos.get();
+        }
+        if (tipo == ESCRITA) {
+            lector.escrita(decodificar(datos));
+        } else {
+            lector.eliminada(datos.getLong());
+        }
+    }
+
+    private static byte[] enTransaccion(byte[] datos, long transaccion) {
+        if (transaccion == 0) {
+            return datos;
+        }
+        return ByteBuffer.allocate(9 + datos.length).put(EN_TRANSACCION).putLong(transaccion).put(datos).array();
+    }
+
+    private void agregar(byte[] datos) {
+        int total = CABECERA_REGISTRO + datos.length;
+        if (total > segmento - CABECERA) {
+            throw new IllegalArgumentException("El registro de " + total + " bytes no cabe en un segmento del log");
+        }
+        int indice = (int) (fin / segmento);
+        int dentro = (int) (fin % segmento);
+        if (dentro + total > segmento) {
+            // Al siguiente segmento, con el salto marcado en el mapeo del segmento entero
+            if (segmento - dentro >= 4) {
+                mapear(indice, segmento).putInt(dentro, SALTO);
+            }
+            indice++;
+            dentro = 0;
+            fin = (long) indice * segmento;
+        }
+        MappedByteBuffer mapa = mapear(indice, dentro + total);
+        mapa.put(dentro + CABECERA_REGISTRO, datos);
+        mapa.putInt(dentro + 4, crc(datos));
+        mapa.putInt(dentro, datos.length);
+        fin += total;
+    }
+
+    /**
+     * El mapeo del segmento {@code indice} con al menos {@code necesario}
+     * bytes: crece al doble, hasta un segmento entero, o mapea uno nuevo.
+     */
+    private MappedByteBuffer mapear(int indice, long necesario) {
+        if (indice < mapas.size() && mapas.get(indice).capacity() >= necesario) {
+            return mapas.get(indice);
+        }
+        long capacidad = indice < mapas.size() ? mapas.get(indice).capacity() : Math.min(MAPEO_INICIAL, segmento);
+        while (capacidad < necesario) {
+            capacidad = Math.min(capacidad * 2, segmento);
+        }
+        forzar();
+        try {
+            MappedByteBuffer mapa = canal.map(FileChannel.MapMode.READ_WRITE, (long) indice * segmento, capacidad);
+            if (indice < mapas.size()) {
+                mapas.set(indice, mapa);
+            } else {
+                mapas.add(mapa);
+            }
+            return mapa;
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se ha podido ampliar el log de tareas", e);
+        }
+    }
+
+    /**
+     * Tarea escrita: id, versión, completada, fechas (segundos y nanos en UTC,
+     * nanos -1 si no hay) y textos (longitud en bytes, -1 si no hay, y UTF-8).
+     */
+    static byte[] codificar(Tasku tasku) {
+        byte[] titulo = utf8(tasku.getTitulo());
+        byte[] descripcion = utf8(tasku.getDescripcion());
+        ByteBuffer datos = ByteBuffer.allocate(1 + 8 + 8 + 1 + 2 * 12 + 4 + longitud(titulo) + 4
+                + longitud(descripcion));
+        datos.put(ESCRITA)
+                .putLong(tasku.getId())
+                .putLong(tasku.getVersion() != null ? tasku.getVersion() : 0)
+                .put((byte) (Boolean.TRUE.equals(tasku.getCompletada()) ? 1 : 0));
+        fecha(datos, tasku.getFechaCreacion());
+        fecha(datos, tasku.getFechaActualizacion());
+        texto(datos, titulo);
+        texto(datos, descripcion);
+        return datos.array();
+    }
+
+    static Tasku decodificar(ByteBuffer datos) {
+        Tasku tasku = new Tasku();
+        tasku.setId(datos.getLong());
+        tasku.setVersion(datos.getLong());
+        tasku.setCompletada(datos.get() == 1);
+        tasku.setFechaCreacion(fecha(datos));
+        tasku.setFechaActualizacion(fecha(datos));
+        tasku.setTitulo(texto(datos));
+        tasku.setDescripcion(texto(datos));
+        return tasku;
+    }
+
+    private static void fecha(ByteBuffer datos, LocalDateTime fecha) {
+        if (fecha == null) {
+            datos.putLong(0).putInt(-1);
+        } else {
+            datos.putLong(fecha.toEpochSecond(ZoneOffset.UTC)).putInt(fecha.getNano());
+        }
+    }
+
+    private static LocalDateTime fecha(ByteBuffer datos) {
+        long segundos = datos.getLong();
+        int nanos = datos.getInt();
+        return nanos < 0 ? null : LocalDateTime.ofEpochSecond(segundos, nanos, ZoneOffset.UTC);
+    }
+
+    private static void texto(ByteBuffer datos, byte[] texto) {
+        if (texto == null) {
+            datos.putInt(-1);
+        } else {
+            datos.putInt(texto.length).put(texto);
+        }
+    }
+
+    private static String texto(ByteBuffer datos) {
+        int longitud = datos.getInt();
+        if (longitud < 0) {
+            return null;
+        }
+        byte[] texto = new byte[longitud];
+        datos.get(texto);
+        return new String(texto, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] utf8(String texto) {
+        return texto == null ? null : texto.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int longitud(byte[] texto) {
+        return texto == null ? 0 : texto.length;
+    }
+
+    private static int crc(byte[] datos) {
+        CRC32C crc = new CRC32C();
+        crc.update(datos);
+        return (int) crc.getValue();
+    }
+
+    private static int crc(ByteBuffer datos) {
+        CRC32C crc = new CRC32C();
+        crc.update(datos);
+        return (int) crc.getValue();
+    }
+
+    private static void vaciar(FileChannel canal, ByteBuffer bloque) throws IOException {
+        bloque.flip();
+        while (bloque.hasRemaining()) {
+            canal.write(bloque);
+        }
+        bloque.clear();
+    }
+
+    private static void forzarDirectorio(Path directorio) {
+        // Que el renombrado también sobreviva a una caída; no todos los sistemas lo permiten
+        try (FileChannel canal = FileChannel.open(directorio, StandardOpenOption.READ)) {
+            canal.force(true);
+        } catch (IOException e) {
+            // El archivo ya está en disco; solo el nombre podría volver al anterior
+        }
+    }
+
+    private static Path temporal(Path ruta) {
+        return ruta.resolveSibling(ruta.getFileName() + ".compactando");
+    }
+
+    /**
+     * Recibe los registros del log al abrirlo.
+     */
+    interface Lector {
+
+        void escrita(Tasku tasku);
+
+        void eliminada(long id);
+    }
+}
@@ -0,0 +1,19 @@
+package com.tasku.almacen;
+
+import com.tasku.repository.TaskuRepository;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Produces;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+@ApplicationScoped
+public class ConfiguracionAlmacen {
+
+    @ConfigProperty(name = "tasku.almacen.motor", defaultValue = AlmacenTaskus.MOTOR_JDBC)
+    String motor;
+
+    @Produces
+    @ApplicationScoped
+    AlmacenTaskus almacen(TaskuRepository jdbc, AlmacenLog log) {
+        return AlmacenTaskus.MOTOR_LOG.equals(motor) ? log : jdbc;
+    }
+}
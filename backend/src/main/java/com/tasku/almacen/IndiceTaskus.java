@@ -0,0 +1,154 @@
+package com.tasku.almacen;
+
+import com.tasku.model.Tasku;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Las tareas de {@link AlmacenLog} por id: un array ordenado de ids primitivos
+ * y otro paralelo con las tareas, con búsqueda binaria y sin objetos por
+ * entrada. Los ids nuevos siempre son mayores que los existentes, así que dar
+ * de alta es añadir al final; eliminar deja un hueco, y los huecos se recogen
+ * cuando pasan de la mitad. Lleva además la cuenta de tareas por estado.
+ *
+ * <p>Las tareas que guarda no se modifican nunca: cada cambio pone otra. No es
+ * seguro entre hilos; lo protege el cerrojo del almacén.
+ */
+final class IndiceTaskus {
+
+    private static final int CAPACIDAD_INICIAL = 1024;
+
+    private long[] ids = new long[CAPACIDAD_INICIAL];
+    private Tasku[] taskus = new Tasku[CAPACIDAD_INICIAL];
+    // Posiciones usadas, huecos incluidos
+    private int ocupadas;
+    private int vivas;
+    private int completadas;
+
+    Tasku obtener(long id) {
+        int posicion = posicion(id);
+        return posicion >= 0 ? taskus[posicion] : null;
+    }
+
+    /**
+     * Pone la tarea en la posición de su id y devuelve la que había.
+     */
+    Tasku poner(Tasku tasku) {
+        long id = tasku.getId();
+        int posicion = posicion(id);
+        Tasku anterior = null;
+        if (posicion >= 0) {
+            anterior = taskus[posicion];
+            taskus[posicion] = tasku;
+        } else {
+            insertar(-posicion - 1, id, tasku);
+        }
+        contar(anterior, -1);
+        contar(tasku, 1);
+        return anterior;
+    }
+
+    /**
+     * Quita la tarea y la devuelve, o null si no estaba.
+     */
+    Tasku quitar(long id) {
+        int posicion = posicion(id);
+        if (posicion < 0 || taskus[posicion] == null) {
+            return null;
+        }
+        Tasku anterior = taskus[posicion];
+        taskus[posicion] = null;
+        contar(anterior, -1);
+        if (ocupadas > CAPACIDAD_INICIAL && vivas < ocupadas / 2) {
+            recoger();
+        }
+        return anterior;
+    }
+
+    /**
+     * Hasta {@code limite} tareas que cumplen {@code filtro}, en orden de id
+     * ascendente o descendente, empezando después de {@code despuesDe} si no es
+     * nulo: la búsqueda binaria da el punto de partida sin recorrer lo anterior.
+     */
+    List<Tasku> porId(Long despuesDe, boolean descendente, Predicate<Tasku> filtro, int limite) {
+        List<Tasku> resultado = new ArrayList<>();
+        int paso = descendente ? -1 : 1;
+        int inicio;
+        if (despuesDe == null) {
+            inicio = descendente ? ocupadas - 1 : 0;
+        } else {
+            int posicion = posicion(despuesDe);
+            int insercion = posicion >= 0 ? posicion : -posicion - 1;
+            inicio = descendente ? insercion - 1 : (posicion >= 0 ? posicion + 1 : insercion);
+        }
+        for (int i = inicio; i >= 0 && i < ocupadas && resultado.size() < limite; i += paso) {
+            Tasku tasku = taskus[i];
+            if (tasku != null && filtro.test(tasku)) {
+                resultado.add(tasku);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Todas las tareas, en orden de id.
+     */
+    void paraCada(Consumer<Tasku> accion) {
+        for (int i = 0; i < ocupadas; i++) {
+            if (taskus[i] != null) {
+                accion.accept(taskus[i]);
+            }
+        }
+    }
+
+    int vivas() {
+        return vivas;
+    }
+
+    int completadas() {
+        return completadas;
+    }
+
+    private void contar(Tasku tasku, int signo) {
+        if (tasku == null) {
+            return;
+        }
+        vivas += signo;
+        if (Boolean.TRUE.equals(tasku.getCompletada())) {
+            completadas += signo;
+        }
+    }
+
+    private void insertar(int posicion, long id, Tasku tasku) {
+        if (ocupadas == ids.length) {
+            ids = Arrays.copyOf(ids, ids.length * 2);
+            taskus = Arrays.copyOf(taskus, taskus.length * 2);
+        }
+        // Solo al restaurar una tarea eliminada cuyo hueco ya se recogió: las altas van al final
+        System.arraycopy(ids, posicion, ids, posicion + 1, ocupadas - posicion);
+        System.arraycopy(taskus, posicion, taskus, posicion + 1, ocupadas - posicion);
+        ids[posicion] = id;
+        taskus[posicion] = tasku;
+        ocupadas++;
+    }
+
+    private void recoger() {
+        int destino = 0;
+        for (int i = 0; i < ocupadas; i++) {
+            if (taskus[i] != null) {
+                ids[destino] = ids[i];
+                taskus[destino] = taskus[i];
+                destino++;
+            }
+        }
+        Arrays.fill(taskus, destino, ocupadas, null);
+        ocupadas = destino;
+    }
+
+    private int posicion(long id) {
+        return Arrays.binarySearch(ids, 0, ocupadas, id);
+    }
+}
@@ -0,0 +1,129 @@
+package com.tasku.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tasku.event.CambioReplicado;
+import com.tasku.event.TaskuCambio;
+import com.tasku.model.Tasku;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.interceptor.Interceptor;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Caché de lectura de tareas por id, acotada por tamaño y por tiempo de vida.
+ *
+ * <p>Una entrada nunca se sirve después de que se confirme un cambio sobre su
+ * tarea: mientras haya una transacción abierta que la modifica, el id queda
+ * marcado como pendiente y las lecturas van a la base de datos sin poblar la
+ * caché. Además, cada carga anota la generación de su franja de ids antes de
+ * consultar, y solo guarda el resultado si ninguna invalidación la cambió entre
+ * tanto.
+ *
+ * <p>Las tareas devueltas son copias compartidas entre hilos y no deben
+ * modificarse.
+ */
+@ApplicationScoped
+public class TaskuCache {
+
+    private static final int FRANJAS = 1024;
+
+    @ConfigProperty(name = "tasku.cache.tamano-maximo", defaultValue = "10000")
+    long tamanoMaximo;
+
+    @ConfigProperty(name = "tasku.cache.ttl", defaultValue = "PT5M")
+    Duration ttl;
+
+    private Cache<Long, Tasku> entradas;
+    private final ConcurrentMap<Long, Integer> pendientes = new ConcurrentHashMap<>();
+    private final AtomicLongArray generaciones = new AtomicLongArray(FRANJAS);
+
+    @PostConstruct
+    void iniciar() {
+        entradas = Caffeine.newBuilder()
+                .maximumSize(tamanoMaximo)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    public Optional<Tasku> obtener(Long id, Function<Long, Optional<Tasku>> cargador) {
+        if (pendientes.containsKey(id)) {
+            return cargador.apply(id);
+        }
+        Tasku enCache = entradas.getIfPresent(id);
+        if (enCache != null) {
+            return Optional.of(enCache);
+        }
+        long generacion = generaciones.get(franja(id));
+        Optional<Tasku> cargada = cargador.apply(id).map(Tasku::copiar);
+        cargada.ifPresent(tasku -> entradas.asMap().compute(id, (clave, actual) ->
+                generaciones.get(franja(id)) == generacion && !pendientes.containsKey(id) ? tasku : actual));
+        return cargada;
+    }
+
+    /**
+     * Se llama de forma síncrona al publicar el cambio, dentro de la transacción.
+     * Sin transacción todos los observadores se notifican en el acto, y la
+     * prioridad asegura que este vaya antes que {@link #liberarPendiente}.
+     */
+    void marcarPendiente(@Observes @Priority(Interceptor.Priority.PLATFORM_BEFORE) TaskuCambio cambio) {
+        pendientes.merge(cambio.id(), 1, Integer::sum);
+        invalidar(cambio.id());
+    }
+
+    /**
+     * Se llama al terminar la transacción, tanto si se confirmó como si no.
+     */
+    void liberarPendiente(@Observes(during = TransactionPhase.AFTER_COMPLETION) TaskuCambio cambio) {
+        invalidar(cambio.id());
+        pendientes.computeIfPresent(cambio.id(), (id, transacciones) -> transacciones > 1 ? transacciones - 1 : null);
+    }
+
+    void replicar(@Observes CambioReplicado replicado) {
+        if (!replicado.esLocal()) {
+            invalidar(replicado.cambio().id());
+        }
+    }
+
+    public void invalidar(Long id) {
+        generaciones.incrementAndGet(franja(id));
+        entradas.invalidate(id);
+    }
+
+    public void invalidarTodo() {
+        for (int i = 0; i < FRANJAS; i++) {
+            generaciones.incrementAndGet(i);
+        }
+        entradas.invalidateAll();
+    }
+
+    public long aciertos() {
+        return entradas.stats().hitCount();
+    }
+
+    public long fallos() {
+        return entradas.stats().missCount();
+    }
+
+    public long desalojos() {
+        return entradas.stats().evictionCount();
+    }
+
+    public long tamano() {
+        return entradas.estimatedSize();
+    }
+
+    private static int franja(Long id) {
+        return (int) (id ^ (id >>> 32)) & (FRANJAS - 1);
+    }
+}
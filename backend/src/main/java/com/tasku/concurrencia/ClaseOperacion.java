@@ -0,0 +1,27 @@
+package com.tasku.concurrencia;
+
+import java.util.Locale;
+
+/**
+ * Tipos de llamada que se limitan por separado, cada uno en su
+ * {@link Compartimento}: una ráfaga de búsquedas lentas llena su compartimento
+ * y se rechaza sin quitar turno a las lecturas por id.
+ */
+public enum ClaseOperacion {
+    LECTURA,
+    ESCRITURA,
+    BUSQUEDA,
+    ESTADISTICAS,
+    /**
+     * Exportaciones y listados en streaming, que usan la conexión mientras se
+     * escribe la respuesta: los limita {@code LimiteVolcados}, no el interceptor.
+     */
+    VOLCADO;
+
+    /**
+     * Nombre en la configuración ({@code tasku.compartimentos.<clave>.*}) y en las métricas.
+     */
+    public String clave() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
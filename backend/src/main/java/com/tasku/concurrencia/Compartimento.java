@@ -0,0 +1,74 @@
+package com.tasku.concurrencia;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Límite de una {@link ClaseOperacion}: como mucho {@code maximo} llamadas en
+ * curso y {@code cola} más esperando turno. Con la cola llena la llamada se
+ * rechaza en el acto, sin esperar; en la cola espera como mucho {@code espera}.
+ * Así una clase saturada responde rápido con 503 en lugar de acumular
+ * peticiones que acabarían agotando su tiempo igualmente.
+ */
+public class Compartimento {
+
+    private final ClaseOperacion clase;
+    private final int maximo;
+    private final int cola;
+    private final Duration espera;
+    // Llamadas dentro del compartimento, en curso o en cola: no se espera por ellas
+    private final Semaphore admitidas;
+    private final Semaphore enCurso;
+
+    public Compartimento(ClaseOperacion clase, int maximo, int cola, Duration espera) {
+        if (maximo < 1 || cola < 0) {
+            throw new IllegalArgumentException("Compartimento " + clase.clave() + " no válido: máximo "
+                    + maximo + ", cola " + cola);
+        }
+        this.clase = clase;
+        this.maximo = maximo;
+        this.cola = cola;
+        this.espera = espera;
+        this.admitidas = new Semaphore(maximo + cola);
+        this.enCurso = new Semaphore(maximo, true);
+    }
+
+    /**
+     * Ocupa un sitio; hay que devolverlo con {@link #salir()}.
+     *
+     * @throws ConcurrenciaAgotadaException si la cola está llena o el turno no llega a tiempo
+     */
+    public void entrar() throws InterruptedException {
+        if (!admitidas.tryAcquire()) {
+            throw new ConcurrenciaAgotadaException(clase, cola, espera);
+        }
+        try {
+            if (enCurso.tryAcquire(espera.toNanos(), TimeUnit.NANOSECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            admitidas.release();
+            throw e;
+        }
+        admitidas.release();
+        throw new ConcurrenciaAgotadaException(maximo, espera);
+    }
+
+    public void salir() {
+        enCurso.release();
+        admitidas.release();
+    }
+
+    public ClaseOperacion getClase() {
+        return clase;
+    }
+
+    public int enCurso() {
+        return maximo - enCurso.availablePermits();
+    }
+
+    public int enCola() {
+        return enCurso.getQueueLength();
+    }
+}
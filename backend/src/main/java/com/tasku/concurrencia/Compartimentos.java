@@ -0,0 +1,71 @@
+package com.tasku.concurrencia;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import org.eclipse.microprofile.config.Config;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Un {@link Compartimento} por {@link ClaseOperacion}, configurado con
+ * {@code tasku.compartimentos.<clase>.maximo} y {@code .cola}. Publica por clase
+ * las llamadas en curso, las que esperan y los rechazos.
+ */
+@ApplicationScoped
+public class Compartimentos {
+
+    @Inject
+    Config config;
+
+    @Inject
+    MeterRegistry registro;
+
+    @ConfigProperty(name = "tasku.concurrencia.espera", defaultValue = "PT2S")
+    Duration espera;
+
+    private final Map<ClaseOperacion, Compartimento> compartimentos = new EnumMap<>(ClaseOperacion.class);
+    private final Map<ClaseOperacion, Counter> rechazos = new EnumMap<>(ClaseOperacion.class);
+
+    @PostConstruct
+    void iniciar() {
+        for (ClaseOperacion clase : ClaseOperacion.values()) {
+            String prefijo = "tasku.compartimentos." + clase.clave();
+            Compartimento compartimento = new Compartimento(clase,
+                    config.getValue(prefijo + ".maximo", Integer.class),
+                    config.getValue(prefijo + ".cola", Integer.class),
+                    espera);
+            compartimentos.put(clase, compartimento);
+            Gauge.builder("tasku.compartimento.en.curso", compartimento, Compartimento::enCurso)
+                    .description("Llamadas en curso por clase de operación")
+                    .tag("clase", clase.clave())
+                    .register(registro);
+            Gauge.builder("tasku.compartimento.en.cola", compartimento, Compartimento::enCola)
+                    .description("Llamadas esperando turno por clase de operación")
+                    .tag("clase", clase.clave())
+                    .register(registro);
+            rechazos.put(clase, Counter.builder("tasku.compartimento.rechazos")
+                    .description("Llamadas rechazadas con 503 por clase de operación")
+                    .tag("clase", clase.clave())
+                    .register(registro));
+        }
+    }
+
+    public void entrar(ClaseOperacion clase) throws InterruptedException {
+        try {
+            compartimentos.get(clase).entrar();
+        } catch (ConcurrenciaAgotadaException e) {
+            rechazos.get(clase).increment();
+            throw e;
+        }
+    }
+
+    public void salir(ClaseOperacion clase) {
+        compartimentos.get(clase).salir();
+    }
+}
@@ -0,0 +1,26 @@
+package com.tasku.concurrencia;
+
+import java.time.Duration;
+
+/**
+ * No se obtuvo permiso para usar la base de datos dentro del tiempo de espera,
+ * o el compartimento de la operación ya tenía la cola llena.
+ */
+public class ConcurrenciaAgotadaException extends RuntimeException {
+
+    private final Duration espera;
+
+    public ConcurrenciaAgotadaException(int maximo, Duration espera) {
+        super("Hay " + maximo + " operaciones en curso y no quedó sitio en " + espera.toMillis() + " ms");
+        this.espera = espera;
+    }
+
+    public ConcurrenciaAgotadaException(ClaseOperacion clase, int cola, Duration espera) {
+        super("La cola de " + clase.clave() + " está llena (" + cola + " en espera)");
+        this.espera = espera;
+    }
+
+    public Duration getEspera() {
+        return espera;
+    }
+}
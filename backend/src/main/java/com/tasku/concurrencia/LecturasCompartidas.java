@@ -0,0 +1,125 @@
+package com.tasku.concurrencia;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Agrupa las lecturas iguales que llegan a la vez: la primera se ejecuta y las
+ * que llegan mientras tanto con la misma clave esperan su resultado en lugar de
+ * repetirla. Es para las ráfagas de sondeo, cientos de peticiones idénticas en
+ * unos milisegundos; no guarda nada una vez terminada la lectura.
+ *
+ * <p>La clave tiene que identificar el resultado por completo, incluida la
+ * versión de los datos que ya vio quien pregunta: así nadie recibe una lectura
+ * que empezó antes de una escritura que él ya conocía. Una lectura que falla
+ * falla para todas las que la esperaban.
+ *
+ * <p>La espera dura como mucho {@code tasku.lecturas-compartidas.espera}; pasado
+ * ese tiempo la petición hace su propia lectura. El contador
+ * {@code tasku.lecturas.compartidas} publica cuántas se ejecutaron, cuántas
+ * recibieron el resultado de otra y cuántas se cansaron de esperar: la
+ * proporción de compartidas es el ahorro.
+ */
+@ApplicationScoped
+public class LecturasCompartidas {
+
+    @Inject
+    MeterRegistry registro;
+
+    @ConfigProperty(name = "tasku.lecturas-compartidas.activas", defaultValue = "true")
+    boolean activas;
+
+    @ConfigProperty(name = "tasku.lecturas-compartidas.espera", defaultValue = "PT1S")
+    Duration espera;
+
+    private final ConcurrentMap<Object, CompletableFuture<Object>> enCurso = new ConcurrentHashMap<>();
+    private final AtomicInteger esperando = new AtomicInteger();
+    private Counter ejecutadas;
+    private Counter compartidas;
+    private Counter esperasAgotadas;
+
+    @PostConstruct
+    void iniciar() {
+        ejecutadas = contador("ejecutada");
+        compartidas = contador("compartida");
+        esperasAgotadas = contador("espera_agotada");
+        Gauge.builder("tasku.lecturas.esperando", esperando, AtomicInteger::get)
+                .description("Peticiones esperando el resultado de una lectura igual en curso")
+                .register(registro);
+    }
+
+    /**
+     * El resultado de {@code lectura}, o el de la que está en curso con la
+     * misma clave. El resultado se comparte tal cual entre hilos: tiene que
+     * ser inmutable.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T leer(Object clave, Supplier<T> lectura) {
+        if (!activas) {
+            return lectura.get();
+        }
+        CompletableFuture<Object> propia = new CompletableFuture<>();
+        CompletableFuture<Object> otra = enCurso.putIfAbsent(clave, propia);
+        if (otra == null) {
+            ejecutadas.increment();
+            try {
+                T resultado = lectura.get();
+                propia.complete(resultado);
+                return resultado;
+            } catch (RuntimeException | Error e) {
+                propia.completeExceptionally(e);
+                throw e;
+            } finally {
+                enCurso.remove(clave, propia);
+            }
+        }
+        esperando.incrementAndGet();
+        try {
+            T resultado = (T) otra.get(espera.toNanos(), TimeUnit.NANOSECONDS);
+            compartidas.increment();
+            return resultado;
+        } catch (TimeoutException e) {
+            esperasAgotadas.increment();
+            return lectura.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrumpida esperando una lectura en curso", e);
+        } catch (ExecutionException e) {
+            compartidas.increment();
+            if (e.getCause() instanceof RuntimeException fallo) {
+                throw fallo;
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            esperando.decrementAndGet();
+        }
+    }
+
+    /**
+     * Cuántas peticiones esperan ahora mismo el resultado de otra.
+     */
+    public int esperando() {
+        return esperando.get();
+    }
+
+    private Counter contador(String resultado) {
+        return Counter.builder("tasku.lecturas.compartidas")
+                .description("Lecturas agrupadas por resultado: ejecutada, compartida o espera_agotada")
+                .tag("resultado", resultado)
+                .register(registro);
+    }
+}
@@ -0,0 +1,50 @@
+package com.tasku.concurrencia;
+
+import jakarta.annotation.Priority;
+import jakarta.inject.Inject;
+import jakarta.interceptor.AroundInvoke;
+import jakarta.interceptor.Interceptor;
+import jakarta.interceptor.InvocationContext;
+import java.lang.reflect.Method;
+
+/**
+ * Cada llamada entra primero en el {@link Compartimento} de su clase de
+ * operación y después pide permiso en {@link PermisosBaseDatos}: el compartimento
+ * reparte el pool entre clases y rechaza pronto la que se satura, y los
+ * permisos globales siguen cuidando del pool si los compartimentos suman más.
+ */
+@LimitarConcurrencia
+@Interceptor
+@Priority(Interceptor.Priority.PLATFORM_BEFORE)
+public class LimitadorConcurrencia {
+
+    @Inject
+    PermisosBaseDatos permisos;
+
+    @Inject
+    Compartimentos compartimentos;
+
+    @AroundInvoke
+    Object limitar(InvocationContext contexto) throws Exception {
+        ClaseOperacion clase = clase(contexto.getMethod());
+        compartimentos.entrar(clase);
+        try {
+            permisos.adquirir();
+            try {
+                return contexto.proceed();
+            } finally {
+                permisos.liberar();
+            }
+        } finally {
+            compartimentos.salir(clase);
+        }
+    }
+
+    static ClaseOperacion clase(Method metodo) {
+        LimitarConcurrencia limite = metodo.getAnnotation(LimitarConcurrencia.class);
+        if (limite == null) {
+            limite = metodo.getDeclaringClass().getAnnotation(LimitarConcurrencia.class);
+        }
+        return limite != null ? limite.value() : ClaseOperacion.LECTURA;
+    }
+}
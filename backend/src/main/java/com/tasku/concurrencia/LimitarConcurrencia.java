@@ -0,0 +1,24 @@
+package com.tasku.concurrencia;
+
+import jakarta.enterprise.util.Nonbinding;
+import jakarta.interceptor.InterceptorBinding;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Limita cuántas llamadas pueden estar usando la base de datos a la vez, en
+ * total y por clase de operación. En un método indica su clase; los que no la
+ * indican toman la de la clase Java. Ver {@link LimitadorConcurrencia}.
+ */
+@Inherited
+@InterceptorBinding
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface LimitarConcurrencia {
+
+    @Nonbinding
+    ClaseOperacion value() default ClaseOperacion.LECTURA;
+}
@@ -0,0 +1,58 @@
+package com.tasku.concurrencia;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Permisos para usar el pool de conexiones, compartidos por toda la aplicación.
+ * Con hilos virtuales no hay un pool de hilos que frene la entrada de
+ * peticiones: sin este límite miles de ellas esperarían a la vez una conexión y
+ * agotarían el tiempo de espera de Agroal. Aquí esperan en una cola justa y,
+ * pasado {@code tasku.concurrencia.espera}, se rechazan.
+ *
+ * <p>El semáforo se basa en {@code AbstractQueuedSynchronizer}, así que esperar
+ * un permiso no fija el hilo virtual a su hilo portador.
+ */
+@ApplicationScoped
+public class PermisosBaseDatos {
+
+    @ConfigProperty(name = "tasku.concurrencia.maximo", defaultValue = "20")
+    int maximo;
+
+    @ConfigProperty(name = "tasku.concurrencia.espera", defaultValue = "PT2S")
+    Duration espera;
+
+    private Semaphore permisos;
+
+    @PostConstruct
+    void iniciar() {
+        permisos = new Semaphore(maximo, true);
+    }
+
+    /**
+     * Espera un permiso como mucho {@code tasku.concurrencia.espera}.
+     *
+     * @throws ConcurrenciaAgotadaException si no quedó ninguno libre a tiempo
+     */
+    public void adquirir() throws InterruptedException {
+        if (!permisos.tryAcquire(espera.toNanos(), TimeUnit.NANOSECONDS)) {
+            throw new ConcurrenciaAgotadaException(maximo, espera);
+        }
+    }
+
+    public void liberar() {
+        permisos.release();
+    }
+
+    public int disponibles() {
+        return permisos.availablePermits();
+    }
+
+    public int enEspera() {
+        return permisos.getQueueLength();
+    }
+}
@@ -0,0 +1,8 @@
+package com.tasku.dto;
+
+public record EstadisticasTaskus(long completadas,
+                                 long pendientes,
+                                 long total,
+                                 long creadasHoy,
+                                 long completadasHoy) {
+}
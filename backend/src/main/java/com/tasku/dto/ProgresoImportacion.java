@@ -0,0 +1,19 @@
+package com.tasku.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Estado de una importación de {@code POST /taskus/import}.
+ *
+ * @param importacion id con el que se reanuda
+ * @param filas       filas ya confirmadas: un reintento las salta
+ * @param terminada   si se leyó y confirmó la entrada entera
+ * @param error       motivo por el que se interrumpió, {@code null} si no
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ProgresoImportacion(String importacion, long filas, boolean terminada, String error) {
+
+    public ProgresoImportacion conError(String error) {
+        return new ProgresoImportacion(importacion, filas, terminada, error);
+    }
+}
@@ -0,0 +1,23 @@
+package com.tasku.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Resultado de un elemento de una operación por lotes.
+ *
+ * @param indice posición del elemento en la petición
+ * @param id     id de la tarea afectada, si se conoce
+ * @param estado código HTTP equivalente al de la operación individual
+ * @param error  motivo del fallo, {@code null} si el elemento se procesó
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ResultadoLote(int indice, Long id, int estado, String error) {
+
+    public static ResultadoLote exito(int indice, Long id, int estado) {
+        return new ResultadoLote(indice, id, estado, null);
+    }
+
+    public static ResultadoLote fallo(int indice, Long id, int estado, String error) {
+        return new ResultadoLote(indice, id, estado, error);
+    }
+}
@@ -0,0 +1,141 @@
+package com.tasku.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.tasku.model.Tasku;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Tarea leída con una proyección: solo tiene valor en las columnas que se
+ * seleccionaron y en JSON solo escribe las de {@link #campos()}, con los mismos
+ * nombres que {@link Tasku}. No es una entidad gestionada, así
+ * que leerla no pasa por el contexto de persistencia.
+ */
+@JsonSerialize(using = TaskuParcial.Serializador.class)
+public record TaskuParcial(Set<Campo> campos,
+                           Long id,
+                           String titulo,
+                           String descripcion,
+                           Boolean completada,
+                           LocalDateTime fechaCreacion,
+                           LocalDateTime fechaActualizacion) {
+
+    /**
+     * Campos por defecto de los listados: todos menos la descripción, que es
+     * la columna más pesada y las vistas de lista no muestran.
+     */
+    public static final Set<Campo> RESUMEN =
+            Collections.unmodifiableSet(EnumSet.complementOf(EnumSet.of(Campo.DESCRIPCION)));
+
+    public static final Set<Campo> TODOS = Collections.unmodifiableSet(EnumSet.allOf(Campo.class));
+
+    /**
+     * Momento de la última escritura, como {@link Tasku#modificadaEn()}.
+     */
+    public LocalDateTime modificadaEn() {
+        return fechaActualizacion != null ? fechaActualizacion : fechaCreacion;
+    }
+
+    /**
+     * La tarea con valor solo en {@code columnas}, como si se hubiera leído
+     * con esa proyección.
+     */
+    public static TaskuParcial de(Set<Campo> campos, Set<Campo> columnas, Tasku tasku) {
+        return new TaskuParcial(campos,
+                columnas.contains(Campo.ID) ? tasku.getId() : null,
+                columnas.contains(Campo.TITULO) ? tasku.getTitulo() : null,
+                columnas.contains(Campo.DESCRIPCION) ? tasku.getDescripcion() : null,
+                columnas.contains(Campo.COMPLETADA) ? tasku.getCompletada() : null,
+                columnas.contains(Campo.FECHA_CREACION) ? tasku.getFechaCreacion() : null,
+                columnas.contains(Campo.FECHA_ACTUALIZACION) ? tasku.getFechaActualizacion() : null);
+    }
+
+    /**
+     * Interpreta el parámetro {@code fields}: nombres de campo separados por
+     * comas. Vacío devuelve {@link #RESUMEN}.
+     */
+    public static Set<Campo> parsearCampos(String texto) {
+        if (texto == null || texto.isBlank()) {
+            return RESUMEN;
+        }
+        Set<Campo> campos = EnumSet.noneOf(Campo.class);
+        for (String parte : texto.split(",")) {
+            campos.add(Campo.porNombre(parte.trim()));
+        }
+        if (campos.isEmpty()) {
+            throw new IllegalArgumentException("Hay que pedir al menos un campo");
+        }
+        return Collections.unmodifiableSet(campos);
+    }
+
+    public enum Campo {
+        ID("id"),
+        TITULO("titulo"),
+        DESCRIPCION("descripcion"),
+        COMPLETADA("completada"),
+        FECHA_CREACION("fechaCreacion"),
+        FECHA_ACTUALIZACION("fechaActualizacion");
+
+        private final String nombre;
+
+        Campo(String nombre) {
+            this.nombre = nombre;
+        }
+
+        /**
+         * Nombre de la propiedad en la entidad y en JSON.
+         */
+        public String nombre() {
+            return nombre;
+        }
+
+        static Campo porNombre(String nombre) {
+            String buscado = nombre.toLowerCase(Locale.ROOT);
+            for (Campo campo : values()) {
+                if (campo.nombre.toLowerCase(Locale.ROOT).equals(buscado)) {
+                    return campo;
+                }
+            }
+            throw new IllegalArgumentException("Campo desconocido: " + nombre);
+        }
+    }
+
+    /**
+     * Escribe los campos pedidos en el orden de {@link Campo}, incluidos los nulos,
+     * como el serializador por defecto de la entidad.
+     */
+    public static class Serializador extends StdSerializer<TaskuParcial> {
+
+        public Serializador() {
+            super(TaskuParcial.class);
+        }
+
+        @Override
+        public void serialize(TaskuParcial tasku, JsonGenerator generador, SerializerProvider proveedor)
+                throws IOException {
+            generador.writeStartObject();
+            for (Campo campo : tasku.campos()) {
+                proveedor.defaultSerializeField(campo.nombre(), tasku.valor(campo), generador);
+            }
+            generador.writeEndObject();
+        }
+    }
+
+    private Object valor(Campo campo) {
+        return switch (campo) {
+            case ID -> id;
+            case TITULO -> titulo;
+            case DESCRIPCION -> descripcion;
+            case COMPLETADA -> completada;
+            case FECHA_CREACION -> fechaCreacion;
+            case FECHA_ACTUALIZACION -> fechaActualizacion;
+        };
+    }
+}
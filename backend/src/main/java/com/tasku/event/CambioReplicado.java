@@ -0,0 +1,42 @@
+package com.tasku.event;
+
+import java.util.UUID;
+
+/**
+ * Cambio leído del registro de cambios por el relevo, sea de este proceso o de
+ * otro nodo. Los observadores que mantienen estado en memoria ya aplicaron los
+ * cambios locales al recibir el {@link TaskuCambio}, y solo deben aplicar los
+ * que no sean {@link #esLocal() locales}.
+ *
+ * <p>Los que cargan su estado de las tablas al arrancar tampoco deben aplicar
+ * los {@link #cargadoAlArrancar() cargados al arrancar}, que solo llegan al
+ * entregar de nuevo el registro desde {@code tasku.replicacion.desde}.
+ *
+ * @param secuencia          posición del cambio en el registro
+ * @param origen             nodo que hizo el cambio
+ * @param cambio             el cambio, con la tarea tal como quedó
+ * @param cargadoAlArrancar  si ya estaba en el registro cuando este proceso cargó las tablas
+ */
+public record CambioReplicado(long secuencia, String origen, TaskuCambio cambio, boolean cargadoAlArrancar) {
+
+    /**
+     * Origen de los cambios que registra este proceso; cambia en cada arranque.
+     */
+    public static final String ORIGEN_LOCAL = UUID.randomUUID().toString();
+
+    public CambioReplicado(long secuencia, String origen, TaskuCambio cambio) {
+        this(secuencia, origen, cambio, false);
+    }
+
+    public boolean esLocal() {
+        return ORIGEN_LOCAL.equals(origen);
+    }
+
+    /**
+     * Si hay que aplicarlo a un estado cargado de las tablas al arrancar: ni
+     * los locales, ya aplicados, ni los que esas tablas ya incluían.
+     */
+    public boolean aplicaAEstadoCargado() {
+        return !esLocal() && !cargadoAlArrancar;
+    }
+}
@@ -0,0 +1,35 @@
+package com.tasku.event;
+
+/**
+ * Elemento del feed de cambios que se envía a cada suscriptor.
+ *
+ * @param secuencia número del evento, creciente dentro del proceso; se envía como id SSE
+ * @param tipo      nombre del evento: el tipo de cambio, {@link #REINICIO} o {@link #LATIDO}
+ * @param datos     cambio serializado en JSON; un objeto vacío en los reinicios y {@code null} en los latidos
+ */
+public record EventoFeed(long secuencia, String tipo, String datos) {
+
+    /**
+     * El suscriptor se ha perdido eventos que ya no están en el historial y
+     * debe volver a leer las tareas antes de seguir aplicando cambios.
+     */
+    public static final String REINICIO = "reinicio";
+
+    /**
+     * Mantiene viva una conexión sin cambios; no lleva datos ni secuencia.
+     */
+    public static final String LATIDO = "latido";
+
+    static EventoFeed reinicio(long secuencia) {
+        // Los clientes SSE descartan los eventos sin datos
+        return new EventoFeed(secuencia, REINICIO, "{}");
+    }
+
+    static EventoFeed latido() {
+        return new EventoFeed(-1, LATIDO, null);
+    }
+
+    public boolean esLatido() {
+        return LATIDO.equals(tipo);
+    }
+}
@@ -0,0 +1,230 @@
+package com.tasku.event;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quarkus.scheduler.Scheduled;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import java.io.UncheckedIOException;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Feed de cambios confirmados de {@link TaskuCambio} para los clientes
+ * suscritos a {@code GET /api/taskus/stream}.
+ *
+ * <p>Cada cambio recibe un número de secuencia y se guarda, ya serializado, en
+ * un historial circular de {@code tasku.feed.historial} eventos compartido por
+ * todos los suscriptores. Un suscriptor solo guarda hasta qué secuencia ha
+ * recibido y cuántos eventos ha pedido, así una conexión ociosa apenas ocupa
+ * memoria y un cliente lento no acumula nada: va leyendo del historial según
+ * su demanda y, si se queda atrás más que el historial, recibe un
+ * {@link EventoFeed#REINICIO} y continúa desde el último evento.
+ *
+ * <p>Las secuencias empiezan en el instante de arranque en microsegundos, de
+ * modo que un {@code Last-Event-ID} de un arranque anterior queda siempre
+ * fuera del historial y provoca un reinicio en lugar de saltarse eventos.
+ */
+@ApplicationScoped
+public class FeedCambios {
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @ConfigProperty(name = "tasku.feed.historial", defaultValue = "1024")
+    int capacidad;
+
+    private final Set<Suscripcion> suscripciones = ConcurrentHashMap.newKeySet();
+    private final Executor notificador = Infrastructure.getDefaultExecutor();
+    private AtomicReferenceArray<EventoFeed> historial;
+    private volatile long ultima;
+
+    @PostConstruct
+    void iniciar() {
+        historial = new AtomicReferenceArray<>(capacidad);
+        ultima = System.currentTimeMillis() * 1000;
+    }
+
+    void registrar(@Observes(during = TransactionPhase.AFTER_SUCCESS) TaskuCambio cambio) {
+        publicar(cambio);
+    }
+
+    // Los suscritos a este nodo también reciben los cambios hechos en los demás
+    void replicar(@Observes CambioReplicado replicado) {
+        if (!replicado.esLocal()) {
+            publicar(replicado.cambio());
+        }
+    }
+
+    private void publicar(TaskuCambio cambio) {
+        String datos;
+        try {
+            datos = objectMapper.writeValueAsString(cambio);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        publicar(cambio.tipo().name().toLowerCase(Locale.ROOT), datos);
+    }
+
+    /**
+     * Añade un evento al historial y avisa a los suscriptores fuera del hilo
+     * que confirmó el cambio.
+     */
+    synchronized void publicar(String tipo, String datos) {
+        long secuencia = ultima + 1;
+        historial.set(indice(secuencia), new EventoFeed(secuencia, tipo, datos));
+        // Escrita después del evento: quien lea esta secuencia ve el evento en el historial
+        ultima = secuencia;
+        notificador.execute(() -> suscripciones.forEach(Suscripcion::drenar));
+    }
+
+    /**
+     * Eventos posteriores a {@code ultimoVisto}, o solo los nuevos si es
+     * {@code null}. Si {@code ultimoVisto} ya no está en el historial, el
+     * primer evento es un {@link EventoFeed#REINICIO}.
+     */
+    public Multi<EventoFeed> suscribir(Long ultimoVisto) {
+        return Multi.createFrom().publisher(suscriptor -> {
+            Suscripcion suscripcion = new Suscripcion(suscriptor, ultimoVisto);
+            suscripciones.add(suscripcion);
+            suscriptor.onSubscribe(suscripcion);
+            suscripcion.drenar();
+        });
+    }
+
+    public int suscriptores() {
+        return suscripciones.size();
+    }
+
+    long ultimaSecuencia() {
+        return ultima;
+    }
+
+    /**
+     * Envía un {@link EventoFeed#LATIDO} a los suscriptores con demanda, para que
+     * los proxies no cierren las conexiones sin tráfico.
+     */
+    @Scheduled(every = "{tasku.feed.latido}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void latir() {
+        suscripciones.forEach(Suscripcion::latir);
+    }
+
+    private int indice(long secuencia) {
+        return (int) Math.floorMod(secuencia, (long) capacidad);
+    }
+
+    private EventoFeed leer(long secuencia) {
+        EventoFeed evento = historial.get(indice(secuencia));
+        // Si la posición ya se reutilizó, el evento se ha perdido
+        return evento != null && evento.secuencia() == secuencia ? evento : null;
+    }
+
+    private final class Suscripcion implements Flow.Subscription {
+
+        private final Flow.Subscriber<? super EventoFeed> suscriptor;
+        private final AtomicLong pedidos = new AtomicLong();
+        private final AtomicInteger pendientes = new AtomicInteger();
+        private long cursor;
+        private boolean reiniciar;
+        private volatile boolean latido;
+        private volatile boolean cancelada;
+
+        Suscripcion(Flow.Subscriber<? super EventoFeed> suscriptor, Long ultimoVisto) {
+            this.suscriptor = suscriptor;
+            long actual = ultima;
+            if (ultimoVisto == null) {
+                cursor = actual;
+            } else if (ultimoVisto <= actual && actual - ultimoVisto <= capacidad) {
+                cursor = ultimoVisto;
+            } else {
+                cursor = actual;
+                reiniciar = true;
+            }
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                cancel();
+                suscriptor.onError(new IllegalArgumentException("La demanda debe ser positiva: " + n));
+                return;
+            }
+            pedidos.accumulateAndGet(n, (actual, mas) -> actual + mas < 0 ? Long.MAX_VALUE : actual + mas);
+            drenar();
+        }
+
+        @Override
+        public void cancel() {
+            cancelada = true;
+            suscripciones.remove(this);
+        }
+
+        void latir() {
+            latido = true;
+            drenar();
+        }
+
+        /**
+         * Entrega eventos mientras haya demanda. Solo un hilo drena a la vez; los
+         * avisos que llegan mientras tanto hacen que repita la vuelta.
+         */
+        void drenar() {
+            if (pendientes.getAndIncrement() != 0) {
+                return;
+            }
+            int avisos = 1;
+            do {
+                long entregados = 0;
+                long demanda = pedidos.get();
+                while (entregados != demanda && !cancelada) {
+                    EventoFeed evento = siguiente();
+                    if (evento == null) {
+                        break;
+                    }
+                    suscriptor.onNext(evento);
+                    entregados++;
+                }
+                if (entregados > 0 && demanda != Long.MAX_VALUE) {
+                    pedidos.addAndGet(-entregados);
+                }
+                avisos = pendientes.addAndGet(-avisos);
+            } while (avisos != 0);
+        }
+
+        private EventoFeed siguiente() {
+            if (reiniciar) {
+                reiniciar = false;
+                return EventoFeed.reinicio(cursor);
+            }
+            long actual = ultima;
+            if (cursor >= actual) {
+                if (latido) {
+                    latido = false;
+                    return EventoFeed.latido();
+                }
+                return null;
+            }
+            // Un evento pendiente ya sirve de latido
+            latido = false;
+            EventoFeed evento = leer(cursor + 1);
+            if (evento == null) {
+                cursor = actual;
+                return EventoFeed.reinicio(actual);
+            }
+            cursor = evento.secuencia();
+            return evento;
+        }
+    }
+}
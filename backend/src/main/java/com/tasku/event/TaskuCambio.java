@@ -0,0 +1,47 @@
+package com.tasku.event;
+
+import com.tasku.model.Tasku;
+
+/**
+ * Cambio confirmado sobre una tarea. {@link com.tasku.service.TaskuService}, o
+ * su versión reactiva, lo publica en cada escritura; los observadores que
+ * necesiten ver solo datos confirmados deben usar
+ * {@code during = TransactionPhase.AFTER_SUCCESS}.
+ *
+ * @param tipo               tipo de operación
+ * @param id                 id de la tarea afectada
+ * @param tasku              estado de la tarea después del cambio, {@code null} si se eliminó
+ * @param completadaAnterior estado previo de {@code completada}, {@code null} si la tarea es nueva o no se conoce
+ */
+public record TaskuCambio(Tipo tipo, Long id, Tasku tasku, Boolean completadaAnterior) {
+
+    public enum Tipo {
+        CREADA,
+        ACTUALIZADA,
+        ELIMINADA
+    }
+
+    public static TaskuCambio creada(Tasku tasku) {
+        return new TaskuCambio(Tipo.CREADA, tasku.getId(), tasku, null);
+    }
+
+    public static TaskuCambio actualizada(Tasku tasku, Boolean completadaAnterior) {
+        return new TaskuCambio(Tipo.ACTUALIZADA, tasku.getId(), tasku, completadaAnterior);
+    }
+
+    public static TaskuCambio eliminada(Long id, Boolean completadaAnterior) {
+        return new TaskuCambio(Tipo.ELIMINADA, id, null, completadaAnterior);
+    }
+
+    /**
+     * Si cuenta como tarea completada en {@code /estadisticas}: crea una tarea
+     * completada o pasa a completada una que no lo estaba. Reabrirla no lo
+     * deshace. Es la misma condición que
+     * {@link com.tasku.repository.RegistroCambioRepository#COMPLETA_TAREA} sobre
+     * el registro.
+     */
+    public boolean completaTarea() {
+        return tasku != null && Boolean.TRUE.equals(tasku.getCompletada())
+                && (tipo == Tipo.CREADA || tipo == Tipo.ACTUALIZADA && Boolean.FALSE.equals(completadaAnterior));
+    }
+}
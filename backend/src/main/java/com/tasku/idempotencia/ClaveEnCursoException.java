@@ -0,0 +1,12 @@
+package com.tasku.idempotencia;
+
+/**
+ * Otra petición con la misma clave de idempotencia sigue en curso y no
+ * terminó en el tiempo que se la espera.
+ */
+public class ClaveEnCursoException extends RuntimeException {
+
+    public ClaveEnCursoException(String clave) {
+        super("Hay otra petición en curso con la clave de idempotencia " + clave);
+    }
+}
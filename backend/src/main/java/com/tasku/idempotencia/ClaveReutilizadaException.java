@@ -0,0 +1,11 @@
+package com.tasku.idempotencia;
+
+/**
+ * La clave de idempotencia ya se usó con otra operación u otro cuerpo.
+ */
+public class ClaveReutilizadaException extends RuntimeException {
+
+    public ClaveReutilizadaException(String clave) {
+        super("La clave de idempotencia " + clave + " ya se usó con otra petición");
+    }
+}
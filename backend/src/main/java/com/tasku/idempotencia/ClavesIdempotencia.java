@@ -0,0 +1,274 @@
+package com.tasku.idempotencia;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tasku.model.ClaveIdempotencia;
+import com.tasku.model.Tasku;
+import com.tasku.repository.ClaveIdempotenciaRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Ejecuta una sola vez cada petición con clave de idempotencia y devuelve su
+ * respuesta a las repeticiones, durante {@code tasku.idempotencia.ttl}.
+ *
+ * <p>Las respuestas están en la tabla {@code taskus_idempotencia}, que
+ * comparten todos los nodos y sobrevive a los reinicios, y las más recientes
+ * también en memoria, hasta {@code tasku.idempotencia.tamano-maximo}. La
+ * respuesta se guarda en la misma transacción que la escritura: si esta no se
+ * confirma, la clave queda libre para repetirla. Las respuestas 5xx tampoco se
+ * guardan.
+ *
+ * <p>Dos peticiones a la vez con la misma clave se ejecutan una vez. En el
+ * mismo proceso la segunda espera a la primera, hasta
+ * {@code tasku.idempotencia.espera}, y devuelve su respuesta. Entre nodos la
+ * primera reserva la clave con una fila sin estado y la otra recibe
+ * {@link ClaveEnCursoException}. Una reserva con más de
+ * {@code tasku.idempotencia.abandono} se da por abandonada, por ejemplo si el
+ * proceso cayó, y la toma la siguiente petición.
+ */
+@ApplicationScoped
+public class ClavesIdempotencia {
+
+    private static final Logger LOG = Logger.getLogger(ClavesIdempotencia.class);
+
+    public static final int LONGITUD_CLAVE = 255;
+
+    @Inject
+    ClaveIdempotenciaRepository repository;
+
+    @ConfigProperty(name = "tasku.idempotencia.tamano-maximo", defaultValue = "10000")
+    long tamanoMaximo;
+
+    @ConfigProperty(name = "tasku.idempotencia.ttl", defaultValue = "PT24H")
+    Duration ttl;
+
+    @ConfigProperty(name = "tasku.idempotencia.espera", defaultValue = "PT5S")
+    Duration espera;
+
+    @ConfigProperty(name = "tasku.idempotencia.abandono", defaultValue = "PT1M")
+    Duration abandono;
+
+    private Cache<String, Entrada> respuestas;
+    // Una ejecución por clave en este proceso: las repeticiones esperan su resultado
+    private final ConcurrentMap<String, CompletableFuture<Entrada>> enCurso = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void iniciar() {
+        respuestas = Caffeine.newBuilder()
+                .maximumSize(tamanoMaximo)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * La respuesta de la petición con esa clave: la guardada si ya se
+     * ejecutó con la misma {@code huella}, o la de {@code ejecucion}, que
+     * corre en una transacción nueva. Lanza {@link ClaveReutilizadaException}
+     * si la clave se usó con otra huella y {@link ClaveEnCursoException} si
+     * otra petición con ella no termina a tiempo.
+     */
+    public RespuestaGuardada ejecutar(String clave, String huella, Supplier<RespuestaGuardada> ejecucion) {
+        if (clave.isBlank() || clave.length() > LONGITUD_CLAVE) {
+            throw new IllegalArgumentException("La clave de idempotencia tiene que tener entre 1 y "
+                    + LONGITUD_CLAVE + " caracteres");
+        }
+        long limite = System.nanoTime() + espera.toNanos();
+        while (true) {
+            Entrada guardada = respuestas.getIfPresent(clave);
+            if (guardada != null) {
+                return guardada.repetir(clave, huella);
+            }
+            CompletableFuture<Entrada> propia = new CompletableFuture<>();
+            CompletableFuture<Entrada> otra = enCurso.putIfAbsent(clave, propia);
+            if (otra == null) {
+                Entrada entrada = null;
+                try {
+                    entrada = ejecutarPrimera(clave, huella, ejecucion);
+                    return entrada.respuesta();
+                } finally {
+                    enCurso.remove(clave, propia);
+                    propia.complete(entrada);
+                }
+            }
+            Entrada primera = esperar(clave, otra, limite);
+            if (primera != null && primera.guardada()) {
+                return primera.repetir(clave, huella);
+            }
+            // La primera no dejó respuesta que repetir: esta se ejecuta
+        }
+    }
+
+    @Scheduled(every = "{tasku.idempotencia.limpieza}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    @Transactional
+    void purgar() {
+        long purgadas = repository.purgarAnteriores(Tasku.ahora().minus(ttl));
+        if (purgadas > 0) {
+            LOG.debugf("Purgadas %d claves de idempotencia caducadas", purgadas);
+        }
+    }
+
+    private Entrada ejecutarPrimera(String clave, String huella, Supplier<RespuestaGuardada> ejecucion) {
+        Reserva reserva = reservar(clave, huella);
+        if (reserva.anterior() != null) {
+            respuestas.put(clave, reserva.anterior());
+            return new Entrada(reserva.anterior().huella(), reserva.anterior().repetir(clave, huella), true);
+        }
+        boolean[] guardada = {false};
+        RespuestaGuardada[] respuesta = {null};
+        try {
+            QuarkusTransaction.requiringNew().run(() -> {
+                RespuestaGuardada resultado = ejecucion.get();
+                respuesta[0] = resultado;
+                if (resultado.estado() >= 500) {
+                    QuarkusTransaction.setRollbackOnly();
+                }
+                // Si la escritura falló la transacción se deshace y no hay nada que repetir
+                if (!QuarkusTransaction.isRollbackOnly()) {
+                    ClaveIdempotencia fila = repository.findById(clave);
+                    fila.setEstado(resultado.estado());
+                    fila.setCuerpo(resultado.cuerpo());
+                    fila.setCabeceras(cabeceras(resultado.cabeceras()));
+                    fila.setTerminada(Tasku.ahora());
+                    guardada[0] = true;
+                }
+            });
+        } catch (RuntimeException e) {
+            liberar(clave, reserva.creada());
+            // Una transacción marcada para deshacer falla al confirmar, pero la respuesta ya está
+            if (guardada[0] || respuesta[0] == null) {
+                throw e;
+            }
+            return new Entrada(huella, respuesta[0], false);
+        }
+        if (!guardada[0]) {
+            liberar(clave, reserva.creada());
+            return new Entrada(huella, respuesta[0], false);
+        }
+        Entrada entrada = new Entrada(huella, respuesta[0], true);
+        respuestas.put(clave, entrada);
+        return entrada;
+    }
+
+    /**
+     * Reserva la clave en la tabla, o devuelve la respuesta que ya tiene.
+     */
+    private Reserva reservar(String clave, String huella) {
+        for (int intento = 0; ; intento++) {
+            try {
+                return QuarkusTransaction.requiringNew().call(() -> {
+                    LocalDateTime ahora = Tasku.ahora();
+                    ClaveIdempotencia fila = repository.buscarParaActualizar(clave).orElse(null);
+                    if (fila == null) {
+                        fila = new ClaveIdempotencia(clave, huella);
+                        repository.persist(fila);
+                        repository.flush();
+                        return new Reserva(fila.getCreada(), null);
+                    }
+                    boolean caducada = fila.getCreada().isBefore(ahora.minus(ttl));
+                    if (fila.estaTerminada() && !caducada) {
+                        return new Reserva(null, new Entrada(fila.getHuella(), new RespuestaGuardada(
+                                fila.getEstado(), fila.getCuerpo(), cabeceras(fila.getCabeceras())), true));
+                    }
+                    if (!fila.estaTerminada() && !caducada && fila.getCreada().isAfter(ahora.minus(abandono))) {
+                        throw new ClaveEnCursoException(clave);
+                    }
+                    // Caducada o abandonada: se vuelve a usar como si fuera nueva
+                    fila.setHuella(huella);
+                    fila.setEstado(null);
+                    fila.setCuerpo(null);
+                    fila.setCabeceras(null);
+                    fila.setCreada(ahora);
+                    fila.setTerminada(null);
+                    return new Reserva(ahora, null);
+                });
+            } catch (ClaveEnCursoException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                // Otro nodo insertó la misma clave a la vez: la siguiente vuelta la encuentra
+                if (intento > 0) {
+                    throw e;
+                }
+                LOG.debugf("Reserva concurrente de la clave de idempotencia %s: %s", clave, e.getMessage());
+            }
+        }
+    }
+
+    private void liberar(String clave, LocalDateTime creada) {
+        try {
+            QuarkusTransaction.requiringNew().run(() -> repository.liberar(clave, creada));
+        } catch (RuntimeException e) {
+            // Se libera sola cuando pasa el tiempo de abandono
+            LOG.warnf("No se ha podido liberar la clave de idempotencia %s: %s", clave, e.getMessage());
+        }
+    }
+
+    private Entrada esperar(String clave, CompletableFuture<Entrada> otra, long limite) {
+        try {
+            return otra.get(Math.max(0, limite - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new ClaveEnCursoException(clave);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ClaveEnCursoException(clave);
+        } catch (ExecutionException e) {
+            return null;
+        }
+    }
+
+    static String cabeceras(Map<String, String> cabeceras) {
+        StringBuilder texto = new StringBuilder();
+        cabeceras.forEach((nombre, valor) -> texto.append(nombre).append(": ").append(valor).append('\n'));
+        return texto.toString();
+    }
+
+    static Map<String, String> cabeceras(String texto) {
+        Map<String, String> cabeceras = new LinkedHashMap<>();
+        if (texto != null) {
+            for (String linea : texto.split("\n")) {
+                int separador = linea.indexOf(": ");
+                if (separador > 0) {
+                    cabeceras.put(linea.substring(0, separador), linea.substring(separador + 2));
+                }
+            }
+        }
+        return cabeceras;
+    }
+
+    /**
+     * Lo que se recuerda de una clave: la huella de su petición y su
+     * respuesta, que solo se repite si quedó guardada.
+     */
+    private record Entrada(String huella, RespuestaGuardada respuesta, boolean guardada) {
+
+        RespuestaGuardada repetir(String clave, String otraHuella) {
+            if (!huella.equals(otraHuella)) {
+                throw new ClaveReutilizadaException(clave);
+            }
+            return respuesta.comoRepetida();
+        }
+    }
+
+    /**
+     * La clave reservada con su momento de reserva, o su respuesta si ya tenía.
+     */
+    private record Reserva(LocalDateTime creada, Entrada anterior) {
+    }
+}
@@ -0,0 +1,27 @@
+package com.tasku.idempotencia;
+
+import java.util.Map;
+
+/**
+ * La respuesta que recibió una petición con clave de idempotencia, tal como se
+ * devuelve a sus repeticiones.
+ *
+ * @param estado    código HTTP
+ * @param cuerpo    cuerpo ya serializado, o {@code null} si no tenía
+ * @param cabeceras cabeceras que se repiten con ella, como el tipo de contenido o la ETag
+ * @param repetida  si es la de una petición anterior y no la de esta
+ */
+public record RespuestaGuardada(int estado, String cuerpo, Map<String, String> cabeceras, boolean repetida) {
+
+    public RespuestaGuardada {
+        cabeceras = Map.copyOf(cabeceras);
+    }
+
+    public RespuestaGuardada(int estado, String cuerpo, Map<String, String> cabeceras) {
+        this(estado, cuerpo, cabeceras, false);
+    }
+
+    RespuestaGuardada comoRepetida() {
+        return new RespuestaGuardada(estado, cuerpo, cabeceras, true);
+    }
+}
@@ -0,0 +1,38 @@
+package com.tasku.indice;
+
+import com.tasku.dto.TaskuParcial;
+import com.tasku.model.Tasku;
+import java.util.function.Function;
+
+/**
+ * Atributos de estado que {@link IndiceEstados} indexa, cada uno con la
+ * columna de la que se lee al reconstruir y su valor en la tarea. Sirven los
+ * de pocos valores distintos: cada valor tiene su propio {@link MapaBits}.
+ */
+public enum AtributoTasku {
+    COMPLETADA(TaskuParcial.Campo.COMPLETADA,
+            tasku -> Boolean.TRUE.equals(tasku.getCompletada()),
+            parcial -> Boolean.TRUE.equals(parcial.completada()));
+
+    private final TaskuParcial.Campo campo;
+    private final Function<Tasku, Object> valor;
+    private final Function<TaskuParcial, Object> valorParcial;
+
+    AtributoTasku(TaskuParcial.Campo campo, Function<Tasku, Object> valor, Function<TaskuParcial, Object> valorParcial) {
+        this.campo = campo;
+        this.valor = valor;
+        this.valorParcial = valorParcial;
+    }
+
+    public TaskuParcial.Campo campo() {
+        return campo;
+    }
+
+    public Object valor(Tasku tasku) {
+        return valor.apply(tasku);
+    }
+
+    public Object valor(TaskuParcial tasku) {
+        return valorParcial.apply(tasku);
+    }
+}
@@ -0,0 +1,304 @@
+package com.tasku.indice;
+
+import com.tasku.almacen.AlmacenTaskus;
+import com.tasku.dto.TaskuParcial;
+import com.tasku.event.CambioReplicado;
+import com.tasku.event.TaskuCambio;
+import com.tasku.repository.ConsultaTaskus;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import org.jboss.logging.Logger;
+
+/**
+ * Índice secundario en memoria de los {@link AtributoTasku atributos de
+ * estado}: para cada valor, el {@link MapaBits} de los ids de las tareas que lo
+ * tienen. Contar o paginar por una combinación de valores es intersecar mapas
+ * de bits, sin consultar la base de datos.
+ *
+ * <p>Se construye al arrancar y se mantiene con los cambios ya confirmados, de
+ * este proceso y, a través del relevo, de los demás nodos. Los de otros nodos
+ * llegan con el retraso del relevo.
+ */
+@ApplicationScoped
+public class IndiceEstados {
+
+    private static final Logger LOG = Logger.getLogger(IndiceEstados.class);
+
+    private static final Set<TaskuParcial.Campo> CAMPOS_INDICE = campos();
+
+    @Inject
+    AlmacenTaskus almacen;
+
+    @Inject
+    MeterRegistry registro;
+
+    private final ReentrantReadWriteLock cerrojo = new ReentrantReadWriteLock();
+    private Mapas mapas = new Mapas();
+    // Cambios aplicados mientras se reconstruye, que el índice nuevo puede no haber visto
+    private List<TaskuCambio> duranteReconstruccion;
+    // Cargas en curso que escriben filas sin publicar cambios
+    private final AtomicInteger cargas = new AtomicInteger();
+
+    @PostConstruct
+    void iniciar() {
+        Gauge.builder("tasku.indice.estados.bytes", this, IndiceEstados::bytes)
+                .description("Memoria que ocupan los mapas de bits del índice de estados")
+                .register(registro);
+        Gauge.builder("tasku.indice.estados.tareas", this, IndiceEstados::tamano)
+                .description("Tareas en el índice de estados")
+                .register(registro);
+    }
+
+    void construir(@Observes StartupEvent evento) {
+        reconstruir();
+    }
+
+    /**
+     * Vuelve a construir el índice a partir de la base de datos, por ejemplo
+     * después de una carga masiva que no publica cambios fila a fila. Se
+     * construye aparte y se sustituye al terminar, así las consultas no ven un
+     * índice a medias.
+     */
+    @Transactional
+    public synchronized void reconstruir() {
+        long inicio = System.nanoTime();
+        escribir(() -> duranteReconstruccion = new ArrayList<>());
+        Mapas nuevos = new Mapas();
+        try {
+            almacen.recorrerCampos(ConsultaTaskus.porEstadoYTitulo(null, null, null, null), CAMPOS_INDICE,
+                    tasku -> nuevos.poner(tasku.id(), atributo -> atributo.valor(tasku)));
+        } catch (RuntimeException e) {
+            // Se queda el índice anterior, que sí se ha mantenido con los cambios
+            escribir(() -> duranteReconstruccion = null);
+            throw e;
+        }
+        escribir(() -> {
+            // Reaplicados en orden, el último cambio de cada tarea es el que queda
+            duranteReconstruccion.forEach(nuevos::aplicar);
+            duranteReconstruccion = null;
+            mapas = nuevos;
+        });
+        LOG.infof("Índice de estados construido con %d tareas en %d ms; ocupa %d bytes",
+                nuevos.todas.cardinalidad(), (System.nanoTime() - inicio) / 1_000_000, bytes());
+    }
+
+    /**
+     * Avisa de que empieza una escritura que no publica cambios, como una
+     * importación: hasta {@link #terminarCarga()} el índice puede no tener
+     * sus filas.
+     */
+    public void empezarCarga() {
+        cargas.incrementAndGet();
+    }
+
+    public void terminarCarga() {
+        cargas.decrementAndGet();
+    }
+
+    /**
+     * Si tiene todas las filas que ha visto este proceso: no, mientras se
+     * reconstruye o hay una carga en curso.
+     */
+    public boolean alDia() {
+        if (cargas.get() > 0) {
+            return false;
+        }
+        cerrojo.readLock().lock();
+        try {
+            return duranteReconstruccion == null;
+        } finally {
+            cerrojo.readLock().unlock();
+        }
+    }
+
+    void actualizar(@Observes(during = TransactionPhase.AFTER_SUCCESS) TaskuCambio cambio) {
+        aplicar(cambio);
+    }
+
+    void replicar(@Observes CambioReplicado replicado) {
+        if (replicado.aplicaAEstadoCargado()) {
+            aplicar(replicado.cambio());
+        }
+    }
+
+    /**
+     * Tareas con todos los valores de {@code filtro}; con el filtro vacío, todas.
+     */
+    public long contar(Map<AtributoTasku, ?> filtro) {
+        cerrojo.readLock().lock();
+        try {
+            List<MapaBits> seleccion = mapas.seleccionar(filtro);
+            if (seleccion == null) {
+                return 0;
+            }
+            if (seleccion.size() == 2) {
+                return MapaBits.contarY(seleccion.get(0), seleccion.get(1));
+            }
+            return intersecar(seleccion).cardinalidad();
+        } finally {
+            cerrojo.readLock().unlock();
+        }
+    }
+
+    /**
+     * Hasta {@code limite} ids de tareas con todos los valores de
+     * {@code filtro}, en orden de id a partir del siguiente a {@code despuesDe}.
+     */
+    public List<Long> ids(Map<AtributoTasku, ?> filtro, Long despuesDe, boolean descendente, int limite) {
+        List<Long> ids = new ArrayList<>(Math.min(limite, 1024));
+        cerrojo.readLock().lock();
+        try {
+            List<MapaBits> seleccion = mapas.seleccionar(filtro);
+            if (seleccion == null || limite <= 0) {
+                return ids;
+            }
+            intersecar(seleccion).recorrer(despuesDe, descendente, id -> {
+                ids.add(id);
+                return ids.size() < limite;
+            });
+            return ids;
+        } finally {
+            cerrojo.readLock().unlock();
+        }
+    }
+
+    public long tamano() {
+        cerrojo.readLock().lock();
+        try {
+            return mapas.todas.cardinalidad();
+        } finally {
+            cerrojo.readLock().unlock();
+        }
+    }
+
+    /**
+     * Memoria que ocupan los mapas de bits, sin las cabeceras de los objetos.
+     */
+    public long bytes() {
+        cerrojo.readLock().lock();
+        try {
+            long bytes = mapas.todas.bytes();
+            for (Map<Object, MapaBits> porValor : mapas.porAtributo.values()) {
+                for (MapaBits mapa : porValor.values()) {
+                    bytes += mapa.bytes();
+                }
+            }
+            return bytes;
+        } finally {
+            cerrojo.readLock().unlock();
+        }
+    }
+
+    private void aplicar(TaskuCambio cambio) {
+        escribir(() -> {
+            mapas.aplicar(cambio);
+            if (duranteReconstruccion != null) {
+                duranteReconstruccion.add(cambio);
+            }
+        });
+    }
+
+    private void escribir(Runnable escritura) {
+        cerrojo.writeLock().lock();
+        try {
+            escritura.run();
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+    }
+
+    private static MapaBits intersecar(List<MapaBits> seleccion) {
+        MapaBits resultado = seleccion.get(0);
+        for (int i = 1; i < seleccion.size(); i++) {
+            resultado = MapaBits.y(resultado, seleccion.get(i));
+        }
+        return resultado;
+    }
+
+    private static Set<TaskuParcial.Campo> campos() {
+        Set<TaskuParcial.Campo> campos = EnumSet.of(TaskuParcial.Campo.ID);
+        for (AtributoTasku atributo : AtributoTasku.values()) {
+            campos.add(atributo.campo());
+        }
+        return campos;
+    }
+
+    /**
+     * Los mapas de bits de todas las tareas y de cada valor de cada atributo.
+     */
+    private static final class Mapas {
+
+        final MapaBits todas = new MapaBits();
+        final Map<AtributoTasku, Map<Object, MapaBits>> porAtributo = new EnumMap<>(AtributoTasku.class);
+
+        Mapas() {
+            for (AtributoTasku atributo : AtributoTasku.values()) {
+                porAtributo.put(atributo, new HashMap<>());
+            }
+        }
+
+        void aplicar(TaskuCambio cambio) {
+            if (cambio.tipo() == TaskuCambio.Tipo.ELIMINADA) {
+                quitar(cambio.id());
+            } else {
+                poner(cambio.id(), atributo -> atributo.valor(cambio.tasku()));
+            }
+        }
+
+        void poner(long id, Function<AtributoTasku, Object> valores) {
+            todas.agregar(id);
+            porAtributo.forEach((atributo, porValor) -> {
+                Object valor = valores.apply(atributo);
+                porValor.forEach((otro, mapa) -> {
+                    if (!Objects.equals(otro, valor)) {
+                        mapa.quitar(id);
+                    }
+                });
+                porValor.computeIfAbsent(valor, v -> new MapaBits()).agregar(id);
+            });
+        }
+
+        void quitar(long id) {
+            if (todas.quitar(id)) {
+                porAtributo.values().forEach(porValor -> porValor.values().forEach(mapa -> mapa.quitar(id)));
+            }
+        }
+
+        /**
+         * Los mapas de los valores del filtro, o {@code null} si alguno no lo
+         * tiene ninguna tarea.
+         */
+        List<MapaBits> seleccionar(Map<AtributoTasku, ?> filtro) {
+            if (filtro.isEmpty()) {
+                return List.of(todas);
+            }
+            List<MapaBits> seleccion = new ArrayList<>(filtro.size());
+            for (Map.Entry<AtributoTasku, ?> condicion : filtro.entrySet()) {
+                MapaBits mapa = porAtributo.get(condicion.getKey()).get(condicion.getValue());
+                if (mapa == null) {
+                    return null;
+                }
+                seleccion.add(mapa);
+            }
+            return seleccion;
+        }
+    }
+}
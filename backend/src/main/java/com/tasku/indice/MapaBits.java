@@ -0,0 +1,364 @@
+package com.tasku.indice;
+
+import java.util.Arrays;
+import java.util.function.LongPredicate;
+
+/**
+ * Conjunto de ids comprimido, con la organización de los Roaring bitmaps: los
+ * ids se reparten en bloques de 65536 por sus bits altos y cada bloque guarda
+ * los 16 bits bajos como lista ordenada de {@code char} mientras tiene pocos
+ * valores y como mapa de 65536 bits (8 KiB) cuando tiene muchos. Así un
+ * conjunto denso ocupa un bit por id y uno disperso dos bytes por id, y la
+ * intersección de dos bloques densos es un AND de 1024 palabras.
+ *
+ * <p>No es seguro entre hilos: {@link IndiceEstados} lo protege.
+ */
+public final class MapaBits {
+
+    // Valores a partir de los que un bloque pasa de lista a mapa de bits: con 4096 ocupan lo mismo
+    static final int MAXIMO_LISTA = 4096;
+    private static final int PALABRAS = 1024;
+
+    private long[] claves = new long[4];
+    private Bloque[] bloques = new Bloque[4];
+    private int tamano;
+    private long cardinalidad;
+
+    public boolean agregar(long id) {
+        long clave = id >>> 16;
+        int posicion = buscar(clave);
+        if (posicion < 0) {
+            posicion = -posicion - 1;
+            insertar(posicion, clave, new Bloque());
+        }
+        if (!bloques[posicion].agregar((char) id)) {
+            return false;
+        }
+        cardinalidad++;
+        return true;
+    }
+
+    public boolean quitar(long id) {
+        int posicion = buscar(id >>> 16);
+        if (posicion < 0 || !bloques[posicion].quitar((char) id)) {
+            return false;
+        }
+        cardinalidad--;
+        if (bloques[posicion].tamano == 0) {
+            System.arraycopy(claves, posicion + 1, claves, posicion, tamano - posicion - 1);
+            System.arraycopy(bloques, posicion + 1, bloques, posicion, tamano - posicion - 1);
+            bloques[--tamano] = null;
+        }
+        return true;
+    }
+
+    public boolean contiene(long id) {
+        int posicion = buscar(id >>> 16);
+        return posicion >= 0 && bloques[posicion].contiene((char) id);
+    }
+
+    public long cardinalidad() {
+        return cardinalidad;
+    }
+
+    /**
+     * Bytes que ocupan los bloques y las tablas que los localizan, sin contar
+     * las cabeceras de los objetos.
+     */
+    public long bytes() {
+        long bytes = (long) claves.length * Long.BYTES + (long) bloques.length * Integer.BYTES;
+        for (int i = 0; i < tamano; i++) {
+            bytes += bloques[i].bytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * Los ids que están en los dos conjuntos.
+     */
+    public static MapaBits y(MapaBits a, MapaBits b) {
+        MapaBits resultado = new MapaBits();
+        int i = 0;
+        int j = 0;
+        while (i < a.tamano && j < b.tamano) {
+            int comparacion = Long.compare(a.claves[i], b.claves[j]);
+            if (comparacion == 0) {
+                Bloque comun = a.bloques[i].y(b.bloques[j]);
+                if (comun.tamano > 0) {
+                    resultado.insertar(resultado.tamano, a.claves[i], comun);
+                    resultado.cardinalidad += comun.tamano;
+                }
+                i++;
+                j++;
+            } else if (comparacion < 0) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Cuántos ids están en los dos conjuntos, sin construir la intersección.
+     */
+    public static long contarY(MapaBits a, MapaBits b) {
+        long total = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.tamano && j < b.tamano) {
+            int comparacion = Long.compare(a.claves[i], b.claves[j]);
+            if (comparacion == 0) {
+                total += a.bloques[i].contarY(b.bloques[j]);
+                i++;
+                j++;
+            } else if (comparacion < 0) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Pasa los ids en orden, empezando por el siguiente a {@code despuesDe} en
+     * ese sentido (por el primero si es {@code null}), hasta que se acaban o
+     * {@code consumidor} devuelve {@code false}.
+     */
+    public void recorrer(Long despuesDe, boolean descendente, LongPredicate consumidor) {
+        if (tamano == 0) {
+            return;
+        }
+        int posicion;
+        int desde;
+        if (despuesDe == null) {
+            posicion = descendente ? tamano - 1 : 0;
+            desde = descendente ? Character.MAX_VALUE : 0;
+        } else {
+            long clave = despuesDe >>> 16;
+            int encontrada = buscar(clave);
+            int bajo = (char) (long) despuesDe;
+            if (encontrada >= 0) {
+                posicion = encontrada;
+                desde = descendente ? bajo - 1 : bajo + 1;
+            } else {
+                // El bloque del cursor no existe: se empieza en el siguiente bloque en ese sentido
+                posicion = descendente ? -encontrada - 2 : -encontrada - 1;
+                desde = descendente ? Character.MAX_VALUE : 0;
+            }
+        }
+        while (posicion >= 0 && posicion < tamano) {
+            Bloque bloque = bloques[posicion];
+            long base = claves[posicion] << 16;
+            int valor = descendente ? bloque.anterior(desde) : bloque.siguiente(desde);
+            while (valor >= 0) {
+                if (!consumidor.test(base | valor)) {
+                    return;
+                }
+                valor = descendente ? bloque.anterior(valor - 1) : bloque.siguiente(valor + 1);
+            }
+            posicion += descendente ? -1 : 1;
+            desde = descendente ? Character.MAX_VALUE : 0;
+        }
+    }
+
+    private int buscar(long clave) {
+        return Arrays.binarySearch(claves, 0, tamano, clave);
+    }
+
+    private void insertar(int posicion, long clave, Bloque bloque) {
+        if (tamano == claves.length) {
+            claves = Arrays.copyOf(claves, tamano * 2);
+            bloques = Arrays.copyOf(bloques, tamano * 2);
+        }
+        System.arraycopy(claves, posicion, claves, posicion + 1, tamano - posicion);
+        System.arraycopy(bloques, posicion, bloques, posicion + 1, tamano - posicion);
+        claves[posicion] = clave;
+        bloques[posicion] = bloque;
+        tamano++;
+    }
+
+    /**
+     * Los 16 bits bajos de los ids de un bloque: en {@code lista} ordenada o,
+     * si es {@code null}, en {@code bits}.
+     */
+    static final class Bloque {
+
+        char[] lista = new char[4];
+        long[] bits;
+        int tamano;
+
+        boolean agregar(char valor) {
+            if (bits != null) {
+                long antes = bits[valor >>> 6];
+                bits[valor >>> 6] = antes | 1L << valor;
+                if (antes == bits[valor >>> 6]) {
+                    return false;
+                }
+                tamano++;
+                return true;
+            }
+            int posicion = Arrays.binarySearch(lista, 0, tamano, valor);
+            if (posicion >= 0) {
+                return false;
+            }
+            if (tamano == MAXIMO_LISTA) {
+                aBits();
+                return agregar(valor);
+            }
+            posicion = -posicion - 1;
+            if (tamano == lista.length) {
+                lista = Arrays.copyOf(lista, Math.min(tamano * 2, MAXIMO_LISTA));
+            }
+            System.arraycopy(lista, posicion, lista, posicion + 1, tamano - posicion);
+            lista[posicion] = valor;
+            tamano++;
+            return true;
+        }
+
+        boolean quitar(char valor) {
+            if (bits != null) {
+                long antes = bits[valor >>> 6];
+                bits[valor >>> 6] = antes & ~(1L << valor);
+                if (antes == bits[valor >>> 6]) {
+                    return false;
+                }
+                // Vuelve a lista con la mitad del umbral, para no cambiar de forma en cada alta y baja
+                if (--tamano <= MAXIMO_LISTA / 2) {
+                    aLista();
+                }
+                return true;
+            }
+            int posicion = Arrays.binarySearch(lista, 0, tamano, valor);
+            if (posicion < 0) {
+                return false;
+            }
+            System.arraycopy(lista, posicion + 1, lista, posicion, tamano - posicion - 1);
+            tamano--;
+            return true;
+        }
+
+        boolean contiene(char valor) {
+            if (bits != null) {
+                return (bits[valor >>> 6] & 1L << valor) != 0;
+            }
+            return Arrays.binarySearch(lista, 0, tamano, valor) >= 0;
+        }
+
+        /**
+         * El primer valor mayor o igual que {@code desde}, o -1.
+         */
+        int siguiente(int desde) {
+            if (desde > Character.MAX_VALUE) {
+                return -1;
+            }
+            if (bits == null) {
+                int posicion = Arrays.binarySearch(lista, 0, tamano, (char) desde);
+                posicion = posicion >= 0 ? posicion : -posicion - 1;
+                return posicion < tamano ? lista[posicion] : -1;
+            }
+            int palabra = desde >>> 6;
+            long resto = bits[palabra] & -1L << desde;
+            while (resto == 0) {
+                if (++palabra == PALABRAS) {
+                    return -1;
+                }
+                resto = bits[palabra];
+            }
+            return palabra << 6 | Long.numberOfTrailingZeros(resto);
+        }
+
+        /**
+         * El último valor menor o igual que {@code hasta}, o -1.
+         */
+        int anterior(int hasta) {
+            if (hasta < 0) {
+                return -1;
+            }
+            if (bits == null) {
+                int posicion = Arrays.binarySearch(lista, 0, tamano, (char) hasta);
+                posicion = posicion >= 0 ? posicion : -posicion - 2;
+                return posicion >= 0 ? lista[posicion] : -1;
+            }
+            int palabra = hasta >>> 6;
+            long resto = bits[palabra] & -1L >>> 63 - (hasta & 63);
+            while (resto == 0) {
+                if (--palabra < 0) {
+                    return -1;
+                }
+                resto = bits[palabra];
+            }
+            return palabra << 6 | 63 - Long.numberOfLeadingZeros(resto);
+        }
+
+        Bloque y(Bloque otro) {
+            Bloque comun = new Bloque();
+            if (bits != null && otro.bits != null) {
+                comun.bits = new long[PALABRAS];
+                for (int i = 0; i < PALABRAS; i++) {
+                    comun.bits[i] = bits[i] & otro.bits[i];
+                    comun.tamano += Long.bitCount(comun.bits[i]);
+                }
+                if (comun.tamano <= MAXIMO_LISTA) {
+                    comun.aLista();
+                }
+                return comun;
+            }
+            // Al menos uno es lista: se recorre la más corta y se busca cada valor en el otro
+            Bloque corto = bits == null && (otro.bits != null || tamano <= otro.tamano) ? this : otro;
+            Bloque largo = corto == this ? otro : this;
+            comun.lista = new char[Math.max(corto.tamano, 4)];
+            for (int i = 0; i < corto.tamano; i++) {
+                if (largo.contiene(corto.lista[i])) {
+                    comun.lista[comun.tamano++] = corto.lista[i];
+                }
+            }
+            return comun;
+        }
+
+        int contarY(Bloque otro) {
+            int total = 0;
+            if (bits != null && otro.bits != null) {
+                for (int i = 0; i < PALABRAS; i++) {
+                    total += Long.bitCount(bits[i] & otro.bits[i]);
+                }
+                return total;
+            }
+            Bloque corto = bits == null && (otro.bits != null || tamano <= otro.tamano) ? this : otro;
+            Bloque largo = corto == this ? otro : this;
+            for (int i = 0; i < corto.tamano; i++) {
+                if (largo.contiene(corto.lista[i])) {
+                    total++;
+                }
+            }
+            return total;
+        }
+
+        long bytes() {
+            return bits != null ? (long) bits.length * Long.BYTES : (long) lista.length * Character.BYTES;
+        }
+
+        private void aBits() {
+            bits = new long[PALABRAS];
+            for (int i = 0; i < tamano; i++) {
+                bits[lista[i] >>> 6] |= 1L << lista[i];
+            }
+            lista = null;
+        }
+
+        private void aLista() {
+            char[] valores = new char[Math.max(tamano, 4)];
+            int n = 0;
+            for (int palabra = 0; palabra < PALABRAS; palabra++) {
+                long resto = bits[palabra];
+                while (resto != 0) {
+                    valores[n++] = (char) (palabra << 6 | Long.numberOfTrailingZeros(resto));
+                    resto &= resto - 1;
+                }
+            }
+            lista = valores;
+            bits = null;
+        }
+    }
+}
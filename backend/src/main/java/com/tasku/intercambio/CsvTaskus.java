@@ -0,0 +1,260 @@
+package com.tasku.intercambio;
+
+import com.tasku.dto.TaskuParcial;
+import com.tasku.model.Tasku;
+import java.io.BufferedWriter;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CSV de tareas con las convenciones del {@code COPY ... (FORMAT csv)} de
+ * PostgreSQL, para que la exportación por COPY y la escrita aquí se puedan
+ * importar por los dos caminos: un valor vacío sin comillas es nulo y uno
+ * entre comillas es el texto vacío, las comillas se escapan doblándolas y las
+ * fechas van con un espacio entre día y hora ({@code T} también se acepta).
+ */
+public final class CsvTaskus {
+
+    public static final String[] COLUMNAS =
+            {"id", "titulo", "descripcion", "completada", "fecha_creacion", "fecha_actualizacion"};
+
+    static final String CABECERA = String.join(",", COLUMNAS);
+
+    private static final DateTimeFormatter FECHA = new DateTimeFormatterBuilder()
+            .append(DateTimeFormatter.ISO_LOCAL_DATE)
+            .appendLiteral(' ')
+            .append(DateTimeFormatter.ISO_LOCAL_TIME)
+            .toFormatter();
+
+    private CsvTaskus() {
+    }
+
+    /**
+     * Escribe filas sobre un búfer propio que se vacía en la salida cuando se
+     * llena. No es seguro entre hilos.
+     */
+    public static final class Escritor implements Flushable {
+
+        private final Writer salida;
+
+        public Escritor(OutputStream salida) {
+            this.salida = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8), 8192);
+        }
+
+        public void cabecera() throws IOException {
+            salida.write(CABECERA);
+            salida.write('\n');
+        }
+
+        public void escribir(TaskuParcial tasku) throws IOException {
+            escribir(tasku.id(), tasku.titulo(), tasku.descripcion(), tasku.completada(),
+                    tasku.fechaCreacion(), tasku.fechaActualizacion());
+        }
+
+        public void escribir(Tasku tasku) throws IOException {
+            escribir(tasku.getId(), tasku.getTitulo(), tasku.getDescripcion(), tasku.getCompletada(),
+                    tasku.getFechaCreacion(), tasku.getFechaActualizacion());
+        }
+
+        @Override
+        public void flush() throws IOException {
+            salida.flush();
+        }
+
+        private void escribir(Long id, String titulo, String descripcion, Boolean completada,
+                              LocalDateTime fechaCreacion, LocalDateTime fechaActualizacion) throws IOException {
+            if (id != null) {
+                salida.write(Long.toString(id));
+            }
+            salida.write(',');
+            texto(titulo);
+            salida.write(',');
+            texto(descripcion);
+            salida.write(',');
+            if (completada != null) {
+                salida.write(completada ? "true" : "false");
+            }
+            salida.write(',');
+            fecha(fechaCreacion);
+            salida.write(',');
+            fecha(fechaActualizacion);
+            salida.write('\n');
+        }
+
+        private void texto(String valor) throws IOException {
+            if (valor == null) {
+                return;
+            }
+            if (!valor.isEmpty() && !necesitaComillas(valor)) {
+                salida.write(valor);
+                return;
+            }
+            salida.write('"');
+            salida.write(valor.replace("\"", "\"\""));
+            salida.write('"');
+        }
+
+        private void fecha(LocalDateTime valor) throws IOException {
+            if (valor != null) {
+                salida.write(FECHA.format(valor));
+            }
+        }
+
+        private static boolean necesitaComillas(String valor) {
+            for (int i = 0; i < valor.length(); i++) {
+                char c = valor.charAt(i);
+                if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Lee las filas una a una. La cabecera dice en qué posición va cada
+     * columna; las que falten se quedan nulas y las desconocidas se ignoran.
+     */
+    static final class Lector implements LectorTaskus {
+
+        private final Reader entrada;
+        private final int[] posiciones = new int[COLUMNAS.length];
+        private final StringBuilder valor = new StringBuilder();
+        private long fila;
+        private int siguienteCaracter = -2;
+
+        Lector(Reader entrada) throws IOException {
+            this.entrada = entrada;
+            List<String> cabecera = registro();
+            if (cabecera == null) {
+                throw new IllegalArgumentException("El CSV no tiene cabecera");
+            }
+            for (int i = 0; i < COLUMNAS.length; i++) {
+                posiciones[i] = cabecera.indexOf(COLUMNAS[i]);
+            }
+        }
+
+        @Override
+        public Tasku siguiente() throws IOException {
+            List<String> valores = registro();
+            if (valores == null) {
+                return null;
+            }
+            fila++;
+            try {
+                Tasku tasku = new Tasku(columna(valores, 1), columna(valores, 2));
+                String id = columna(valores, 0);
+                tasku.setId(id == null ? null : Long.valueOf(id));
+                String completada = columna(valores, 3);
+                tasku.setCompletada(completada == null ? null : booleano(completada));
+                tasku.setFechaCreacion(fecha(columna(valores, 4)));
+                tasku.setFechaActualizacion(fecha(columna(valores, 5)));
+                return tasku;
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Fila " + fila + ": fecha no válida: " + e.getParsedString());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Fila " + fila + ": " + e.getMessage());
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            entrada.close();
+        }
+
+        private String columna(List<String> valores, int columna) {
+            int posicion = posiciones[columna];
+            return posicion >= 0 && posicion < valores.size() ? valores.get(posicion) : null;
+        }
+
+        private static Boolean booleano(String valor) {
+            return switch (valor.toLowerCase()) {
+                case "true", "t" -> true;
+                case "false", "f" -> false;
+                default -> throw new IllegalArgumentException("completada no válida: " + valor);
+            };
+        }
+
+        private static LocalDateTime fecha(String valor) {
+            return valor == null ? null : LocalDateTime.parse(valor.replace(' ', 'T'));
+        }
+
+        /**
+         * Los valores del siguiente registro, o {@code null} al final. Un
+         * registro entre comillas puede ocupar varias líneas.
+         */
+        private List<String> registro() throws IOException {
+            int c = leer();
+            while (c == '\n' || c == '\r') {
+                c = leer();
+            }
+            if (c == -1) {
+                return null;
+            }
+            List<String> valores = new ArrayList<>(COLUMNAS.length);
+            while (true) {
+                valor.setLength(0);
+                boolean entreComillas = false;
+                if (c == '"') {
+                    entreComillas = true;
+                    while (true) {
+                        c = leer();
+                        if (c == -1) {
+                            throw new IllegalArgumentException("Fila " + (fila + 1) + ": comillas sin cerrar");
+                        }
+                        if (c == '"') {
+                            c = leer();
+                            if (c != '"') {
+                                break;
+                            }
+                        }
+                        valor.append((char) c);
+                    }
+                } else {
+                    while (c != ',' && c != '\n' && c != '\r' && c != -1) {
+                        valor.append((char) c);
+                        c = leer();
+                    }
+                }
+                valores.add(!entreComillas && valor.isEmpty() ? null : valor.toString());
+                if (c == ',') {
+                    c = leer();
+                    continue;
+                }
+                if (c == '\r') {
+                    c = leer();
+                    if (c != '\n') {
+                        devolver(c);
+                    }
+                } else if (c != '\n' && c != -1) {
+                    throw new IllegalArgumentException("Fila " + (fila + 1) + ": texto después de las comillas");
+                }
+                return valores;
+            }
+        }
+
+        private int leer() throws IOException {
+            if (siguienteCaracter != -2) {
+                int c = siguienteCaracter;
+                siguienteCaracter = -2;
+                return c;
+            }
+            return entrada.read();
+        }
+
+        private void devolver(int c) {
+            siguienteCaracter = c;
+        }
+    }
+}
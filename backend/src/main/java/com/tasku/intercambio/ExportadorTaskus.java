@@ -0,0 +1,109 @@
+package com.tasku.intercambio;
+
+import com.tasku.almacen.AlmacenTaskus;
+import com.tasku.dto.TaskuParcial;
+import com.tasku.json.EscritorJsonTaskus;
+import com.tasku.repository.ConsultaTaskus;
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.postgresql.PGConnection;
+
+/**
+ * Vuelca todas las tareas en orden de id sobre una salida, con memoria
+ * constante sea cual sea su número.
+ *
+ * <p>Con PostgreSQL y el almacén JDBC lo hace el servidor con
+ * {@code COPY ... TO STDOUT}: las filas llegan ya formateadas y se copian a la
+ * salida sin pasar por objetos, y la exportación es una instantánea. Con otra
+ * base de datos o con el almacén en log se recorren las tareas en una
+ * transacción y se escriben aquí. Esa transacción dura lo que tarde el cliente
+ * en leer la exportación entera, así que tiene su propio límite,
+ * {@code tasku.intercambio.limite-exportacion}, en lugar del de todas las
+ * transacciones.
+ */
+@ApplicationScoped
+public class ExportadorTaskus {
+
+    static final String COPIAR_CSV = "COPY (SELECT id, titulo, descripcion, completada, fecha_creacion, "
+            + "fecha_actualizacion FROM taskus ORDER BY id) TO STDOUT WITH (FORMAT csv, HEADER)";
+
+    // El JSON de cada fila lo construye el servidor. Como CSV con comillas y delimitador que
+    // json_build_object siempre escapa, cada objeto sale tal cual en su línea
+    static final String COPIAR_NDJSON = "COPY (SELECT json_build_object('id', id, 'titulo', titulo, "
+            + "'descripcion', descripcion, 'completada', completada, 'fechaCreacion', fecha_creacion, "
+            + "'fechaActualizacion', fecha_actualizacion) FROM taskus ORDER BY id) "
+            + "TO STDOUT WITH (FORMAT csv, QUOTE E'\\x01', DELIMITER E'\\x02')";
+
+    static final String POSTGRESQL = "postgresql";
+
+    @Inject
+    AlmacenTaskus almacen;
+
+    @Inject
+    AgroalDataSource fuente;
+
+    @ConfigProperty(name = "quarkus.datasource.db-kind")
+    String baseDatos;
+
+    @ConfigProperty(name = "tasku.almacen.motor", defaultValue = AlmacenTaskus.MOTOR_JDBC)
+    String motor;
+
+    @ConfigProperty(name = "tasku.intercambio.limite-exportacion", defaultValue = "PT1H")
+    Duration limite;
+
+    public void exportar(FormatoIntercambio formato, OutputStream salida) throws IOException {
+        if (POSTGRESQL.equals(baseDatos) && AlmacenTaskus.MOTOR_JDBC.equals(motor)) {
+            copiar(formato == FormatoIntercambio.CSV ? COPIAR_CSV : COPIAR_NDJSON, salida);
+        } else if (formato == FormatoIntercambio.CSV) {
+            CsvTaskus.Escritor escritor = new CsvTaskus.Escritor(salida);
+            escritor.cabecera();
+            recorrer(tasku -> escritor.escribir(tasku));
+            escritor.flush();
+        } else {
+            EscritorJsonTaskus escritor = new EscritorJsonTaskus(salida);
+            recorrer(tasku -> {
+                escritor.escribir(tasku);
+                escritor.finLinea();
+            });
+            escritor.flush();
+        }
+    }
+
+    private void copiar(String sentencia, OutputStream salida) throws IOException {
+        try (Connection conexion = fuente.getConnection()) {
+            conexion.unwrap(PGConnection.class).getCopyAPI().copyOut(sentencia, salida);
+        } catch (SQLException e) {
+            throw new IOException("Error al exportar las tareas: " + e.getMessage(), e);
+        }
+        salida.flush();
+    }
+
+    private void recorrer(Escritura escritura) throws IOException {
+        try {
+            QuarkusTransaction.joiningExisting().timeout((int) limite.toSeconds()).run(() -> almacen.recorrerCampos(
+                    ConsultaTaskus.porEstadoYTitulo(null, null, null, null), TaskuParcial.TODOS, tasku -> {
+                        try {
+                            escritura.escribir(tasku);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Escritura {
+        void escribir(TaskuParcial tasku) throws IOException;
+    }
+}
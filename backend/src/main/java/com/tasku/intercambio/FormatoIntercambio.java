@@ -0,0 +1,41 @@
+package com.tasku.intercambio;
+
+import jakarta.ws.rs.core.MediaType;
+
+/**
+ * Formatos de exportación e importación: una tarea por línea en JSON, con los
+ * mismos nombres de campo que la API, o CSV con cabecera y los nombres de
+ * columna de la tabla.
+ */
+public enum FormatoIntercambio {
+    NDJSON(FormatoIntercambio.APPLICATION_NDJSON),
+    CSV(FormatoIntercambio.TEXT_CSV);
+
+    public static final String APPLICATION_NDJSON = "application/x-ndjson";
+    public static final String TEXT_CSV = "text/csv";
+
+    private final String tipo;
+
+    FormatoIntercambio(String tipo) {
+        this.tipo = tipo;
+    }
+
+    public String tipo() {
+        return tipo;
+    }
+
+    /**
+     * El formato de un tipo de contenido; NDJSON si no se indica.
+     */
+    public static FormatoIntercambio de(MediaType tipo) {
+        if (tipo == null) {
+            return NDJSON;
+        }
+        for (FormatoIntercambio formato : values()) {
+            if (MediaType.valueOf(formato.tipo).isCompatible(tipo)) {
+                return formato;
+            }
+        }
+        throw new IllegalArgumentException("Formato no admitido: " + tipo);
+    }
+}
@@ -0,0 +1,22 @@
+package com.tasku.intercambio;
+
+import com.tasku.dto.ProgresoImportacion;
+
+/**
+ * Una importación se detuvo en una fila no válida o por un fallo al escribir.
+ * Lo anterior a esa fila ya está confirmado: el progreso dice cuánto, y un
+ * reintento con el mismo id de importación sigue desde ahí.
+ */
+public class ImportacionInterrumpidaException extends RuntimeException {
+
+    private final ProgresoImportacion progreso;
+
+    public ImportacionInterrumpidaException(ProgresoImportacion progreso, Throwable causa) {
+        super(causa.getMessage(), causa);
+        this.progreso = progreso.conError(causa.getMessage());
+    }
+
+    public ProgresoImportacion getProgreso() {
+        return progreso;
+    }
+}
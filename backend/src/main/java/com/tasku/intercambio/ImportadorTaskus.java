@@ -0,0 +1,405 @@
+package com.tasku.intercambio;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tasku.almacen.AlmacenTaskus;
+import com.tasku.cache.TaskuCache;
+import com.tasku.dto.ProgresoImportacion;
+import com.tasku.indice.IndiceEstados;
+import com.tasku.model.Tasku;
+import com.tasku.search.BuscadorMemoria;
+import com.tasku.service.ContadoresTaskus;
+import com.tasku.service.VersionColeccion;
+import io.agroal.api.AgroalDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.PersistenceException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+
+/**
+ * Carga tareas en bloque desde NDJSON o CSV conservando sus ids, para
+ * restaurar una exportación. La entrada se lee fila a fila y se escribe en
+ * bloques de {@code tasku.intercambio.tamano-bloque}, cada uno en su
+ * transacción: con PostgreSQL por {@code COPY ... FROM STDIN} y con otra base
+ * de datos con un INSERT por lotes. La memoria usada es la de un bloque, sea
+ * cual sea el tamaño de la entrada.
+ *
+ * <p>Cada importación tiene un punto de control en {@code taskus_importaciones}
+ * con las filas confirmadas, que avanza en la misma transacción que cada bloque.
+ * Si se interrumpe, volver a enviar la misma entrada con el mismo id salta esas
+ * filas y sigue por la primera que no entró.
+ *
+ * <p>Las filas no pasan por el registro de cambios: al terminar, o al
+ * interrumpirse, se reconstruye lo que este proceso deriva de las tareas, pero
+ * los demás nodos no se enteran. Está pensada para cargar una base de datos
+ * vacía o parada, no para mezclar con tráfico de escritura.
+ */
+@ApplicationScoped
+public class ImportadorTaskus {
+
+    private static final Logger LOG = Logger.getLogger(ImportadorTaskus.class);
+
+    static final int LONGITUD_ID = 64;
+    static final int TAMANO_LOTE_JDBC = 1000;
+
+    static final String COPIAR_DESDE = "COPY taskus (id, titulo, descripcion, completada, fecha_creacion, "
+            + "fecha_actualizacion) FROM STDIN WITH (FORMAT csv)";
+    static final String INSERTAR = "INSERT INTO taskus (id, titulo, descripcion, completada, fecha_creacion, "
+            + "fecha_actualizacion, version) VALUES (?, ?, ?, ?, ?, ?, 0)";
+
+    @Inject
+    AgroalDataSource fuente;
+
+    @Inject
+    ObjectMapper mapeador;
+
+    @Inject
+    TaskuCache cache;
+
+    @Inject
+    ContadoresTaskus contadores;
+
+    @Inject
+    BuscadorMemoria buscadorMemoria;
+
+    @Inject
+    IndiceEstados indice;
+
+    @Inject
+    VersionColeccion versionColeccion;
+
+    @Inject
+    MeterRegistry registro;
+
+    @ConfigProperty(name = "quarkus.datasource.db-kind")
+    String baseDatos;
+
+    @ConfigProperty(name = "tasku.almacen.motor", defaultValue = AlmacenTaskus.MOTOR_JDBC)
+    String motor;
+
+    @ConfigProperty(name = "tasku.intercambio.tamano-bloque", defaultValue = "10000")
+    int tamanoBloque;
+
+    private Counter filasImportadas;
+
+    @PostConstruct
+    void iniciar() {
+        filasImportadas = Counter.builder("tasku.importacion.filas")
+                .description("Filas confirmadas por las importaciones")
+                .register(registro);
+    }
+
+    /**
+     * El punto de control de una importación, o vacío si no existe.
+     */
+    public Optional<ProgresoImportacion> progreso(String importacion) {
+        if (importacion == null || importacion.isBlank() || importacion.length() > LONGITUD_ID) {
+            return Optional.empty();
+        }
+        return conConexion(conexion -> leerPuntoControl(conexion, importacion, false));
+    }
+
+    /**
+     * Importa las tareas de {@code entrada}. Sin id de importación se crea uno
+     * nuevo; con el de una importación anterior se reanuda desde su punto de
+     * control, y si ya terminó no se lee nada. Si una fila no es válida o un
+     * bloque falla lanza {@link ImportacionInterrumpidaException}, con lo
+     * anterior ya confirmado.
+     */
+    public ProgresoImportacion importar(String importacion, FormatoIntercambio formato, InputStream entrada) {
+        if (AlmacenTaskus.MOTOR_LOG.equals(motor)) {
+            throw new UnsupportedOperationException("La importación necesita el almacén jdbc");
+        }
+        String id = importacion == null || importacion.isBlank() ? UUID.randomUUID().toString() : importacion;
+        if (id.length() > LONGITUD_ID) {
+            throw new IllegalArgumentException("El id de importación no puede superar " + LONGITUD_ID + " caracteres");
+        }
+        ProgresoImportacion inicial = QuarkusTransaction.requiringNew().call(() ->
+                conConexion(conexion -> abrirPuntoControl(conexion, id)).orElseThrow());
+        if (inicial.terminada()) {
+            return inicial;
+        }
+
+        long confirmadas = inicial.filas();
+        indice.empezarCarga();
+        try (LectorTaskus lector = LectorTaskus.abrir(formato, entrada, mapeador)) {
+            long fila = 0;
+            // Lo confirmado en un intento anterior se lee y se descarta
+            while (fila < confirmadas && lector.siguiente() != null) {
+                fila++;
+            }
+            List<Tasku> bloque = new ArrayList<>(Math.min(tamanoBloque, 65536));
+            IllegalArgumentException filaNoValida = null;
+            while (true) {
+                Tasku tasku;
+                try {
+                    tasku = lector.siguiente();
+                    if (tasku != null) {
+                        validar(tasku, fila + 1);
+                    }
+                } catch (IllegalArgumentException e) {
+                    filaNoValida = e;
+                    break;
+                }
+                if (tasku == null) {
+                    break;
+                }
+                fila++;
+                bloque.add(tasku);
+                if (bloque.size() == tamanoBloque) {
+                    confirmadas = escribirBloque(id, confirmadas, bloque);
+                    bloque.clear();
+                }
+            }
+            // Las filas anteriores a una no válida se confirman: el reintento empieza en ella
+            if (!bloque.isEmpty()) {
+                confirmadas = escribirBloque(id, confirmadas, bloque);
+            }
+            if (filaNoValida != null) {
+                throw filaNoValida;
+            }
+            QuarkusTransaction.requiringNew().run(() -> conConexion(conexion -> terminar(conexion, id)));
+        } catch (IOException | RuntimeException e) {
+            LOG.warnf("Importación %s interrumpida con %d filas confirmadas: %s", id, confirmadas, e.getMessage());
+            throw new ImportacionInterrumpidaException(new ProgresoImportacion(id, confirmadas, false, null), e);
+        } finally {
+            try {
+                if (confirmadas > inicial.filas()) {
+                    despuesDeEscribir();
+                }
+            } finally {
+                indice.terminarCarga();
+            }
+        }
+        LOG.infof("Importación %s terminada con %d filas", id, confirmadas);
+        return new ProgresoImportacion(id, confirmadas, true, null);
+    }
+
+    private long escribirBloque(String id, long confirmadas, List<Tasku> bloque) {
+        QuarkusTransaction.requiringNew().run(() -> conConexion(conexion -> {
+            // Bloquea el punto de control: otra petición con el mismo id espera o se detecta aquí
+            long filas = leerPuntoControl(conexion, id, true).filas();
+            if (filas != confirmadas) {
+                throw new IllegalStateException("La importación " + id + " tiene " + filas
+                        + " filas confirmadas y se esperaban " + confirmadas + ": sigue en otra petición");
+            }
+            if (usaCopy()) {
+                copiar(conexion, bloque);
+            } else {
+                insertar(conexion, bloque);
+            }
+            try (PreparedStatement sentencia = conexion.prepareStatement("UPDATE taskus_importaciones "
+                    + "SET filas = filas + ?, actualizada = ? WHERE id = ?")) {
+                sentencia.setLong(1, bloque.size());
+                sentencia.setTimestamp(2, Timestamp.valueOf(Tasku.ahora()));
+                sentencia.setString(3, id);
+                sentencia.executeUpdate();
+            }
+            return null;
+        }));
+        filasImportadas.increment(bloque.size());
+        LOG.debugf("Importación %s: %d filas confirmadas", id, confirmadas + bloque.size());
+        return confirmadas + bloque.size();
+    }
+
+    private static void copiar(Connection conexion, List<Tasku> bloque) throws SQLException {
+        PGCopyOutputStream copia = new PGCopyOutputStream(conexion.unwrap(PGConnection.class), COPIAR_DESDE, 65536);
+        try {
+            CsvTaskus.Escritor escritor = new CsvTaskus.Escritor(copia);
+            for (Tasku tasku : bloque) {
+                escritor.escribir(tasku);
+            }
+            escritor.flush();
+            copia.endCopy();
+        } catch (IOException | SQLException | RuntimeException e) {
+            if (copia.isActive()) {
+                copia.cancelCopy();
+            }
+            throw e instanceof SQLException sql ? sql : new SQLException(e.getMessage(), e);
+        }
+    }
+
+    private static void insertar(Connection conexion, List<Tasku> bloque) throws SQLException {
+        try (PreparedStatement sentencia = conexion.prepareStatement(INSERTAR)) {
+            int enLote = 0;
+            for (Tasku tasku : bloque) {
+                sentencia.setLong(1, tasku.getId());
+                sentencia.setString(2, tasku.getTitulo());
+                sentencia.setString(3, tasku.getDescripcion());
+                sentencia.setBoolean(4, tasku.getCompletada());
+                sentencia.setTimestamp(5, Timestamp.valueOf(tasku.getFechaCreacion()));
+                if (tasku.getFechaActualizacion() != null) {
+                    sentencia.setTimestamp(6, Timestamp.valueOf(tasku.getFechaActualizacion()));
+                } else {
+                    sentencia.setNull(6, Types.TIMESTAMP);
+                }
+                sentencia.addBatch();
+                if (++enLote == TAMANO_LOTE_JDBC) {
+                    sentencia.executeBatch();
+                    enLote = 0;
+                }
+            }
+            if (enLote > 0) {
+                sentencia.executeBatch();
+            }
+        }
+    }
+
+    /**
+     * El punto de control, o {@code null} si no existe. Con {@code bloquear}
+     * nadie más lo escribe hasta el final de la transacción.
+     */
+    private static ProgresoImportacion leerPuntoControl(Connection conexion, String id, boolean bloquear)
+            throws SQLException {
+        try (PreparedStatement sentencia = conexion.prepareStatement("SELECT filas, terminada "
+                + "FROM taskus_importaciones WHERE id = ?" + (bloquear ? " FOR UPDATE" : ""))) {
+            sentencia.setString(1, id);
+            try (ResultSet resultado = sentencia.executeQuery()) {
+                return resultado.next()
+                        ? new ProgresoImportacion(id, resultado.getLong(1), resultado.getBoolean(2), null)
+                        : null;
+            }
+        }
+    }
+
+    private static ProgresoImportacion abrirPuntoControl(Connection conexion, String id) throws SQLException {
+        ProgresoImportacion existente = leerPuntoControl(conexion, id, true);
+        if (existente != null) {
+            return existente;
+        }
+        try (PreparedStatement sentencia = conexion.prepareStatement("INSERT INTO taskus_importaciones "
+                + "(id, filas, actualizada, terminada) VALUES (?, 0, ?, FALSE)")) {
+            sentencia.setString(1, id);
+            sentencia.setTimestamp(2, Timestamp.valueOf(Tasku.ahora()));
+            sentencia.executeUpdate();
+        }
+        return new ProgresoImportacion(id, 0, false, null);
+    }
+
+    private static Void terminar(Connection conexion, String id) throws SQLException {
+        try (PreparedStatement sentencia = conexion.prepareStatement("UPDATE taskus_importaciones "
+                + "SET terminada = TRUE, actualizada = ? WHERE id = ?")) {
+            sentencia.setTimestamp(1, Timestamp.valueOf(Tasku.ahora()));
+            sentencia.setString(2, id);
+            sentencia.executeUpdate();
+        }
+        return null;
+    }
+
+    /**
+     * Lo que no se entera de filas que no publican cambios: la secuencia de
+     * ids, que tiene que quedar por encima de los importados, y el estado
+     * derivado de las tareas en este proceso.
+     */
+    private void despuesDeEscribir() {
+        try {
+            QuarkusTransaction.requiringNew().run(() -> conConexion(this::subirSecuencia));
+        } catch (RuntimeException e) {
+            LOG.errorf(e, "No se ha podido subir la secuencia de ids por encima de los importados");
+        }
+        cache.invalidarTodo();
+        contadores.reconciliar();
+        if (buscadorMemoria.activo()) {
+            buscadorMemoria.reconstruir();
+        }
+        indice.reconstruir();
+        versionColeccion.avanzar();
+    }
+
+    /**
+     * Deja la secuencia de forma que el siguiente bloque de
+     * {@link Tasku#BLOQUE_IDS} ids que reserve Hibernate empiece por encima
+     * del id más alto. Nunca la baja.
+     */
+    private Void subirSecuencia(Connection conexion) throws SQLException {
+        long siguiente;
+        try (PreparedStatement sentencia = conexion.prepareStatement("SELECT COALESCE(MAX(id), 0) FROM taskus");
+             ResultSet resultado = sentencia.executeQuery()) {
+            resultado.next();
+            siguiente = resultado.getLong(1) + Tasku.BLOQUE_IDS + 1;
+        }
+        if (usaCopy()) {
+            try (PreparedStatement sentencia = conexion.prepareStatement("SELECT setval('taskus_seq', ?, false) "
+                    + "WHERE ? > (SELECT last_value FROM taskus_seq)")) {
+                sentencia.setLong(1, siguiente);
+                sentencia.setLong(2, siguiente);
+                sentencia.executeQuery().close();
+            }
+            return null;
+        }
+        long actual;
+        try (PreparedStatement sentencia = conexion.prepareStatement("SELECT BASE_VALUE "
+                + "FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = 'TASKUS_SEQ'");
+             ResultSet resultado = sentencia.executeQuery()) {
+            actual = resultado.next() ? resultado.getLong(1) : 0;
+        }
+        if (siguiente > actual) {
+            try (PreparedStatement sentencia = conexion.prepareStatement(
+                    "ALTER SEQUENCE taskus_seq RESTART WITH " + siguiente)) {
+                sentencia.executeUpdate();
+            }
+        }
+        return null;
+    }
+
+    private boolean usaCopy() {
+        return ExportadorTaskus.POSTGRESQL.equals(baseDatos);
+    }
+
+    /**
+     * Comprueba la fila y completa lo que puede faltar, con las mismas reglas
+     * que el alta individual salvo el id, que se conserva.
+     */
+    static void validar(Tasku tasku, long fila) {
+        String error = null;
+        if (tasku.getId() == null || tasku.getId() <= 0) {
+            error = "el id es obligatorio y tiene que ser positivo";
+        } else if (tasku.getTitulo() == null || tasku.getTitulo().trim().isEmpty()) {
+            error = "el título es obligatorio";
+        } else if (tasku.getTitulo().length() > 255) {
+            error = "el título supera 255 caracteres";
+        } else if (tasku.getDescripcion() != null && tasku.getDescripcion().length() > 1000) {
+            error = "la descripción supera 1000 caracteres";
+        }
+        if (error != null) {
+            throw new IllegalArgumentException("Fila " + fila + ": " + error);
+        }
+        if (tasku.getCompletada() == null) {
+            tasku.setCompletada(false);
+        }
+        if (tasku.getFechaCreacion() == null) {
+            tasku.setFechaCreacion(Tasku.ahora());
+        }
+    }
+
+    private <T> Optional<T> conConexion(Paso<T> paso) {
+        try (Connection conexion = fuente.getConnection()) {
+            return Optional.ofNullable(paso.ejecutar(conexion));
+        } catch (SQLException e) {
+            throw new PersistenceException(e.getMessage(), e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Paso<T> {
+        T ejecutar(Connection conexion) throws SQLException;
+    }
+}
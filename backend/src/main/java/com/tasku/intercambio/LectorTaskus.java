@@ -0,0 +1,52 @@
+package com.tasku.intercambio;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tasku.model.Tasku;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Lee una a una las tareas de una importación, sin cargar el cuerpo entero en
+ * memoria. Una fila mal formada se informa con una
+ * {@link IllegalArgumentException} que dice su número.
+ */
+public interface LectorTaskus extends Closeable {
+
+    /**
+     * La siguiente tarea, tal como viene, o {@code null} al final.
+     */
+    Tasku siguiente() throws IOException;
+
+    static LectorTaskus abrir(FormatoIntercambio formato, InputStream entrada, ObjectMapper mapeador)
+            throws IOException {
+        if (formato == FormatoIntercambio.CSV) {
+            return new CsvTaskus.Lector(new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8), 65536));
+        }
+        MappingIterator<Tasku> filas = mapeador.readerFor(Tasku.class).readValues(entrada);
+        return new LectorTaskus() {
+
+            private long fila;
+
+            @Override
+            public Tasku siguiente() throws IOException {
+                fila++;
+                try {
+                    return filas.hasNextValue() ? filas.nextValue() : null;
+                } catch (JsonProcessingException e) {
+                    throw new IllegalArgumentException("Fila " + fila + ": " + e.getOriginalMessage());
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+                filas.close();
+            }
+        };
+    }
+}
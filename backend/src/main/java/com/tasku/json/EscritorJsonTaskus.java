@@ -0,0 +1,323 @@
+package com.tasku.json;
+
+import com.tasku.dto.TaskuParcial;
+import com.tasku.model.Tasku;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Escribe tareas en JSON directamente sobre un {@link OutputStream}, con la
+ * misma salida que el ObjectMapper de la aplicación pero sin reflexión ni
+ * objetos intermedios por fila. Los nombres de campo van codificados de
+ * antemano, los números y las fechas se escriben dígito a dígito en un búfer
+ * propio y la parte de día de la última fecha escrita se reutiliza, porque las
+ * tareas de una página suelen compartirla.
+ *
+ * <p>El búfer se vacía en la salida cada vez que se llena, así que la memoria
+ * usada no depende del número de tareas. No es seguro entre hilos: se crea uno
+ * por respuesta.
+ */
+public final class EscritorJsonTaskus implements Flushable {
+
+    private static final int TAMANO_BUFER = 8192;
+    // Lo más largo que ocupa un valor que no es texto: una fecha con nanosegundos
+    private static final int RESERVA = 40;
+
+    private static final byte[][] NOMBRES = new byte[TaskuParcial.Campo.values().length][];
+    private static final byte[] NULO = ascii("null");
+    private static final byte[] VERDADERO = ascii("true");
+    private static final byte[] FALSO = ascii("false");
+    private static final byte[] HEX = ascii("0123456789ABCDEF");
+
+    static {
+        for (TaskuParcial.Campo campo : TaskuParcial.Campo.values()) {
+            NOMBRES[campo.ordinal()] = ascii("\"" + campo.nombre() + "\":");
+        }
+    }
+
+    private final OutputStream salida;
+    private final byte[] bufer = new byte[TAMANO_BUFER];
+    private int posicion;
+    // Si el próximo valor de la lista necesita una coma delante
+    private boolean separar;
+
+    private int diaEnCache = -1;
+    private final byte[] diaCodificado = new byte[11];
+
+    public EscritorJsonTaskus(OutputStream salida) {
+        this.salida = salida;
+    }
+
+    public void inicioLista() throws IOException {
+        byteSuelto('[');
+        separar = false;
+    }
+
+    public void finLista() throws IOException {
+        byteSuelto(']');
+    }
+
+    /**
+     * Termina la línea, para escribir una tarea por línea (NDJSON) en lugar de
+     * una lista.
+     */
+    public void finLinea() throws IOException {
+        byteSuelto('\n');
+        separar = false;
+    }
+
+    public void escribir(Tasku tasku) throws IOException {
+        separador();
+        byteSuelto('{');
+        campo(TaskuParcial.Campo.ID, false);
+        numero(tasku.getId());
+        campo(TaskuParcial.Campo.TITULO, true);
+        texto(tasku.getTitulo());
+        campo(TaskuParcial.Campo.DESCRIPCION, true);
+        texto(tasku.getDescripcion());
+        campo(TaskuParcial.Campo.COMPLETADA, true);
+        booleano(tasku.getCompletada());
+        campo(TaskuParcial.Campo.FECHA_CREACION, true);
+        fecha(tasku.getFechaCreacion());
+        campo(TaskuParcial.Campo.FECHA_ACTUALIZACION, true);
+        fecha(tasku.getFechaActualizacion());
+        byteSuelto('}');
+    }
+
+    public void escribir(TaskuParcial tasku) throws IOException {
+        separador();
+        byteSuelto('{');
+        boolean primero = true;
+        for (TaskuParcial.Campo campo : tasku.campos()) {
+            campo(campo, !primero);
+            primero = false;
+            switch (campo) {
+                case ID -> numero(tasku.id());
+                case TITULO -> texto(tasku.titulo());
+                case DESCRIPCION -> texto(tasku.descripcion());
+                case COMPLETADA -> booleano(tasku.completada());
+                case FECHA_CREACION -> fecha(tasku.fechaCreacion());
+                case FECHA_ACTUALIZACION -> fecha(tasku.fechaActualizacion());
+            }
+        }
+        byteSuelto('}');
+    }
+
+    /**
+     * Pasa a la salida lo que haya en el búfer, sin vaciar la salida.
+     */
+    public void volcar() throws IOException {
+        if (posicion > 0) {
+            salida.write(bufer, 0, posicion);
+            posicion = 0;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        volcar();
+        salida.flush();
+    }
+
+    private void separador() throws IOException {
+        if (separar) {
+            byteSuelto(',');
+        }
+        separar = true;
+    }
+
+    private void campo(TaskuParcial.Campo campo, boolean coma) throws IOException {
+        byte[] nombre = NOMBRES[campo.ordinal()];
+        reservar(nombre.length + 1);
+        if (coma) {
+            bufer[posicion++] = ',';
+        }
+        System.arraycopy(nombre, 0, bufer, posicion, nombre.length);
+        posicion += nombre.length;
+    }
+
+    private void numero(Long valor) throws IOException {
+        if (valor == null) {
+            bytes(NULO);
+            return;
+        }
+        reservar(RESERVA);
+        long n = valor;
+        if (n < 0) {
+            if (n == Long.MIN_VALUE) {
+                bytes(ascii(Long.toString(n)));
+                return;
+            }
+            bufer[posicion++] = '-';
+            n = -n;
+        }
+        int digitos = digitos(n);
+        int fin = posicion + digitos;
+        for (int i = fin - 1; i >= posicion; i--) {
+            bufer[i] = (byte) ('0' + n % 10);
+            n /= 10;
+        }
+        posicion = fin;
+    }
+
+    private void booleano(Boolean valor) throws IOException {
+        bytes(valor == null ? NULO : valor ? VERDADERO : FALSO);
+    }
+
+    /**
+     * Igual que {@link DateTimeFormatter#ISO_LOCAL_DATE_TIME}, que es lo que usa
+     * Jackson: segundos siempre y la fracción solo con los dígitos necesarios.
+     */
+    private void fecha(LocalDateTime valor) throws IOException {
+        if (valor == null) {
+            bytes(NULO);
+            return;
+        }
+        int anio = valor.getYear();
+        if (anio < 0 || anio > 9999) {
+            // Fuera de cuatro dígitos el formato lleva signo; no merece un camino propio
+            bytes(ascii("\"" + valor.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) + "\""));
+            return;
+        }
+        reservar(RESERVA);
+        bufer[posicion++] = '"';
+        int dia = anio * 10_000 + valor.getMonthValue() * 100 + valor.getDayOfMonth();
+        if (dia != diaEnCache) {
+            dosDigitos(diaCodificado, 0, anio / 100);
+            dosDigitos(diaCodificado, 2, anio % 100);
+            diaCodificado[4] = '-';
+            dosDigitos(diaCodificado, 5, valor.getMonthValue());
+            diaCodificado[7] = '-';
+            dosDigitos(diaCodificado, 8, valor.getDayOfMonth());
+            diaCodificado[10] = 'T';
+            diaEnCache = dia;
+        }
+        System.arraycopy(diaCodificado, 0, bufer, posicion, diaCodificado.length);
+        posicion += diaCodificado.length;
+        dosDigitos(bufer, posicion, valor.getHour());
+        bufer[posicion + 2] = ':';
+        dosDigitos(bufer, posicion + 3, valor.getMinute());
+        bufer[posicion + 5] = ':';
+        dosDigitos(bufer, posicion + 6, valor.getSecond());
+        posicion += 8;
+        int nanos = valor.getNano();
+        if (nanos != 0) {
+            bufer[posicion++] = '.';
+            int divisor = 100_000_000;
+            while (nanos != 0) {
+                bufer[posicion++] = (byte) ('0' + nanos / divisor);
+                nanos %= divisor;
+                divisor /= 10;
+            }
+        }
+        bufer[posicion++] = '"';
+    }
+
+    /**
+     * Texto en UTF-8 con los mismos escapes que Jackson: comillas, barra
+     * invertida, caracteres de control y sustitutos; el resto va sin escapar.
+     */
+    private void texto(String valor) throws IOException {
+        if (valor == null) {
+            bytes(NULO);
+            return;
+        }
+        byteSuelto('"');
+        int longitud = valor.length();
+        for (int i = 0; i < longitud; i++) {
+            // Lo máximo que ocupa un carácter: un escape \\uXXXX
+            reservar(6);
+            char c = valor.charAt(i);
+            if (c < 0x80) {
+                if (c >= 0x20 && c != '"' && c != '\\') {
+                    bufer[posicion++] = (byte) c;
+                } else {
+                    escape(c);
+                }
+            } else if (c < 0x800) {
+                bufer[posicion++] = (byte) (0xC0 | (c >> 6));
+                bufer[posicion++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // Jackson escapa cada mitad de un par por separado en lugar de
+                // juntarlas en una secuencia de cuatro bytes
+                unicode(c);
+            } else {
+                bufer[posicion++] = (byte) (0xE0 | (c >> 12));
+                bufer[posicion++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                bufer[posicion++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        byteSuelto('"');
+    }
+
+    private void escape(char c) {
+        char corto = switch (c) {
+            case '"' -> '"';
+            case '\\' -> '\\';
+            case '\b' -> 'b';
+            case '\f' -> 'f';
+            case '\n' -> 'n';
+            case '\r' -> 'r';
+            case '\t' -> 't';
+            default -> 0;
+        };
+        if (corto == 0) {
+            unicode(c);
+        } else {
+            bufer[posicion++] = '\\';
+            bufer[posicion++] = (byte) corto;
+        }
+    }
+
+    private void unicode(char c) {
+        bufer[posicion++] = '\\';
+        bufer[posicion++] = 'u';
+        bufer[posicion++] = HEX[c >> 12];
+        bufer[posicion++] = HEX[(c >> 8) & 0xF];
+        bufer[posicion++] = HEX[(c >> 4) & 0xF];
+        bufer[posicion++] = HEX[c & 0xF];
+    }
+
+    private void byteSuelto(char c) throws IOException {
+        reservar(1);
+        bufer[posicion++] = (byte) c;
+    }
+
+    private void bytes(byte[] valor) throws IOException {
+        if (valor.length > TAMANO_BUFER) {
+            volcar();
+            salida.write(valor);
+            return;
+        }
+        reservar(valor.length);
+        System.arraycopy(valor, 0, bufer, posicion, valor.length);
+        posicion += valor.length;
+    }
+
+    private void reservar(int bytes) throws IOException {
+        if (posicion + bytes > TAMANO_BUFER) {
+            volcar();
+        }
+    }
+
+    private static void dosDigitos(byte[] destino, int desde, int valor) {
+        destino[desde] = (byte) ('0' + valor / 10);
+        destino[desde + 1] = (byte) ('0' + valor % 10);
+    }
+
+    private static int digitos(long n) {
+        int digitos = 1;
+        for (long limite = 10; digitos < 19 && n >= limite; limite *= 10) {
+            digitos++;
+        }
+        return digitos;
+    }
+
+    private static byte[] ascii(String texto) {
+        return texto.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,35 @@
+package com.tasku.metricas;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Singleton;
+
+@ApplicationScoped
+public class ConfiguracionMetricas {
+
+    /**
+     * p50/p95/p99 e histograma para los tiempos HTTP y los de la aplicación. El
+     * histograma permite agregar percentiles entre instancias en Prometheus.
+     */
+    @Produces
+    @Singleton
+    MeterFilter percentiles() {
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                String nombre = id.getName();
+                if (nombre.startsWith("http.server.requests") || nombre.startsWith("tasku.")) {
+                    return DistributionStatisticConfig.builder()
+                            .percentiles(0.5, 0.95, 0.99)
+                            .percentilesHistogram(true)
+                            .build()
+                            .merge(config);
+                }
+                return config;
+            }
+        };
+    }
+}
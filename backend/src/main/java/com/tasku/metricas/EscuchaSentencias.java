@@ -0,0 +1,55 @@
+package com.tasku.metricas;
+
+import org.hibernate.BaseSessionEventListener;
+
+/**
+ * Hibernate crea una instancia por sesión (ver
+ * {@code hibernate.session.events.auto}). Mide cada sentencia JDBC y la espera
+ * por una conexión del pool, y lo suma a la petición en curso. Son dos llamadas
+ * a {@link System#nanoTime()} por sentencia, sin reservar memoria.
+ */
+public class EscuchaSentencias extends BaseSessionEventListener {
+
+    private long inicioSentencia;
+    private long inicioConexion;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        inicioSentencia = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        registrarSentencia();
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        inicioSentencia = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        registrarSentencia();
+    }
+
+    @Override
+    public void jdbcConnectionAcquisitionStart() {
+        inicioConexion = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcConnectionAcquisitionEnd() {
+        SentenciasPeticion peticion = SentenciasPeticion.actual();
+        if (peticion != null) {
+            peticion.esperaConexion(System.nanoTime() - inicioConexion);
+        }
+    }
+
+    private void registrarSentencia() {
+        SentenciasPeticion peticion = SentenciasPeticion.actual();
+        if (peticion != null) {
+            peticion.sentencia(System.nanoTime() - inicioSentencia);
+        }
+    }
+}
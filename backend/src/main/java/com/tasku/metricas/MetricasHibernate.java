@@ -0,0 +1,78 @@
+package com.tasku.metricas;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.TimeGauge;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+/**
+ * Las estadísticas de Hibernate en Micrometer, con los nombres que usa
+ * {@code quarkus.hibernate-orm.metrics.enabled}. No se usa esa propiedad porque
+ * su registro abre la unidad de persistencia en un paso de arranque sin orden
+ * respecto a la migración de Flyway: cuando va antes, la validación del esquema
+ * no encuentra las tablas y la aplicación no arranca. Aquí se registran con el
+ * arranque ya terminado; las estadísticas las activa
+ * {@code quarkus.hibernate-orm.statistics}.
+ */
+@ApplicationScoped
+public class MetricasHibernate {
+
+    private static final Tags UNIDAD = Tags.of("entityManagerFactory", "<default>");
+
+    @Inject
+    MeterRegistry registro;
+
+    @Inject
+    SessionFactory sesiones;
+
+    void registrar(@Observes StartupEvent arranque) {
+        Statistics estadisticas = sesiones.getStatistics();
+        contador("hibernate.sessions.open", Tags.empty(), "Sesiones abiertas",
+                estadisticas, Statistics::getSessionOpenCount);
+        contador("hibernate.sessions.closed", Tags.empty(), "Sesiones cerradas",
+                estadisticas, Statistics::getSessionCloseCount);
+        contador("hibernate.transactions", Tags.of("result", "success"), "Transacciones confirmadas",
+                estadisticas, Statistics::getSuccessfulTransactionCount);
+        contador("hibernate.transactions", Tags.of("result", "failure"), "Transacciones sin confirmar",
+                estadisticas, e -> e.getTransactionCount() - e.getSuccessfulTransactionCount());
+        contador("hibernate.connections.obtained", Tags.empty(), "Conexiones JDBC obtenidas",
+                estadisticas, Statistics::getConnectCount);
+        contador("hibernate.statements", Tags.of("status", "prepared"), "Sentencias JDBC preparadas",
+                estadisticas, Statistics::getPrepareStatementCount);
+        contador("hibernate.flushes", Tags.empty(), "Flushes de sesión",
+                estadisticas, Statistics::getFlushCount);
+        contador("hibernate.optimistic.failures", Tags.empty(), "Fallos de bloqueo optimista",
+                estadisticas, Statistics::getOptimisticFailureCount);
+        contador("hibernate.query.executions", Tags.empty(), "Consultas ejecutadas",
+                estadisticas, Statistics::getQueryExecutionCount);
+        contador("hibernate.entities.loads", Tags.empty(), "Entidades cargadas",
+                estadisticas, Statistics::getEntityLoadCount);
+        contador("hibernate.entities.inserts", Tags.empty(), "Entidades insertadas",
+                estadisticas, Statistics::getEntityInsertCount);
+        contador("hibernate.entities.updates", Tags.empty(), "Entidades actualizadas",
+                estadisticas, Statistics::getEntityUpdateCount);
+        contador("hibernate.entities.deletes", Tags.empty(), "Entidades borradas",
+                estadisticas, Statistics::getEntityDeleteCount);
+        TimeGauge.builder("hibernate.query.executions.max", estadisticas, TimeUnit.MILLISECONDS,
+                        Statistics::getQueryExecutionMaxTime)
+                .description("Consulta más lenta")
+                .tags(UNIDAD)
+                .register(registro);
+    }
+
+    private void contador(String nombre, Tags etiquetas, String descripcion, Statistics estadisticas,
+                          ToLongFunction<Statistics> valor) {
+        FunctionCounter.builder(nombre, estadisticas, e -> valor.applyAsLong(e))
+                .description(descripcion)
+                .tags(UNIDAD.and(etiquetas))
+                .register(registro);
+    }
+}
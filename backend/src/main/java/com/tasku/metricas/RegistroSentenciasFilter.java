@@ -0,0 +1,72 @@
+package com.tasku.metricas;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.ext.Provider;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Publica, por operación, cuántas sentencias SQL lanzó la petición, cuánto
+ * tardaron y cuánto esperó por conexiones. Con {@code tasku.metricas.aviso-sentencias}
+ * avisa en el log de las peticiones que superan ese número de sentencias.
+ *
+ * <p>Las filas que {@code ?stream=true} escribe después de este filtro no
+ * entran en la cuenta.
+ */
+@Provider
+public class RegistroSentenciasFilter implements ContainerResponseFilter {
+
+    private static final Logger LOG = Logger.getLogger(RegistroSentenciasFilter.class);
+
+    @Inject
+    MeterRegistry registro;
+
+    @Inject
+    SentenciasPeticion peticion;
+
+    @ConfigProperty(name = "tasku.metricas.aviso-sentencias")
+    Optional<Integer> avisoSentencias;
+
+    @Context
+    ResourceInfo recurso;
+
+    @Override
+    public void filter(ContainerRequestContext solicitud, ContainerResponseContext respuesta) {
+        if (recurso == null || recurso.getResourceMethod() == null) {
+            return;
+        }
+        String operacion = recurso.getResourceMethod().getName();
+        int sentencias = peticion.getSentencias();
+        DistributionSummary.builder("tasku.bd.sentencias")
+                .description("Sentencias SQL por petición")
+                .tag("operacion", operacion)
+                .register(registro)
+                .record(sentencias);
+        Timer.builder("tasku.bd.tiempo")
+                .description("Tiempo en sentencias SQL por petición")
+                .tag("operacion", operacion)
+                .register(registro)
+                .record(peticion.getNanosSentencias(), TimeUnit.NANOSECONDS);
+        Timer.builder("tasku.bd.espera.conexion")
+                .description("Espera por conexiones del pool por petición")
+                .tag("operacion", operacion)
+                .register(registro)
+                .record(peticion.getNanosEsperaConexion(), TimeUnit.NANOSECONDS);
+
+        if (avisoSentencias.isPresent() && sentencias > avisoSentencias.get()) {
+            LOG.warnf("%s %s lanzó %d sentencias SQL (%d ms en base de datos)",
+                    solicitud.getMethod(), solicitud.getUriInfo().getPath(), sentencias,
+                    TimeUnit.NANOSECONDS.toMillis(peticion.getNanosSentencias()));
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.tasku.metricas;
+
+import io.quarkus.arc.Arc;
+import io.quarkus.arc.ManagedContext;
+import jakarta.enterprise.context.RequestScoped;
+
+/**
+ * Sentencias SQL y tiempos de base de datos acumulados durante una petición.
+ * Lo alimenta {@link EscuchaSentencias} y lo publica {@link RegistroSentenciasFilter}
+ * al terminar la petición.
+ */
+@RequestScoped
+public class SentenciasPeticion {
+
+    private int sentencias;
+    private long nanosSentencias;
+    private long nanosEsperaConexion;
+
+    /**
+     * La instancia de la petición en curso, o {@code null} si el hilo no está
+     * atendiendo ninguna (tareas programadas, arranque).
+     */
+    static SentenciasPeticion actual() {
+        ManagedContext contexto = Arc.container().requestContext();
+        return contexto.isActive() ? Arc.container().instance(SentenciasPeticion.class).get() : null;
+    }
+
+    void sentencia(long nanos) {
+        sentencias++;
+        nanosSentencias += nanos;
+    }
+
+    void esperaConexion(long nanos) {
+        nanosEsperaConexion += nanos;
+    }
+
+    public int getSentencias() {
+        return sentencias;
+    }
+
+    public long getNanosSentencias() {
+        return nanosSentencias;
+    }
+
+    public long getNanosEsperaConexion() {
+        return nanosEsperaConexion;
+    }
+}
@@ -0,0 +1,105 @@
+package com.tasku.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Una clave de idempotencia ya usada y la respuesta que recibió su petición.
+ * Mientras la petición está en curso no tiene estado: la fila reserva la clave
+ * para que otro nodo no ejecute la misma petición a la vez.
+ */
+@Entity
+@Table(name = "taskus_idempotencia", indexes = @Index(name = "idx_taskus_idempotencia_creada", columnList = "creada"))
+public class ClaveIdempotencia {
+
+    @Id
+    @Column(length = 255)
+    private String clave;
+
+    // SHA-256 de la operación y el cuerpo: la misma clave con otra petición es un error del cliente
+    @Column(nullable = false, length = 64)
+    private String huella;
+
+    private Integer estado;
+
+    @Column(length = 1_048_576)
+    private String cuerpo;
+
+    // Una cabecera por línea, "Nombre: valor"
+    @Column(length = 2000)
+    private String cabeceras;
+
+    @Column(nullable = false)
+    private LocalDateTime creada;
+
+    private LocalDateTime terminada;
+
+    public ClaveIdempotencia() {
+    }
+
+    public ClaveIdempotencia(String clave, String huella) {
+        this.clave = clave;
+        this.huella = huella;
+        this.creada = Tasku.ahora();
+    }
+
+    public boolean estaTerminada() {
+        return estado != null;
+    }
+
+    public String getClave() {
+        return clave;
+    }
+
+    public void setClave(String clave) {
+        this.clave = clave;
+    }
+
+    public String getHuella() {
+        return huella;
+    }
+
+    public void setHuella(String huella) {
+        this.huella = huella;
+    }
+
+    public Integer getEstado() {
+        return estado;
+    }
+
+    public void setEstado(Integer estado) {
+        this.estado = estado;
+    }
+
+    public String getCuerpo() {
+        return cuerpo;
+    }
+
+    public void setCuerpo(String cuerpo) {
+        this.cuerpo = cuerpo;
+    }
+
+    public String getCabeceras() {
+        return cabeceras;
+    }
+
+    public void setCabeceras(String cabeceras) {
+        this.cabeceras = cabeceras;
+    }
+
+    public LocalDateTime getCreada() {
+        return creada;
+    }
+
+    public void setCreada(LocalDateTime creada) {
+        this.creada = creada;
+    }
+
+    public LocalDateTime getTerminada() {
+        return terminada;
+    }
+
+    public void setTerminada(LocalDateTime terminada) {
+        this.terminada = terminada;
+    }
+}
@@ -0,0 +1,136 @@
+package com.tasku.model;
+
+import com.tasku.event.TaskuCambio;
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+/**
+ * Fila del registro de cambios (outbox) de las tareas. Se inserta en la misma
+ * transacción que el cambio, así que el registro contiene exactamente los
+ * cambios confirmados, en el orden de su secuencia.
+ */
+@Entity
+@Table(name = "taskus_cambios", indexes = @Index(name = "idx_taskus_cambios_registrado", columnList = "registrado_en"))
+public class RegistroCambio {
+
+    // La asigna la base de datos al insertar: los números de transacciones aún
+    // abiertas o deshechas quedan como huecos que el relevo sabe esperar
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long secuencia;
+
+    // VARCHAR también en H2, donde Hibernate esperaría su tipo ENUM
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(nullable = false, length = 20)
+    private TaskuCambio.Tipo tipo;
+
+    @Column(name = "tasku_id", nullable = false)
+    private Long taskuId;
+
+    @Column(name = "completada_anterior")
+    private Boolean completadaAnterior;
+
+    // Nula si se eliminó
+    @Column
+    private Boolean completada;
+
+    // La tarea después del cambio en JSON, nula si se eliminó
+    @Column(length = 4000)
+    private String datos;
+
+    @Column(nullable = false, length = 64)
+    private String origen;
+
+    @Column(name = "registrado_en", nullable = false)
+    private LocalDateTime registradoEn;
+
+    public RegistroCambio() {
+    }
+
+    public RegistroCambio(TaskuCambio cambio, String datos, String origen) {
+        this.tipo = cambio.tipo();
+        this.taskuId = cambio.id();
+        this.completadaAnterior = cambio.completadaAnterior();
+        this.completada = cambio.tasku() != null ? cambio.tasku().getCompletada() : null;
+        this.datos = datos;
+        this.origen = origen;
+        this.registradoEn = Tasku.ahora();
+    }
+
+    public Long getSecuencia() {
+        return secuencia;
+    }
+
+    public void setSecuencia(Long secuencia) {
+        this.secuencia = secuencia;
+    }
+
+    public TaskuCambio.Tipo getTipo() {
+        return tipo;
+    }
+
+    public void setTipo(TaskuCambio.Tipo tipo) {
+        this.tipo = tipo;
+    }
+
+    public Long getTaskuId() {
+        return taskuId;
+    }
+
+    public void setTaskuId(Long taskuId) {
+        this.taskuId = taskuId;
+    }
+
+    public Boolean getCompletadaAnterior() {
+        return completadaAnterior;
+    }
+
+    public void setCompletadaAnterior(Boolean completadaAnterior) {
+        this.completadaAnterior = completadaAnterior;
+    }
+
+    public Boolean getCompletada() {
+        return completada;
+    }
+
+    public void setCompletada(Boolean completada) {
+        this.completada = completada;
+    }
+
+    public String getDatos() {
+        return datos;
+    }
+
+    public void setDatos(String datos) {
+        this.datos = datos;
+    }
+
+    public String getOrigen() {
+        return origen;
+    }
+
+    public void setOrigen(String origen) {
+        this.origen = origen;
+    }
+
+    public LocalDateTime getRegistradoEn() {
+        return registradoEn;
+    }
+
+    public void setRegistradoEn(LocalDateTime registradoEn) {
+        this.registradoEn = registradoEn;
+    }
+
+    /**
+     * Secuencias del registro de {@code desde} a {@code hasta}, ambas incluidas.
+     */
+    public record Tramo(long desde, long hasta) {
+
+        public static Tramo despuesDe(long secuencia) {
+            return new Tramo(secuencia + 1, Long.MAX_VALUE);
+        }
+    }
+}
@@ -1,14 +1,22 @@
 package com.tasku.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 
 @Entity
 @Table(name = "taskus")
 public class Tasku {
     
+    // Ids que reserva cada llamada a la secuencia
+    public static final int BLOQUE_IDS = 50;
+    
+    // Secuencia con asignación en bloques: los ids se conocen antes del INSERT,
+    // lo que permite a Hibernate agrupar las inserciones en lotes JDBC
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "taskus_seq")
+    @SequenceGenerator(name = "taskus_seq", sequenceName = "taskus_seq", allocationSize = BLOQUE_IDS)
     private Long id;
     
     @Column(nullable = false)
@@ -26,9 +34,16 @@ public class Tasku {
     @Column(name = "fecha_actualizacion")
     private LocalDateTime fechaActualizacion;
     
+    // Bloqueo optimista: la suma cada UPDATE, también los que no pasan por la entidad.
+    // Es interna; hacia fuera la versión de una tarea es su fecha de modificación
+    @Version
+    @JsonIgnore
+    @Column(nullable = false)
+    private Long version;
+    
     // Constructores
     public Tasku() {
-        this.fechaCreacion = LocalDateTime.now();
+        this.fechaCreacion = ahora();
     }
     
     public Tasku(String titulo, String descripcion) {
@@ -68,7 +83,7 @@ public class Tasku {
     
     public void setCompletada(Boolean completada) {
         this.completada = completada;
-        this.fechaActualizacion = LocalDateTime.now();
+        this.fechaActualizacion = ahora();
     }
     
     public LocalDateTime getFechaCreacion() {
@@ -87,8 +102,49 @@ public class Tasku {
         this.fechaActualizacion = fechaActualizacion;
     }
     
+    @JsonIgnore
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
+    /**
+     * Copia desacoplada de cualquier contexto de persistencia, para compartirla
+     * entre hilos sin que los cambios sobre la entidad gestionada la alteren.
+     */
+    public Tasku copiar() {
+        Tasku copia = new Tasku();
+        copia.id = id;
+        copia.titulo = titulo;
+        copia.descripcion = descripcion;
+        copia.completada = completada;
+        copia.fechaCreacion = fechaCreacion;
+        copia.fechaActualizacion = fechaActualizacion;
+        copia.version = version;
+        return copia;
+    }
+    
+    /**
+     * Momento de la última escritura, que identifica la versión de la tarea en
+     * los ETag y en Last-Modified.
+     */
+    public LocalDateTime modificadaEn() {
+        return fechaActualizacion != null ? fechaActualizacion : fechaCreacion;
+    }
+    
+    /**
+     * La hora actual con la precisión de las columnas TIMESTAMP (microsegundos),
+     * así la versión de una tarea no cambia al volver a leerla de la base de datos.
+     */
+    public static LocalDateTime ahora() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
+    
     @PreUpdate
     public void preUpdate() {
-        this.fechaActualizacion = LocalDateTime.now();
+        this.fechaActualizacion = ahora();
     }
 }
@@ -0,0 +1,69 @@
+package com.tasku.replica;
+
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.core.Cookie;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.NewCookie;
+import jakarta.ws.rs.ext.Provider;
+import java.time.Duration;
+import java.time.Instant;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Lee tus propias escrituras con réplica: una respuesta a una petición que
+ * escribió deja la cookie {@value #NOMBRE} con el momento de la escritura, y
+ * las peticiones que la traen leen de la primaria hasta que la réplica llega a
+ * ese momento. La cookie dura {@code tasku.replica.ventana-escrituras}; pasado
+ * ese tiempo se vuelve a leer de la réplica aunque vaya con retraso.
+ */
+@Provider
+public class CookieEscrituras implements ContainerRequestFilter, ContainerResponseFilter {
+
+    static final String NOMBRE = "tasku-escritura";
+
+    @Inject
+    Instance<RetrasoReplica> retraso;
+
+    @Inject
+    SesionLecturas sesion;
+
+    @ConfigProperty(name = "tasku.replica.ventana-escrituras", defaultValue = "PT30S")
+    Duration ventana;
+
+    @Override
+    public void filter(ContainerRequestContext solicitud) {
+        if (retraso.isUnsatisfied()) {
+            return;
+        }
+        // Crea la sesión de la petición aunque no traiga cookie: si no existe,
+        // su observador no se entera de las escrituras y no se deja la cookie
+        sesion.exigido();
+        Cookie cookie = solicitud.getCookies().get(NOMBRE);
+        if (cookie == null) {
+            return;
+        }
+        try {
+            sesion.exigir(Instant.ofEpochMilli(Long.parseLong(cookie.getValue())));
+        } catch (NumberFormatException e) {
+            // Una cookie alterada no da derecho a nada: se lee como si no estuviera
+        }
+    }
+
+    @Override
+    public void filter(ContainerRequestContext solicitud, ContainerResponseContext respuesta) {
+        if (retraso.isUnsatisfied() || !sesion.escribio()) {
+            return;
+        }
+        respuesta.getHeaders().add(HttpHeaders.SET_COOKIE, new NewCookie.Builder(NOMBRE)
+                .value(String.valueOf(Instant.now().toEpochMilli()))
+                .path("/")
+                .maxAge((int) ventana.toSeconds())
+                .httpOnly(true)
+                .build());
+    }
+}
@@ -0,0 +1,66 @@
+package com.tasku.replica;
+
+import io.quarkus.arc.Arc;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import jakarta.interceptor.AroundInvoke;
+import jakarta.interceptor.Interceptor;
+import jakarta.interceptor.InvocationContext;
+
+/**
+ * Lleva a la réplica las llamadas {@link SoloLectura}. La fuente de datos se
+ * elige al abrir la sesión de Hibernate ({@link OrigenLecturas}), así que la
+ * llamada corre en una transacción propia: su sesión se abre dentro, ya marcada
+ * para la réplica, y no se mezcla con la de la petición, que sigue en la
+ * primaria.
+ *
+ * <p>Se queda en la primaria si ya hay una transacción en curso (la llamada es
+ * parte de una escritura), si la petición ha escrito o si tiene que ver un
+ * instante al que la réplica aún no ha llegado ({@link SesionLecturas}).
+ * Sin réplica configurada no hace nada.
+ *
+ * <p>Va antes que {@code @Transactional}, que se une a la transacción de aquí.
+ */
+@SoloLectura
+@Interceptor
+@Priority(Interceptor.Priority.PLATFORM_BEFORE + 100)
+public class EnrutadorLecturas {
+
+    private static final ThreadLocal<Boolean> EN_REPLICA = new ThreadLocal<>();
+
+    @Inject
+    Instance<RetrasoReplica> retraso;
+
+    @Inject
+    SesionLecturas sesion;
+
+    @AroundInvoke
+    Object enrutar(InvocationContext contexto) throws Exception {
+        if (retraso.isUnsatisfied() || QuarkusTransaction.isActive() || necesitaPrimaria()) {
+            return contexto.proceed();
+        }
+        EN_REPLICA.set(Boolean.TRUE);
+        try {
+            return QuarkusTransaction.requiringNew().call(contexto::proceed);
+        } finally {
+            EN_REPLICA.remove();
+        }
+    }
+
+    /**
+     * Si la sesión de Hibernate que se abra ahora en este hilo debe ir a la réplica.
+     */
+    static boolean enReplica() {
+        return EN_REPLICA.get() != null;
+    }
+
+    private boolean necesitaPrimaria() {
+        // Fuera de una petición (tareas programadas, arranque) no hay escrituras propias que respetar
+        if (!Arc.container().requestContext().isActive()) {
+            return false;
+        }
+        return sesion.necesitaPrimaria();
+    }
+}
@@ -0,0 +1,42 @@
+package com.tasku.replica;
+
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.agroal.DataSource;
+import io.quarkus.arc.properties.IfBuildProperty;
+import io.quarkus.datasource.common.runtime.DataSourceUtil;
+import io.quarkus.hibernate.orm.PersistenceUnitExtension;
+import io.quarkus.hibernate.orm.runtime.tenant.TenantResolver;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Produces;
+
+/**
+ * Elige la fuente de datos de cada sesión de Hibernate, con la multitenencia
+ * por base de datos de Quarkus: el "tenant" es el nombre de la fuente de datos.
+ * Todo va a la primaria salvo las sesiones que abre {@link EnrutadorLecturas}.
+ */
+@PersistenceUnitExtension
+@ApplicationScoped
+@IfBuildProperty(name = "quarkus.hibernate-orm.multitenant", stringValue = "DATABASE")
+public class OrigenLecturas implements TenantResolver {
+
+    @Override
+    public String getDefaultTenantId() {
+        return DataSourceUtil.DEFAULT_DATASOURCE_NAME;
+    }
+
+    @Override
+    public String resolveTenantId() {
+        return EnrutadorLecturas.enReplica() ? RetrasoReplica.FUENTE : DataSourceUtil.DEFAULT_DATASOURCE_NAME;
+    }
+
+    /**
+     * La primaria con el nombre de su tenant: Quarkus busca la fuente de datos
+     * de cada tenant con {@code @DataSource(tenant)}, y la fuente por defecto
+     * no lleva ese calificador.
+     */
+    @Produces
+    @DataSource(DataSourceUtil.DEFAULT_DATASOURCE_NAME)
+    AgroalDataSource primaria(AgroalDataSource primaria) {
+        return primaria;
+    }
+}
@@ -0,0 +1,109 @@
+package com.tasku.replica;
+
+import io.agroal.api.AgroalDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.agroal.DataSource;
+import io.quarkus.arc.properties.IfBuildProperty;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import org.jboss.logging.Logger;
+
+/**
+ * Mide cuánto va la réplica por detrás de la primaria con el registro de
+ * cambios, que se replica como cualquier otra tabla. Cada medición apunta la
+ * última secuencia de la primaria y el momento en que empezó; cuando la réplica
+ * alcanza una secuencia apuntada, estaba al día en ese momento. Así, con
+ * escrituras continuas, la réplica se da por al día hasta hace lo que tarde en
+ * replicar, aunque nunca llegue a tener exactamente lo mismo que la primaria.
+ * Publica la distancia en cambios y los segundos desde el último momento en que
+ * se sabe que estaba al día.
+ */
+@ApplicationScoped
+@IfBuildProperty(name = "quarkus.hibernate-orm.multitenant", stringValue = "DATABASE")
+public class RetrasoReplica {
+
+    public static final String FUENTE = "replica";
+
+    private static final Logger LOG = Logger.getLogger(RetrasoReplica.class);
+    private static final String ULTIMA_SECUENCIA = "SELECT COALESCE(MAX(secuencia), 0) FROM taskus_cambios";
+    // Una hora de mediciones por segundo: con más retraso se pierden las más antiguas, que solo
+    // habrían servido para adelantar un poco el momento al día
+    private static final int MAXIMO_MUESTRAS = 3600;
+
+    @Inject
+    AgroalDataSource primaria;
+
+    @Inject
+    @DataSource(FUENTE)
+    AgroalDataSource replica;
+
+    @Inject
+    MeterRegistry registro;
+
+    // Hasta la primera medición no se sabe nada: ninguna escritura se da por replicada
+    private volatile Instant alDiaHasta = Instant.EPOCH;
+    private volatile long cambiosPendientes;
+    private volatile double segundos;
+    private final Deque<Muestra> muestras = new ArrayDeque<>();
+
+    @PostConstruct
+    void iniciar() {
+        Gauge.builder("tasku.replica.retraso.cambios", this, r -> r.cambiosPendientes)
+                .description("Cambios de la primaria que aún no están en la réplica")
+                .register(registro);
+        Gauge.builder("tasku.replica.retraso.segundos", this, r -> r.segundos)
+                .description("Segundos desde la última vez que la réplica estaba al día")
+                .register(registro);
+    }
+
+    @Scheduled(every = "{tasku.replica.intervalo-retraso}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    synchronized void medir() {
+        Instant inicio = Instant.now();
+        try {
+            // Primero la primaria: lo que la réplica tenga después no puede ser más antiguo
+            long enPrimaria = ultimaSecuencia(primaria);
+            long enReplica = ultimaSecuencia(replica);
+            muestras.addLast(new Muestra(enPrimaria, inicio));
+            if (muestras.size() > MAXIMO_MUESTRAS) {
+                muestras.removeFirst();
+            }
+            while (!muestras.isEmpty() && muestras.peekFirst().secuencia() <= enReplica) {
+                alDiaHasta = muestras.removeFirst().instante();
+            }
+            cambiosPendientes = Math.max(0, enPrimaria - enReplica);
+            segundos = Duration.between(alDiaHasta, Instant.now()).toMillis() / 1000.0;
+        } catch (SQLException e) {
+            LOG.warnf("No se ha podido medir el retraso de la réplica: %s", e.getMessage());
+        }
+    }
+
+    /**
+     * Si la réplica tiene ya todo lo que se confirmó en la primaria hasta ese instante.
+     */
+    public boolean alDiaDesde(Instant instante) {
+        return !alDiaHasta.isBefore(instante);
+    }
+
+    private static long ultimaSecuencia(AgroalDataSource fuente) throws SQLException {
+        try (Connection conexion = fuente.getConnection();
+             Statement sentencia = conexion.createStatement();
+             ResultSet resultado = sentencia.executeQuery(ULTIMA_SECUENCIA)) {
+            resultado.next();
+            return resultado.getLong(1);
+        }
+    }
+
+    private record Muestra(long secuencia, Instant instante) {
+    }
+}
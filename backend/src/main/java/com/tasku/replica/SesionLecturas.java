@@ -0,0 +1,70 @@
+package com.tasku.replica;
+
+import com.tasku.event.TaskuCambio;
+import jakarta.enterprise.context.RequestScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.Reception;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import java.time.Instant;
+
+/**
+ * Hasta dónde tienen que llegar las lecturas de la petición: si ella misma ha
+ * escrito, o la última escritura del cliente según la cookie de
+ * {@link CookieEscrituras}. Las lecturas van a la primaria mientras la réplica
+ * no haya llegado a ese instante; solo cuentan las escrituras propias, no las
+ * de los demás clientes.
+ */
+@RequestScoped
+public class SesionLecturas {
+
+    @Inject
+    Instance<RetrasoReplica> retraso;
+
+    private Instant exigido;
+    private boolean escribio;
+
+    // Solo si la petición ya usa este bean, que CookieEscrituras crea en todas:
+    // las escrituras de tareas programadas no tienen petición ni cliente
+    void registrar(@Observes(notifyObserver = Reception.IF_EXISTS, during = TransactionPhase.AFTER_SUCCESS)
+                   TaskuCambio cambio) {
+        escribio = true;
+    }
+
+    /**
+     * Las lecturas que queden en esta petición deben ver todo lo confirmado
+     * hasta {@code instante}.
+     */
+    public void exigir(Instant instante) {
+        if (exigido == null || instante.isAfter(exigido)) {
+            exigido = instante;
+        }
+    }
+
+    public Instant exigido() {
+        return exigido;
+    }
+
+    public boolean escribio() {
+        return escribio;
+    }
+
+    /**
+     * Si las lecturas de la petición tienen que ir ahora a la primaria: ha
+     * escrito o tiene que ver un instante al que la réplica aún no ha llegado.
+     * Sin réplica configurada todas van a la primaria.
+     */
+    public boolean necesitaPrimaria() {
+        return retraso.isUnsatisfied() || escribio
+                || exigido != null && !retraso.get().alDiaDesde(exigido);
+    }
+
+    /**
+     * Si lo que lea ahora la petición incluye todo lo confirmado hasta
+     * {@code instante}, vaya a la primaria o a la réplica.
+     */
+    public boolean ve(Instant instante) {
+        return necesitaPrimaria() || retraso.get().alDiaDesde(instante);
+    }
+}
@@ -0,0 +1,30 @@
+package com.tasku.repository;
+
+import com.tasku.model.ClaveIdempotencia;
+import io.quarkus.hibernate.orm.panache.PanacheRepositoryBase;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.LockModeType;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@ApplicationScoped
+public class ClaveIdempotenciaRepository implements PanacheRepositoryBase<ClaveIdempotencia, String> {
+
+    /**
+     * La clave bloqueada hasta el final de la transacción.
+     */
+    public Optional<ClaveIdempotencia> buscarParaActualizar(String clave) {
+        return findByIdOptional(clave, LockModeType.PESSIMISTIC_WRITE);
+    }
+
+    /**
+     * Borra la reserva de una petición que no terminó, para que se pueda repetir.
+     */
+    public long liberar(String clave, LocalDateTime creada) {
+        return delete("clave = ?1 and creada = ?2 and estado is null", clave, creada);
+    }
+
+    public long purgarAnteriores(LocalDateTime limite) {
+        return delete("creada < ?1", limite);
+    }
+}
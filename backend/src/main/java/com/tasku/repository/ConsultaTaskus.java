@@ -0,0 +1,304 @@
+package com.tasku.repository;
+
+import com.tasku.dto.TaskuParcial;
+import com.tasku.model.Tasku;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Listado de tareas con filtros combinables, orden y paginación por cursor.
+ * Los límites {@code desde} de las fechas son inclusivos y los {@code hasta}
+ * exclusivos; la fecha de modificación es la de la última escritura
+ * ({@link Tasku#modificadaEn()}).
+ *
+ * <p>El orden siempre termina en el id, que desempata las filas con los mismos
+ * valores y hace que el cursor identifique una posición exacta. El cursor lleva
+ * los valores de orden de la última fila de la página anterior, así la página
+ * siguiente empieza con una condición sobre el índice y no con OFFSET.
+ */
+public record ConsultaTaskus(Boolean completada,
+                             String titulo,
+                             LocalDateTime creadaDesde,
+                             LocalDateTime creadaHasta,
+                             LocalDateTime modificadaDesde,
+                             LocalDateTime modificadaHasta,
+                             List<Orden> orden,
+                             List<Object> cursor,
+                             Integer limite) {
+
+    // Claves de orden que acepta una consulta, sin contar el id de desempate
+    public static final int MAXIMO_CLAVES_ORDEN = 3;
+
+    private static final List<Orden> ORDEN_POR_DEFECTO = List.of(new Orden(Campo.ID, false));
+
+    public ConsultaTaskus {
+        orden = completarOrden(orden);
+        cursor = cursor == null ? List.of() : List.copyOf(cursor);
+        if (!cursor.isEmpty() && cursor.size() != orden.size()) {
+            throw new IllegalArgumentException("El cursor no corresponde al orden de la consulta");
+        }
+    }
+
+    /**
+     * Filtro por estado y título en orden de id, el listado de siempre.
+     */
+    public static ConsultaTaskus porEstadoYTitulo(Boolean completada, String titulo, Long despuesDe, Integer limite) {
+        return new ConsultaTaskus(completada, titulo, null, null, null, null, null,
+                despuesDe == null ? null : List.of(despuesDe), limite);
+    }
+
+    public ConsultaTaskus conTituloYLimite(String titulo, Integer limite) {
+        return new ConsultaTaskus(completada, titulo, creadaDesde, creadaHasta, modificadaDesde, modificadaHasta,
+                orden, cursor, limite);
+    }
+
+    /**
+     * Identifica la forma de la consulta: qué filtros lleva, el estado pedido
+     * (que va como literal), el orden y si parte de un cursor. Dos consultas con
+     * la misma forma comparten sentencia y solo difieren en los parámetros.
+     */
+    public String forma() {
+        StringBuilder forma = new StringBuilder();
+        forma.append(completada == null ? '-' : completada ? 'C' : 'P');
+        forma.append(titulo != null ? 't' : '-');
+        forma.append(creadaDesde != null ? 'c' : '-');
+        forma.append(creadaHasta != null ? 'c' : '-');
+        forma.append(modificadaDesde != null ? 'm' : '-');
+        forma.append(modificadaHasta != null ? 'm' : '-');
+        forma.append(cursor.isEmpty() ? '-' : 'k');
+        for (Orden clave : orden) {
+            forma.append(clave.descendente() ? ",-" : ",").append(clave.campo().nombre);
+        }
+        return forma.toString();
+    }
+
+    /**
+     * Si solo filtra por estado y va en orden de id, la forma que resuelve
+     * {@link com.tasku.indice.IndiceEstados} sin la base de datos.
+     */
+    public boolean soloPorEstado() {
+        return completada != null && titulo == null && creadaDesde == null && creadaHasta == null
+                && modificadaDesde == null && modificadaHasta == null && orden.size() == 1;
+    }
+
+    /**
+     * Si la tarea cumple los filtros y queda después del cursor: la condición
+     * de las sentencias de {@link SentenciaTaskus}, evaluada en memoria para los
+     * almacenes que no usan SQL.
+     */
+    public boolean admite(Tasku tasku) {
+        if (completada != null && !completada.equals(tasku.getCompletada())) {
+            return false;
+        }
+        if (titulo != null && !tasku.getTitulo().toLowerCase(Locale.ROOT).contains(titulo.toLowerCase(Locale.ROOT))) {
+            return false;
+        }
+        LocalDateTime creada = tasku.getFechaCreacion();
+        LocalDateTime modificada = tasku.modificadaEn();
+        if (creadaDesde != null && creada.isBefore(creadaDesde)
+                || creadaHasta != null && !creada.isBefore(creadaHasta)
+                || modificadaDesde != null && modificada.isBefore(modificadaDesde)
+                || modificadaHasta != null && !modificada.isBefore(modificadaHasta)) {
+            return false;
+        }
+        return cursor.isEmpty() || despuesDelCursor(tasku);
+    }
+
+    /**
+     * El orden de la consulta en memoria, con el id de desempate.
+     */
+    public Comparator<Tasku> comparador() {
+        Comparator<Tasku> comparador = null;
+        for (Orden clave : orden) {
+            Comparator<Tasku> porClave = (a, b) -> comparar(clave.campo().valor.apply(a), clave.campo().valor.apply(b));
+            if (clave.descendente()) {
+                porClave = porClave.reversed();
+            }
+            comparador = comparador == null ? porClave : comparador.thenComparing(porClave);
+        }
+        return comparador;
+    }
+
+    /**
+     * Columnas que hay que leer para devolver {@code campos} con esta consulta:
+     * además de esos, los que necesita el cursor.
+     */
+    public Set<TaskuParcial.Campo> columnas(Set<TaskuParcial.Campo> campos) {
+        return SentenciaTaskus.columnas(this, campos);
+    }
+
+    /**
+     * Cursor que continúa la consulta después de {@code ultima}. En el orden por
+     * id es el propio id, como hasta ahora; con otro orden codifica cada valor
+     * en base64url, separados por puntos.
+     */
+    public String cursorDespuesDe(Tasku ultima) {
+        return cursor(campo -> campo.valor.apply(ultima));
+    }
+
+    /**
+     * Como {@link #cursorDespuesDe(Tasku)}, para una fila leída con proyección.
+     * La proyección tiene que incluir las columnas de las claves de orden.
+     */
+    public String cursorDespuesDe(TaskuParcial ultima) {
+        return cursor(campo -> switch (campo) {
+            case ID -> ultima.id();
+            case TITULO -> ultima.titulo();
+            case CREADA -> ultima.fechaCreacion();
+            case MODIFICADA -> ultima.modificadaEn();
+        });
+    }
+
+    private boolean despuesDelCursor(Tasku tasku) {
+        for (int i = 0; i < orden.size(); i++) {
+            Orden clave = orden.get(i);
+            int comparacion = comparar(clave.campo().valor.apply(tasku), cursor.get(i));
+            if (comparacion != 0) {
+                return clave.descendente() ? comparacion < 0 : comparacion > 0;
+            }
+        }
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int comparar(Object a, Object b) {
+        return ((Comparable<Object>) a).compareTo(b);
+    }
+
+    private String cursor(Function<Campo, Object> valores) {
+        if (orden.equals(ORDEN_POR_DEFECTO)) {
+            return String.valueOf(valores.apply(Campo.ID));
+        }
+        List<String> partes = new ArrayList<>(orden.size());
+        for (Orden clave : orden) {
+            String valor = String.valueOf(valores.apply(clave.campo()));
+            partes.add(Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8)));
+        }
+        return String.join(".", partes);
+    }
+
+    /**
+     * Interpreta el parámetro {@code orden}: campos separados por comas, con
+     * {@code -} delante para el orden descendente. Vacío ordena por id.
+     */
+    public static List<Orden> parsearOrden(String texto) {
+        if (texto == null || texto.isBlank()) {
+            return ORDEN_POR_DEFECTO;
+        }
+        List<Orden> orden = new ArrayList<>();
+        Set<Campo> vistos = EnumSet.noneOf(Campo.class);
+        for (String parte : texto.split(",")) {
+            String nombre = parte.trim();
+            boolean descendente = nombre.startsWith("-");
+            Campo campo = Campo.porNombre(descendente ? nombre.substring(1) : nombre);
+            if (!vistos.add(campo)) {
+                throw new IllegalArgumentException("Campo de orden repetido: " + campo.nombre);
+            }
+            orden.add(new Orden(campo, descendente));
+        }
+        if (orden.size() > MAXIMO_CLAVES_ORDEN) {
+            throw new IllegalArgumentException("Como máximo " + MAXIMO_CLAVES_ORDEN + " campos de orden");
+        }
+        return orden;
+    }
+
+    /**
+     * Lee un cursor de {@link #cursorDespuesDe(Tasku)} para el orden dado.
+     */
+    public static List<Object> parsearCursor(List<Orden> orden, String texto) {
+        if (texto == null || texto.isBlank()) {
+            return List.of();
+        }
+        List<Orden> completo = completarOrden(orden);
+        String[] partes = completo.equals(ORDEN_POR_DEFECTO) ? null : texto.trim().split("\\.", -1);
+        if (partes != null && partes.length != completo.size()) {
+            throw new IllegalArgumentException("El cursor no corresponde al orden de la consulta");
+        }
+        try {
+            if (partes == null) {
+                return List.of(Long.parseLong(texto.trim()));
+            }
+            List<Object> valores = new ArrayList<>(partes.length);
+            for (int i = 0; i < partes.length; i++) {
+                String valor = new String(Base64.getUrlDecoder().decode(partes[i]), StandardCharsets.UTF_8);
+                valores.add(completo.get(i).campo().parsear.apply(valor));
+            }
+            return valores;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            // NumberFormatException y los errores de base64 son IllegalArgumentException
+            throw new IllegalArgumentException("Cursor no válido: " + texto);
+        }
+    }
+
+    private static List<Orden> completarOrden(List<Orden> orden) {
+        if (orden == null || orden.isEmpty()) {
+            return ORDEN_POR_DEFECTO;
+        }
+        List<Orden> completo = new ArrayList<>(orden.size() + 1);
+        for (Orden clave : orden) {
+            completo.add(clave);
+            // El id es único: las claves detrás de él no cambian el orden
+            if (clave.campo() == Campo.ID) {
+                return List.copyOf(completo);
+            }
+        }
+        completo.add(new Orden(Campo.ID, orden.get(orden.size() - 1).descendente()));
+        return List.copyOf(completo);
+    }
+
+    /**
+     * Clave de orden. El id de desempate toma la dirección de la última clave,
+     * así un índice (campo, id) sirve para recorrer la consulta en los dos sentidos.
+     */
+    public record Orden(Campo campo, boolean descendente) {
+    }
+
+    /**
+     * Campos por los que se puede ordenar, con su expresión en JPQL y en SQL.
+     * Ninguno admite nulos, lo que mantiene simple la condición del cursor.
+     */
+    public enum Campo {
+        ID("id", "id", "id", Tasku::getId, Long::valueOf),
+        TITULO("titulo", "titulo", "titulo", Tasku::getTitulo, valor -> valor),
+        CREADA("creada", "fechaCreacion", "fecha_creacion", Tasku::getFechaCreacion, LocalDateTime::parse),
+        MODIFICADA("modificada", "coalesce(fechaActualizacion, fechaCreacion)",
+                "coalesce(fecha_actualizacion, fecha_creacion)", Tasku::modificadaEn, LocalDateTime::parse);
+
+        private final String nombre;
+        final String jpql;
+        final String sql;
+        private final Function<Tasku, Object> valor;
+        private final Function<String, Object> parsear;
+
+        Campo(String nombre, String jpql, String sql, Function<Tasku, Object> valor, Function<String, Object> parsear) {
+            this.nombre = nombre;
+            this.jpql = jpql;
+            this.sql = sql;
+            this.valor = valor;
+            this.parsear = parsear;
+        }
+
+        public String nombre() {
+            return nombre;
+        }
+
+        static Campo porNombre(String nombre) {
+            String buscado = nombre.toLowerCase(Locale.ROOT);
+            for (Campo campo : values()) {
+                if (campo.nombre.equals(buscado)) {
+                    return campo;
+                }
+            }
+            throw new IllegalArgumentException("Campo de orden desconocido: " + nombre);
+        }
+    }
+}
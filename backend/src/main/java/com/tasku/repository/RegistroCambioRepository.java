@@ -0,0 +1,99 @@
+package com.tasku.repository;
+
+import com.tasku.model.RegistroCambio;
+import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.panache.common.Sort;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.Query;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@ApplicationScoped
+public class RegistroCambioRepository implements PanacheRepository<RegistroCambio> {
+
+    /**
+     * Cambios que cuentan como tarea completada en {@code /estadisticas}, la
+     * condición de {@link com.tasku.event.TaskuCambio#completaTarea()}.
+     */
+    public static final String COMPLETA_TAREA =
+            "completada = TRUE AND (tipo = 'CREADA' OR tipo = 'ACTUALIZADA' AND completada_anterior = FALSE)";
+
+    /**
+     * Hasta {@code limite} cambios con secuencia mayor que {@code despuesDe}, en orden.
+     */
+    public List<RegistroCambio> leerDesde(long despuesDe, int limite) {
+        return find("secuencia > ?1", Sort.ascending("secuencia"), despuesDe)
+                .range(0, limite - 1)
+                .list();
+    }
+
+    /**
+     * Los cambios con secuencia entre {@code desde} y {@code hasta}, ambas incluidas, en orden.
+     */
+    public List<RegistroCambio> leerEntre(long desde, long hasta) {
+        return find("secuencia between ?1 and ?2", Sort.ascending("secuencia"), desde, hasta).list();
+    }
+
+    public long ultimaSecuencia() {
+        Long ultima = getEntityManager()
+                .createQuery("select max(r.secuencia) from RegistroCambio r", Long.class)
+                .getSingleResult();
+        return ultima != null ? ultima : 0;
+    }
+
+    /**
+     * Cuenta en una sola sentencia, y por tanto sobre una misma instantánea:
+     * {@code totales}, que son subconsultas escalares de quien llama, y las
+     * tareas creadas y completadas según los cambios registrados desde
+     * {@code inicio}. Devuelve también las secuencias de {@code sinEntregar}
+     * que ya se ven en esa instantánea.
+     */
+    public Recuento contarResumen(LocalDateTime inicio, List<RegistroCambio.Tramo> sinEntregar, List<String> totales) {
+        StringBuilder sql = new StringBuilder("SELECT c.*, r.secuencia FROM (SELECT ");
+        for (int i = 0; i < totales.size(); i++) {
+            sql.append(totales.get(i)).append(" AS total").append(i).append(", ");
+        }
+        sql.append("(SELECT COUNT(*) FROM taskus_cambios WHERE registrado_en >= ?1 AND tipo = 'CREADA') AS creadas, ")
+                .append("(SELECT COUNT(*) FROM taskus_cambios WHERE registrado_en >= ?1 AND ")
+                .append(COMPLETA_TAREA).append(") AS completadas) c LEFT JOIN taskus_cambios r ON ");
+        if (sinEntregar.isEmpty()) {
+            sql.append("1 = 0");
+        }
+        for (int i = 0; i < sinEntregar.size(); i++) {
+            sql.append(i > 0 ? " OR " : "").append("r.secuencia BETWEEN ?").append(2 + 2 * i)
+                    .append(" AND ?").append(3 + 2 * i);
+        }
+        Query consulta = getEntityManager().createNativeQuery(sql.toString()).setParameter(1, inicio);
+        for (int i = 0; i < sinEntregar.size(); i++) {
+            consulta.setParameter(2 + 2 * i, sinEntregar.get(i).desde())
+                    .setParameter(3 + 2 * i, sinEntregar.get(i).hasta());
+        }
+        @SuppressWarnings("unchecked")
+        List<Object[]> filas = consulta.getResultList();
+        long[] valores = new long[totales.size() + 2];
+        for (int i = 0; i < valores.length; i++) {
+            valores[i] = ((Number) filas.get(0)[i]).longValue();
+        }
+        Set<Long> secuencias = new HashSet<>();
+        for (Object[] fila : filas) {
+            if (fila[valores.length] != null) {
+                secuencias.add(((Number) fila[valores.length]).longValue());
+            }
+        }
+        return new Recuento(valores, secuencias);
+    }
+
+    public long purgarAnteriores(LocalDateTime limite) {
+        return delete("registradoEn < ?1", limite);
+    }
+
+    /**
+     * Resultado de {@link #contarResumen}: los totales en el orden en que se
+     * pidieron seguidos de creadas y completadas, y las secuencias sin entregar
+     * que ya se ven.
+     */
+    public record Recuento(long[] valores, Set<Long> sinEntregar) {
+    }
+}
@@ -0,0 +1,221 @@
+package com.tasku.repository;
+
+import com.tasku.dto.TaskuParcial;
+import com.tasku.repository.ConsultaTaskus.Orden;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Traduce una {@link ConsultaTaskus} a una sentencia con parámetros posicionales,
+ * en JPQL ({@code ?n}) para {@link TaskuRepository} o en SQL ({@code $n}) para
+ * {@link TaskuRepositoryReactivo}. El texto solo depende de la forma de la
+ * consulta, así que se construye una vez por forma y se guarda: las llamadas
+ * siguientes reutilizan el mismo texto, que Hibernate y el cliente reactivo ya
+ * tienen interpretado y preparado. El número de formas está acotado por los
+ * filtros, las claves de orden y las columnas de la proyección, por eso la
+ * caché no necesita expulsión.
+ */
+final class SentenciaTaskus {
+
+    private final String seleccion;
+    private final boolean sql;
+    private final Map<String, String> sentencias = new ConcurrentHashMap<>();
+
+    private SentenciaTaskus(String seleccion, boolean sql) {
+        this.seleccion = seleccion;
+        this.sql = sql;
+    }
+
+    static SentenciaTaskus jpql() {
+        return new SentenciaTaskus("from Tasku", false);
+    }
+
+    static SentenciaTaskus sql(String columnas) {
+        return new SentenciaTaskus("SELECT " + columnas + " FROM taskus", true);
+    }
+
+    String texto(ConsultaTaskus consulta) {
+        return sentencias.computeIfAbsent(consulta.forma(), forma -> construir(consulta, seleccion, false));
+    }
+
+    /**
+     * Como {@link #texto(ConsultaTaskus)}, pero seleccionando solo {@code columnas},
+     * en el orden de {@link TaskuParcial.Campo}.
+     */
+    String texto(ConsultaTaskus consulta, Set<TaskuParcial.Campo> columnas) {
+        String clave = consulta.forma() + '#' + mascara(columnas);
+        return sentencias.computeIfAbsent(clave, forma -> construir(consulta, proyeccion(columnas), false));
+    }
+
+    /**
+     * Como {@link #texto(ConsultaTaskus, Set)}, pero solo entre los ids que se
+     * pasan como último parámetro, para leer las filas de una página cuyos ids
+     * ya se conocen.
+     */
+    String textoEntreIds(ConsultaTaskus consulta, Set<TaskuParcial.Campo> columnas) {
+        String clave = consulta.forma() + '#' + mascara(columnas) + "#ids";
+        return sentencias.computeIfAbsent(clave, forma -> construir(consulta, proyeccion(columnas), true));
+    }
+
+    /**
+     * Columnas a leer para devolver {@code campos} y además poder calcular el
+     * cursor de la consulta, que necesita los valores de sus claves de orden.
+     */
+    static Set<TaskuParcial.Campo> columnas(ConsultaTaskus consulta, Set<TaskuParcial.Campo> campos) {
+        Set<TaskuParcial.Campo> columnas = EnumSet.noneOf(TaskuParcial.Campo.class);
+        columnas.addAll(campos);
+        for (Orden clave : consulta.orden()) {
+            switch (clave.campo()) {
+                case ID -> columnas.add(TaskuParcial.Campo.ID);
+                case TITULO -> columnas.add(TaskuParcial.Campo.TITULO);
+                case CREADA -> columnas.add(TaskuParcial.Campo.FECHA_CREACION);
+                case MODIFICADA -> {
+                    columnas.add(TaskuParcial.Campo.FECHA_CREACION);
+                    columnas.add(TaskuParcial.Campo.FECHA_ACTUALIZACION);
+                }
+            }
+        }
+        return columnas;
+    }
+
+    /**
+     * Nombre de la columna en SQL; en JPQL es el de la propiedad.
+     */
+    static String columna(TaskuParcial.Campo campo) {
+        return switch (campo) {
+            case FECHA_CREACION -> "fecha_creacion";
+            case FECHA_ACTUALIZACION -> "fecha_actualizacion";
+            default -> campo.nombre();
+        };
+    }
+
+    int formasEnCache() {
+        return sentencias.size();
+    }
+
+    /**
+     * Valores de los parámetros, en el orden en que {@link #texto} los numera.
+     */
+    static List<Object> parametros(ConsultaTaskus consulta) {
+        List<Object> parametros = new ArrayList<>();
+        if (consulta.titulo() != null) {
+            parametros.add(TaskuRepository.patronContiene(consulta.titulo()));
+        }
+        agregarSiHay(parametros, consulta.creadaDesde());
+        agregarSiHay(parametros, consulta.creadaHasta());
+        agregarSiHay(parametros, consulta.modificadaDesde());
+        agregarSiHay(parametros, consulta.modificadaHasta());
+        parametros.addAll(consulta.cursor());
+        return parametros;
+    }
+
+    private static int mascara(Set<TaskuParcial.Campo> columnas) {
+        int mascara = 0;
+        for (TaskuParcial.Campo campo : columnas) {
+            mascara |= 1 << campo.ordinal();
+        }
+        return mascara;
+    }
+
+    private String proyeccion(Set<TaskuParcial.Campo> columnas) {
+        List<String> nombres = new ArrayList<>(columnas.size());
+        for (TaskuParcial.Campo campo : columnas) {
+            nombres.add(sql ? columna(campo) : campo.nombre());
+        }
+        return (sql ? "SELECT " : "select ") + String.join(", ", nombres) + (sql ? " FROM taskus" : " from Tasku");
+    }
+
+    private String construir(ConsultaTaskus consulta, String seleccion, boolean entreIds) {
+        List<String> condiciones = new ArrayList<>();
+        int numero = 0;
+        if (consulta.completada() != null) {
+            condiciones.add(TaskuRepository.filtroCompletada(consulta.completada()));
+        }
+        if (consulta.titulo() != null) {
+            condiciones.add("lower(titulo) LIKE " + parametro(++numero) + " ESCAPE '!'");
+        }
+        String creada = expresion(ConsultaTaskus.Campo.CREADA);
+        String modificada = expresion(ConsultaTaskus.Campo.MODIFICADA);
+        if (consulta.creadaDesde() != null) {
+            condiciones.add(creada + " >= " + parametro(++numero));
+        }
+        if (consulta.creadaHasta() != null) {
+            condiciones.add(creada + " < " + parametro(++numero));
+        }
+        if (consulta.modificadaDesde() != null) {
+            condiciones.add(modificada + " >= " + parametro(++numero));
+        }
+        if (consulta.modificadaHasta() != null) {
+            condiciones.add(modificada + " < " + parametro(++numero));
+        }
+        if (!consulta.cursor().isEmpty()) {
+            condiciones.add(despuesDelCursor(consulta.orden(), numero));
+            numero += consulta.cursor().size();
+        }
+        if (entreIds) {
+            condiciones.add(expresion(ConsultaTaskus.Campo.ID) + (sql ? " = ANY(" + parametro(++numero) + ")"
+                    : " in " + parametro(++numero)));
+        }
+
+        StringBuilder texto = new StringBuilder(seleccion);
+        if (!condiciones.isEmpty()) {
+            texto.append(sql ? " WHERE " : " where ").append(String.join(sql ? " AND " : " and ", condiciones));
+        }
+        texto.append(sql ? " ORDER BY " : " order by ");
+        for (int i = 0; i < consulta.orden().size(); i++) {
+            Orden clave = consulta.orden().get(i);
+            texto.append(i == 0 ? "" : ", ").append(expresion(clave.campo()));
+            if (clave.descendente()) {
+                texto.append(sql ? " DESC" : " desc");
+            }
+        }
+        return texto.toString();
+    }
+
+    /**
+     * Filas estrictamente después de la posición del cursor en el orden dado.
+     * Con varias claves, la cota sobre la primera va aparte para que el índice
+     * pueda empezar el recorrido en ella; el resto de la condición solo descarta
+     * las filas que empatan en esa primera clave.
+     */
+    private String despuesDelCursor(List<Orden> orden, int numeroPrevio) {
+        if (orden.size() == 1) {
+            return expresion(orden.get(0).campo()) + mayor(orden.get(0)) + parametro(numeroPrevio + 1);
+        }
+        Orden primera = orden.get(0);
+        String cota = expresion(primera.campo()) + (primera.descendente() ? " <= " : " >= ")
+                + parametro(numeroPrevio + 1);
+        List<String> alternativas = new ArrayList<>(orden.size());
+        for (int i = 0; i < orden.size(); i++) {
+            List<String> partes = new ArrayList<>(i + 1);
+            for (int j = 0; j < i; j++) {
+                partes.add(expresion(orden.get(j).campo()) + " = " + parametro(numeroPrevio + j + 1));
+            }
+            partes.add(expresion(orden.get(i).campo()) + mayor(orden.get(i)) + parametro(numeroPrevio + i + 1));
+            alternativas.add(String.join(sql ? " AND " : " and ", partes));
+        }
+        return cota + (sql ? " AND ((" : " and ((") + String.join(sql ? ") OR (" : ") or (", alternativas) + "))";
+    }
+
+    private String expresion(ConsultaTaskus.Campo campo) {
+        return sql ? campo.sql : campo.jpql;
+    }
+
+    private String parametro(int numero) {
+        return (sql ? "$" : "?") + numero;
+    }
+
+    private static String mayor(Orden clave) {
+        return clave.descendente() ? " < " : " > ";
+    }
+
+    private static void agregarSiHay(List<Object> parametros, Object valor) {
+        if (valor != null) {
+            parametros.add(valor);
+        }
+    }
+}
@@ -1,36 +1,419 @@
 package com.tasku.repository;
 
+import com.tasku.almacen.AlmacenTaskus;
+import com.tasku.dto.TaskuParcial;
+import com.tasku.model.RegistroCambio;
 import com.tasku.model.Tasku;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.panache.common.Sort;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Typed;
+import jakarta.inject.Inject;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.query.NativeQuery;
 
+/**
+ * Almacén de tareas en la base de datos, con Hibernate. Las tareas que devuelve
+ * son entidades gestionadas: lo que se cambie en ellas se escribe al confirmar.
+ */
 @ApplicationScoped
-public class TaskuRepository implements PanacheRepository<Tasku> {
+@Typed(TaskuRepository.class)
+public class TaskuRepository implements PanacheRepository<Tasku>, AlmacenTaskus {
     
-    public List<Tasku> findByCompletada(Boolean completada) {
-        return find("completada", completada).list();
+    // Filas que el driver trae por viaje al recorrer un cursor
+    static final int TAMANO_FETCH = 500;
+    
+    // JPQL del listado por forma de consulta
+    private final SentenciaTaskus sentencias = SentenciaTaskus.jpql();
+    
+    // UPDATE de actualizarDirecto por columnas que cambian
+    private final Map<Integer, String> actualizaciones = new ConcurrentHashMap<>();
+    
+    @ConfigProperty(name = "quarkus.datasource.db-kind")
+    String motor;
+    
+    @Inject
+    RegistroCambioRepository registro;
+    
+    @Override
+    public List<Tasku> listarTodas() {
+        return listAll();
+    }
+    
+    @Override
+    public List<Tasku> buscarPorCompletada(Boolean completada) {
+        if (completada == null) {
+            return List.of();
+        }
+        return find(filtroCompletada(completada), Sort.ascending("id")).list();
     }
     
+    @Override
     public List<Tasku> buscarPorTitulo(String titulo) {
-        return find("titulo LIKE ?1", "%" + titulo + "%").list();
+        return find("lower(titulo) LIKE ?1 ESCAPE '!'", patronContiene(titulo)).list();
     }
     
+    @Override
     public Optional<Tasku> buscarPorId(Long id) {
         return findByIdOptional(id);
     }
     
+    @Override
+    public List<Tasku> buscarPorIds(List<Long> ids) {
+        return list("id in ?1", ids);
+    }
+    
+    /**
+     * Página de la consulta: como máximo {@link ConsultaTaskus#limite()} tareas
+     * a partir de su cursor, en su orden. Al filtrar por el cursor en lugar de
+     * usar OFFSET, el coste de cada página no depende de lo lejos que esté del
+     * inicio de la tabla.
+     */
+    @Override
+    public List<Tasku> listar(ConsultaTaskus consulta) {
+        return preparar(consulta)
+                .setMaxResults(consulta.limite())
+                .getResultList();
+    }
+    
+    /**
+     * Página de la consulta leída con una proyección: se seleccionan solo las
+     * columnas de {@code campos} y las de las claves de orden, y cada fila se
+     * convierte en un {@link TaskuParcial} sin crear entidades gestionadas.
+     */
+    @Override
+    public List<TaskuParcial> listar(ConsultaTaskus consulta, Set<TaskuParcial.Campo> campos) {
+        Set<TaskuParcial.Campo> columnas = SentenciaTaskus.columnas(consulta, campos);
+        List<?> filas = preparar(getEntityManager().createQuery(sentencias.texto(consulta, columnas)), consulta)
+                .setMaxResults(consulta.limite())
+                .getResultList();
+        List<TaskuParcial> taskus = new ArrayList<>(filas.size());
+        for (Object fila : filas) {
+            taskus.add(aParcial(campos, columnas, fila));
+        }
+        return taskus;
+    }
+    
+    /**
+     * Como {@link #listar(ConsultaTaskus, Set)}, con la condición {@code id in}
+     * sobre {@code ids} además de las de la consulta.
+     */
+    @Override
+    public List<TaskuParcial> listarEntreIds(ConsultaTaskus consulta, List<Long> ids,
+                                             Set<TaskuParcial.Campo> campos) {
+        Set<TaskuParcial.Campo> columnas = SentenciaTaskus.columnas(consulta, campos);
+        List<?> filas = preparar(getEntityManager().createQuery(sentencias.textoEntreIds(consulta, columnas)), consulta)
+                .setParameter(SentenciaTaskus.parametros(consulta).size() + 1, ids)
+                .getResultList();
+        List<TaskuParcial> taskus = new ArrayList<>(filas.size());
+        for (Object fila : filas) {
+            taskus.add(aParcial(campos, columnas, fila));
+        }
+        return taskus;
+    }
+    
+    /**
+     * Recorre todas las tareas que cumplen la consulta sobre un cursor del servidor,
+     * sin límite. Cada fila se desacopla del contexto de persistencia después de
+     * entregarla, así la memoria usada no crece con el tamaño del resultado.
+     * Debe llamarse dentro de una transacción para que el driver use el cursor.
+     */
+    @Override
+    public void recorrer(ConsultaTaskus consulta, Consumer<Tasku> consumidor) {
+        try (Stream<Tasku> taskus = preparar(consulta)
+                .setHint("org.hibernate.fetchSize", TAMANO_FETCH)
+                .setHint("org.hibernate.readOnly", true)
+                .getResultStream()) {
+            taskus.forEach(tasku -> {
+                consumidor.accept(tasku);
+                getEntityManager().detach(tasku);
+            });
+        }
+    }
+    
+    /**
+     * Como {@link #recorrer(ConsultaTaskus, Consumer)}, con la proyección de
+     * {@link #listar(ConsultaTaskus, Set)}. Las filas no entran en el contexto de
+     * persistencia, así que no hay nada que desacoplar.
+     */
+    @Override
+    public void recorrerCampos(ConsultaTaskus consulta, Set<TaskuParcial.Campo> campos,
+                               Consumer<TaskuParcial> consumidor) {
+        Set<TaskuParcial.Campo> columnas = SentenciaTaskus.columnas(consulta, campos);
+        try (Stream<?> filas = preparar(getEntityManager().createQuery(sentencias.texto(consulta, columnas)), consulta)
+                .setHint("org.hibernate.fetchSize", TAMANO_FETCH)
+                .getResultStream()) {
+            filas.forEach(fila -> consumidor.accept(aParcial(campos, columnas, fila)));
+        }
+    }
+    
+    /**
+     * Momento de la última escritura de la tarea, sin cargar la entidad.
+     */
+    @Override
+    public Optional<LocalDateTime> buscarModificacion(Long id) {
+        return getEntityManager().createQuery("select coalesce(t.fechaActualizacion, t.fechaCreacion) "
+                        + "from Tasku t where t.id = :id", LocalDateTime.class)
+                .setParameter("id", id)
+                .getResultStream()
+                .findFirst();
+    }
+    
+    /**
+     * Carga la tarea bloqueando su fila hasta el final de la transacción.
+     */
+    @Override
+    public Optional<Tasku> buscarPorIdParaActualizar(Long id) {
+        return findByIdOptional(id, LockModeType.PESSIMISTIC_WRITE);
+    }
+    
+    /**
+     * Cambia la tarea con una sola sentencia, sin cargarla antes: escribe los
+     * valores no nulos, la fecha de actualización y la versión siguiente. La
+     * sentencia devuelve la fila como estaba, bloqueada hasta el commit, y la
+     * tarea como queda se construye con los valores escritos. No es una entidad
+     * gestionada: si la sesión ya tenía la tarea, esa copia no ve el cambio.
+     * Vacío si no hay tarea con ese id.
+     */
+    @Override
+    public Optional<Actualizacion> actualizarDirecto(Long id, String titulo, String descripcion,
+                                                     Boolean completada) {
+        int forma = (titulo != null ? 1 : 0) | (descripcion != null ? 2 : 0) | (completada != null ? 4 : 0);
+        LocalDateTime ahora = Tasku.ahora();
+        NativeQuery<?> query = getEntityManager()
+                .createNativeQuery(actualizaciones.computeIfAbsent(forma, this::sentenciaActualizar))
+                .unwrap(NativeQuery.class)
+                .addScalar("id", Long.class)
+                .addScalar("titulo", String.class)
+                .addScalar("descripcion", String.class)
+                .addScalar("completada", Boolean.class)
+                .addScalar("fecha_creacion", LocalDateTime.class)
+                .addScalar("version", Long.class)
+                .setParameter("id", id)
+                .setParameter("ahora", ahora);
+        if (titulo != null) {
+            query.setParameter("titulo", titulo);
+        }
+        if (descripcion != null) {
+            query.setParameter("descripcion", descripcion);
+        }
+        if (completada != null) {
+            query.setParameter("completada", completada);
+        }
+        return query.getResultList().stream().findFirst().map(fila -> {
+            Object[] anterior = (Object[]) fila;
+            Tasku tasku = new Tasku();
+            tasku.setId((Long) anterior[0]);
+            tasku.setTitulo(titulo != null ? titulo : (String) anterior[1]);
+            tasku.setDescripcion(descripcion != null ? descripcion : (String) anterior[2]);
+            tasku.setCompletada(completada != null ? completada : (Boolean) anterior[3]);
+            tasku.setFechaCreacion((LocalDateTime) anterior[4]);
+            tasku.setFechaActualizacion(ahora);
+            tasku.setVersion((Long) anterior[5] + 1);
+            return new Actualizacion(tasku, (Boolean) anterior[3]);
+        });
+    }
+    
+    /**
+     * Ids de la página de la consulta, en su orden, sin cargar las tareas.
+     */
+    @Override
+    public List<Long> listarIds(ConsultaTaskus consulta) {
+        String texto = sentencias.texto(consulta, EnumSet.of(TaskuParcial.Campo.ID));
+        return preparar(getEntityManager().createQuery(texto, Long.class), consulta)
+                .setMaxResults(consulta.limite())
+                .getResultList();
+    }
+    
+    /**
+     * Marca como completadas las tareas pendientes de {@code ids} con una sola
+     * sentencia y devuelve las que cambiaron, tal como quedan. Las que ya
+     * estaban completadas no se tocan.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Tasku> completar(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return getEntityManager().createNativeQuery(devolviendo("UPDATE taskus SET completada = TRUE, "
+                        + "fecha_actualizacion = :ahora, version = version + 1 "
+                        + "WHERE id IN (:ids) AND completada = FALSE"), Tasku.class)
+                .setParameter("ids", ids)
+                .setParameter("ahora", Tasku.ahora())
+                .getResultList();
+    }
+    
+    @Override
     public Tasku guardar(Tasku tasku) {
         persist(tasku);
         return tasku;
     }
     
-    public boolean eliminarPorId(Long id) {
-        return deleteById(id);
+    /**
+     * La entidad gestionada ya se escribe al confirmar, con su versión; solo
+     * una copia desacoplada necesita fusionarse.
+     */
+    @Override
+    public void guardarCambios(Tasku tasku) {
+        if (!getEntityManager().contains(tasku)) {
+            getEntityManager().merge(tasku);
+        }
+    }
+    
+    /**
+     * Elimina la tarea y la devuelve tal como estaba, o vacío si no existía.
+     */
+    @Override
+    public Optional<Tasku> eliminarPorId(Long id) {
+        Optional<Tasku> tasku = findByIdOptional(id);
+        tasku.ifPresent(this::delete);
+        return tasku;
+    }
+    
+    @Override
+    public void eliminar(Tasku tasku) {
+        delete(tasku);
+    }
+    
+    @Override
+    public long contarPorCompletada(boolean completada) {
+        return count(filtroCompletada(completada));
+    }
+    
+    /**
+     * Las tareas completadas y pendientes en la misma sentencia que el registro
+     * de cambios, así el recuento y las secuencias que ya se ven son de una
+     * misma instantánea.
+     */
+    @Override
+    public Resumen contarResumen(LocalDateTime inicio, List<RegistroCambio.Tramo> sinEntregar) {
+        RegistroCambioRepository.Recuento recuento = registro.contarResumen(inicio, sinEntregar, List.of(
+                "(SELECT COUNT(*) FROM taskus WHERE " + filtroCompletada(true) + ")",
+                "(SELECT COUNT(*) FROM taskus WHERE " + filtroCompletada(false) + ")"));
+        long[] valores = recuento.valores();
+        return new Resumen(valores[0], valores[1], valores[2], valores[3], recuento.sinEntregar());
+    }
+    
+    @Override
+    public void escribirPendientes() {
+        flush();
+    }
+    
+    @Override
+    public void liberarCargadas() {
+        getEntityManager().clear();
+    }
+    
+    /**
+     * Condición sobre {@code completada} con el valor como literal y no como
+     * parámetro: así PostgreSQL puede usar el índice parcial de ese estado
+     * también cuando reutiliza un plan genérico de la sentencia preparada.
+     */
+    public static String filtroCompletada(boolean completada) {
+        return completada ? "completada = true" : "completada = false";
+    }
+    
+    /**
+     * Patrón LIKE de "contiene" sobre {@code lower(titulo)}, con los comodines del
+     * texto escapados. En PostgreSQL lo resuelve el índice de trigramas del título.
+     */
+    public static String patronContiene(String texto) {
+        String escapado = texto.toLowerCase(Locale.ROOT)
+                .replace("!", "!!")
+                .replace("%", "!%")
+                .replace("_", "!_");
+        return "%" + escapado + "%";
+    }
+    
+    /**
+     * El UPDATE de {@link #actualizarDirecto} devolviendo la fila como estaba.
+     * PostgreSQL la bloquea en una subconsulta y la devuelve con RETURNING; H2
+     * la lee de la tabla anterior al UPDATE.
+     */
+    private String sentenciaActualizar(int forma) {
+        StringBuilder cambios = new StringBuilder();
+        if ((forma & 1) != 0) {
+            cambios.append("titulo = :titulo, ");
+        }
+        if ((forma & 2) != 0) {
+            cambios.append("descripcion = :descripcion, ");
+        }
+        if ((forma & 4) != 0) {
+            cambios.append("completada = :completada, ");
+        }
+        cambios.append("fecha_actualizacion = :ahora, ");
+        String columnas = "id, titulo, descripcion, completada, fecha_creacion, version";
+        if ("h2".equals(motor)) {
+            return "SELECT " + columnas + " FROM OLD TABLE (UPDATE taskus SET " + cambios
+                    + "version = version + 1 WHERE id = :id)";
+        }
+        return "UPDATE taskus t SET " + cambios + "version = t.version + 1 FROM (SELECT " + columnas
+                + " FROM taskus WHERE id = :id FOR UPDATE) o WHERE t.id = o.id RETURNING o."
+                + columnas.replace(", ", ", o.");
+    }
+    
+    /**
+     * El UPDATE devolviendo las filas que cambia, completas: con RETURNING en
+     * PostgreSQL y leyendo su tabla final en H2.
+     */
+    private String devolviendo(String update) {
+        return "h2".equals(motor)
+                ? "SELECT * FROM FINAL TABLE (" + update + ")"
+                : update + " RETURNING *";
+    }
+    
+    private TypedQuery<Tasku> preparar(ConsultaTaskus consulta) {
+        return preparar(getEntityManager().createQuery(sentencias.texto(consulta), Tasku.class), consulta);
+    }
+    
+    private static <Q extends Query> Q preparar(Q query, ConsultaTaskus consulta) {
+        List<Object> parametros = SentenciaTaskus.parametros(consulta);
+        for (int i = 0; i < parametros.size(); i++) {
+            query.setParameter(i + 1, parametros.get(i));
+        }
+        return query;
     }
     
-    public long contarPorCompletada(Boolean completada) {
-        return count("completada", completada);
+    /**
+     * Fila de una proyección, con los valores en el orden de {@code columnas}.
+     * Hibernate devuelve el valor suelto, no un array, si solo hay una columna.
+     */
+    private static TaskuParcial aParcial(Set<TaskuParcial.Campo> campos, Set<TaskuParcial.Campo> columnas,
+                                         Object fila) {
+        Object[] valores = fila instanceof Object[] arreglo ? arreglo : new Object[] {fila};
+        Long id = null;
+        String titulo = null;
+        String descripcion = null;
+        Boolean completada = null;
+        LocalDateTime fechaCreacion = null;
+        LocalDateTime fechaActualizacion = null;
+        int i = 0;
+        for (TaskuParcial.Campo columna : columnas) {
+            Object valor = valores[i++];
+            switch (columna) {
+                case ID -> id = (Long) valor;
+                case TITULO -> titulo = (String) valor;
+                case DESCRIPCION -> descripcion = (String) valor;
+                case COMPLETADA -> completada = (Boolean) valor;
+                case FECHA_CREACION -> fechaCreacion = (LocalDateTime) valor;
+                case FECHA_ACTUALIZACION -> fechaActualizacion = (LocalDateTime) valor;
+            }
+        }
+        return new TaskuParcial(campos, id, titulo, descripcion, completada, fechaCreacion, fechaActualizacion);
     }
 }
@@ -0,0 +1,311 @@
+package com.tasku.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tasku.event.CambioReplicado;
+import com.tasku.event.TaskuCambio;
+import com.tasku.dto.TaskuParcial;
+import com.tasku.model.Tasku;
+import io.quarkus.arc.properties.IfBuildProperty;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.pgclient.PgPool;
+import io.vertx.mutiny.sqlclient.Row;
+import io.vertx.mutiny.sqlclient.RowIterator;
+import io.vertx.mutiny.sqlclient.RowSet;
+import io.vertx.mutiny.sqlclient.SqlConnection;
+import io.vertx.mutiny.sqlclient.Tuple;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Acceso a la tabla taskus con el cliente reactivo de PostgreSQL. Las consultas
+ * son las mismas que las de {@link TaskuRepository}, escritas en SQL porque el
+ * cliente no pasa por Hibernate. Cada escritura añade su fila al registro de
+ * cambios en la misma transacción, como hace {@code RegistroCambios} en la pila
+ * bloqueante.
+ */
+@ApplicationScoped
+@IfBuildProperty(name = "tasku.persistencia", stringValue = "reactiva")
+public class TaskuRepositoryReactivo {
+
+    private static final String COLUMNAS = "id, titulo, descripcion, completada, fecha_creacion, fecha_actualizacion";
+
+    @Inject
+    PgPool cliente;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    // SQL del listado por forma de consulta
+    private final SentenciaTaskus sentencias = SentenciaTaskus.sql(COLUMNAS);
+
+    private final AtomicReference<BloqueIds> bloqueIds = new AtomicReference<>();
+
+    public Uni<Optional<Tasku>> buscarPorId(Long id) {
+        return cliente.preparedQuery("SELECT " + COLUMNAS + " FROM taskus WHERE id = $1")
+                .execute(Tuple.of(id))
+                .map(TaskuRepositoryReactivo::primera);
+    }
+
+    /**
+     * Momento de la última escritura de la tarea, sin leer el resto de columnas.
+     */
+    public Uni<Optional<LocalDateTime>> buscarModificacion(Long id) {
+        return cliente.preparedQuery("SELECT coalesce(fecha_actualizacion, fecha_creacion) AS modificada "
+                        + "FROM taskus WHERE id = $1")
+                .execute(Tuple.of(id))
+                .map(filas -> {
+                    RowIterator<Row> iterador = filas.iterator();
+                    return iterador.hasNext()
+                            ? Optional.of(iterador.next().getLocalDateTime("modificada"))
+                            : Optional.<LocalDateTime>empty();
+                });
+    }
+
+    /**
+     * Página por cursor, igual que {@link TaskuRepository#listarPagina}.
+     */
+    public Uni<List<Tasku>> listarPagina(Boolean completada, String titulo, Long despuesDe, int limite) {
+        return listar(ConsultaTaskus.porEstadoYTitulo(completada, titulo, despuesDe, limite));
+    }
+
+    /**
+     * Página de la consulta, igual que {@link TaskuRepository#listar}.
+     */
+    public Uni<List<Tasku>> listar(ConsultaTaskus consulta) {
+        List<Object> parametros = SentenciaTaskus.parametros(consulta);
+        parametros.add(consulta.limite());
+        return cliente.preparedQuery(sentencias.texto(consulta) + " LIMIT $" + parametros.size())
+                .execute(Tuple.from(parametros))
+                .map(TaskuRepositoryReactivo::aTaskus);
+    }
+
+    /**
+     * Página de la consulta con proyección, igual que
+     * {@link TaskuRepository#listar(ConsultaTaskus, Set)}.
+     */
+    public Uni<List<TaskuParcial>> listar(ConsultaTaskus consulta, Set<TaskuParcial.Campo> campos) {
+        Set<TaskuParcial.Campo> columnas = SentenciaTaskus.columnas(consulta, campos);
+        List<Object> parametros = SentenciaTaskus.parametros(consulta);
+        parametros.add(consulta.limite());
+        return cliente.preparedQuery(sentencias.texto(consulta, columnas) + " LIMIT $" + parametros.size())
+                .execute(Tuple.from(parametros))
+                .map(filas -> {
+                    List<TaskuParcial> taskus = new ArrayList<>(filas.rowCount());
+                    for (Row fila : filas) {
+                        taskus.add(aParcial(campos, columnas, fila));
+                    }
+                    return taskus;
+                });
+    }
+
+    public Multi<Tasku> recorrer(Boolean completada, String titulo) {
+        return recorrer(ConsultaTaskus.porEstadoYTitulo(completada, titulo, null, null));
+    }
+
+    /**
+     * Recorre las tareas que cumplen la consulta sobre un cursor del servidor,
+     * pidiendo {@link TaskuRepository#TAMANO_FETCH} filas cada vez según la
+     * demanda del suscriptor. El cursor necesita una transacción propia, que se
+     * cierra al terminar o cancelar el recorrido.
+     */
+    public Multi<Tasku> recorrer(ConsultaTaskus consulta) {
+        return recorrerFilas(sentencias.texto(consulta), SentenciaTaskus.parametros(consulta))
+                .map(TaskuRepositoryReactivo::aTasku);
+    }
+
+    /**
+     * Como {@link #recorrer(ConsultaTaskus)}, con la proyección de
+     * {@link #listar(ConsultaTaskus, Set)}.
+     */
+    public Multi<TaskuParcial> recorrerCampos(ConsultaTaskus consulta, Set<TaskuParcial.Campo> campos) {
+        Set<TaskuParcial.Campo> columnas = SentenciaTaskus.columnas(consulta, campos);
+        return recorrerFilas(sentencias.texto(consulta, columnas), SentenciaTaskus.parametros(consulta))
+                .map(fila -> aParcial(campos, columnas, fila));
+    }
+
+    private Multi<Row> recorrerFilas(String sql, List<Object> parametros) {
+        return cliente.getConnection().onItem().transformToMulti(conexion -> conexion.begin()
+                        .onItem().transformToMulti(transaccion -> conexion.prepare(sql)
+                                .onItem().transformToMulti(sentencia -> sentencia
+                                        .createStream(TaskuRepository.TAMANO_FETCH, Tuple.from(parametros))
+                                        .toMulti())
+                                .onTermination().call((falla, cancelado) ->
+                                        falla == null && !cancelado ? transaccion.commit() : transaccion.rollback()))
+                        .onTermination().call(conexion::close));
+    }
+
+    public Uni<List<Tasku>> buscarPorTitulo(String texto, int desplazamiento, int limite) {
+        return cliente.preparedQuery("SELECT " + COLUMNAS + " FROM taskus "
+                        + "WHERE lower(titulo) LIKE $1 ESCAPE '!' "
+                        + "ORDER BY similarity(lower(titulo), $2) DESC, id "
+                        + "LIMIT $3 OFFSET $4")
+                .execute(Tuple.of(TaskuRepository.patronContiene(texto), texto.toLowerCase(Locale.ROOT),
+                        limite, desplazamiento))
+                .map(TaskuRepositoryReactivo::aTaskus);
+    }
+
+    public Uni<Tasku> guardar(Tasku tasku) {
+        return siguienteId().chain(id -> {
+            tasku.setId(id);
+            return cliente.withTransaction(conexion -> conexion
+                    .preparedQuery("INSERT INTO taskus (" + COLUMNAS + ") VALUES ($1, $2, $3, $4, $5, $6)")
+                    .execute(Tuple.from(Arrays.asList(id, tasku.getTitulo(), tasku.getDescripcion(),
+                            Boolean.TRUE.equals(tasku.getCompletada()), tasku.getFechaCreacion(),
+                            tasku.getFechaActualizacion())))
+                    .chain(filas -> registrarCambio(conexion, TaskuCambio.creada(tasku)))
+                    .replaceWith(tasku));
+        });
+    }
+
+    /**
+     * Bloquea la fila, le aplica {@code cambios} y la guarda en una misma
+     * transacción. Devuelve el cambio resultante, o vacío si la tarea no existe.
+     */
+    public Uni<Optional<TaskuCambio>> actualizar(Long id, Consumer<Tasku> cambios) {
+        return cliente.withTransaction(conexion -> conexion
+                .preparedQuery("SELECT " + COLUMNAS + " FROM taskus WHERE id = $1 FOR UPDATE")
+                .execute(Tuple.of(id))
+                .map(TaskuRepositoryReactivo::primera)
+                .chain(existente -> {
+                    if (existente.isEmpty()) {
+                        return Uni.createFrom().item(Optional.<TaskuCambio>empty());
+                    }
+                    Tasku tasku = existente.get();
+                    Boolean completadaAnterior = tasku.getCompletada();
+                    cambios.accept(tasku);
+                    // Lo que hace @PreUpdate en la entidad gestionada
+                    tasku.setFechaActualizacion(Tasku.ahora());
+                    TaskuCambio cambio = TaskuCambio.actualizada(tasku, completadaAnterior);
+                    return conexion.preparedQuery("UPDATE taskus SET titulo = $1, descripcion = $2, "
+                                    + "completada = $3, fecha_actualizacion = $4, version = version + 1 WHERE id = $5")
+                            .execute(Tuple.from(Arrays.asList(tasku.getTitulo(), tasku.getDescripcion(),
+                                    Boolean.TRUE.equals(tasku.getCompletada()), tasku.getFechaActualizacion(), id)))
+                            .chain(filas -> registrarCambio(conexion, cambio))
+                            .replaceWith(Optional.of(cambio));
+                }));
+    }
+
+    /**
+     * Elimina la tarea y la devuelve tal como estaba, o vacío si no existía.
+     */
+    public Uni<Optional<Tasku>> eliminarPorId(Long id) {
+        return cliente.withTransaction(conexion -> conexion
+                .preparedQuery("DELETE FROM taskus WHERE id = $1 RETURNING " + COLUMNAS)
+                .execute(Tuple.of(id))
+                .map(TaskuRepositoryReactivo::primera)
+                .call(eliminada -> eliminada.isPresent()
+                        ? registrarCambio(conexion, TaskuCambio.eliminada(id, eliminada.get().getCompletada()))
+                        : Uni.createFrom().voidItem()));
+    }
+
+    /**
+     * Como {@link #eliminarPorId(Long)}, pero pasando antes la tarea bloqueada a
+     * {@code comprobacion}. Si esta lanza una excepción, el Uni falla con ella y
+     * la transacción se deshace sin borrar nada.
+     */
+    public Uni<Optional<Tasku>> eliminarPorId(Long id, Consumer<Tasku> comprobacion) {
+        return cliente.withTransaction(conexion -> conexion
+                .preparedQuery("SELECT " + COLUMNAS + " FROM taskus WHERE id = $1 FOR UPDATE")
+                .execute(Tuple.of(id))
+                .map(TaskuRepositoryReactivo::primera)
+                .chain(existente -> {
+                    if (existente.isEmpty()) {
+                        return Uni.createFrom().item(existente);
+                    }
+                    comprobacion.accept(existente.get());
+                    return conexion.preparedQuery("DELETE FROM taskus WHERE id = $1")
+                            .execute(Tuple.of(id))
+                            .chain(filas -> registrarCambio(conexion,
+                                    TaskuCambio.eliminada(id, existente.get().getCompletada())))
+                            .replaceWith(existente);
+                }));
+    }
+
+    /**
+     * Reserva ids de la secuencia con el mismo criterio que el optimizador
+     * "pooled" de Hibernate: cada valor {@code v} de la secuencia da el bloque
+     * {@code (v - BLOQUE_IDS, v]}, así ambas pilas pueden insertar sin chocar.
+     */
+    private Uni<Long> siguienteId() {
+        BloqueIds actual = bloqueIds.get();
+        if (actual != null) {
+            long id = actual.siguiente().getAndIncrement();
+            if (id <= actual.techo()) {
+                return Uni.createFrom().item(id);
+            }
+        }
+        return cliente.query("SELECT nextval('taskus_seq')").execute().map(filas -> {
+            long techo = filas.iterator().next().getLong(0);
+            // El primer valor de la secuencia no cubre un bloque completo
+            long primero = Math.max(1, techo - Tasku.BLOQUE_IDS + 1);
+            bloqueIds.set(new BloqueIds(new AtomicLong(primero + 1), techo));
+            return primero;
+        });
+    }
+
+    private Uni<Void> registrarCambio(SqlConnection conexion, TaskuCambio cambio) {
+        String datos;
+        try {
+            datos = cambio.tasku() != null ? objectMapper.writeValueAsString(cambio.tasku()) : null;
+        } catch (JsonProcessingException e) {
+            return Uni.createFrom().failure(new UncheckedIOException(e));
+        }
+        return conexion.preparedQuery("INSERT INTO taskus_cambios "
+                        + "(tipo, tasku_id, completada_anterior, completada, datos, origen, registrado_en) "
+                        + "VALUES ($1, $2, $3, $4, $5, $6, $7)")
+                .execute(Tuple.from(Arrays.asList(cambio.tipo().name(), cambio.id(), cambio.completadaAnterior(),
+                        cambio.tasku() != null ? cambio.tasku().getCompletada() : null,
+                        datos, CambioReplicado.ORIGEN_LOCAL, Tasku.ahora())))
+                .replaceWithVoid();
+    }
+
+    private static Optional<Tasku> primera(RowSet<Row> filas) {
+        RowIterator<Row> iterador = filas.iterator();
+        return iterador.hasNext() ? Optional.of(aTasku(iterador.next())) : Optional.empty();
+    }
+
+    private static List<Tasku> aTaskus(RowSet<Row> filas) {
+        List<Tasku> taskus = new ArrayList<>(filas.rowCount());
+        for (Row fila : filas) {
+            taskus.add(aTasku(fila));
+        }
+        return taskus;
+    }
+
+    private static Tasku aTasku(Row fila) {
+        Tasku tasku = new Tasku(fila.getString("titulo"), fila.getString("descripcion"));
+        tasku.setId(fila.getLong("id"));
+        tasku.setCompletada(fila.getBoolean("completada"));
+        tasku.setFechaCreacion(fila.getLocalDateTime("fecha_creacion"));
+        // Después de setCompletada, que la pisa
+        tasku.setFechaActualizacion(fila.getLocalDateTime("fecha_actualizacion"));
+        return tasku;
+    }
+
+    private static TaskuParcial aParcial(Set<TaskuParcial.Campo> campos, Set<TaskuParcial.Campo> columnas, Row fila) {
+        return new TaskuParcial(campos,
+                columnas.contains(TaskuParcial.Campo.ID) ? fila.getLong("id") : null,
+                columnas.contains(TaskuParcial.Campo.TITULO) ? fila.getString("titulo") : null,
+                columnas.contains(TaskuParcial.Campo.DESCRIPCION) ? fila.getString("descripcion") : null,
+                columnas.contains(TaskuParcial.Campo.COMPLETADA) ? fila.getBoolean("completada") : null,
+                columnas.contains(TaskuParcial.Campo.FECHA_CREACION) ? fila.getLocalDateTime("fecha_creacion") : null,
+                columnas.contains(TaskuParcial.Campo.FECHA_ACTUALIZACION)
+                        ? fila.getLocalDateTime("fecha_actualizacion") : null);
+    }
+
+    private record BloqueIds(AtomicLong siguiente, long techo) {
+    }
+}
@@ -0,0 +1,85 @@
+package com.tasku.resource;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.ext.MessageBodyReader;
+import jakarta.ws.rs.ext.MessageBodyWriter;
+import jakarta.ws.rs.ext.Provider;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+/**
+ * Lee y escribe {@value #APPLICATION_CBOR}: el mismo modelo que en JSON, con los
+ * mismos nombres de campo y las fechas como texto ISO, pero en binario. Para
+ * listas grandes ocupa menos y se codifica y decodifica sin interpretar texto.
+ */
+@Provider
+@Produces(CborProvider.APPLICATION_CBOR)
+@Consumes(CborProvider.APPLICATION_CBOR)
+public class CborProvider implements MessageBodyReader<Object>, MessageBodyWriter<Object> {
+
+    public static final String APPLICATION_CBOR = "application/cbor";
+    public static final MediaType APPLICATION_CBOR_TYPE = MediaType.valueOf(APPLICATION_CBOR);
+
+    // Misma configuración que el ObjectMapper que Quarkus da a JSON
+    private static final ObjectMapper MAPEADOR = new CBORMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            // Los flujos son del contenedor: no se cierran al terminar
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+            .disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+
+    public static ObjectMapper mapeador() {
+        return MAPEADOR;
+    }
+
+    /**
+     * Si el tipo es exactamente CBOR; un comodín no cuenta, así este proveedor
+     * no se ofrece para tipos que no ha pedido nadie.
+     */
+    public static boolean esCbor(MediaType tipo) {
+        return tipo != null && "application".equalsIgnoreCase(tipo.getType())
+                && "cbor".equalsIgnoreCase(tipo.getSubtype());
+    }
+
+    @Override
+    public boolean isReadable(Class<?> tipo, Type generico, Annotation[] anotaciones, MediaType medio) {
+        return esCbor(medio);
+    }
+
+    @Override
+    public Object readFrom(Class<Object> tipo, Type generico, Annotation[] anotaciones, MediaType medio,
+                           MultivaluedMap<String, String> cabeceras, InputStream entrada) throws IOException {
+        try {
+            return MAPEADOR.readValue(entrada, MAPEADOR.constructType(generico));
+        } catch (JsonProcessingException e) {
+            throw new BadRequestException("CBOR no válido: " + e.getOriginalMessage(), e);
+        }
+    }
+
+    @Override
+    public boolean isWriteable(Class<?> tipo, Type generico, Annotation[] anotaciones, MediaType medio) {
+        return esCbor(medio);
+    }
+
+    @Override
+    public void writeTo(Object valor, Class<?> tipo, Type generico, Annotation[] anotaciones, MediaType medio,
+                        MultivaluedMap<String, Object> cabeceras, OutputStream salida) throws IOException {
+        MAPEADOR.writeValue(salida, valor);
+    }
+}
@@ -0,0 +1,237 @@
+package com.tasku.resource;
+
+import io.vertx.core.http.HttpServerResponse;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.ext.Provider;
+import jakarta.ws.rs.ext.WriterInterceptor;
+import jakarta.ws.rs.ext.WriterInterceptorContext;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Comprime las respuestas JSON y CBOR con gzip o deflate según el
+ * Accept-Encoding de la petición. Los primeros {@code tasku.compresion.umbral}
+ * bytes se retienen: si la respuesta termina antes se envía tal cual, porque en
+ * cuerpos pequeños la compresión cuesta más de lo que ahorra; si los supera se
+ * comprime desde el principio y el resto se va escribiendo sin retener nada.
+ *
+ * <p>Aquí se conoce por fin la representación que sale, así que aquí se le da
+ * su etiqueta (ver {@link CondicionesHttp#deRepresentacion}) y el
+ * {@code Vary}, se comprima o no.
+ */
+@Provider
+public class CompresionRespuesta implements WriterInterceptor {
+
+    static final String GZIP = "gzip";
+    static final String DEFLATE = "deflate";
+
+    @ConfigProperty(name = "tasku.compresion.umbral")
+    int umbral;
+
+    @Context
+    HttpHeaders cabeceras;
+
+    // Las cabeceras del contexto ya se han enviado al contenedor cuando se decide comprimir
+    @Context
+    HttpServerResponse respuestaHttp;
+
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext contexto) throws IOException {
+        if (!compresible(contexto)) {
+            contexto.proceed();
+            return;
+        }
+        // Sustituye al Vary: Accept que deja la negociación del recurso
+        respuestaHttp.headers().set(HttpHeaders.VARY, CondicionesHttp.VARIA_SEGUN);
+        EntityTag etiqueta = etiqueta(contexto);
+        if (etiqueta != null) {
+            contexto.getHeaders().putSingle(HttpHeaders.ETAG,
+                    CondicionesHttp.deRepresentacion(etiqueta, contexto.getMediaType(), false));
+        }
+        String codificacion = elegir(cabeceras.getHeaderString(HttpHeaders.ACCEPT_ENCODING));
+        if (codificacion == null) {
+            contexto.proceed();
+            return;
+        }
+        SalidaCompresible salida = new SalidaCompresible(contexto.getOutputStream(), umbral, codificacion, () -> {
+            respuestaHttp.headers().set(HttpHeaders.CONTENT_ENCODING, codificacion);
+            if (etiqueta != null) {
+                respuestaHttp.headers().set(HttpHeaders.ETAG, CondicionesHttp.formatear(
+                        CondicionesHttp.deRepresentacion(etiqueta, contexto.getMediaType(), true)));
+            }
+        });
+        contexto.setOutputStream(salida);
+        contexto.proceed();
+        salida.terminar();
+    }
+
+    private static boolean compresible(WriterInterceptorContext contexto) {
+        MediaType tipo = contexto.getMediaType();
+        return tipo != null
+                && contexto.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING) == null
+                && (MediaType.APPLICATION_JSON_TYPE.isCompatible(tipo)
+                        || CborProvider.esCbor(tipo));
+    }
+
+    private static EntityTag etiqueta(WriterInterceptorContext contexto) {
+        Object valor = contexto.getHeaders().getFirst(HttpHeaders.ETAG);
+        if (valor == null || valor instanceof EntityTag) {
+            return (EntityTag) valor;
+        }
+        return CondicionesHttp.leer(valor.toString());
+    }
+
+    /**
+     * La codificación con más peso en {@code Accept-Encoding} entre gzip y
+     * deflate, o null si no admite ninguna. {@code *} cuenta como gzip y a igual
+     * peso se prefiere gzip.
+     */
+    static String elegir(String aceptadas) {
+        if (aceptadas == null || aceptadas.isBlank()) {
+            return null;
+        }
+        String elegida = null;
+        double mejorPeso = 0;
+        for (String parte : aceptadas.split(",")) {
+            String[] trozos = parte.split(";");
+            String nombre = trozos[0].trim().toLowerCase(Locale.ROOT);
+            double peso = peso(trozos);
+            String codificacion = switch (nombre) {
+                case GZIP, "*" -> GZIP;
+                case DEFLATE -> DEFLATE;
+                default -> null;
+            };
+            if (codificacion == null || peso <= 0) {
+                continue;
+            }
+            if (peso > mejorPeso || peso == mejorPeso && GZIP.equals(codificacion)) {
+                elegida = codificacion;
+                mejorPeso = peso;
+            }
+        }
+        return elegida;
+    }
+
+    private static double peso(String[] trozos) {
+        for (int i = 1; i < trozos.length; i++) {
+            String parametro = trozos[i].trim();
+            if (parametro.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parametro.substring(2));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    /**
+     * Retiene la salida hasta el umbral y a partir de ahí la comprime. La
+     * decisión se toma antes de que llegue un solo byte al contenedor, así que
+     * la cabecera Content-Encoding todavía se puede poner.
+     */
+    static final class SalidaCompresible extends OutputStream {
+
+        private final OutputStream destino;
+        private final int umbral;
+        private final String codificacion;
+        private final Runnable alComprimir;
+        private ByteArrayOutputStream retenido;
+        private DeflaterOutputStream comprimida;
+
+        SalidaCompresible(OutputStream destino, int umbral, String codificacion, Runnable alComprimir) {
+            this.destino = destino;
+            this.umbral = umbral;
+            this.codificacion = codificacion;
+            this.alComprimir = alComprimir;
+            this.retenido = new ByteArrayOutputStream(Math.min(umbral, 8192));
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int desde, int longitud) throws IOException {
+            if (comprimida != null) {
+                comprimida.write(b, desde, longitud);
+                return;
+            }
+            retenido.write(b, desde, longitud);
+            if (retenido.size() > umbral) {
+                alComprimir.run();
+                // syncFlush: un flush del escritor llega al cliente aunque el bloque no esté lleno
+                OutputStream sinCierre = new SinCierre(destino);
+                comprimida = GZIP.equals(codificacion)
+                        ? new GZIPOutputStream(sinCierre, 8192, true)
+                        : new DeflaterOutputStream(sinCierre, true);
+                retenido.writeTo(comprimida);
+                retenido = null;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            // Por debajo del umbral no se sabe aún si habrá que comprimir
+            if (comprimida != null) {
+                comprimida.flush();
+            }
+        }
+
+        /**
+         * Cierra el formato comprimido, o escribe sin comprimir lo retenido,
+         * sin cerrar la salida del contenedor.
+         */
+        void terminar() throws IOException {
+            if (comprimida != null) {
+                // Cerrarla escribe el final del formato y libera el Deflater
+                comprimida.close();
+            } else {
+                retenido.writeTo(destino);
+            }
+            destino.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+
+    /**
+     * La salida del contenedor la cierra el contenedor, no el compresor.
+     */
+    private static final class SinCierre extends OutputStream {
+
+        private final OutputStream destino;
+
+        SinCierre(OutputStream destino) {
+            this.destino = destino;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            destino.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int desde, int longitud) throws IOException {
+            destino.write(b, desde, longitud);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            destino.flush();
+        }
+    }
+}
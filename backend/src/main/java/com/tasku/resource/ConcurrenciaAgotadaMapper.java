@@ -0,0 +1,25 @@
+package com.tasku.resource;
+
+import com.tasku.concurrencia.ConcurrenciaAgotadaException;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.ExceptionMapper;
+import jakarta.ws.rs.ext.Provider;
+
+/**
+ * Responde 503 cuando el limitador de concurrencia rechaza la petición, con un
+ * Retry-After igual al tiempo que se esperó por un permiso.
+ */
+@Provider
+public class ConcurrenciaAgotadaMapper implements ExceptionMapper<ConcurrenciaAgotadaException> {
+
+    @Override
+    public Response toResponse(ConcurrenciaAgotadaException e) {
+        long segundos = Math.max(1, e.getEspera().toSeconds());
+        return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                .header("Retry-After", segundos)
+                .type(MediaType.TEXT_PLAIN)
+                .entity("Servicio saturado: " + e.getMessage())
+                .build();
+    }
+}
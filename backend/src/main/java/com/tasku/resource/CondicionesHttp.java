@@ -0,0 +1,148 @@
+package com.tasku.resource;
+
+import com.tasku.model.Tasku;
+import com.tasku.service.VersionColeccion;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.Variant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * ETag y Last-Modified de las tareas y de la colección. La etiqueta de una
+ * tarea es fuerte y se forma con su id y el momento de su última escritura en
+ * microsegundos, la misma precisión con la que se guarda.
+ *
+ * <p>Cada representación de los mismos datos lleva su propia etiqueta: la de
+ * CBOR termina en {@value #SUFIJO_CBOR} y la de una respuesta comprimida es
+ * débil. Así una caché que guardó una no la confunde con otra.
+ */
+final class CondicionesHttp {
+
+    static final String SI_NO_COINCIDE = "If-None-Match";
+    static final String SI_MODIFICADO_DESDE = "If-Modified-Since";
+    static final String SI_COINCIDE = "If-Match";
+    static final String SUFIJO_CBOR = "-cbor";
+    // La representación depende del formato negociado y de la compresión
+    static final String VARIA_SEGUN = HttpHeaders.ACCEPT + ", " + HttpHeaders.ACCEPT_ENCODING;
+
+    private static final List<Variant> FORMATOS =
+            Variant.mediaTypes(MediaType.APPLICATION_JSON_TYPE, CborProvider.APPLICATION_CBOR_TYPE).build();
+
+    private CondicionesHttp() {
+    }
+
+    static EntityTag etiqueta(Tasku tasku) {
+        return etiqueta(tasku.getId(), tasku.modificadaEn());
+    }
+
+    static EntityTag etiqueta(Long id, LocalDateTime modificada) {
+        long micros = modificada.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + modificada.getNano() / 1_000;
+        return new EntityTag(id + "-" + micros);
+    }
+
+    static EntityTag etiqueta(VersionColeccion.Version version) {
+        return new EntityTag(version.etiqueta());
+    }
+
+    /**
+     * La etiqueta de {@code etiqueta} para la representación en {@code tipo},
+     * comprimida o no.
+     */
+    static EntityTag deRepresentacion(EntityTag etiqueta, MediaType tipo, boolean comprimida) {
+        String valor = CborProvider.esCbor(tipo) ? etiqueta.getValue() + SUFIJO_CBOR : etiqueta.getValue();
+        return new EntityTag(valor, comprimida || etiqueta.isWeak());
+    }
+
+    /**
+     * El valor de cabecera de {@code etiqueta}: entre comillas y con
+     * {@code W/} delante si es débil.
+     */
+    static String formatear(EntityTag etiqueta) {
+        return (etiqueta.isWeak() ? "W/\"" : "\"") + etiqueta.getValue() + "\"";
+    }
+
+    /**
+     * La etiqueta de un valor de cabecera ETag; las comillas son opcionales.
+     */
+    static EntityTag leer(String valor) {
+        String sinPrefijo = valor.trim();
+        boolean debil = sinPrefijo.startsWith("W/");
+        if (debil) {
+            sinPrefijo = sinPrefijo.substring(2);
+        }
+        if (sinPrefijo.length() >= 2 && sinPrefijo.startsWith("\"") && sinPrefijo.endsWith("\"")) {
+            sinPrefijo = sinPrefijo.substring(1, sinPrefijo.length() - 1);
+        }
+        return new EntityTag(sinPrefijo, debil);
+    }
+
+    /**
+     * La respuesta sin cuerpo de una lectura condicional, o null si hay que
+     * enviar la representación. Se compara con la etiqueta del formato que
+     * negocia la petición, sin comprimir o comprimida, y la respuesta lleva la
+     * que coincidió. El {@code Vary: Accept} lo pone la propia negociación.
+     */
+    static Response.ResponseBuilder evaluar(Request peticion, Date modificada, EntityTag etiqueta) {
+        Variant formato = peticion.selectVariant(FORMATOS);
+        MediaType tipo = formato != null ? formato.getMediaType() : MediaType.APPLICATION_JSON_TYPE;
+        for (boolean comprimida : new boolean[] {false, true}) {
+            EntityTag candidata = deRepresentacion(etiqueta, tipo, comprimida);
+            Response.ResponseBuilder sinCambios = peticion.evaluatePreconditions(modificada, candidata);
+            if (sinCambios != null) {
+                return sinCambios.tag(candidata).header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            }
+        }
+        return null;
+    }
+
+    static Date fecha(LocalDateTime modificada) {
+        return Date.from(modificada.atZone(ZoneId.systemDefault()).toInstant());
+    }
+
+    static Response.ResponseBuilder conVersion(Response.ResponseBuilder respuesta, Tasku tasku) {
+        return respuesta.tag(etiqueta(tasku)).lastModified(fecha(tasku.modificadaEn()));
+    }
+
+    static boolean esCondicional(String siNoCoincide, String siModificadoDesde) {
+        return siNoCoincide != null || siModificadoDesde != null;
+    }
+
+    /**
+     * Precondición de una cabecera If-Match: ninguna si no viene, cualquier
+     * tarea con {@code *}, y si no, la tarea cuya etiqueta, en JSON o en CBOR,
+     * esté en la lista. La comparación es fuerte, así que las etiquetas
+     * débiles nunca coinciden.
+     */
+    static Predicate<Tasku> siCoincide(String cabecera) {
+        if (cabecera == null || cabecera.isBlank()) {
+            return null;
+        }
+        if ("*".equals(cabecera.trim())) {
+            return tasku -> true;
+        }
+        Set<String> etiquetas = Arrays.stream(cabecera.split(","))
+                .map(String::trim)
+                .collect(Collectors.toSet());
+        return tasku -> {
+            String valor = etiqueta(tasku).getValue();
+            return etiquetas.contains("\"" + valor + "\"") || etiquetas.contains("\"" + valor + SUFIJO_CBOR + "\"");
+        };
+    }
+
+    static Response precondicionFallida(Tasku actual, String mensaje) {
+        return conVersion(Response.status(Response.Status.PRECONDITION_FAILED), actual)
+                .entity("Precondición fallida: " + mensaje)
+                .build();
+    }
+}
@@ -0,0 +1,48 @@
+package com.tasku.resource;
+
+import com.tasku.intercambio.FormatoIntercambio;
+import io.quarkus.runtime.configuration.MemorySize;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.PreMatching;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.Provider;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Límite del cuerpo de las peticiones que no son una importación. El de
+ * Quarkus, {@code quarkus.http.limits.max-body-size}, es uno para todas las
+ * rutas y lo fija la importación, que lee su cuerpo en streaming; el resto se
+ * leen enteros en memoria, así que los que declaran en Content-Length más de
+ * {@code tasku.http.cuerpo-maximo} se rechazan con 413 antes de leerlos. El
+ * cuerpo se queda sin leer, así que la respuesta cierra la conexión.
+ */
+@Provider
+@PreMatching
+public class LimiteCuerpo implements ContainerRequestFilter {
+
+    private static final MediaType NDJSON = MediaType.valueOf(FormatoIntercambio.APPLICATION_NDJSON);
+    private static final MediaType CSV = MediaType.valueOf(FormatoIntercambio.TEXT_CSV);
+
+    @ConfigProperty(name = "tasku.http.cuerpo-maximo", defaultValue = "10M")
+    MemorySize maximo;
+
+    @Override
+    public void filter(ContainerRequestContext solicitud) {
+        MediaType tipo = solicitud.getMediaType();
+        if (tipo != null && (NDJSON.isCompatible(tipo) || CSV.isCompatible(tipo))) {
+            return;
+        }
+        String longitud = solicitud.getHeaderString(HttpHeaders.CONTENT_LENGTH);
+        // getLength() es un int y da -1 a partir de 2 GB: se lee la cabecera
+        if (longitud != null && Long.parseLong(longitud.trim()) > maximo.asLongValue()) {
+            solicitud.abortWith(Response.status(Response.Status.REQUEST_ENTITY_TOO_LARGE)
+                    .header("Connection", "close")
+                    .type(MediaType.TEXT_PLAIN)
+                    .entity("El cuerpo pasa del máximo de " + maximo.asLongValue() + " bytes")
+                    .build());
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.tasku.resource;
+
+import com.tasku.concurrencia.ClaseOperacion;
+import com.tasku.concurrencia.Compartimentos;
+import com.tasku.concurrencia.LimitadorConcurrencia;
+import com.tasku.concurrencia.PermisosBaseDatos;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.StreamingOutput;
+import java.io.InterruptedIOException;
+
+/**
+ * Admisión de los volcados: la exportación y los listados con
+ * {@code stream=true}. Leen de la base de datos mientras se escribe la
+ * respuesta, cuando el método del recurso ya devolvió y
+ * {@link LimitadorConcurrencia} soltó su sitio y su permiso. Aquí el cuerpo
+ * entra en el compartimento {@link ClaseOperacion#VOLCADO} y pide permiso en
+ * {@link PermisosBaseDatos} al empezar a escribir, y los devuelve al terminar.
+ */
+@ApplicationScoped
+public class LimiteVolcados {
+
+    @Inject
+    Compartimentos compartimentos;
+
+    @Inject
+    PermisosBaseDatos permisos;
+
+    public StreamingOutput limitar(StreamingOutput volcado) {
+        return salida -> {
+            try {
+                compartimentos.entrar(ClaseOperacion.VOLCADO);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrumpido esperando turno para el volcado");
+            }
+            try {
+                try {
+                    permisos.adquirir();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrumpido esperando permiso para el volcado");
+                }
+                try {
+                    volcado.write(salida);
+                } finally {
+                    permisos.liberar();
+                }
+            } finally {
+                compartimentos.salir(ClaseOperacion.VOLCADO);
+            }
+        };
+    }
+}
@@ -0,0 +1,86 @@
+package com.tasku.resource;
+
+import com.tasku.dto.TaskuParcial;
+import com.tasku.repository.ConsultaTaskus;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.QueryParam;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Parámetros de {@code GET /taskus}, comunes a las dos pilas. Las fechas van en
+ * ISO-8601, con hora o sin ella (medianoche); el orden, como campos separados
+ * por comas con {@code -} para el descendente, por ejemplo {@code -creada,titulo};
+ * los campos de cada tarea, como nombres separados por comas, por ejemplo
+ * {@code fields=id,titulo,completada}.
+ */
+public class ParametrosListado {
+
+    @QueryParam("completada")
+    Boolean completada;
+
+    @QueryParam("titulo")
+    String titulo;
+
+    @QueryParam("creadaDesde")
+    String creadaDesde;
+
+    @QueryParam("creadaHasta")
+    String creadaHasta;
+
+    @QueryParam("modificadaDesde")
+    String modificadaDesde;
+
+    @QueryParam("modificadaHasta")
+    String modificadaHasta;
+
+    @QueryParam("orden")
+    String orden;
+
+    @QueryParam("after")
+    String despuesDe;
+
+    @QueryParam("limit")
+    Integer limite;
+
+    @QueryParam("fields")
+    String campos;
+
+    @QueryParam("stream")
+    @DefaultValue("false")
+    boolean stream;
+
+    /**
+     * La consulta que piden los parámetros. Lanza {@link IllegalArgumentException}
+     * si alguno no es válido.
+     */
+    ConsultaTaskus aConsulta() {
+        List<ConsultaTaskus.Orden> claves = ConsultaTaskus.parsearOrden(orden);
+        return new ConsultaTaskus(completada, titulo,
+                fecha("creadaDesde", creadaDesde), fecha("creadaHasta", creadaHasta),
+                fecha("modificadaDesde", modificadaDesde), fecha("modificadaHasta", modificadaHasta),
+                claves, ConsultaTaskus.parsearCursor(claves, despuesDe), limite);
+    }
+
+    /**
+     * Campos de cada tarea que devuelve el listado; por defecto, el resumen sin
+     * la descripción.
+     */
+    Set<TaskuParcial.Campo> aCampos() {
+        return TaskuParcial.parsearCampos(campos);
+    }
+
+    private static LocalDateTime fecha(String parametro, String valor) {
+        if (valor == null || valor.isBlank()) {
+            return null;
+        }
+        try {
+            return valor.length() == 10 ? LocalDate.parse(valor).atStartOfDay() : LocalDateTime.parse(valor);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Fecha no válida en " + parametro + ": " + valor);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.tasku.resource;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tasku.idempotencia.ClaveEnCursoException;
+import com.tasku.idempotencia.ClaveReutilizadaException;
+import com.tasku.idempotencia.ClavesIdempotencia;
+import com.tasku.idempotencia.RespuestaGuardada;
+import com.tasku.model.Tasku;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Cabecera Idempotency-Key de las escrituras: la primera petición con una
+ * clave se ejecuta y sus repeticiones reciben la misma respuesta, con
+ * {@code Idempotent-Replayed: true}, sin volver a escribir. La misma clave con
+ * otro cuerpo es un 422 y mientras la primera no termina, un 409.
+ *
+ * <p>La huella del cuerpo no incluye las fechas de las tareas: si el cliente no
+ * las envía, las pone el servidor al leerlo y cambiarían en cada repetición.
+ *
+ * <p>Las respuestas repetidas van siempre en JSON, aunque la primera se
+ * pidiera en CBOR.
+ */
+@ApplicationScoped
+class RespuestasIdempotentes {
+
+    static final String CLAVE = "Idempotency-Key";
+    static final String REPETIDA = "Idempotent-Replayed";
+
+    private static final List<String> CABECERAS_GUARDADAS =
+            List.of(HttpHeaders.CONTENT_TYPE, HttpHeaders.ETAG, HttpHeaders.LAST_MODIFIED, HttpHeaders.LOCATION);
+
+    @Inject
+    ClavesIdempotencia claves;
+
+    @Inject
+    ObjectMapper mapeador;
+
+    private ObjectMapper mapeadorHuella;
+
+    @PostConstruct
+    void iniciar() {
+        mapeadorHuella = mapeador.copy().addMixIn(Tasku.class, SinFechas.class);
+    }
+
+    /**
+     * La respuesta de {@code operacion} sobre {@code peticion}, ejecutada una
+     * sola vez por clave. Sin clave se ejecuta siempre.
+     */
+    Response responder(String clave, String operacion, Object peticion, Supplier<Response> ejecucion) {
+        if (clave == null) {
+            return ejecucion.get();
+        }
+        try {
+            Response[] original = {null};
+            RespuestaGuardada respuesta = claves.ejecutar(clave, huella(operacion, peticion), () -> {
+                original[0] = ejecucion.get();
+                return guardar(original[0]);
+            });
+            // La primera sale tal cual, en el formato que pidió
+            return respuesta.repetida() ? repetir(respuesta) : original[0];
+        } catch (ClaveReutilizadaException e) {
+            return Response.status(422)
+                    .entity("La clave de idempotencia ya se usó con otra petición: " + clave)
+                    .build();
+        } catch (ClaveEnCursoException e) {
+            return Response.status(Response.Status.CONFLICT)
+                    .header(HttpHeaders.RETRY_AFTER, 1)
+                    .entity("Hay otra petición en curso con la clave de idempotencia: " + clave)
+                    .build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("Error de validación: " + e.getMessage())
+                    .build();
+        }
+    }
+
+    private String huella(String operacion, Object peticion) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            sha.update(operacion.getBytes(StandardCharsets.UTF_8));
+            sha.update((byte) ':');
+            sha.update(mapeadorHuella.writeValueAsBytes(peticion));
+            return HexFormat.of().formatHex(sha.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private RespuestaGuardada guardar(Response respuesta) {
+        Object entidad = respuesta.getEntity();
+        String cuerpo;
+        try {
+            cuerpo = entidad == null || entidad instanceof String ? (String) entidad : mapeador.writeValueAsString(entidad);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        Map<String, String> cabeceras = new LinkedHashMap<>();
+        for (String nombre : CABECERAS_GUARDADAS) {
+            String valor = respuesta.getHeaderString(nombre);
+            if (valor != null) {
+                cabeceras.put(nombre, valor);
+            }
+        }
+        return new RespuestaGuardada(respuesta.getStatus(), cuerpo, cabeceras);
+    }
+
+    private static Response repetir(RespuestaGuardada respuesta) {
+        Response.ResponseBuilder builder = Response.status(respuesta.estado())
+                .entity(respuesta.cuerpo())
+                .header(REPETIDA, "true");
+        respuesta.cabeceras().forEach(builder::header);
+        if (respuesta.cuerpo() != null && !respuesta.cabeceras().containsKey(HttpHeaders.CONTENT_TYPE)) {
+            builder.type(MediaType.APPLICATION_JSON_TYPE);
+        }
+        return builder.build();
+    }
+
+    @JsonIgnoreProperties({"fechaCreacion", "fechaActualizacion"})
+    private abstract static class SinFechas {
+    }
+}
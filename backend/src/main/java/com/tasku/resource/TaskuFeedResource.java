@@ -0,0 +1,50 @@
+package com.tasku.resource;
+
+import com.tasku.event.EventoFeed;
+import com.tasku.event.FeedCambios;
+import io.smallrye.mutiny.Multi;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.sse.OutboundSseEvent;
+import jakarta.ws.rs.sse.Sse;
+
+/**
+ * Cambios de las tareas como server-sent events, para que los clientes no
+ * tengan que volver a pedir la lista. Cada evento lleva como id su secuencia;
+ * un cliente que se reconecta con {@code Last-Event-ID} recibe lo que se haya
+ * perdido si sigue en el historial, o un evento {@code reinicio} si no.
+ *
+ * <p>Las conexiones se atienden en el hilo de E/S y no ocupan permisos de base
+ * de datos, así que está fuera de {@link TaskuResource} y sirve igual para
+ * cualquier pila de persistencia.
+ */
+@Path("/taskus/stream")
+public class TaskuFeedResource {
+
+    @Inject
+    FeedCambios feed;
+
+    @GET
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    public Multi<OutboundSseEvent> suscribir(@HeaderParam(HttpHeaders.LAST_EVENT_ID_HEADER) Long ultimoVisto,
+                                             @Context Sse sse) {
+        return feed.suscribir(ultimoVisto).map(evento -> aSse(sse, evento));
+    }
+
+    private static OutboundSseEvent aSse(Sse sse, EventoFeed evento) {
+        if (evento.esLatido()) {
+            return sse.newEventBuilder().comment(EventoFeed.LATIDO).build();
+        }
+        return sse.newEventBuilder()
+                .id(String.valueOf(evento.secuencia()))
+                .name(evento.tipo())
+                .data(evento.datos())
+                .build();
+    }
+}
@@ -1,37 +1,148 @@
 package com.tasku.resource;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.tasku.concurrencia.ClaseOperacion;
+import com.tasku.concurrencia.LecturasCompartidas;
+import com.tasku.concurrencia.LimitarConcurrencia;
+import com.tasku.dto.EstadisticasTaskus;
+import com.tasku.dto.ProgresoImportacion;
+import com.tasku.dto.TaskuParcial;
+import com.tasku.intercambio.ExportadorTaskus;
+import com.tasku.intercambio.FormatoIntercambio;
+import com.tasku.intercambio.ImportacionInterrumpidaException;
+import com.tasku.intercambio.ImportadorTaskus;
+import com.tasku.json.EscritorJsonTaskus;
 import com.tasku.model.Tasku;
+import com.tasku.replica.SesionLecturas;
+import com.tasku.repository.ConsultaTaskus;
+import com.tasku.service.PrecondicionFallidaException;
+import com.tasku.service.TaskuLoteService;
 import com.tasku.service.TaskuService;
+import com.tasku.service.VersionColeccion;
+import io.quarkus.arc.properties.IfBuildProperty;
+import io.quarkus.arc.properties.UnlessBuildProperty;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import jakarta.ws.rs.core.Variant;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Path("/taskus")
-@Produces(MediaType.APPLICATION_JSON)
-@Consumes(MediaType.APPLICATION_JSON)
+@Produces({MediaType.APPLICATION_JSON, CborProvider.APPLICATION_CBOR})
+@Consumes({MediaType.APPLICATION_JSON, CborProvider.APPLICATION_CBOR})
+@IfBuildProperty(name = "tasku.persistencia", stringValue = "bloqueante", enableIfMissing = true)
+@UnlessBuildProperty(name = "tasku.hilos", stringValue = "virtuales", enableIfMissing = true)
+@LimitarConcurrencia
 public class TaskuResource {
 
+    static final String CABECERA_SIGUIENTE_CURSOR = "X-Next-Cursor";
+
+    private static final List<Variant> FORMATOS_LISTADO =
+            Variant.mediaTypes(MediaType.APPLICATION_JSON_TYPE, CborProvider.APPLICATION_CBOR_TYPE).build();
+    private static final List<Variant> FORMATOS_INTERCAMBIO = Variant.mediaTypes(
+            MediaType.valueOf(FormatoIntercambio.APPLICATION_NDJSON), MediaType.valueOf(FormatoIntercambio.TEXT_CSV)).build();
+
     @Inject
     TaskuService service;
 
+    @Inject
+    TaskuLoteService loteService;
+
+    @Inject
+    VersionColeccion versionColeccion;
+
+    @Inject
+    SesionLecturas sesionLecturas;
+
+    @Inject
+    ExportadorTaskus exportador;
+
+    @Inject
+    ImportadorTaskus importador;
+
+    @Inject
+    RespuestasIdempotentes idempotentes;
+
+    @Inject
+    LecturasCompartidas lecturasCompartidas;
+
+    @Inject
+    LimiteVolcados limiteVolcados;
+
+    @Inject
+    ObjectMapper mapeador;
+
     @GET
-    public Response obtenerTodas(@QueryParam("completada") Boolean completada,
-                                  @QueryParam("titulo") String titulo) {
+    public Response obtenerTodas(@BeanParam ParametrosListado parametros, @Context Request peticion) {
         try {
-            List<Tasku> taskus;
+            ConsultaTaskus consulta = parametros.aConsulta();
+            Set<TaskuParcial.Campo> campos = parametros.aCampos();
+            // El JSON de los listados lo escribe EscritorJsonTaskus; CBOR pasa por CborProvider
+            Variant formato = peticion.selectVariant(FORMATOS_LISTADO);
+            MediaType tipo = formato != null ? formato.getMediaType() : MediaType.APPLICATION_JSON_TYPE;
+            boolean cbor = CborProvider.esCbor(tipo);
             
-            if (completada != null) {
-                taskus = service.obtenerPorCompletada(completada);
-            } else if (titulo != null && !titulo.trim().isEmpty()) {
-                taskus = service.buscarPorTitulo(titulo);
-            } else {
-                taskus = service.obtenerTodas();
+            // La versión se lee antes que los datos: ver VersionColeccion
+            VersionColeccion.Version version = versionColeccion.leer();
+            EntityTag etiqueta = CondicionesHttp.etiqueta(version);
+            Date modificada = Date.from(version.modificada());
+            Response.ResponseBuilder sinCambios = CondicionesHttp.evaluar(peticion, modificada, etiqueta);
+            if (sinCambios != null) {
+                return sinCambios.build();
+            }
+            // Una réplica que aún no tiene esta versión da datos más viejos que la etiqueta: esa
+            // respuesta sale sin validadores para que nadie la dé por buena con un 304 después
+            boolean validable = sesionLecturas.ve(version.modificada());
+            
+            if (parametros.stream) {
+                Response.ResponseBuilder respuesta = Response.ok(limiteVolcados.limitar(cbor
+                                ? escribirEnStreamCbor(consulta, campos)
+                                : escribirEnStream(consulta, campos)))
+                        .type(tipo);
+                return conValidadores(respuesta, validable, etiqueta, modificada).build();
             }
             
-            return Response.ok(taskus).build();
+            int limiteEfectivo = TaskuService.limiteEfectivo(consulta.limite());
+            // Los sondeos iguales a la vez comparten una consulta y una serialización, si leen de la misma fuente
+            ClaveListado clave = new ClaveListado(TaskuService.normalizar(consulta), campos, cbor, version.etiqueta(),
+                    sesionLecturas.necesitaPrimaria());
+            PaginaSerializada pagina = lecturasCompartidas.leer(clave, () -> {
+                List<TaskuParcial> taskus = service.obtenerPagina(consulta, campos);
+                // Una página llena indica que puede haber más filas después de la última
+                String siguiente = taskus.size() == limiteEfectivo
+                        ? consulta.cursorDespuesDe(taskus.get(taskus.size() - 1))
+                        : null;
+                return new PaginaSerializada(cbor ? serializarCbor(taskus) : serializarPagina(taskus), siguiente);
+            });
+            Response.ResponseBuilder respuesta = conValidadores(Response.ok(bytes(pagina.cuerpo())).type(tipo),
+                    validable, etiqueta, modificada);
+            if (pagina.siguienteCursor() != null) {
+                respuesta.header(CABECERA_SIGUIENTE_CURSOR, pagina.siguienteCursor());
+            }
+            return respuesta.build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("Error de validación: " + e.getMessage())
+                    .build();
         } catch (Exception e) {
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
                     .entity("Error al obtener las tareas: " + e.getMessage())
@@ -39,13 +150,48 @@ public class TaskuResource {
         }
     }
 
+    @GET
+    @Path("/buscar")
+    @LimitarConcurrencia(ClaseOperacion.BUSQUEDA)
+    public Response buscar(@QueryParam("q") String texto,
+                           @QueryParam("pagina") @DefaultValue("0") int pagina,
+                           @QueryParam("tamano") Integer tamano) {
+        try {
+            return Response.ok(service.buscar(texto, pagina, tamano)).build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("Error de validación: " + e.getMessage())
+                    .build();
+        } catch (Exception e) {
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity("Error al buscar las tareas: " + e.getMessage())
+                    .build();
+        }
+    }
+
     @GET
     @Path("/{id}")
-    public Response obtenerPorId(@PathParam("id") Long id) {
+    public Response obtenerPorId(@PathParam("id") Long id,
+                                 @HeaderParam(CondicionesHttp.SI_NO_COINCIDE) String siNoCoincide,
+                                 @HeaderParam(CondicionesHttp.SI_MODIFICADO_DESDE) String siModificadoDesde,
+                                 @Context Request peticion) {
         try {
+            // Una lectura condicional se resuelve con la fecha de modificación, sin cargar la tarea
+            if (CondicionesHttp.esCondicional(siNoCoincide, siModificadoDesde)) {
+                Optional<LocalDateTime> modificada = service.obtenerModificacion(id);
+                if (modificada.isPresent()) {
+                    EntityTag etiqueta = CondicionesHttp.etiqueta(id, modificada.get());
+                    Response.ResponseBuilder sinCambios =
+                            CondicionesHttp.evaluar(peticion, CondicionesHttp.fecha(modificada.get()), etiqueta);
+                    if (sinCambios != null) {
+                        return sinCambios.build();
+                    }
+                }
+            }
+            
             Optional<Tasku> tasku = service.obtenerPorId(id);
             if (tasku.isPresent()) {
-                return Response.ok(tasku.get()).build();
+                return CondicionesHttp.conVersion(Response.ok(tasku.get()), tasku.get()).build();
             } else {
                 return Response.status(Response.Status.NOT_FOUND)
                         .entity("Tarea no encontrada con id: " + id)
@@ -59,35 +205,100 @@ public class TaskuResource {
     }
 
     @POST
-    public Response crear(Tasku tasku) {
-        try {
-            Tasku nuevaTasku = service.crear(tasku);
-            return Response.status(Response.Status.CREATED)
-                    .entity(nuevaTasku)
-                    .build();
-        } catch (IllegalArgumentException e) {
-            return Response.status(Response.Status.BAD_REQUEST)
-                    .entity("Error de validación: " + e.getMessage())
-                    .build();
-        } catch (Exception e) {
-            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
-                    .entity("Error al crear la tarea: " + e.getMessage())
-                    .build();
-        }
+    @LimitarConcurrencia(ClaseOperacion.ESCRITURA)
+    public Response crear(@HeaderParam(RespuestasIdempotentes.CLAVE) String clave, Tasku tasku) {
+        return idempotentes.responder(clave, "crear", tasku, () -> {
+            try {
+                Tasku nuevaTasku = service.crear(tasku);
+                return CondicionesHttp.conVersion(Response.status(Response.Status.CREATED), nuevaTasku)
+                        .entity(nuevaTasku)
+                        .build();
+            } catch (IllegalArgumentException e) {
+                return Response.status(Response.Status.BAD_REQUEST)
+                        .entity("Error de validación: " + e.getMessage())
+                        .build();
+            } catch (Exception e) {
+                return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                        .entity("Error al crear la tarea: " + e.getMessage())
+                        .build();
+            }
+        });
+    }
+
+    @POST
+    @Path("/batch")
+    @LimitarConcurrencia(ClaseOperacion.ESCRITURA)
+    public Response crearLote(@HeaderParam(RespuestasIdempotentes.CLAVE) String clave, List<Tasku> taskus) {
+        return idempotentes.responder(clave, "crearLote", taskus, () -> {
+            try {
+                return Response.ok(loteService.crear(taskus)).build();
+            } catch (IllegalArgumentException e) {
+                return Response.status(Response.Status.BAD_REQUEST)
+                        .entity("Error de validación: " + e.getMessage())
+                        .build();
+            } catch (Exception e) {
+                return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                        .entity("Error al crear las tareas: " + e.getMessage())
+                        .build();
+            }
+        });
+    }
+
+    @PATCH
+    @Path("/batch")
+    @LimitarConcurrencia(ClaseOperacion.ESCRITURA)
+    public Response actualizarLote(@HeaderParam(RespuestasIdempotentes.CLAVE) String clave, List<Tasku> taskus) {
+        return idempotentes.responder(clave, "actualizarLote", taskus, () -> {
+            try {
+                return Response.ok(loteService.actualizar(taskus)).build();
+            } catch (IllegalArgumentException e) {
+                return Response.status(Response.Status.BAD_REQUEST)
+                        .entity("Error de validación: " + e.getMessage())
+                        .build();
+            } catch (Exception e) {
+                return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                        .entity("Error al actualizar las tareas: " + e.getMessage())
+                        .build();
+            }
+        });
+    }
+
+    @DELETE
+    @Path("/batch")
+    @LimitarConcurrencia(ClaseOperacion.ESCRITURA)
+    public Response eliminarLote(@HeaderParam(RespuestasIdempotentes.CLAVE) String clave, List<Long> ids) {
+        return idempotentes.responder(clave, "eliminarLote", ids, () -> {
+            try {
+                return Response.ok(loteService.eliminar(ids)).build();
+            } catch (IllegalArgumentException e) {
+                return Response.status(Response.Status.BAD_REQUEST)
+                        .entity("Error de validación: " + e.getMessage())
+                        .build();
+            } catch (Exception e) {
+                return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                        .entity("Error al eliminar las tareas: " + e.getMessage())
+                        .build();
+            }
+        });
     }
 
     @PUT
     @Path("/{id}")
-    public Response actualizar(@PathParam("id") Long id, Tasku tasku) {
+    @LimitarConcurrencia(ClaseOperacion.ESCRITURA)
+    public Response actualizar(@PathParam("id") Long id,
+                               @HeaderParam(CondicionesHttp.SI_COINCIDE) String siCoincide,
+                               Tasku tasku) {
         try {
-            Optional<Tasku> taskuActualizada = service.actualizar(id, tasku);
+            Optional<Tasku> taskuActualizada = service.actualizar(id, tasku, CondicionesHttp.siCoincide(siCoincide));
             if (taskuActualizada.isPresent()) {
-                return Response.ok(taskuActualizada.get()).build();
+                return CondicionesHttp.conVersion(Response.ok(taskuActualizada.get()), taskuActualizada.get()).build();
             } else {
                 return Response.status(Response.Status.NOT_FOUND)
                         .entity("Tarea no encontrada con id: " + id)
                         .build();
             }
+        } catch (PrecondicionFallidaException e) {
+            return CondicionesHttp.precondicionFallida(e.getActual(), e.getMessage());
         } catch (IllegalArgumentException e) {
             return Response.status(Response.Status.BAD_REQUEST)
                     .entity("Error de validación: " + e.getMessage())
@@ -101,9 +312,11 @@ public class TaskuResource {
 
     @DELETE
     @Path("/{id}")
-    public Response eliminar(@PathParam("id") Long id) {
+    @LimitarConcurrencia(ClaseOperacion.ESCRITURA)
+    public Response eliminar(@PathParam("id") Long id,
+                             @HeaderParam(CondicionesHttp.SI_COINCIDE) String siCoincide) {
         try {
-            boolean eliminada = service.eliminar(id);
+            boolean eliminada = service.eliminar(id, CondicionesHttp.siCoincide(siCoincide));
             if (eliminada) {
                 return Response.noContent().build();
             } else {
@@ -111,6 +324,8 @@ public class TaskuResource {
                         .entity("Tarea no encontrada con id: " + id)
                         .build();
             }
+        } catch (PrecondicionFallidaException e) {
+            return CondicionesHttp.precondicionFallida(e.getActual(), e.getMessage());
         } catch (Exception e) {
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
                     .entity("Error al eliminar la tarea: " + e.getMessage())
@@ -120,17 +335,21 @@ public class TaskuResource {
 
     @PATCH
     @Path("/{id}/completar")
+    @LimitarConcurrencia(ClaseOperacion.ESCRITURA)
     public Response marcarCompletada(@PathParam("id") Long id,
-                                     @QueryParam("completada") @DefaultValue("true") Boolean completada) {
+                                     @QueryParam("completada") @DefaultValue("true") Boolean completada,
+                                     @HeaderParam(CondicionesHttp.SI_COINCIDE) String siCoincide) {
         try {
-            Optional<Tasku> tasku = service.marcarCompletada(id, completada);
+            Optional<Tasku> tasku = service.marcarCompletada(id, completada, CondicionesHttp.siCoincide(siCoincide));
             if (tasku.isPresent()) {
-                return Response.ok(tasku.get()).build();
+                return CondicionesHttp.conVersion(Response.ok(tasku.get()), tasku.get()).build();
             } else {
                 return Response.status(Response.Status.NOT_FOUND)
                         .entity("Tarea no encontrada con id: " + id)
                         .build();
             }
+        } catch (PrecondicionFallidaException e) {
+            return CondicionesHttp.precondicionFallida(e.getActual(), e.getMessage());
         } catch (Exception e) {
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
                     .entity("Error al actualizar el estado: " + e.getMessage())
@@ -138,20 +357,219 @@ public class TaskuResource {
         }
     }
 
+    /**
+     * Marca como completadas todas las tareas pendientes que cumplen los
+     * filtros del listado ({@code titulo}, {@code creadaDesde}...) y devuelve
+     * cuántas cambiaron.
+     */
+    @PATCH
+    @Path("/completar")
+    @LimitarConcurrencia(ClaseOperacion.ESCRITURA)
+    public Response completarTodas(@BeanParam ParametrosListado parametros) {
+        try {
+            return Response.ok(Map.of("completadas", loteService.completar(parametros.aConsulta()))).build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("Error de validación: " + e.getMessage())
+                    .build();
+        } catch (Exception e) {
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity("Error al completar las tareas: " + e.getMessage())
+                    .build();
+        }
+    }
+
     @GET
     @Path("/estadisticas")
-    public Response obtenerEstadisticas() {
+    @LimitarConcurrencia(ClaseOperacion.ESTADISTICAS)
+    public Response obtenerEstadisticas(@Context Request peticion) {
         try {
-            long completadas = service.contarCompletadas();
-            long pendientes = service.contarPendientes();
-            
-            return Response.ok()
-                    .entity("{\"completadas\":" + completadas + ",\"pendientes\":" + pendientes + "}")
-                    .build();
+            Variant formato = peticion.selectVariant(FORMATOS_LISTADO);
+            MediaType tipo = formato != null ? formato.getMediaType() : MediaType.APPLICATION_JSON_TYPE;
+            boolean cbor = CborProvider.esCbor(tipo);
+            ClaveEstadisticas clave = new ClaveEstadisticas(cbor, versionColeccion.leer().etiqueta(),
+                    sesionLecturas.necesitaPrimaria());
+            byte[] cuerpo = lecturasCompartidas.leer(clave, () -> {
+                EstadisticasTaskus estadisticas = service.obtenerEstadisticas();
+                return cbor ? serializarCbor(estadisticas) : serializarJson(estadisticas);
+            });
+            return Response.ok(bytes(cuerpo)).type(tipo).build();
         } catch (Exception e) {
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
                     .entity("Error al obtener estadísticas: " + e.getMessage())
                     .build();
         }
     }
+
+    /**
+     * Todas las tareas, una por línea en NDJSON o en CSV según Accept, para
+     * copias de seguridad y migraciones. Se escriben según se leen: la memoria
+     * usada no depende del número de tareas.
+     */
+    @GET
+    @Path("/export")
+    @Produces({FormatoIntercambio.APPLICATION_NDJSON, FormatoIntercambio.TEXT_CSV})
+    public Response exportar(@Context Request peticion) {
+        Variant variante = peticion.selectVariant(FORMATOS_INTERCAMBIO);
+        FormatoIntercambio formato = FormatoIntercambio.de(variante != null ? variante.getMediaType() : null);
+        StreamingOutput cuerpo = limiteVolcados.limitar(salida -> exportador.exportar(formato, salida));
+        return Response.ok(cuerpo).type(formato.tipo()).build();
+    }
+
+    /**
+     * Carga las tareas de una exportación conservando sus ids. El cuerpo se
+     * lee en streaming y se confirma por bloques; con {@code importacion} se
+     * reanuda una importación interrumpida desde su punto de control.
+     */
+    @POST
+    @Path("/import")
+    @Consumes({FormatoIntercambio.APPLICATION_NDJSON, FormatoIntercambio.TEXT_CSV})
+    @Produces(MediaType.APPLICATION_JSON)
+    @LimitarConcurrencia(ClaseOperacion.ESCRITURA)
+    public Response importar(@QueryParam("importacion") String importacion,
+                             @HeaderParam(HttpHeaders.CONTENT_TYPE) MediaType tipo,
+                             InputStream entrada) {
+        try {
+            return Response.ok(importador.importar(importacion, FormatoIntercambio.de(tipo), entrada)).build();
+        } catch (ImportacionInterrumpidaException e) {
+            Response.Status estado = e.getCause() instanceof IllegalArgumentException ? Response.Status.BAD_REQUEST
+                    : e.getCause() instanceof IllegalStateException ? Response.Status.CONFLICT
+                    : Response.Status.INTERNAL_SERVER_ERROR;
+            return Response.status(estado).entity(e.getProgreso()).build();
+        } catch (UnsupportedOperationException e) {
+            return Response.status(Response.Status.NOT_IMPLEMENTED)
+                    .entity(new ProgresoImportacion(importacion, 0, false, e.getMessage()))
+                    .build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new ProgresoImportacion(importacion, 0, false, "Error de validación: " + e.getMessage()))
+                    .build();
+        } catch (Exception e) {
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity(new ProgresoImportacion(importacion, 0, false, "Error al importar las tareas: " + e.getMessage()))
+                    .build();
+        }
+    }
+
+    @GET
+    @Path("/import/{importacion}")
+    public Response obtenerImportacion(@PathParam("importacion") String importacion) {
+        try {
+            Optional<ProgresoImportacion> progreso = importador.progreso(importacion);
+            if (progreso.isPresent()) {
+                return Response.ok(progreso.get()).build();
+            } else {
+                return Response.status(Response.Status.NOT_FOUND)
+                        .entity("Importación no encontrada: " + importacion)
+                        .build();
+            }
+        } catch (Exception e) {
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity("Error al obtener la importación: " + e.getMessage())
+                    .build();
+        }
+    }
+
+    private static byte[] serializarPagina(List<TaskuParcial> taskus) {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        try {
+            EscritorJsonTaskus escritor = new EscritorJsonTaskus(salida);
+            escritor.inicioLista();
+            for (TaskuParcial tasku : taskus) {
+                escritor.escribir(tasku);
+            }
+            escritor.finLista();
+            escritor.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return salida.toByteArray();
+    }
+
+    private static byte[] serializarCbor(Object valor) {
+        try {
+            return CborProvider.mapeador().writeValueAsBytes(valor);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private byte[] serializarJson(Object valor) {
+        try {
+            return mapeador.writeValueAsBytes(valor);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Bytes ya serializados como cuerpo: en CBOR un {@code byte[]} se volvería
+     * a codificar como cadena binaria.
+     */
+    private static StreamingOutput bytes(byte[] cuerpo) {
+        return salida -> salida.write(cuerpo);
+    }
+
+    private StreamingOutput escribirEnStream(ConsultaTaskus consulta, Set<TaskuParcial.Campo> campos) {
+        // Sin flush por fila: el escritor vacía su búfer en la salida cuando se llena
+        return salida -> {
+            EscritorJsonTaskus escritor = new EscritorJsonTaskus(salida);
+            escritor.inicioLista();
+            try {
+                service.recorrerCampos(consulta, campos, tasku -> {
+                    try {
+                        escritor.escribir(tasku);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            escritor.finLista();
+            escritor.flush();
+        };
+    }
+
+    private StreamingOutput escribirEnStreamCbor(ConsultaTaskus consulta, Set<TaskuParcial.Campo> campos) {
+        ObjectWriter escritor = CborProvider.mapeador().writerFor(TaskuParcial.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        return salida -> {
+            // Array de longitud indefinida: se escribe sin saber cuántas filas habrá
+            try (JsonGenerator generador = CborProvider.mapeador().getFactory().createGenerator(salida)) {
+                generador.writeStartArray();
+                service.recorrerCampos(consulta, campos, tasku -> {
+                    try {
+                        escritor.writeValue(generador, tasku);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generador.writeEndArray();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+    }
+
+    private static Response.ResponseBuilder conValidadores(Response.ResponseBuilder respuesta, boolean validable,
+                                                           EntityTag etiqueta, Date modificada) {
+        return validable ? respuesta.tag(etiqueta).lastModified(modificada) : respuesta;
+    }
+
+    /**
+     * Lo que distingue dos listados: la consulta normalizada, los campos, el
+     * formato, la versión de la colección que vio la petición y si lee de la
+     * primaria. Una petición que tiene que ver sus propias escrituras no puede
+     * recibir lo que otra leyó de una réplica con retraso.
+     */
+    private record ClaveListado(ConsultaTaskus consulta, Set<TaskuParcial.Campo> campos, boolean cbor, String version,
+                                boolean primaria) {
+    }
+
+    private record ClaveEstadisticas(boolean cbor, String version, boolean primaria) {
+    }
+
+    private record PaginaSerializada(byte[] cuerpo, String siguienteCursor) {
+    }
 }
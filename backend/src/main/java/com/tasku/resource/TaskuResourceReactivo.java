@@ -0,0 +1,263 @@
+package com.tasku.resource;
+
+import com.tasku.dto.TaskuParcial;
+import com.tasku.model.Tasku;
+import com.tasku.repository.ConsultaTaskus;
+import com.tasku.service.PrecondicionFallidaException;
+import com.tasku.service.TaskuLoteService;
+import com.tasku.service.TaskuService;
+import com.tasku.service.TaskuServiceReactivo;
+import com.tasku.service.VersionColeccion;
+import io.quarkus.arc.properties.IfBuildProperty;
+import io.smallrye.common.annotation.Blocking;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
+import jakarta.ws.rs.core.Response;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import org.jboss.resteasy.reactive.RestMulti;
+
+/**
+ * Los mismos endpoints que {@link TaskuResource}, atendidos en el hilo de E/S
+ * sin ocupar un hilo de trabajo ni una conexión JDBC por petición. Se activa con
+ * {@code tasku.persistencia=reactiva}. Las operaciones por lotes siguen usando
+ * {@link TaskuLoteService} en un hilo de trabajo.
+ */
+@Path("/taskus")
+@Produces(MediaType.APPLICATION_JSON)
+@Consumes(MediaType.APPLICATION_JSON)
+@IfBuildProperty(name = "tasku.persistencia", stringValue = "reactiva")
+public class TaskuResourceReactivo {
+
+    @Inject
+    TaskuServiceReactivo service;
+
+    @Inject
+    TaskuLoteService loteService;
+
+    @Inject
+    VersionColeccion versionColeccion;
+
+    @GET
+    public Multi<TaskuParcial> obtenerTodas(@BeanParam ParametrosListado parametros, @Context Request peticion) {
+        ConsultaTaskus consulta;
+        Set<TaskuParcial.Campo> campos;
+        try {
+            consulta = parametros.aConsulta();
+            campos = parametros.aCampos();
+        } catch (IllegalArgumentException e) {
+            throw new WebApplicationException(errorDeValidacion(e));
+        }
+        // La versión se lee antes que los datos: ver VersionColeccion
+        VersionColeccion.Version version = versionColeccion.leer();
+        EntityTag etiqueta = CondicionesHttp.etiqueta(version);
+        Date modificada = Date.from(version.modificada());
+        Response.ResponseBuilder sinCambios = CondicionesHttp.evaluar(peticion, modificada, etiqueta);
+        if (sinCambios != null) {
+            return RestMulti.fromUniResponse(
+                    Uni.createFrom().item(sinCambios.build()),
+                    respuesta -> Multi.createFrom().empty(),
+                    respuesta -> cabeceras(respuesta),
+                    Response::getStatus);
+        }
+
+        Map<String, List<String>> cabecerasVersion =
+                cabeceras(Response.ok().tag(etiqueta).lastModified(modificada).build());
+        if (parametros.stream) {
+            // Cada fila se serializa según llega del cursor, al ritmo que acepta el cliente
+            return RestMulti.fromUniResponse(
+                    Uni.createFrom().item(service.recorrerCampos(consulta, campos)),
+                    taskus -> taskus,
+                    taskus -> cabecerasVersion);
+        }
+        int limiteEfectivo = TaskuService.limiteEfectivo(consulta.limite());
+        return RestMulti.fromUniResponse(
+                service.obtenerPagina(consulta, campos),
+                taskus -> Multi.createFrom().iterable(taskus),
+                taskus -> {
+                    Map<String, List<String>> cabeceras = new HashMap<>(cabecerasVersion);
+                    // Una página llena indica que puede haber más filas después de la última
+                    if (taskus.size() == limiteEfectivo) {
+                        cabeceras.put(TaskuResource.CABECERA_SIGUIENTE_CURSOR,
+                                List.of(consulta.cursorDespuesDe(taskus.get(taskus.size() - 1))));
+                    }
+                    return cabeceras;
+                });
+    }
+
+    @GET
+    @Path("/buscar")
+    public Uni<Response> buscar(@QueryParam("q") String texto,
+                                @QueryParam("pagina") @DefaultValue("0") int pagina,
+                                @QueryParam("tamano") Integer tamano) {
+        return service.buscar(texto, pagina, tamano)
+                .map(taskus -> Response.ok(taskus).build())
+                .onFailure(IllegalArgumentException.class).recoverWithItem(this::errorDeValidacion)
+                .onFailure().recoverWithItem(e -> errorInterno("Error al buscar las tareas: ", e));
+    }
+
+    @GET
+    @Path("/{id}")
+    public Uni<Response> obtenerPorId(@PathParam("id") Long id,
+                                      @HeaderParam(CondicionesHttp.SI_NO_COINCIDE) String siNoCoincide,
+                                      @HeaderParam(CondicionesHttp.SI_MODIFICADO_DESDE) String siModificadoDesde,
+                                      @Context Request peticion) {
+        // Una lectura condicional se resuelve con la fecha de modificación, sin cargar la tarea
+        Uni<Optional<Response>> sinCambios = CondicionesHttp.esCondicional(siNoCoincide, siModificadoDesde)
+                ? service.obtenerModificacion(id).map(modificada -> modificada.flatMap(momento -> {
+                    EntityTag etiqueta = CondicionesHttp.etiqueta(id, momento);
+                    return Optional.ofNullable(CondicionesHttp.evaluar(peticion, CondicionesHttp.fecha(momento), etiqueta))
+                            .map(Response.ResponseBuilder::build);
+                }))
+                : Uni.createFrom().item(Optional.empty());
+        return sinCambios
+                .chain(respuesta -> respuesta.isPresent()
+                        ? Uni.createFrom().item(respuesta.get())
+                        : service.obtenerPorId(id).map(tasku -> encontrada(id, tasku)))
+                .onFailure().recoverWithItem(e -> errorInterno("Error al obtener la tarea: ", e));
+    }
+
+    @POST
+    public Uni<Response> crear(Tasku tasku) {
+        return service.crear(tasku)
+                .map(nuevaTasku -> CondicionesHttp.conVersion(Response.status(Response.Status.CREATED), nuevaTasku)
+                        .entity(nuevaTasku)
+                        .build())
+                .onFailure(IllegalArgumentException.class).recoverWithItem(this::errorDeValidacion)
+                .onFailure().recoverWithItem(e -> errorInterno("Error al crear la tarea: ", e));
+    }
+
+    @POST
+    @Path("/batch")
+    @Blocking
+    public Response crearLote(List<Tasku> taskus) {
+        try {
+            return Response.ok(loteService.crear(taskus)).build();
+        } catch (IllegalArgumentException e) {
+            return errorDeValidacion(e);
+        } catch (Exception e) {
+            return errorInterno("Error al crear las tareas: ", e);
+        }
+    }
+
+    @PATCH
+    @Path("/batch")
+    @Blocking
+    public Response actualizarLote(List<Tasku> taskus) {
+        try {
+            return Response.ok(loteService.actualizar(taskus)).build();
+        } catch (IllegalArgumentException e) {
+            return errorDeValidacion(e);
+        } catch (Exception e) {
+            return errorInterno("Error al actualizar las tareas: ", e);
+        }
+    }
+
+    @DELETE
+    @Path("/batch")
+    @Blocking
+    public Response eliminarLote(List<Long> ids) {
+        try {
+            return Response.ok(loteService.eliminar(ids)).build();
+        } catch (IllegalArgumentException e) {
+            return errorDeValidacion(e);
+        } catch (Exception e) {
+            return errorInterno("Error al eliminar las tareas: ", e);
+        }
+    }
+
+    @PUT
+    @Path("/{id}")
+    public Uni<Response> actualizar(@PathParam("id") Long id,
+                                    @HeaderParam(CondicionesHttp.SI_COINCIDE) String siCoincide,
+                                    Tasku tasku) {
+        return service.actualizar(id, tasku, CondicionesHttp.siCoincide(siCoincide))
+                .map(taskuActualizada -> encontrada(id, taskuActualizada))
+                .onFailure(PrecondicionFallidaException.class).recoverWithItem(this::precondicionFallida)
+                .onFailure(IllegalArgumentException.class).recoverWithItem(this::errorDeValidacion)
+                .onFailure().recoverWithItem(e -> errorInterno("Error al actualizar la tarea: ", e));
+    }
+
+    @DELETE
+    @Path("/{id}")
+    public Uni<Response> eliminar(@PathParam("id") Long id,
+                                  @HeaderParam(CondicionesHttp.SI_COINCIDE) String siCoincide) {
+        return service.eliminar(id, CondicionesHttp.siCoincide(siCoincide))
+                .map(eliminada -> eliminada ? Response.noContent().build() : noEncontrada(id))
+                .onFailure(PrecondicionFallidaException.class).recoverWithItem(this::precondicionFallida)
+                .onFailure().recoverWithItem(e -> errorInterno("Error al eliminar la tarea: ", e));
+    }
+
+    @PATCH
+    @Path("/{id}/completar")
+    public Uni<Response> marcarCompletada(@PathParam("id") Long id,
+                                          @QueryParam("completada") @DefaultValue("true") Boolean completada,
+                                          @HeaderParam(CondicionesHttp.SI_COINCIDE) String siCoincide) {
+        return service.marcarCompletada(id, completada, CondicionesHttp.siCoincide(siCoincide))
+                .map(tasku -> encontrada(id, tasku))
+                .onFailure(PrecondicionFallidaException.class).recoverWithItem(this::precondicionFallida)
+                .onFailure().recoverWithItem(e -> errorInterno("Error al actualizar el estado: ", e));
+    }
+
+    @PATCH
+    @Path("/completar")
+    @Blocking
+    public Response completarTodas(@BeanParam ParametrosListado parametros) {
+        try {
+            return Response.ok(Map.of("completadas", loteService.completar(parametros.aConsulta()))).build();
+        } catch (IllegalArgumentException e) {
+            return errorDeValidacion(e);
+        } catch (Exception e) {
+            return errorInterno("Error al completar las tareas: ", e);
+        }
+    }
+
+    @GET
+    @Path("/estadisticas")
+    public Uni<Response> obtenerEstadisticas() {
+        return service.obtenerEstadisticas()
+                .map(estadisticas -> Response.ok(estadisticas).build())
+                .onFailure().recoverWithItem(e -> errorInterno("Error al obtener estadísticas: ", e));
+    }
+
+    private Response encontrada(Long id, Optional<Tasku> tasku) {
+        return tasku.map(t -> CondicionesHttp.conVersion(Response.ok(t), t).build())
+                .orElseGet(() -> noEncontrada(id));
+    }
+
+    private Response precondicionFallida(Throwable e) {
+        return CondicionesHttp.precondicionFallida(((PrecondicionFallidaException) e).getActual(), e.getMessage());
+    }
+
+    private static Map<String, List<String>> cabeceras(Response respuesta) {
+        return new HashMap<>(respuesta.getStringHeaders());
+    }
+
+    private Response noEncontrada(Long id) {
+        return Response.status(Response.Status.NOT_FOUND)
+                .entity("Tarea no encontrada con id: " + id)
+                .build();
+    }
+
+    private Response errorDeValidacion(Throwable e) {
+        return Response.status(Response.Status.BAD_REQUEST)
+                .entity("Error de validación: " + e.getMessage())
+                .build();
+    }
+
+    private Response errorInterno(String mensaje, Throwable e) {
+        return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                .entity(mensaje + e.getMessage())
+                .build();
+    }
+}
@@ -0,0 +1,24 @@
+package com.tasku.resource;
+
+import io.quarkus.arc.properties.IfBuildProperty;
+import io.quarkus.arc.properties.UnlessBuildProperty;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+
+/**
+ * {@link TaskuResource} atendido en un hilo virtual por petición en lugar de en
+ * el pool de hilos de trabajo. Se activa con {@code tasku.hilos=virtuales} sobre
+ * la pila bloqueante. El acceso a la base de datos sigue limitado por
+ * {@link com.tasku.concurrencia.PermisosBaseDatos}.
+ */
+@Path("/taskus")
+@Produces({MediaType.APPLICATION_JSON, CborProvider.APPLICATION_CBOR})
+@Consumes({MediaType.APPLICATION_JSON, CborProvider.APPLICATION_CBOR})
+@RunOnVirtualThread
+@IfBuildProperty(name = "tasku.hilos", stringValue = "virtuales")
+@UnlessBuildProperty(name = "tasku.persistencia", stringValue = "reactiva", enableIfMissing = true)
+public class TaskuResourceVirtual extends TaskuResource {
+}
@@ -0,0 +1,108 @@
+package com.tasku.search;
+
+import com.tasku.almacen.AlmacenTaskus;
+import com.tasku.dto.TaskuParcial;
+import com.tasku.event.CambioReplicado;
+import com.tasku.event.TaskuCambio;
+import com.tasku.model.Tasku;
+import com.tasku.repository.ConsultaTaskus;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.enterprise.inject.Typed;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Búsqueda sobre un {@link IndiceNgramas} en memoria, para bases de datos sin
+ * índices de trigramas (H2 en desarrollo y en los tests). El índice se construye
+ * al arrancar y se mantiene con los cambios ya confirmados.
+ */
+@ApplicationScoped
+@Typed(BuscadorMemoria.class)
+public class BuscadorMemoria implements BuscadorTitulos {
+
+    private static final Logger LOG = Logger.getLogger(BuscadorMemoria.class);
+
+    private static final Set<TaskuParcial.Campo> CAMPOS_INDICE =
+            EnumSet.of(TaskuParcial.Campo.ID, TaskuParcial.Campo.TITULO);
+
+    @Inject
+    AlmacenTaskus almacen;
+
+    @ConfigProperty(name = "tasku.busqueda.motor", defaultValue = MOTOR_POSTGRES)
+    String motor;
+
+    final IndiceNgramas indice = new IndiceNgramas();
+
+    void construirIndice(@Observes StartupEvent evento) {
+        if (activo()) {
+            reconstruir();
+        }
+    }
+
+    /**
+     * Vuelve a construir el índice a partir de la base de datos, por ejemplo
+     * después de una carga masiva que no publica cambios fila a fila.
+     */
+    @Transactional
+    public void reconstruir() {
+        indice.limpiar();
+        // Solo id y título: la descripción no se lee
+        almacen.recorrerCampos(ConsultaTaskus.porEstadoYTitulo(null, null, null, null), CAMPOS_INDICE,
+                tasku -> indice.indexar(tasku.id(), tasku.titulo()));
+        LOG.infof("Índice de títulos en memoria construido con %d tareas", indice.tamano());
+    }
+
+    void actualizarIndice(@Observes(during = TransactionPhase.AFTER_SUCCESS) TaskuCambio cambio) {
+        aplicar(cambio);
+    }
+
+    void replicar(@Observes CambioReplicado replicado) {
+        if (replicado.aplicaAEstadoCargado()) {
+            aplicar(replicado.cambio());
+        }
+    }
+
+    private void aplicar(TaskuCambio cambio) {
+        if (!activo()) {
+            return;
+        }
+        if (cambio.tipo() == TaskuCambio.Tipo.ELIMINADA) {
+            indice.eliminar(cambio.id());
+        } else {
+            indice.indexar(cambio.id(), cambio.tasku().getTitulo());
+        }
+    }
+
+    @Override
+    public List<Tasku> buscar(String texto, int desplazamiento, int limite) {
+        List<Long> ids = indice.buscar(texto, desplazamiento, limite);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Tasku> porId = almacen.buscarPorIds(ids).stream()
+                .collect(Collectors.toMap(Tasku::getId, Function.identity()));
+        return ids.stream()
+                .map(porId::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    /**
+     * Si es el motor de búsqueda elegido: si no, el índice no se mantiene.
+     */
+    public boolean activo() {
+        return MOTOR_MEMORIA.equals(motor);
+    }
+}
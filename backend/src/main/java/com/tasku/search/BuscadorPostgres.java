@@ -0,0 +1,37 @@
+package com.tasku.search;
+
+import com.tasku.model.Tasku;
+import com.tasku.repository.TaskuRepository;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Typed;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Búsqueda sobre un índice GIN de trigramas (pg_trgm) de {@code lower(titulo)}.
+ * Ese índice resuelve {@code LIKE '%texto%'} sin recorrer toda la tabla. Lo crea
+ * la migración V1 de PostgreSQL.
+ */
+@ApplicationScoped
+@Typed(BuscadorPostgres.class)
+public class BuscadorPostgres implements BuscadorTitulos {
+
+    @Inject
+    EntityManager entityManager;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Tasku> buscar(String texto, int desplazamiento, int limite) {
+        return entityManager.createNativeQuery("SELECT * FROM taskus "
+                        + "WHERE lower(titulo) LIKE :patron ESCAPE '!' "
+                        + "ORDER BY similarity(lower(titulo), :texto) DESC, id "
+                        + "LIMIT :limite OFFSET :desplazamiento", Tasku.class)
+                .setParameter("patron", TaskuRepository.patronContiene(texto))
+                .setParameter("texto", texto.toLowerCase(Locale.ROOT))
+                .setParameter("limite", limite)
+                .setParameter("desplazamiento", desplazamiento)
+                .getResultList();
+    }
+}
@@ -0,0 +1,16 @@
+package com.tasku.search;
+
+import com.tasku.model.Tasku;
+import java.util.List;
+
+/**
+ * Búsqueda por subcadena del título con resultados ordenados por relevancia.
+ * Los títulos más cortos que contienen el texto se consideran más relevantes.
+ */
+public interface BuscadorTitulos {
+
+    String MOTOR_POSTGRES = "postgres";
+    String MOTOR_MEMORIA = "memoria";
+
+    List<Tasku> buscar(String texto, int desplazamiento, int limite);
+}
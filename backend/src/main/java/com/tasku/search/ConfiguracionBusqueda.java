@@ -0,0 +1,18 @@
+package com.tasku.search;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Produces;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+@ApplicationScoped
+public class ConfiguracionBusqueda {
+
+    @ConfigProperty(name = "tasku.busqueda.motor", defaultValue = BuscadorTitulos.MOTOR_POSTGRES)
+    String motor;
+
+    @Produces
+    @ApplicationScoped
+    BuscadorTitulos buscador(BuscadorPostgres postgres, BuscadorMemoria memoria) {
+        return BuscadorTitulos.MOTOR_MEMORIA.equals(motor) ? memoria : postgres;
+    }
+}
@@ -0,0 +1,197 @@
+package com.tasku.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice invertido de trigramas en memoria. Para cada trigrama guarda la lista
+ * ordenada de ids cuyos textos lo contienen; una búsqueda solo examina la lista
+ * más corta de los trigramas de la consulta en lugar de todos los textos.
+ */
+public class IndiceNgramas {
+
+    static final int N = 3;
+
+    private final Map<String, ListaIds> listas = new HashMap<>();
+    private final Map<Long, String> textos = new HashMap<>();
+    private final ReentrantReadWriteLock cerrojo = new ReentrantReadWriteLock();
+
+    public void indexar(long id, String texto) {
+        String normalizado = normalizar(texto);
+        cerrojo.writeLock().lock();
+        try {
+            String anterior = textos.put(id, normalizado);
+            if (anterior != null) {
+                quitarNgramas(id, anterior);
+            }
+            for (String ngrama : ngramas(normalizado)) {
+                listas.computeIfAbsent(ngrama, k -> new ListaIds()).agregar(id);
+            }
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+    }
+
+    public void eliminar(long id) {
+        cerrojo.writeLock().lock();
+        try {
+            String anterior = textos.remove(id);
+            if (anterior != null) {
+                quitarNgramas(id, anterior);
+            }
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+    }
+
+    public void limpiar() {
+        cerrojo.writeLock().lock();
+        try {
+            listas.clear();
+            textos.clear();
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+    }
+
+    public int tamano() {
+        cerrojo.readLock().lock();
+        try {
+            return textos.size();
+        } finally {
+            cerrojo.readLock().unlock();
+        }
+    }
+
+    /**
+     * Devuelve los ids cuyos textos contienen la consulta, del más relevante al
+     * menos relevante y, a igual relevancia, por id ascendente.
+     */
+    public List<Long> buscar(String consulta, int desplazamiento, int limite) {
+        String normalizada = normalizar(consulta);
+        List<Coincidencia> coincidencias = new ArrayList<>();
+        cerrojo.readLock().lock();
+        try {
+            Set<String> ngramasConsulta = ngramas(normalizada);
+            if (ngramasConsulta.isEmpty()) {
+                // Consulta más corta que un trigrama: no hay lista que acote la búsqueda
+                textos.forEach((id, texto) -> agregarSiContiene(coincidencias, id, texto, normalizada));
+            } else {
+                ListaIds candidatos = listaMasCorta(ngramasConsulta);
+                if (candidatos != null) {
+                    for (int i = 0; i < candidatos.tamano; i++) {
+                        long id = candidatos.ids[i];
+                        agregarSiContiene(coincidencias, id, textos.get(id), normalizada);
+                    }
+                }
+            }
+        } finally {
+            cerrojo.readLock().unlock();
+        }
+
+        coincidencias.sort(Comparator.comparingDouble(Coincidencia::puntuacion).reversed()
+                .thenComparingLong(Coincidencia::id));
+        int desde = Math.min(Math.max(desplazamiento, 0), coincidencias.size());
+        int hasta = Math.min(desde + limite, coincidencias.size());
+        List<Long> ids = new ArrayList<>(hasta - desde);
+        for (Coincidencia coincidencia : coincidencias.subList(desde, hasta)) {
+            ids.add(coincidencia.id());
+        }
+        return ids;
+    }
+
+    static String normalizar(String texto) {
+        return texto == null ? "" : texto.toLowerCase(Locale.ROOT);
+    }
+
+    static Set<String> ngramas(String texto) {
+        Set<String> ngramas = new HashSet<>();
+        for (int i = 0; i + N <= texto.length(); i++) {
+            ngramas.add(texto.substring(i, i + N));
+        }
+        return ngramas;
+    }
+
+    private ListaIds listaMasCorta(Set<String> ngramasConsulta) {
+        ListaIds masCorta = null;
+        for (String ngrama : ngramasConsulta) {
+            ListaIds lista = listas.get(ngrama);
+            if (lista == null) {
+                // Algún trigrama no aparece en ningún texto: no puede haber coincidencias
+                return null;
+            }
+            if (masCorta == null || lista.tamano < masCorta.tamano) {
+                masCorta = lista;
+            }
+        }
+        return masCorta;
+    }
+
+    private static void agregarSiContiene(List<Coincidencia> coincidencias, long id, String texto, String consulta) {
+        if (texto != null && texto.contains(consulta)) {
+            double puntuacion = texto.isEmpty() ? 1.0 : (double) consulta.length() / texto.length();
+            coincidencias.add(new Coincidencia(id, puntuacion));
+        }
+    }
+
+    private void quitarNgramas(long id, String texto) {
+        for (String ngrama : ngramas(texto)) {
+            ListaIds lista = listas.get(ngrama);
+            if (lista != null && lista.quitar(id) && lista.tamano == 0) {
+                listas.remove(ngrama);
+            }
+        }
+    }
+
+    private record Coincidencia(long id, double puntuacion) {
+    }
+
+    /**
+     * Lista ordenada de ids sobre un {@code long[]}. Los ids nuevos suelen ser
+     * mayores que los existentes, así que agregar es casi siempre un append.
+     */
+    static final class ListaIds {
+
+        long[] ids = new long[4];
+        int tamano;
+
+        void agregar(long id) {
+            if (tamano > 0 && ids[tamano - 1] >= id) {
+                int posicion = Arrays.binarySearch(ids, 0, tamano, id);
+                if (posicion >= 0) {
+                    return;
+                }
+                insertar(-posicion - 1, id);
+                return;
+            }
+            insertar(tamano, id);
+        }
+
+        boolean quitar(long id) {
+            int posicion = Arrays.binarySearch(ids, 0, tamano, id);
+            if (posicion < 0) {
+                return false;
+            }
+            System.arraycopy(ids, posicion + 1, ids, posicion, tamano - posicion - 1);
+            tamano--;
+            return true;
+        }
+
+        private void insertar(int posicion, long id) {
+            if (tamano == ids.length) {
+                ids = Arrays.copyOf(ids, tamano * 2);
+            }
+            System.arraycopy(ids, posicion, ids, posicion + 1, tamano - posicion);
+            ids[posicion] = id;
+            tamano++;
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.tasku.service;
+
+import com.tasku.almacen.AlmacenTaskus;
+import com.tasku.dto.EstadisticasTaskus;
+import com.tasku.event.CambioReplicado;
+import com.tasku.event.TaskuCambio;
+import com.tasku.model.RegistroCambio;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import jakarta.interceptor.Interceptor;
+import jakarta.transaction.Status;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Contadores en memoria para {@code /estadisticas}. Se cargan de la base de datos
+ * al arrancar, se actualizan con cada cambio confirmado y se reconcilian
+ * periódicamente con la base de datos para corregir cualquier deriva.
+ *
+ * <p>Las creadas y completadas del día son cambios, no estados: las altas y los
+ * pasos a completada ({@link TaskuCambio#completaTarea()}) de hoy, se borre o
+ * se reabra después la tarea. Aquí se cuentan al aplicar cada cambio y al
+ * reconciliar se cuentan en el registro de cambios.
+ *
+ * <p>Todo el estado vive en un único objeto inmutable que se reemplaza de forma
+ * atómica, así una lectura nunca mezcla valores de dos cambios distintos.
+ */
+@ApplicationScoped
+public class ContadoresTaskus {
+
+    private static final Logger LOG = Logger.getLogger(ContadoresTaskus.class);
+
+    @Inject
+    AlmacenTaskus almacen;
+
+    @Inject
+    RelayCambios relay;
+
+    @Inject
+    TransactionSynchronizationRegistry transacciones;
+
+    @ConfigProperty(name = "tasku.estadisticas.espera-reconciliacion", defaultValue = "PT1S")
+    Duration espera;
+
+    private final AtomicReference<Estado> estado = new AtomicReference<>(new Estado(0, 0, 0, 0, LocalDate.now()));
+    // Cada cambio confirmándose, desde antes del commit hasta que se aplica, tiene
+    // la lectura; la reconciliación cuenta con la escritura, sin commits a medias
+    private final ReentrantReadWriteLock confirmaciones = new ReentrantReadWriteLock();
+    // Por identidad: sin transacción, como en la pila reactiva, se notifican a la vez
+    // AFTER_SUCCESS y AFTER_FAILURE, y cada cambio tiene que terminar una sola vez
+    private final Set<TaskuCambio> confirmando =
+            Collections.newSetFromMap(Collections.synchronizedMap(new IdentityHashMap<>()));
+    // Los cambios sin transacción ya están confirmados al publicarse: si hay
+    // alguno alrededor del recuento no se sabe si lo incluye
+    private final Set<TaskuCambio> sinTransaccion =
+            Collections.newSetFromMap(Collections.synchronizedMap(new IdentityHashMap<>()));
+    private final AtomicLong publicadosSinTransaccion = new AtomicLong();
+    // Cambios de otros nodos que incluía el último recuento antes de entregarse
+    private volatile Set<Long> contadosSinEntregar = Set.of();
+
+    void iniciar(@Observes @Priority(Interceptor.Priority.APPLICATION + 600) StartupEvent evento) {
+        // Después del relevo, que fija al arrancar lo que hay por entregar
+        reconciliar();
+    }
+
+    public EstadisticasTaskus leer() {
+        Estado actual = estado.get().alDia(LocalDate.now());
+        return new EstadisticasTaskus(actual.completadas, actual.pendientes,
+                actual.completadas + actual.pendientes, actual.creadasHoy, actual.completadasHoy);
+    }
+
+    // Con prioridad para contarlo antes de aplicarlo cuando se publica sin transacción
+    void registrarSinTransaccion(@Observes @Priority(Interceptor.Priority.PLATFORM_BEFORE) TaskuCambio cambio) {
+        if (transacciones.getTransactionStatus() == Status.STATUS_NO_TRANSACTION) {
+            publicadosSinTransaccion.incrementAndGet();
+            sinTransaccion.add(cambio);
+        }
+    }
+
+    void confirmar(@Observes(during = TransactionPhase.BEFORE_COMPLETION) TaskuCambio cambio) {
+        if (transacciones.getTransactionStatus() != Status.STATUS_NO_TRANSACTION) {
+            confirmaciones.readLock().lock();
+            confirmando.add(cambio);
+        }
+    }
+
+    void aplicar(@Observes(during = TransactionPhase.AFTER_SUCCESS) TaskuCambio cambio) {
+        LocalDate hoy = LocalDate.now();
+        estado.updateAndGet(actual -> actual.alDia(hoy).con(cambio));
+        terminar(cambio);
+    }
+
+    void descartar(@Observes(during = TransactionPhase.AFTER_FAILURE) TaskuCambio cambio) {
+        terminar(cambio);
+    }
+
+    /**
+     * Aplica los cambios de otros nodos, salvo los que ya incluía el último
+     * recuento.
+     */
+    void replicar(@Observes CambioReplicado replicado) {
+        if (!replicado.aplicaAEstadoCargado() || contadosSinEntregar.contains(replicado.secuencia())) {
+            return;
+        }
+        LocalDate hoy = LocalDate.now();
+        estado.updateAndGet(actual -> actual.alDia(hoy).con(replicado.cambio()));
+    }
+
+    /**
+     * Sustituye los contadores por un recuento de la base de datos. Mientras
+     * cuenta no deja empezar ningún commit de este nodo y espera a los que
+     * están a medias, así los cambios locales o ya están aplicados y en el
+     * recuento o no están en ninguno de los dos. El relevo se detiene mientras
+     * tanto y los cambios de otros nodos que el recuento ya ve sin que se hayan
+     * entregado no se aplican al llegar. Solo se deja para la siguiente vez si
+     * los commits no terminan en {@code tasku.estadisticas.espera-reconciliacion}
+     * o hay cambios sin transacción alrededor del recuento.
+     */
+    @Scheduled(every = "{tasku.estadisticas.reconciliacion}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    public void reconciliar() {
+        Lock escritura = confirmaciones.writeLock();
+        try {
+            if (!escritura.tryLock(espera.toMillis(), TimeUnit.MILLISECONDS)) {
+                LOG.debug("Reconciliación de contadores aplazada por commits que no terminan");
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        try {
+            relay.sinEntregar(this::reconciliar);
+        } finally {
+            escritura.unlock();
+        }
+    }
+
+    private Void reconciliar(List<RegistroCambio.Tramo> sinEntregar) {
+        long publicadosAntes = publicadosSinTransaccion.get();
+        if (!sinTransaccion.isEmpty()) {
+            LOG.debug("Reconciliación de contadores aplazada por cambios sin transacción en curso");
+            return null;
+        }
+        LocalDate hoy = LocalDate.now();
+        AlmacenTaskus.Resumen resumen = almacen.contarResumen(hoy.atStartOfDay(), sinEntregar);
+        if (!sinTransaccion.isEmpty() || publicadosSinTransaccion.get() != publicadosAntes) {
+            LOG.debug("Reconciliación de contadores descartada por cambios sin transacción");
+            return null;
+        }
+        Estado reconciliado = new Estado(resumen.completadas(), resumen.pendientes(), resumen.creadas(),
+                resumen.completadasDesde(), hoy);
+        Estado anterior = estado.getAndSet(reconciliado);
+        contadosSinEntregar = resumen.sinEntregar();
+        if (!anterior.equals(reconciliado.alDia(anterior.dia))) {
+            LOG.debugf("Contadores reconciliados: %s -> %s", anterior, reconciliado);
+        }
+        return null;
+    }
+
+    private void terminar(TaskuCambio cambio) {
+        if (confirmando.remove(cambio)) {
+            confirmaciones.readLock().unlock();
+        }
+        sinTransaccion.remove(cambio);
+    }
+
+    private record Estado(long completadas, long pendientes, long creadasHoy, long completadasHoy, LocalDate dia) {
+
+        Estado alDia(LocalDate hoy) {
+            return dia.equals(hoy) ? this : new Estado(completadas, pendientes, 0, 0, hoy);
+        }
+
+        Estado con(TaskuCambio cambio) {
+            long completadasNuevas = completadas;
+            long pendientesNuevas = pendientes;
+            switch (cambio.tipo()) {
+                case CREADA -> {
+                    if (Boolean.TRUE.equals(cambio.tasku().getCompletada())) {
+                        completadasNuevas++;
+                    } else {
+                        pendientesNuevas++;
+                    }
+                }
+                case ACTUALIZADA -> {
+                    boolean antes = Boolean.TRUE.equals(cambio.completadaAnterior());
+                    boolean despues = Boolean.TRUE.equals(cambio.tasku().getCompletada());
+                    if (!antes && despues) {
+                        completadasNuevas++;
+                        pendientesNuevas--;
+                    } else if (antes && !despues) {
+                        completadasNuevas--;
+                        pendientesNuevas++;
+                    }
+                }
+                case ELIMINADA -> {
+                    if (Boolean.TRUE.equals(cambio.completadaAnterior())) {
+                        completadasNuevas--;
+                    } else {
+                        pendientesNuevas--;
+                    }
+                }
+            }
+            return new Estado(completadasNuevas, pendientesNuevas,
+                    creadasHoy + (cambio.tipo() == TaskuCambio.Tipo.CREADA ? 1 : 0),
+                    completadasHoy + (cambio.completaTarea() ? 1 : 0), dia);
+        }
+    }
+}
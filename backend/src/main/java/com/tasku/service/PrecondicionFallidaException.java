@@ -0,0 +1,20 @@
+package com.tasku.service;
+
+import com.tasku.model.Tasku;
+
+/**
+ * La tarea no está en la versión que esperaba quien la modifica (If-Match).
+ */
+public class PrecondicionFallidaException extends RuntimeException {
+
+    private final transient Tasku actual;
+
+    public PrecondicionFallidaException(Tasku actual) {
+        super("La tarea " + actual.getId() + " cambió desde que se leyó");
+        this.actual = actual;
+    }
+
+    public Tasku getActual() {
+        return actual;
+    }
+}
@@ -0,0 +1,51 @@
+package com.tasku.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tasku.event.CambioReplicado;
+import com.tasku.event.TaskuCambio;
+import com.tasku.model.RegistroCambio;
+import com.tasku.repository.RegistroCambioRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import java.io.UncheckedIOException;
+
+/**
+ * Añade cada {@link TaskuCambio} al registro de cambios dentro de la transacción
+ * que lo produce, ya venga de {@link TaskuService} o de {@link TaskuLoteService}.
+ * Si la transacción se deshace, la fila del registro se deshace con ella.
+ *
+ * <p>Está también en la pila reactiva, cuyos lotes y {@code completar} pasan por
+ * {@link TaskuLoteService}. Sus escrituras propias no tienen transacción JTA al
+ * publicar el cambio y escriben el registro desde su repositorio: sin
+ * transacción no se registra nada aquí.
+ */
+@ApplicationScoped
+public class RegistroCambios {
+
+    @Inject
+    RegistroCambioRepository repository;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    void registrar(@Observes TaskuCambio cambio) {
+        if (!QuarkusTransaction.isActive()) {
+            return;
+        }
+        repository.persist(new RegistroCambio(cambio, serializar(objectMapper, cambio), CambioReplicado.ORIGEN_LOCAL));
+    }
+
+    private static String serializar(ObjectMapper objectMapper, TaskuCambio cambio) {
+        if (cambio.tasku() == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(cambio.tasku());
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
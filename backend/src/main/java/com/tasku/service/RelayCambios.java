@@ -0,0 +1,246 @@
+package com.tasku.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tasku.event.CambioReplicado;
+import com.tasku.event.TaskuCambio;
+import com.tasku.model.RegistroCambio;
+import com.tasku.model.Tasku;
+import com.tasku.repository.RegistroCambioRepository;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Relevo del registro de cambios: lo lee por lotes a partir del último cambio
+ * entregado y publica cada uno como {@link CambioReplicado}, de este nodo o de
+ * otro, para que el estado en memoria se mantenga al día sin recorrer
+ * {@code taskus}.
+ *
+ * <p>Las secuencias se asignan al insertar y no al confirmar, así que un cambio
+ * puede aparecer después de otro con secuencia mayor. El relevo entrega en orden
+ * y se detiene ante un hueco; solo lo salta cuando lleva más de
+ * {@code tasku.replicacion.espera-huecos} sin llenarse, que es lo que ocurre con
+ * las transacciones deshechas. Un hueco saltado se sigue revisando en cada pasada
+ * durante {@code tasku.replicacion.revision-huecos}, por si era una transacción
+ * lenta: sus cambios se entregan cuando aparecen, fuera de orden. Dos cambios de
+ * la misma tarea no se adelantan: el segundo espera al bloqueo de la fila, así
+ * que se confirma después del primero.
+ *
+ * <p>Arranca desde el final del registro, o desde {@code tasku.replicacion.desde}
+ * para volver a entregar los cambios a partir de una posición conocida. Los
+ * contadores y los índices se cargan de las tablas al arrancar y ya incluyen
+ * los cambios hasta el final del registro en ese momento: esos se entregan
+ * marcados como {@link CambioReplicado#cargadoAlArrancar() cargados} para que
+ * no se apliquen dos veces.
+ */
+@ApplicationScoped
+public class RelayCambios {
+
+    private static final Logger LOG = Logger.getLogger(RelayCambios.class);
+
+    @Inject
+    RegistroCambioRepository repository;
+
+    @Inject
+    Event<CambioReplicado> eventos;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @ConfigProperty(name = "tasku.replicacion.tamano-lote", defaultValue = "500")
+    int tamanoLote;
+
+    @ConfigProperty(name = "tasku.replicacion.espera-huecos", defaultValue = "PT10S")
+    Duration esperaHuecos;
+
+    @ConfigProperty(name = "tasku.replicacion.revision-huecos", defaultValue = "PT10M")
+    Duration revisionHuecos;
+
+    @ConfigProperty(name = "tasku.replicacion.retencion", defaultValue = "P7D")
+    Duration retencion;
+
+    @ConfigProperty(name = "tasku.replicacion.desde")
+    Optional<Long> desde;
+
+    @ConfigProperty(name = "tasku.replicacion.retraso-maximo", defaultValue = "PT5S")
+    Duration retrasoMaximo;
+
+    // Último cambio que ya estaba en el registro al cargar el estado de las tablas
+    long cargadaAlArrancar;
+    private long ultimaEntregada;
+    private long hueco = -1;
+    private long huecoDesde;
+    private List<HuecoSaltado> saltados = new ArrayList<>();
+    // Si la última pasada llegó al final del registro sin detenerse en un hueco, y cuándo terminó
+    private volatile boolean completa;
+    private volatile long completaEn;
+
+    void iniciar(@Observes StartupEvent evento) {
+        cargadaAlArrancar = repository.ultimaSecuencia();
+        reanudarDesde(desde.orElse(cargadaAlArrancar));
+    }
+
+    @Scheduled(every = "{tasku.replicacion.intervalo}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void relevarProgramado() {
+        relevar();
+    }
+
+    /**
+     * Entrega los cambios pendientes y devuelve cuántos entregó.
+     */
+    public synchronized int relevar() {
+        int entregados = revisarSaltados();
+        List<RegistroCambio> lote;
+        do {
+            lote = repository.leerDesde(ultimaEntregada, tamanoLote);
+            for (RegistroCambio registro : lote) {
+                if (registro.getSecuencia() != ultimaEntregada + 1 && !huecoVencido(registro.getSecuencia())) {
+                    completa = false;
+                    return entregados;
+                }
+                entregar(registro);
+                ultimaEntregada = registro.getSecuencia();
+                entregados++;
+            }
+        } while (lote.size() == tamanoLote);
+        completaEn = System.nanoTime();
+        completa = true;
+        return entregados;
+    }
+
+    /**
+     * Si lo que se mantiene con los cambios de otros nodos puede darse por al
+     * día: la última pasada llegó al final del registro sin detenerse en un
+     * hueco hace menos de {@code tasku.replicacion.retraso-maximo}.
+     */
+    public boolean alDia() {
+        return completa && System.nanoTime() - completaEn <= retrasoMaximo.toNanos();
+    }
+
+    public synchronized void reanudarDesde(long secuencia) {
+        ultimaEntregada = secuencia;
+        hueco = -1;
+        saltados = new ArrayList<>();
+    }
+
+    public synchronized long ultimaEntregada() {
+        return ultimaEntregada;
+    }
+
+    /**
+     * Ejecuta {@code paso} con el relevo detenido y le pasa los tramos del
+     * registro que aún no se han entregado: lo que hay después del último
+     * entregado y los huecos saltados que se siguen revisando. No incluye los
+     * cargados al arrancar, que ya se entregan marcados.
+     */
+    public synchronized <T> T sinEntregar(Function<List<RegistroCambio.Tramo>, T> paso) {
+        long desdeCarga = cargadaAlArrancar + 1;
+        List<RegistroCambio.Tramo> tramos = new ArrayList<>();
+        for (HuecoSaltado saltado : saltados) {
+            if (saltado.hasta() >= desdeCarga) {
+                tramos.add(new RegistroCambio.Tramo(Math.max(saltado.desde(), desdeCarga), saltado.hasta()));
+            }
+        }
+        tramos.add(RegistroCambio.Tramo.despuesDe(Math.max(ultimaEntregada, cargadaAlArrancar)));
+        return paso.apply(tramos);
+    }
+
+    @Scheduled(every = "1h", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    @Transactional
+    void purgar() {
+        long purgados = repository.purgarAnteriores(LocalDateTime.now().minus(retencion));
+        if (purgados > 0) {
+            LOG.debugf("Purgados %d cambios del registro", purgados);
+        }
+    }
+
+    private boolean huecoVencido(long siguiente) {
+        long ahora = System.nanoTime();
+        if (hueco != ultimaEntregada + 1) {
+            hueco = ultimaEntregada + 1;
+            huecoDesde = ahora;
+        }
+        if (ahora - huecoDesde < esperaHuecos.toNanos()) {
+            return false;
+        }
+        LOG.infof("Se saltan los cambios %d a %d del registro, que no aparecieron en %s; se revisarán durante %s",
+                hueco, siguiente - 1, esperaHuecos, revisionHuecos);
+        saltados.add(new HuecoSaltado(hueco, siguiente - 1, ahora));
+        hueco = -1;
+        return true;
+    }
+
+    /**
+     * Entrega los cambios de los huecos saltados que ya han aparecido y deja de
+     * revisar los que llevan más de {@code tasku.replicacion.revision-huecos}.
+     */
+    private int revisarSaltados() {
+        if (saltados.isEmpty()) {
+            return 0;
+        }
+        long ahora = System.nanoTime();
+        int entregados = 0;
+        List<HuecoSaltado> siguen = new ArrayList<>();
+        for (HuecoSaltado saltado : saltados) {
+            long desde = saltado.desde();
+            for (RegistroCambio registro : repository.leerEntre(saltado.desde(), saltado.hasta())) {
+                entregar(registro);
+                entregados++;
+                if (registro.getSecuencia() > desde) {
+                    siguen.add(new HuecoSaltado(desde, registro.getSecuencia() - 1, saltado.saltadoEn()));
+                }
+                desde = registro.getSecuencia() + 1;
+            }
+            if (desde <= saltado.hasta()) {
+                siguen.add(new HuecoSaltado(desde, saltado.hasta(), saltado.saltadoEn()));
+            }
+        }
+        siguen.removeIf(saltado -> {
+            if (ahora - saltado.saltadoEn() < revisionHuecos.toNanos()) {
+                return false;
+            }
+            LOG.warnf("Se dan por perdidos los cambios %d a %d del registro, que no aparecieron en %s",
+                    saltado.desde(), saltado.hasta(), revisionHuecos);
+            return true;
+        });
+        saltados = siguen;
+        if (entregados > 0) {
+            LOG.infof("Entregados %d cambios que aparecieron después de saltar su hueco", entregados);
+        }
+        return entregados;
+    }
+
+    private void entregar(RegistroCambio registro) {
+        eventos.fire(new CambioReplicado(registro.getSecuencia(), registro.getOrigen(), aCambio(registro),
+                registro.getSecuencia() <= cargadaAlArrancar));
+    }
+
+    private TaskuCambio aCambio(RegistroCambio registro) {
+        try {
+            Tasku tasku = registro.getDatos() != null ? objectMapper.readValue(registro.getDatos(), Tasku.class) : null;
+            return new TaskuCambio(registro.getTipo(), registro.getTaskuId(), tasku, registro.getCompletadaAnterior());
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Secuencias que se saltaron sin aparecer y se siguen revisando.
+     */
+    private record HuecoSaltado(long desde, long hasta, long saltadoEn) {
+    }
+}
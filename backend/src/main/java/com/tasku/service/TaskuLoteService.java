@@ -0,0 +1,223 @@
+package com.tasku.service;
+
+import com.tasku.almacen.AlmacenTaskus;
+import com.tasku.dto.ResultadoLote;
+import com.tasku.event.TaskuCambio;
+import com.tasku.model.Tasku;
+import com.tasku.repository.ConsultaTaskus;
+import io.micrometer.core.annotation.Timed;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Altas, modificaciones y bajas por lotes. Cada elemento se valida por separado
+ * y los elementos válidos se escriben en bloques de
+ * {@code tasku.lote.tamano-bloque}, cada bloque en su propia transacción. Los
+ * ids de secuencia y {@code hibernate.jdbc.batch_size} permiten que cada bloque
+ * llegue a la base de datos como unas pocas sentencias por lotes.
+ *
+ * <p>Si un bloque falla, sus elementos se informan como error y los bloques ya
+ * confirmados se mantienen.
+ */
+@ApplicationScoped
+// Las llamadas que fallan llevan la etiqueta exception con el tipo de la excepción
+@Timed(value = "tasku.servicio", description = "Duración de cada método del servicio")
+public class TaskuLoteService {
+
+    private static final Logger LOG = Logger.getLogger(TaskuLoteService.class);
+
+    @Inject
+    AlmacenTaskus almacen;
+
+    @Inject
+    Event<TaskuCambio> eventos;
+
+    @ConfigProperty(name = "tasku.lote.tamano-bloque", defaultValue = "500")
+    int tamanoBloque;
+
+    @ConfigProperty(name = "tasku.lote.maximo", defaultValue = "10000")
+    int maximo;
+
+    public List<ResultadoLote> crear(List<Tasku> taskus) {
+        validarTamano(taskus);
+        ResultadoLote[] resultados = new ResultadoLote[taskus.size()];
+        List<Integer> validos = new ArrayList<>();
+        for (int i = 0; i < taskus.size(); i++) {
+            try {
+                TaskuService.validarNueva(taskus.get(i));
+                validos.add(i);
+            } catch (IllegalArgumentException e) {
+                resultados[i] = ResultadoLote.fallo(i, null, 400, e.getMessage());
+            }
+        }
+
+        procesarEnBloques(validos, resultados, null, bloque -> {
+            for (Integer indice : bloque) {
+                Tasku tasku = taskus.get(indice);
+                // El id lo asigna el almacén, nunca el cliente
+                tasku.setId(null);
+                almacen.guardar(tasku);
+            }
+            almacen.escribirPendientes();
+            for (Integer indice : bloque) {
+                Tasku tasku = taskus.get(indice);
+                eventos.fire(TaskuCambio.creada(tasku));
+                resultados[indice] = ResultadoLote.exito(indice, tasku.getId(), 201);
+            }
+        });
+        return Arrays.asList(resultados);
+    }
+
+    public List<ResultadoLote> actualizar(List<Tasku> cambios) {
+        validarTamano(cambios);
+        ResultadoLote[] resultados = new ResultadoLote[cambios.size()];
+        List<Integer> validos = new ArrayList<>();
+        for (int i = 0; i < cambios.size(); i++) {
+            Tasku cambio = cambios.get(i);
+            if (cambio == null) {
+                resultados[i] = ResultadoLote.fallo(i, null, 400, "La tarea no puede ser nula");
+            } else if (cambio.getId() == null || cambio.getId() <= 0) {
+                resultados[i] = ResultadoLote.fallo(i, null, 400, "El id es obligatorio");
+            } else {
+                validos.add(i);
+            }
+        }
+
+        procesarEnBloques(validos, resultados, i -> cambios.get(i).getId(), bloque -> {
+            Map<Long, Tasku> existentes = cargar(bloque.stream().map(i -> cambios.get(i).getId()).toList());
+            List<TaskuCambio> eventosBloque = new ArrayList<>();
+            for (Integer indice : bloque) {
+                Long id = cambios.get(indice).getId();
+                Tasku tasku = existentes.get(id);
+                if (tasku == null) {
+                    resultados[indice] = ResultadoLote.fallo(indice, id, 404, "Tarea no encontrada con id: " + id);
+                    continue;
+                }
+                Boolean completadaAnterior = tasku.getCompletada();
+                TaskuService.aplicarCambios(tasku, cambios.get(indice));
+                almacen.guardarCambios(tasku);
+                eventosBloque.add(TaskuCambio.actualizada(tasku, completadaAnterior));
+                resultados[indice] = ResultadoLote.exito(indice, id, 200);
+            }
+            almacen.escribirPendientes();
+            eventosBloque.forEach(eventos::fire);
+        });
+        return Arrays.asList(resultados);
+    }
+
+    public List<ResultadoLote> eliminar(List<Long> ids) {
+        validarTamano(ids);
+        ResultadoLote[] resultados = new ResultadoLote[ids.size()];
+        List<Integer> validos = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            Long id = ids.get(i);
+            if (id == null || id <= 0) {
+                resultados[i] = ResultadoLote.fallo(i, id, 400, "Id no válido: " + id);
+            } else {
+                validos.add(i);
+            }
+        }
+
+        procesarEnBloques(validos, resultados, ids::get, bloque -> {
+            Map<Long, Tasku> existentes = cargar(bloque.stream().map(ids::get).toList());
+            for (Integer indice : bloque) {
+                Long id = ids.get(indice);
+                Tasku tasku = existentes.remove(id);
+                if (tasku == null) {
+                    resultados[indice] = ResultadoLote.fallo(indice, id, 404, "Tarea no encontrada con id: " + id);
+                    continue;
+                }
+                almacen.eliminar(tasku);
+                eventos.fire(TaskuCambio.eliminada(id, tasku.getCompletada()));
+                resultados[indice] = ResultadoLote.exito(indice, id, 204);
+            }
+            almacen.escribirPendientes();
+        });
+        return Arrays.asList(resultados);
+    }
+
+    /**
+     * Marca como completadas todas las tareas pendientes que cumplen los
+     * filtros de {@code filtro} (el de estado, el orden, el cursor y el límite no
+     * se usan) y devuelve cuántas cambiaron. Recorre las pendientes por id en
+     * bloques de {@code tasku.lote.tamano-bloque}, cada uno en su transacción
+     * con una consulta de ids y un solo UPDATE; cada tarea cambiada publica su
+     * {@link TaskuCambio} como en una escritura individual. Si un bloque falla,
+     * los anteriores quedan confirmados.
+     */
+    public long completar(ConsultaTaskus filtro) {
+        long completadas = 0;
+        List<Object> despuesDe = null;
+        while (true) {
+            ConsultaTaskus pendientes = new ConsultaTaskus(false, TaskuService.normalizarTitulo(filtro.titulo()),
+                    filtro.creadaDesde(), filtro.creadaHasta(), filtro.modificadaDesde(), filtro.modificadaHasta(),
+                    null, despuesDe, tamanoBloque);
+            BloqueCompletado bloque = QuarkusTransaction.requiringNew().call(() -> {
+                List<Long> ids = almacen.listarIds(pendientes);
+                // Las que otra transacción completó entre tanto no vuelven del UPDATE
+                List<Tasku> cambiadas = almacen.completar(ids);
+                for (Tasku tasku : cambiadas) {
+                    eventos.fire(TaskuCambio.actualizada(tasku, false));
+                }
+                almacen.liberarCargadas();
+                return new BloqueCompletado(ids, cambiadas.size());
+            });
+            completadas += bloque.completadas();
+            if (bloque.ids().size() < tamanoBloque) {
+                return completadas;
+            }
+            despuesDe = List.of(bloque.ids().get(bloque.ids().size() - 1));
+        }
+    }
+
+    private void validarTamano(List<?> elementos) {
+        if (elementos == null || elementos.isEmpty()) {
+            throw new IllegalArgumentException("El lote no puede estar vacío");
+        }
+        if (elementos.size() > maximo) {
+            throw new IllegalArgumentException("El lote supera el máximo de " + maximo + " elementos");
+        }
+    }
+
+    private Map<Long, Tasku> cargar(List<Long> ids) {
+        return almacen.buscarPorIds(ids).stream()
+                .collect(Collectors.toMap(Tasku::getId, Function.identity()));
+    }
+
+    private void procesarEnBloques(List<Integer> indices, ResultadoLote[] resultados,
+                                   Function<Integer, Long> idDe, Bloque bloque) {
+        for (int desde = 0; desde < indices.size(); desde += tamanoBloque) {
+            List<Integer> indicesBloque = indices.subList(desde, Math.min(desde + tamanoBloque, indices.size()));
+            try {
+                QuarkusTransaction.requiringNew().run(() -> {
+                    bloque.procesar(indicesBloque);
+                    almacen.liberarCargadas();
+                });
+            } catch (RuntimeException e) {
+                LOG.warnf(e, "Falló un bloque de %d elementos del lote", indicesBloque.size());
+                for (Integer indice : indicesBloque) {
+                    Long id = idDe != null ? idDe.apply(indice) : null;
+                    resultados[indice] = ResultadoLote.fallo(indice, id, 500, "Error al procesar el bloque: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface Bloque {
+        void procesar(List<Integer> indices);
+    }
+
+    private record BloqueCompletado(List<Long> ids, int completadas) {
+    }
+}
@@ -1,110 +1,347 @@
 package com.tasku.service;
 
+import com.tasku.almacen.AlmacenTaskus;
+import com.tasku.cache.TaskuCache;
+import com.tasku.dto.EstadisticasTaskus;
+import com.tasku.dto.TaskuParcial;
+import com.tasku.event.TaskuCambio;
+import com.tasku.indice.AtributoTasku;
+import com.tasku.indice.IndiceEstados;
 import com.tasku.model.Tasku;
-import com.tasku.repository.TaskuRepository;
+import com.tasku.replica.SoloLectura;
+import com.tasku.repository.ConsultaTaskus;
+import com.tasku.search.BuscadorTitulos;
+import io.micrometer.core.annotation.Timed;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
+/**
+ * Operaciones sobre las tareas. Cada método publica su duración en
+ * {@code tasku.servicio}; las llamadas que fallan llevan la etiqueta
+ * {@code exception} con el tipo de la excepción.
+ */
 @ApplicationScoped
+@Timed(value = "tasku.servicio", description = "Duración de cada método del servicio")
 public class TaskuService {
     
+    public static final int LIMITE_POR_DEFECTO = 100;
+    public static final int LIMITE_MAXIMO = 1000;
+    
+    @Inject
+    AlmacenTaskus almacen;
+    
+    @Inject
+    BuscadorTitulos buscador;
+    
+    @Inject
+    TaskuCache cache;
+    
+    @Inject
+    ContadoresTaskus contadores;
+    
     @Inject
-    TaskuRepository repository;
+    IndiceEstados indice;
     
+    @Inject
+    RelayCambios relay;
+    
+    @Inject
+    Event<TaskuCambio> eventos;
+    
+    @SoloLectura
     public List<Tasku> obtenerTodas() {
-        return repository.listAll();
+        return almacen.listarTodas();
+    }
+    
+    @SoloLectura
+    public List<Tasku> obtenerPagina(Boolean completada, String titulo, Long despuesDe, Integer limite) {
+        return almacen.listarPagina(completada, normalizarTitulo(titulo), despuesDe, limiteEfectivo(limite));
+    }
+    
+    /**
+     * Página de un listado con filtros combinados, orden y cursor, con solo
+     * los {@code campos} pedidos de cada tarea. Si solo filtra por estado, los
+     * ids de la página salen del índice de estados y las filas se leen por id.
+     */
+    @SoloLectura
+    public List<TaskuParcial> obtenerPagina(ConsultaTaskus consulta, Set<TaskuParcial.Campo> campos) {
+        ConsultaTaskus normalizada = normalizar(consulta);
+        if (normalizada.soloPorEstado()) {
+            List<TaskuParcial> pagina = paginaPorEstado(normalizada, campos);
+            if (pagina != null) {
+                return pagina;
+            }
+        }
+        return almacen.listar(normalizada, campos);
     }
     
+    @SoloLectura
+    @Transactional
+    public void recorrer(Boolean completada, String titulo, Consumer<Tasku> consumidor) {
+        almacen.recorrer(completada, normalizarTitulo(titulo), consumidor);
+    }
+    
+    @SoloLectura
+    @Transactional
+    public void recorrerCampos(ConsultaTaskus consulta, Set<TaskuParcial.Campo> campos,
+                               Consumer<TaskuParcial> consumidor) {
+        almacen.recorrerCampos(normalizar(consulta), campos, consumidor);
+    }
+    
+    // Sin @SoloLectura: lo que se lee aquí queda en la caché, y de una réplica con retraso quedaría viejo
     public Optional<Tasku> obtenerPorId(Long id) {
         if (id == null || id <= 0) {
             return Optional.empty();
         }
-        return repository.buscarPorId(id);
+        return cache.obtener(id, almacen::buscarPorId);
+    }
+    
+    /**
+     * Momento de la última escritura de la tarea, para responder a lecturas
+     * condicionales sin cargarla. Sin @SoloLectura, como {@link #obtenerPorId}:
+     * una réplica con retraso daría por buena una versión que ya no es la última.
+     */
+    public Optional<LocalDateTime> obtenerModificacion(Long id) {
+        if (id == null || id <= 0) {
+            return Optional.empty();
+        }
+        return almacen.buscarModificacion(id);
     }
     
+    @SoloLectura
     public List<Tasku> obtenerPorCompletada(Boolean completada) {
-        return repository.findByCompletada(completada);
+        return almacen.buscarPorCompletada(completada);
     }
     
+    @SoloLectura
     public List<Tasku> buscarPorTitulo(String titulo) {
         if (titulo == null || titulo.trim().isEmpty()) {
-            return repository.listAll();
+            return almacen.listarTodas();
         }
-        return repository.buscarPorTitulo(titulo.trim());
+        return almacen.buscarPorTitulo(titulo.trim());
+    }
+    
+    /**
+     * Búsqueda paginada por título, ordenada por relevancia.
+     */
+    @SoloLectura
+    public List<Tasku> buscar(String texto, int pagina, Integer tamano) {
+        String normalizado = normalizarTitulo(texto);
+        if (normalizado == null) {
+            throw new IllegalArgumentException("El texto de búsqueda es obligatorio");
+        }
+        int limite = limiteEfectivo(tamano);
+        return buscador.buscar(normalizado, Math.max(pagina, 0) * limite, limite);
     }
     
     @Transactional
     public Tasku crear(Tasku tasku) {
-        if (tasku == null) {
-            throw new IllegalArgumentException("La tarea no puede ser nula");
-        }
-        if (tasku.getTitulo() == null || tasku.getTitulo().trim().isEmpty()) {
-            throw new IllegalArgumentException("El título es obligatorio");
-        }
-        return repository.guardar(tasku);
+        validarNueva(tasku);
+        Tasku creada = almacen.guardar(tasku);
+        eventos.fire(TaskuCambio.creada(creada));
+        return creada;
     }
     
     @Transactional
     public Optional<Tasku> actualizar(Long id, Tasku taskuActualizada) {
+        return actualizar(id, taskuActualizada, null);
+    }
+    
+    /**
+     * Como {@link #actualizar(Long, Tasku)}, pero solo si la tarea actual cumple
+     * {@code precondicion} (If-Match); si no, lanza {@link PrecondicionFallidaException}.
+     * Con precondición la fila queda bloqueada desde la comprobación hasta el commit;
+     * sin ella la tarea se cambia sin leerla antes ({@link #escribirDirecto}).
+     */
+    @Transactional
+    public Optional<Tasku> actualizar(Long id, Tasku taskuActualizada, Predicate<Tasku> precondicion) {
         if (id == null || id <= 0) {
             return Optional.empty();
         }
         if (taskuActualizada == null) {
             throw new IllegalArgumentException("La tarea no puede ser nula");
         }
+        if (precondicion == null) {
+            return escribirDirecto(id, normalizarTitulo(taskuActualizada.getTitulo()),
+                    taskuActualizada.getDescripcion(), taskuActualizada.getCompletada());
+        }
         
-        Optional<Tasku> taskuExistente = repository.buscarPorId(id);
+        Optional<Tasku> taskuExistente = cargarParaEscribir(id, precondicion);
         if (taskuExistente.isEmpty()) {
             return Optional.empty();
         }
         
+        // Con Hibernate la entidad está gestionada y se escribe al confirmar, con su versión
         Tasku tasku = taskuExistente.get();
-        if (taskuActualizada.getTitulo() != null && !taskuActualizada.getTitulo().trim().isEmpty()) {
-            tasku.setTitulo(taskuActualizada.getTitulo().trim());
-        }
-        if (taskuActualizada.getDescripcion() != null) {
-            tasku.setDescripcion(taskuActualizada.getDescripcion());
-        }
-        if (taskuActualizada.getCompletada() != null) {
-            tasku.setCompletada(taskuActualizada.getCompletada());
-        }
-        
-        repository.persist(tasku);
+        Boolean completadaAnterior = tasku.getCompletada();
+        aplicarCambios(tasku, taskuActualizada);
+        almacen.guardarCambios(tasku);
+        eventos.fire(TaskuCambio.actualizada(tasku, completadaAnterior));
         return Optional.of(tasku);
     }
     
     @Transactional
     public boolean eliminar(Long id) {
+        return eliminar(id, null);
+    }
+    
+    @Transactional
+    public boolean eliminar(Long id, Predicate<Tasku> precondicion) {
         if (id == null || id <= 0) {
             return false;
         }
-        return repository.eliminarPorId(id);
+        Optional<Tasku> eliminada = precondicion == null
+                ? almacen.eliminarPorId(id)
+                : cargarParaEscribir(id, precondicion).map(tasku -> {
+                    almacen.eliminar(tasku);
+                    return tasku;
+                });
+        eliminada.ifPresent(tasku -> eventos.fire(TaskuCambio.eliminada(id, tasku.getCompletada())));
+        return eliminada.isPresent();
     }
     
     @Transactional
     public Optional<Tasku> marcarCompletada(Long id, Boolean completada) {
+        return marcarCompletada(id, completada, null);
+    }
+    
+    @Transactional
+    public Optional<Tasku> marcarCompletada(Long id, Boolean completada, Predicate<Tasku> precondicion) {
         if (id == null || id <= 0) {
             return Optional.empty();
         }
+        boolean estado = completada != null ? completada : true;
+        if (precondicion == null) {
+            return escribirDirecto(id, null, null, estado);
+        }
         
-        Optional<Tasku> tasku = repository.buscarPorId(id);
+        Optional<Tasku> tasku = cargarParaEscribir(id, precondicion);
         if (tasku.isEmpty()) {
             return Optional.empty();
         }
         
-        tasku.get().setCompletada(completada != null ? completada : true);
-        repository.persist(tasku.get());
+        Boolean completadaAnterior = tasku.get().getCompletada();
+        tasku.get().setCompletada(estado);
+        almacen.guardarCambios(tasku.get());
+        eventos.fire(TaskuCambio.actualizada(tasku.get(), completadaAnterior));
         return tasku;
     }
     
+    /**
+     * Estadísticas servidas desde los contadores en memoria, sin consultar la base de datos.
+     */
+    public EstadisticasTaskus obtenerEstadisticas() {
+        return contadores.leer();
+    }
+    
     public long contarCompletadas() {
-        return repository.contarPorCompletada(true);
+        return indice.contar(Map.of(AtributoTasku.COMPLETADA, true));
     }
     
     public long contarPendientes() {
-        return repository.contarPorCompletada(false);
+        return indice.contar(Map.of(AtributoTasku.COMPLETADA, false));
+    }
+    
+    /**
+     * La página de una consulta {@link ConsultaTaskus#soloPorEstado() solo por
+     * estado} con los ids del índice, o {@code null} si el índice puede no
+     * estar al día o alguna de sus tareas ya no está o ya no cumple el filtro.
+     * El índice solo ve los cambios una vez confirmados, los de otros nodos
+     * cuando llegan por el relevo, y no ve las filas de una carga hasta que se
+     * reconstruye; la lectura además puede ir a una réplica. En esos casos la
+     * página se pide al almacén.
+     */
+    private List<TaskuParcial> paginaPorEstado(ConsultaTaskus consulta, Set<TaskuParcial.Campo> campos) {
+        if (!indice.alDia() || !relay.alDia()) {
+            return null;
+        }
+        Long despuesDe = consulta.cursor().isEmpty() ? null : (Long) consulta.cursor().get(0);
+        List<Long> ids = indice.ids(Map.of(AtributoTasku.COMPLETADA, consulta.completada()), despuesDe,
+                consulta.orden().get(0).descendente(), consulta.limite());
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        List<TaskuParcial> pagina = almacen.listarEntreIds(consulta, ids, campos);
+        return pagina.size() == ids.size() ? pagina : null;
+    }
+    
+    /**
+     * Escribe los valores no nulos con una sola sentencia que devuelve la fila
+     * y el estado anterior de {@code completada}, que hace falta para el
+     * evento, sin SELECT previo.
+     */
+    private Optional<Tasku> escribirDirecto(Long id, String titulo, String descripcion, Boolean completada) {
+        Optional<AlmacenTaskus.Actualizacion> actualizacion =
+                almacen.actualizarDirecto(id, titulo, descripcion, completada);
+        actualizacion.ifPresent(cambio -> eventos.fire(TaskuCambio.actualizada(cambio.tasku(),
+                cambio.completadaAnterior())));
+        return actualizacion.map(AlmacenTaskus.Actualizacion::tasku);
+    }
+    
+    private Optional<Tasku> cargarParaEscribir(Long id, Predicate<Tasku> precondicion) {
+        if (precondicion == null) {
+            return almacen.buscarPorId(id);
+        }
+        Optional<Tasku> tasku = almacen.buscarPorIdParaActualizar(id);
+        tasku.ifPresent(actual -> comprobar(precondicion, actual));
+        return tasku;
+    }
+    
+    static void comprobar(Predicate<Tasku> precondicion, Tasku actual) {
+        if (precondicion != null && !precondicion.test(actual)) {
+            throw new PrecondicionFallidaException(actual);
+        }
+    }
+    
+    static void validarNueva(Tasku tasku) {
+        if (tasku == null) {
+            throw new IllegalArgumentException("La tarea no puede ser nula");
+        }
+        if (tasku.getTitulo() == null || tasku.getTitulo().trim().isEmpty()) {
+            throw new IllegalArgumentException("El título es obligatorio");
+        }
+    }
+    
+    static void aplicarCambios(Tasku tasku, Tasku cambios) {
+        if (cambios.getTitulo() != null && !cambios.getTitulo().trim().isEmpty()) {
+            tasku.setTitulo(cambios.getTitulo().trim());
+        }
+        if (cambios.getDescripcion() != null) {
+            tasku.setDescripcion(cambios.getDescripcion());
+        }
+        if (cambios.getCompletada() != null) {
+            tasku.setCompletada(cambios.getCompletada());
+        }
+    }
+    
+    static String normalizarTitulo(String titulo) {
+        if (titulo == null || titulo.trim().isEmpty()) {
+            return null;
+        }
+        return titulo.trim();
+    }
+    
+    /**
+     * La consulta como se ejecuta: título sin espacios alrededor y límite ya
+     * aplicado. Dos consultas normalizadas iguales devuelven lo mismo.
+     */
+    public static ConsultaTaskus normalizar(ConsultaTaskus consulta) {
+        return consulta.conTituloYLimite(normalizarTitulo(consulta.titulo()), limiteEfectivo(consulta.limite()));
+    }
+    
+    public static int limiteEfectivo(Integer limite) {
+        if (limite == null || limite <= 0) {
+            return LIMITE_POR_DEFECTO;
+        }
+        return Math.min(limite, LIMITE_MAXIMO);
     }
 }
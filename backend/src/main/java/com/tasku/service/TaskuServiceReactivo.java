@@ -0,0 +1,156 @@
+package com.tasku.service;
+
+import com.tasku.dto.EstadisticasTaskus;
+import com.tasku.dto.TaskuParcial;
+import com.tasku.event.TaskuCambio;
+import com.tasku.model.Tasku;
+import com.tasku.repository.ConsultaTaskus;
+import com.tasku.repository.TaskuRepositoryReactivo;
+import io.quarkus.arc.properties.IfBuildProperty;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Versión no bloqueante de {@link TaskuService}, con las mismas validaciones.
+ * Se activa con {@code tasku.persistencia=reactiva}.
+ *
+ * <p>Los cambios se publican después de confirmarse en la base de datos. Como
+ * no hay transacción JTA, los observadores de {@link TaskuCambio} se notifican
+ * en el acto, cada uno en su orden de prioridad.
+ */
+@ApplicationScoped
+@IfBuildProperty(name = "tasku.persistencia", stringValue = "reactiva")
+public class TaskuServiceReactivo {
+
+    @Inject
+    TaskuRepositoryReactivo repository;
+
+    @Inject
+    ContadoresTaskus contadores;
+
+    @Inject
+    Event<TaskuCambio> eventos;
+
+    public Uni<List<Tasku>> obtenerPagina(Boolean completada, String titulo, Long despuesDe, Integer limite) {
+        return repository.listarPagina(completada, TaskuService.normalizarTitulo(titulo), despuesDe,
+                TaskuService.limiteEfectivo(limite));
+    }
+
+    public Uni<List<TaskuParcial>> obtenerPagina(ConsultaTaskus consulta, Set<TaskuParcial.Campo> campos) {
+        return repository.listar(TaskuService.normalizar(consulta), campos);
+    }
+
+    public Multi<Tasku> recorrer(Boolean completada, String titulo) {
+        return repository.recorrer(completada, TaskuService.normalizarTitulo(titulo));
+    }
+
+    public Multi<TaskuParcial> recorrerCampos(ConsultaTaskus consulta, Set<TaskuParcial.Campo> campos) {
+        return repository.recorrerCampos(TaskuService.normalizar(consulta), campos);
+    }
+
+    public Uni<Optional<Tasku>> obtenerPorId(Long id) {
+        if (id == null || id <= 0) {
+            return Uni.createFrom().item(Optional.empty());
+        }
+        return repository.buscarPorId(id);
+    }
+
+    public Uni<Optional<LocalDateTime>> obtenerModificacion(Long id) {
+        if (id == null || id <= 0) {
+            return Uni.createFrom().item(Optional.empty());
+        }
+        return repository.buscarModificacion(id);
+    }
+
+    public Uni<List<Tasku>> buscar(String texto, int pagina, Integer tamano) {
+        String normalizado = TaskuService.normalizarTitulo(texto);
+        if (normalizado == null) {
+            return Uni.createFrom().failure(new IllegalArgumentException("El texto de búsqueda es obligatorio"));
+        }
+        int limite = TaskuService.limiteEfectivo(tamano);
+        return repository.buscarPorTitulo(normalizado, Math.max(pagina, 0) * limite, limite);
+    }
+
+    public Uni<Tasku> crear(Tasku tasku) {
+        try {
+            TaskuService.validarNueva(tasku);
+        } catch (IllegalArgumentException e) {
+            return Uni.createFrom().failure(e);
+        }
+        return repository.guardar(tasku)
+                .invoke(creada -> eventos.fire(TaskuCambio.creada(creada)));
+    }
+
+    public Uni<Optional<Tasku>> actualizar(Long id, Tasku taskuActualizada) {
+        return actualizar(id, taskuActualizada, null);
+    }
+
+    /**
+     * Como {@link TaskuService#actualizar(Long, Tasku, Predicate)}: la
+     * precondición se comprueba con la fila ya bloqueada y, si no se cumple, el
+     * Uni falla con {@link PrecondicionFallidaException}.
+     */
+    public Uni<Optional<Tasku>> actualizar(Long id, Tasku taskuActualizada, Predicate<Tasku> precondicion) {
+        if (id == null || id <= 0) {
+            return Uni.createFrom().item(Optional.empty());
+        }
+        if (taskuActualizada == null) {
+            return Uni.createFrom().failure(new IllegalArgumentException("La tarea no puede ser nula"));
+        }
+        return publicar(repository.actualizar(id, tasku -> {
+            TaskuService.comprobar(precondicion, tasku);
+            TaskuService.aplicarCambios(tasku, taskuActualizada);
+        }));
+    }
+
+    public Uni<Boolean> eliminar(Long id) {
+        return eliminar(id, null);
+    }
+
+    public Uni<Boolean> eliminar(Long id, Predicate<Tasku> precondicion) {
+        if (id == null || id <= 0) {
+            return Uni.createFrom().item(false);
+        }
+        Uni<Optional<Tasku>> eliminacion = precondicion == null
+                ? repository.eliminarPorId(id)
+                : repository.eliminarPorId(id, tasku -> TaskuService.comprobar(precondicion, tasku));
+        return eliminacion
+                .map(eliminada -> {
+                    eliminada.ifPresent(tasku -> eventos.fire(TaskuCambio.eliminada(id, tasku.getCompletada())));
+                    return eliminada.isPresent();
+                });
+    }
+
+    public Uni<Optional<Tasku>> marcarCompletada(Long id, Boolean completada) {
+        return marcarCompletada(id, completada, null);
+    }
+
+    public Uni<Optional<Tasku>> marcarCompletada(Long id, Boolean completada, Predicate<Tasku> precondicion) {
+        if (id == null || id <= 0) {
+            return Uni.createFrom().item(Optional.empty());
+        }
+        return publicar(repository.actualizar(id, tasku -> {
+            TaskuService.comprobar(precondicion, tasku);
+            tasku.setCompletada(completada != null ? completada : true);
+        }));
+    }
+
+    public Uni<EstadisticasTaskus> obtenerEstadisticas() {
+        return Uni.createFrom().item(contadores::leer);
+    }
+
+    private Uni<Optional<Tasku>> publicar(Uni<Optional<TaskuCambio>> cambio) {
+        return cambio.map(confirmado -> {
+            confirmado.ifPresent(eventos::fire);
+            return confirmado.map(TaskuCambio::tasku);
+        });
+    }
+}
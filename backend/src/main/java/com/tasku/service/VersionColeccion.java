@@ -0,0 +1,59 @@
+package com.tasku.service;
+
+import com.tasku.event.CambioReplicado;
+import com.tasku.event.TaskuCambio;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Versión de la colección de tareas para las lecturas condicionales de
+ * {@code GET /api/taskus}: cambia con cada escritura confirmada.
+ *
+ * <p>La etiqueta incluye un prefijo aleatorio por arranque, para que dos
+ * procesos nunca den la misma etiqueta a contenidos distintos. Las escrituras
+ * de otros nodos la cambian cuando llegan por el registro de cambios.
+ *
+ * <p>Quien la use debe leerla antes de consultar los datos: si se leyera
+ * después, una escritura confirmada entre medias dejaría datos viejos asociados
+ * a la etiqueta nueva.
+ */
+@ApplicationScoped
+public class VersionColeccion {
+
+    private static final String ARRANQUE = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+    private final AtomicReference<Version> actual = new AtomicReference<>(new Version(0, Instant.now()));
+
+    void registrar(@Observes(during = TransactionPhase.AFTER_SUCCESS) TaskuCambio cambio) {
+        avanzar();
+    }
+
+    void replicar(@Observes CambioReplicado replicado) {
+        if (!replicado.esLocal()) {
+            avanzar();
+        }
+    }
+
+    public Version leer() {
+        return actual.get();
+    }
+
+    /**
+     * Cambia la versión sin que haya un {@link TaskuCambio}, para escrituras
+     * que no los publican, como las importaciones.
+     */
+    public void avanzar() {
+        Instant ahora = Instant.now();
+        actual.updateAndGet(version -> new Version(version.numero() + 1, ahora));
+    }
+
+    public record Version(long numero, Instant modificada) {
+
+        public String etiqueta() {
+            return ARRANQUE + "-" + numero;
+        }
+    }
+}
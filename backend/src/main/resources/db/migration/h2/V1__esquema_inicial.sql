@@ -0,0 +1,31 @@
+-- Esquema de tareas en H2, para desarrollo y tests. Mismas tablas que la
+-- migración de PostgreSQL; H2 no tiene índices parciales ni de trigramas.
+
+CREATE SEQUENCE IF NOT EXISTS taskus_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS taskus (
+    id                  BIGINT       NOT NULL PRIMARY KEY,
+    fecha_creacion      TIMESTAMP(6) NOT NULL,
+    fecha_actualizacion TIMESTAMP(6),
+    completada          BOOLEAN      DEFAULT FALSE NOT NULL,
+    titulo              VARCHAR(255) NOT NULL,
+    descripcion         VARCHAR(1000)
+);
+
+-- La secuencia sigue por encima de los ids que ya hubiera (ver la migración de PostgreSQL)
+ALTER SEQUENCE taskus_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM taskus);
+
+-- Listado paginado por cursor y findByCompletada: WHERE completada = ? AND id > ? ORDER BY id
+CREATE INDEX IF NOT EXISTS idx_taskus_completada_id ON taskus (completada, id);
+
+CREATE TABLE IF NOT EXISTS taskus_cambios (
+    secuencia           BIGINT       GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    tasku_id            BIGINT       NOT NULL,
+    registrado_en       TIMESTAMP(6) NOT NULL,
+    completada_anterior BOOLEAN,
+    tipo                VARCHAR(20)  NOT NULL,
+    origen              VARCHAR(64)  NOT NULL,
+    datos               VARCHAR(4000)
+);
+
+CREATE INDEX IF NOT EXISTS idx_taskus_cambios_registrado ON taskus_cambios (registrado_en);
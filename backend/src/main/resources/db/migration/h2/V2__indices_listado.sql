@@ -0,0 +1,4 @@
+-- Listado con orden. H2 no tiene índices sobre expresiones: el orden por fecha
+-- de modificación recorre la tabla
+CREATE INDEX IF NOT EXISTS idx_taskus_creacion ON taskus (fecha_creacion, id);
+CREATE INDEX IF NOT EXISTS idx_taskus_titulo ON taskus (titulo, id);
@@ -0,0 +1,2 @@
+-- Versión de cada tarea para el bloqueo optimista (@Version de Tasku)
+ALTER TABLE taskus ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
@@ -0,0 +1,7 @@
+-- Punto de control de cada importación, como en PostgreSQL
+CREATE TABLE IF NOT EXISTS taskus_importaciones (
+    id          VARCHAR(64)  NOT NULL PRIMARY KEY,
+    filas       BIGINT       DEFAULT 0 NOT NULL,
+    actualizada TIMESTAMP(6) NOT NULL,
+    terminada   BOOLEAN      DEFAULT FALSE NOT NULL
+);
@@ -0,0 +1,12 @@
+-- Claves de idempotencia, como en PostgreSQL
+CREATE TABLE IF NOT EXISTS taskus_idempotencia (
+    clave      VARCHAR(255)     NOT NULL PRIMARY KEY,
+    huella     VARCHAR(64)      NOT NULL,
+    estado     INTEGER,
+    cuerpo     VARCHAR(1048576),
+    cabeceras  VARCHAR(2000),
+    creada     TIMESTAMP(6)     NOT NULL,
+    terminada  TIMESTAMP(6)
+);
+
+CREATE INDEX IF NOT EXISTS idx_taskus_idempotencia_creada ON taskus_idempotencia (creada);
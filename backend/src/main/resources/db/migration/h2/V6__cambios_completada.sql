@@ -0,0 +1,2 @@
+-- Estado de completada después de cada cambio, como en PostgreSQL
+ALTER TABLE taskus_cambios ADD COLUMN IF NOT EXISTS completada BOOLEAN;
@@ -0,0 +1,54 @@
+-- Esquema de tareas en PostgreSQL. Las sentencias admiten un esquema ya creado
+-- por Hibernate (database.generation=update): Flyway lo toma como versión 0 y
+-- esta migración solo añade lo que falte.
+
+-- Ids en bloques de 50, igual que Tasku.BLOQUE_IDS
+CREATE SEQUENCE IF NOT EXISTS taskus_seq START WITH 1 INCREMENT BY 50;
+
+-- Columnas de ancho fijo de 8 bytes primero, después el booleano y al final las
+-- de longitud variable: así no se pierde relleno de alineación en cada fila
+CREATE TABLE IF NOT EXISTS taskus (
+    id                  BIGINT       NOT NULL PRIMARY KEY,
+    fecha_creacion      TIMESTAMP(6) NOT NULL,
+    fecha_actualizacion TIMESTAMP(6),
+    completada          BOOLEAN      NOT NULL DEFAULT FALSE,
+    titulo              VARCHAR(255) NOT NULL,
+    descripcion         VARCHAR(1000)
+);
+
+-- Un esquema de Hibernate ya tiene filas con ids de IDENTITY: la secuencia sigue por
+-- encima de ellas. Con el optimizador pooled cada valor de la secuencia es el último id
+-- de su bloque, así que el primero tiene que ser el mayor id más Tasku.BLOQUE_IDS
+SELECT setval('taskus_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM taskus), false);
+
+-- Listado paginado por cursor y findByCompletada: WHERE completada = <literal>
+-- AND id > ? ORDER BY id. Un índice parcial por estado es la mitad de grande que
+-- uno compuesto (completada, id); las consultas escriben el estado como literal
+-- para que el planificador pueda usarlo también con planes genéricos
+CREATE INDEX IF NOT EXISTS idx_taskus_pendientes ON taskus (id) WHERE completada = FALSE;
+CREATE INDEX IF NOT EXISTS idx_taskus_completadas ON taskus (id) WHERE completada = TRUE;
+
+-- Búsqueda y filtro por título: lower(titulo) LIKE '%texto%'. Sin pg_trgm la
+-- migración sigue adelante y la búsqueda recorre la tabla
+DO $$
+BEGIN
+    CREATE EXTENSION IF NOT EXISTS pg_trgm;
+    CREATE INDEX IF NOT EXISTS idx_taskus_titulo_trgm ON taskus USING gin (lower(titulo) gin_trgm_ops);
+EXCEPTION WHEN OTHERS THEN
+    RAISE WARNING 'No se pudo crear el índice de trigramas, la búsqueda recorrerá la tabla: %', SQLERRM;
+END
+$$;
+
+-- Registro de cambios (outbox). La secuencia se asigna al insertar
+CREATE TABLE IF NOT EXISTS taskus_cambios (
+    secuencia           BIGINT       GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    tasku_id            BIGINT       NOT NULL,
+    registrado_en       TIMESTAMP(6) NOT NULL,
+    completada_anterior BOOLEAN,
+    tipo                VARCHAR(20)  NOT NULL,
+    origen              VARCHAR(64)  NOT NULL,
+    datos               VARCHAR(4000)
+);
+
+-- Purga por antigüedad
+CREATE INDEX IF NOT EXISTS idx_taskus_cambios_registrado ON taskus_cambios (registrado_en);
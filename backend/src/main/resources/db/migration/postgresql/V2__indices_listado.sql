@@ -0,0 +1,9 @@
+-- Listado con orden (parámetro orden de GET /taskus). Cada índice termina en id,
+-- el desempate del orden, así sirve tanto para el ORDER BY como para la cota del
+-- cursor de la página siguiente, en los dos sentidos del recorrido
+CREATE INDEX IF NOT EXISTS idx_taskus_creacion ON taskus (fecha_creacion, id);
+CREATE INDEX IF NOT EXISTS idx_taskus_titulo ON taskus (titulo, id);
+
+-- La fecha de modificación es la de la última escritura; la expresión es la misma
+-- que escribe la consulta para que el planificador la reconozca
+CREATE INDEX IF NOT EXISTS idx_taskus_modificacion ON taskus ((coalesce(fecha_actualizacion, fecha_creacion)), id);
@@ -0,0 +1,3 @@
+-- Versión de cada tarea para el bloqueo optimista (@Version de Tasku). Las filas
+-- que ya existen empiezan en 0; cada UPDATE, de Hibernate o escrito a mano, la suma
+ALTER TABLE taskus ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
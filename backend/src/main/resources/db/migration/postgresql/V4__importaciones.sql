@@ -0,0 +1,9 @@
+-- Punto de control de cada importación de POST /taskus/import: filas ya
+-- confirmadas, que se actualiza en la misma transacción que cada bloque. Un
+-- reintento con el mismo id salta esas filas y sigue desde ahí
+CREATE TABLE IF NOT EXISTS taskus_importaciones (
+    id          VARCHAR(64)  NOT NULL PRIMARY KEY,
+    filas       BIGINT       NOT NULL DEFAULT 0,
+    actualizada TIMESTAMP(6) NOT NULL,
+    terminada   BOOLEAN      NOT NULL DEFAULT FALSE
+);
@@ -0,0 +1,16 @@
+-- Claves de idempotencia (cabecera Idempotency-Key) de las altas y los lotes: la
+-- respuesta que se dio, para devolverla otra vez si la petición se repite. Sin
+-- estado la petición está en curso. La respuesta se guarda en la misma
+-- transacción que la escritura, así no hay alta sin respuesta ni al revés
+CREATE TABLE IF NOT EXISTS taskus_idempotencia (
+    clave      VARCHAR(255) NOT NULL PRIMARY KEY,
+    huella     VARCHAR(64)  NOT NULL,
+    estado     INTEGER,
+    cuerpo     TEXT,
+    cabeceras  VARCHAR(2000),
+    creada     TIMESTAMP(6) NOT NULL,
+    terminada  TIMESTAMP(6)
+);
+
+-- Purga de las caducadas: WHERE creada < ?
+CREATE INDEX IF NOT EXISTS idx_taskus_idempotencia_creada ON taskus_idempotencia (creada);
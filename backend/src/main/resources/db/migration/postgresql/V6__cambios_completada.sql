@@ -0,0 +1,4 @@
+-- Estado de completada después de cada cambio, nulo en las eliminaciones. Con
+-- completada_anterior dice qué cambios pasaron una tarea a completada, que es
+-- lo que cuenta /estadisticas como completadas del día
+ALTER TABLE taskus_cambios ADD COLUMN IF NOT EXISTS completada BOOLEAN;
@@ -0,0 +1,33 @@
+package com.tasku;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Las tareas en el almacén de log, en un directorio nuevo en cada ejecución.
+ * La base de datos H2 sigue haciendo falta para el registro de cambios.
+ */
+public class AlmacenLogTestProfile extends H2TestProfile {
+
+    private static final String DIRECTORIO = directorioTemporal();
+
+    @Override
+    public Map<String, String> getConfigOverrides() {
+        Map<String, String> propiedades = new HashMap<>(super.getConfigOverrides());
+        propiedades.put("tasku.almacen.motor", "log");
+        propiedades.put("tasku.almacen.log.directorio", DIRECTORIO);
+        propiedades.put("tasku.almacen.log.sincronizar", "false");
+        return propiedades;
+    }
+
+    private static String directorioTemporal() {
+        try {
+            return Files.createTempDirectory("tasku-almacen").toString();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
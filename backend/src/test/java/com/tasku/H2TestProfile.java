@@ -13,7 +13,8 @@ public class H2TestProfile implements QuarkusTestProfile {
             "quarkus.datasource.jdbc.url", "jdbc:h2:mem:testdb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
             "quarkus.datasource.username", "sa",
             "quarkus.datasource.password", "sa",
-            "quarkus.hibernate-orm.database.generation", "drop-and-create",
+            "quarkus.flyway.clean-at-start", "true",
+            "quarkus.hibernate-orm.database.generation", "validate",
             "quarkus.hibernate-orm.log.sql", "false"
         );
     }
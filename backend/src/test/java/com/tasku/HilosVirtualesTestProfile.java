@@ -0,0 +1,14 @@
+package com.tasku;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class HilosVirtualesTestProfile extends H2TestProfile {
+
+    @Override
+    public Map<String, String> getConfigOverrides() {
+        Map<String, String> propiedades = new HashMap<>(super.getConfigOverrides());
+        propiedades.put("tasku.hilos", "virtuales");
+        return propiedades;
+    }
+}
@@ -0,0 +1,99 @@
+package com.tasku;
+
+import com.tasku.model.Tasku;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Las migraciones sobre un esquema que ya creó Hibernate con
+ * {@code database.generation=update}: ids de IDENTITY y filas. Flyway lo toma
+ * como versión 0, como en application.properties, y las tareas nuevas tienen
+ * que recibir ids que no estén usados.
+ */
+class MigracionesTest {
+
+    private static final int FILAS = 120;
+
+    @Test
+    void testMigrar_EsquemaDeHibernateConFilasEnH2() throws SQLException {
+        // Given
+        String url = "jdbc:h2:mem:migraciones;DB_CLOSE_DELAY=-1";
+        ejecutar(url, "sa", "sa",
+                "CREATE TABLE taskus (id BIGINT GENERATED BY DEFAULT AS IDENTITY, completada BOOLEAN NOT NULL, "
+                        + "fecha_actualizacion TIMESTAMP(6), fecha_creacion TIMESTAMP(6) NOT NULL, "
+                        + "descripcion VARCHAR(1000), titulo VARCHAR(255) NOT NULL, PRIMARY KEY (id))",
+                "INSERT INTO taskus (completada, fecha_creacion, titulo) "
+                        + "SELECT FALSE, CURRENT_TIMESTAMP, 'Tarea ' || X FROM SYSTEM_RANGE(1, " + FILAS + ")");
+
+        // When
+        migrar(url, "sa", "sa", "classpath:db/migration/h2");
+
+        // Then
+        assertThat(primerIdDelBloque(url, "sa", "sa", "SELECT NEXT VALUE FOR taskus_seq")).isGreaterThan(FILAS);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "tasku.test.postgres", matches = "true")
+    void testMigrar_EsquemaDeHibernateConFilasEnPostgres() throws SQLException {
+        // Given: en un esquema propio, para no tocar el de los demás tests
+        String base = "jdbc:postgresql://localhost:5432/" + PostgresTestProfile.BASE_DATOS;
+        ejecutar(base, "admin", "Admin123",
+                "DROP SCHEMA IF EXISTS migraciones CASCADE",
+                "CREATE SCHEMA migraciones");
+        String url = base + "?currentSchema=migraciones";
+        ejecutar(url, "admin", "Admin123",
+                "CREATE TABLE taskus (id BIGINT GENERATED BY DEFAULT AS IDENTITY, completada BOOLEAN NOT NULL, "
+                        + "fecha_actualizacion TIMESTAMP(6), fecha_creacion TIMESTAMP(6) NOT NULL, "
+                        + "descripcion VARCHAR(1000), titulo VARCHAR(255) NOT NULL, PRIMARY KEY (id))",
+                "INSERT INTO taskus (completada, fecha_creacion, titulo) "
+                        + "SELECT FALSE, now(), 'Tarea ' || n FROM generate_series(1, " + FILAS + ") n");
+
+        // When
+        migrar(url, "admin", "Admin123", "classpath:db/migration/postgresql");
+
+        // Then
+        assertThat(primerIdDelBloque(url, "admin", "Admin123", "SELECT nextval('taskus_seq')")).isGreaterThan(FILAS);
+    }
+
+    private static void migrar(String url, String usuario, String clave, String ubicacion) {
+        Flyway.configure()
+                .dataSource(url, usuario, clave)
+                .locations(ubicacion)
+                .baselineOnMigrate(true)
+                .baselineVersion("0")
+                .load()
+                .migrate();
+    }
+
+    /**
+     * El primer id del bloque que reservaría ahora Hibernate: con el
+     * optimizador pooled el valor de la secuencia es el último del bloque.
+     */
+    private static long primerIdDelBloque(String url, String usuario, String clave, String siguiente)
+            throws SQLException {
+        try (Connection conexion = DriverManager.getConnection(url, usuario, clave);
+             Statement sentencia = conexion.createStatement();
+             ResultSet resultado = sentencia.executeQuery(siguiente)) {
+            resultado.next();
+            return resultado.getLong(1) - Tasku.BLOQUE_IDS + 1;
+        }
+    }
+
+    private static void ejecutar(String url, String usuario, String clave, String... sentencias) throws SQLException {
+        try (Connection conexion = DriverManager.getConnection(url, usuario, clave);
+             Statement sentencia = conexion.createStatement()) {
+            for (String sql : sentencias) {
+                sentencia.execute(sql);
+            }
+        }
+    }
+}
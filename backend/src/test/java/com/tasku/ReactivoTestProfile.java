@@ -0,0 +1,31 @@
+package com.tasku;
+
+import io.quarkus.test.junit.QuarkusTestProfile;
+
+import java.util.Map;
+
+/**
+ * Pila reactiva sobre el PostgreSQL de docker/docker-compose.yml. Los tests que
+ * lo usan solo se ejecutan con {@code -Dtasku.test.postgres=true}, contra la base
+ * {@code -Dtasku.test.postgres.bd} ({@code taskudb} si no se indica): la limpian al
+ * arrancar.
+ */
+public class ReactivoTestProfile implements QuarkusTestProfile {
+
+    static final String BASE_DATOS = System.getProperty("tasku.test.postgres.bd", "taskudb");
+
+    @Override
+    public Map<String, String> getConfigOverrides() {
+        return Map.of(
+            "tasku.persistencia", "reactiva",
+            "quarkus.datasource.db-kind", "postgresql",
+            "quarkus.datasource.jdbc.url", "jdbc:postgresql://localhost:5432/" + BASE_DATOS,
+            "quarkus.datasource.reactive.url", "postgresql://localhost:5432/" + BASE_DATOS,
+            "quarkus.datasource.username", "admin",
+            "quarkus.datasource.password", "Admin123",
+            "quarkus.flyway.clean-at-start", "true",
+            "quarkus.hibernate-orm.database.generation", "validate",
+            "tasku.busqueda.motor", "postgres"
+        );
+    }
+}
@@ -0,0 +1,28 @@
+package com.tasku;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Primaria y réplica en dos bases H2 distintas, sin replicación entre ellas: lo
+ * que se lea de la réplica es lo que el test haya puesto allí.
+ */
+public class ReplicaTestProfile extends H2TestProfile {
+
+    @Override
+    public Map<String, String> getConfigOverrides() {
+        Map<String, String> propiedades = new HashMap<>(super.getConfigOverrides());
+        propiedades.put("quarkus.hibernate-orm.multitenant", "DATABASE");
+        propiedades.put("quarkus.hibernate-orm.database.generation", "none");
+        propiedades.put("quarkus.datasource.replica.db-kind", "h2");
+        propiedades.put("quarkus.datasource.replica.jdbc.url", "jdbc:h2:mem:replicadb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE");
+        propiedades.put("quarkus.datasource.replica.username", "sa");
+        propiedades.put("quarkus.datasource.replica.password", "sa");
+        propiedades.put("quarkus.flyway.replica.migrate-at-start", "true");
+        propiedades.put("quarkus.flyway.replica.clean-at-start", "true");
+        propiedades.put("quarkus.flyway.replica.locations", "db/migration/h2");
+        // La prueba decide cuándo se mide el retraso
+        propiedades.put("tasku.replica.intervalo-retraso", "off");
+        return propiedades;
+    }
+}
@@ -0,0 +1,74 @@
+package com.tasku.almacen;
+
+import com.tasku.H2TestProfile;
+import com.tasku.event.CambioReplicado;
+import com.tasku.event.TaskuCambio;
+import com.tasku.model.RegistroCambio;
+import com.tasku.model.Tasku;
+import com.tasku.repository.RegistroCambioRepository;
+import com.tasku.repository.TaskuRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * El contrato de {@link AlmacenTaskus} sobre {@link TaskuRepository} y H2.
+ */
+@QuarkusTest
+@TestProfile(H2TestProfile.class)
+class AlmacenJdbcTest extends ContratoAlmacenTaskus {
+
+    @Inject
+    TaskuRepository repository;
+
+    @Inject
+    RegistroCambioRepository registro;
+
+    @Test
+    void testContarResumen_LoDelDiaDelRegistro() {
+        // Given
+        LocalDateTime inicio = Tasku.ahora();
+        long ultima = QuarkusTransaction.requiringNew().call(registro::ultimaSecuencia);
+        Tasku tasku = new Tasku("Registro", null);
+        tasku.setId(1L);
+        tasku.setCompletada(true);
+
+        // When: un alta completada, una que se completa, una que se reabre y una baja
+        List<Long> secuencias = QuarkusTransaction.requiringNew().call(() -> Stream.of(
+                        TaskuCambio.creada(tasku), TaskuCambio.actualizada(tasku, false),
+                        TaskuCambio.actualizada(tasku, true), TaskuCambio.eliminada(1L, true))
+                .map(cambio -> {
+                    // Locales, para que el relevo no los aplique a nada al entregarlos
+                    RegistroCambio fila = new RegistroCambio(cambio, null, CambioReplicado.ORIGEN_LOCAL);
+                    registro.persist(fila);
+                    return fila.getSecuencia();
+                })
+                .toList());
+        AlmacenTaskus.Resumen resumen = enTransaccion(() -> repository.contarResumen(inicio,
+                List.of(new RegistroCambio.Tramo(ultima + 2, ultima + 3), RegistroCambio.Tramo.despuesDe(ultima + 3))));
+
+        // Then
+        assertThat(resumen.creadas()).isEqualTo(1);
+        assertThat(resumen.completadasDesde()).isEqualTo(2);
+        assertThat(resumen.sinEntregar()).containsExactlyInAnyOrderElementsOf(secuencias.subList(1, 4));
+    }
+
+    @Override
+    protected AlmacenTaskus almacen() {
+        return repository;
+    }
+
+    @Override
+    protected <T> T enTransaccion(Supplier<T> paso) {
+        return QuarkusTransaction.requiringNew().call(paso::get);
+    }
+}
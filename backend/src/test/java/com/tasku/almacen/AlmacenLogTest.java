@@ -0,0 +1,260 @@
+package com.tasku.almacen;
+
+import com.tasku.model.Tasku;
+import com.tasku.repository.ConsultaTaskus;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * El contrato de {@link AlmacenTaskus} sobre {@link AlmacenLog}, más lo propio
+ * del log: reabrirlo, recuperarse de una escritura a medias, compactarlo y
+ * deshacer lo escrito en una transacción que no se confirma.
+ */
+class AlmacenLogTest extends ContratoAlmacenTaskus {
+
+    @TempDir
+    Path directorio;
+
+    private AlmacenLog almacen;
+
+    @BeforeEach
+    void abrir() {
+        almacen = abrirAlmacen();
+    }
+
+    @AfterEach
+    void cerrar() {
+        almacen.cerrar();
+    }
+
+    @Override
+    protected AlmacenTaskus almacen() {
+        return almacen;
+    }
+
+    @Test
+    void testReabrir_ReconstruyeElIndice() {
+        // Given
+        Tasku cambiada = almacen.guardar(new Tasku("Cambiada", null));
+        Tasku eliminada = almacen.guardar(new Tasku("Eliminada", null));
+        almacen.actualizarDirecto(cambiada.getId(), null, "Nueva descripción", true);
+        almacen.eliminarPorId(eliminada.getId());
+
+        // When
+        almacen.cerrar();
+        almacen = abrirAlmacen();
+
+        // Then
+        assertThat(almacen.listarTodas()).singleElement().satisfies(tasku -> {
+            assertThat(tasku.getId()).isEqualTo(cambiada.getId());
+            assertThat(tasku.getDescripcion()).isEqualTo("Nueva descripción");
+            assertThat(tasku.getCompletada()).isTrue();
+            assertThat(tasku.getVersion()).isEqualTo(1L);
+        });
+        assertThat(almacen.contarPorCompletada(true)).isEqualTo(1);
+        assertThat(almacen.guardar(new Tasku("Nueva", null)).getId()).isGreaterThan(eliminada.getId());
+    }
+
+    @Test
+    void testReabrir_DescartaLaEscrituraIncompleta() throws Exception {
+        // Given: la última escritura se quedó a medias al caer el proceso
+        Tasku completa = almacen.guardar(new Tasku("Completa", null));
+        long antes = almacen.tamanoLog();
+        almacen.guardar(new Tasku("A medias", "Descripción"));
+        long despues = almacen.tamanoLog();
+        almacen.cerrar();
+        try (RandomAccessFile archivo = new RandomAccessFile(directorio.resolve(AlmacenLog.ARCHIVO).toFile(), "rw")) {
+            archivo.seek((antes + despues) / 2);
+            archivo.write(new byte[] {1, 2, 3});
+        }
+
+        // When
+        almacen = abrirAlmacen();
+        Tasku siguiente = almacen.guardar(new Tasku("Siguiente", null));
+        almacen.cerrar();
+        almacen = abrirAlmacen();
+
+        // Then
+        assertThat(almacen.listarTodas()).extracting(Tasku::getTitulo).containsExactly("Completa", "Siguiente");
+        assertThat(siguiente.getId()).isGreaterThan(completa.getId());
+    }
+
+    @Test
+    void testCompactar_ConservaLasVivasYLosIds() {
+        // Given
+        for (int i = 0; i < 10; i++) {
+            Tasku tasku = almacen.guardar(new Tasku("Tarea " + i, null));
+            for (int j = 0; j < 5; j++) {
+                almacen.actualizarDirecto(tasku.getId(), null, "Versión " + j, null);
+            }
+        }
+        List<Tasku> todas = almacen.listarTodas();
+        almacen.eliminarPorId(todas.get(0).getId());
+        almacen.eliminarPorId(todas.get(9).getId());
+        long antes = almacen.tamanoLog();
+
+        // When
+        almacen.compactar();
+
+        // Then
+        assertThat(almacen.tamanoLog()).isLessThan(antes / 4);
+        almacen.cerrar();
+        almacen = abrirAlmacen();
+        assertThat(almacen.listarTodas()).hasSize(8).allSatisfy(tasku ->
+                assertThat(tasku.getDescripcion()).isEqualTo("Versión 4"));
+        // El id más alto se eliminó, pero no se vuelve a usar
+        assertThat(almacen.guardar(new Tasku("Nueva", null)).getId()).isGreaterThan(todas.get(9).getId());
+    }
+
+    @Test
+    void testGuardarCambios_VersionAntigua() {
+        // Given
+        Tasku guardada = almacen.guardar(new Tasku("Tarea", null));
+        Tasku primera = almacen.buscarPorIdParaActualizar(guardada.getId()).orElseThrow();
+        Tasku segunda = almacen.buscarPorIdParaActualizar(guardada.getId()).orElseThrow();
+        primera.setCompletada(true);
+        almacen.guardarCambios(primera);
+
+        // When / Then
+        segunda.setTitulo("Otro título");
+        assertThatThrownBy(() -> almacen.guardarCambios(segunda)).isInstanceOf(OptimisticLockException.class);
+        assertThatThrownBy(() -> almacen.eliminar(segunda)).isInstanceOf(OptimisticLockException.class);
+        assertThat(almacen.buscarPorId(guardada.getId())).hasValueSatisfying(tasku ->
+                assertThat(tasku.getTitulo()).isEqualTo("Tarea"));
+    }
+
+    @Test
+    void testGuardarCambios_SinCambiosNoEscribe() {
+        // Given
+        Tasku guardada = almacen.guardar(new Tasku("Tarea", null));
+        long antes = almacen.tamanoLog();
+
+        // When
+        almacen.guardarCambios(almacen.buscarPorIdParaActualizar(guardada.getId()).orElseThrow());
+
+        // Then
+        assertThat(almacen.tamanoLog()).isEqualTo(antes);
+    }
+
+    @Test
+    void testTransaccionNoConfirmada_DeshaceSusEscrituras() {
+        // Given
+        Tasku existente = almacen.guardar(new Tasku("Existente", null));
+        Map<Object, Object> recursos = new HashMap<>();
+        TransactionSynchronizationRegistry registro = mock(TransactionSynchronizationRegistry.class);
+        when(registro.getTransactionKey()).thenReturn("transaccion");
+        when(registro.getResource(any())).thenAnswer(invocacion -> recursos.get(invocacion.getArgument(0)));
+        doAnswer(invocacion -> recursos.put(invocacion.getArgument(0), invocacion.getArgument(1)))
+                .when(registro).putResource(any(), any());
+        almacen.transacciones = registro;
+
+        // When
+        Tasku nueva = almacen.guardar(new Tasku("Nueva", null));
+        almacen.actualizarDirecto(nueva.getId(), null, null, true);
+        almacen.actualizarDirecto(existente.getId(), "Cambiada", null, true);
+        almacen.eliminarPorId(existente.getId());
+        ArgumentCaptor<Synchronization> sincronizacion = ArgumentCaptor.forClass(Synchronization.class);
+        verify(registro).registerInterposedSynchronization(sincronizacion.capture());
+        sincronizacion.getValue().afterCompletion(Status.STATUS_ROLLEDBACK);
+
+        // Then
+        assertThat(almacen.listarTodas()).singleElement().satisfies(tasku -> {
+            assertThat(tasku.getId()).isEqualTo(existente.getId());
+            assertThat(tasku.getTitulo()).isEqualTo("Existente");
+            assertThat(tasku.getCompletada()).isFalse();
+        });
+        assertThat(almacen.contarPorCompletada(true)).isZero();
+    }
+
+    @Test
+    void testReabrir_SaltaLasTransaccionesSinConfirmar() {
+        // Given: una transacción confirmada y otra a medias al caer el proceso
+        Map<Object, Object> recursos = new HashMap<>();
+        TransactionSynchronizationRegistry registro = mock(TransactionSynchronizationRegistry.class);
+        when(registro.getTransactionKey()).thenReturn("transaccion");
+        when(registro.getResource(any())).thenAnswer(invocacion -> recursos.get(invocacion.getArgument(0)));
+        doAnswer(invocacion -> recursos.put(invocacion.getArgument(0), invocacion.getArgument(1)))
+                .when(registro).putResource(any(), any());
+        almacen.transacciones = registro;
+        Tasku confirmada = almacen.guardar(new Tasku("Confirmada", null));
+        terminar(registro, recursos, 1);
+        almacen.guardar(new Tasku("Sin confirmar", null));
+        almacen.actualizarDirecto(confirmada.getId(), "Cambiada sin confirmar", null, null);
+        almacen.cerrar();
+
+        // When: después, otra transacción que no reutiliza su número
+        almacen = abrirAlmacen();
+        almacen.transacciones = registro;
+        recursos.clear();
+        almacen.guardar(new Tasku("Después", null));
+        terminar(registro, recursos, 3);
+        almacen.cerrar();
+        almacen = abrirAlmacen();
+
+        // Then
+        assertThat(almacen.listarTodas()).extracting(Tasku::getTitulo).containsExactly("Confirmada", "Después");
+    }
+
+    @Test
+    void testRecorrer_PorLotesFueraDelCerrojo() {
+        // Given
+        int total = 2 * AlmacenLog.LOTE + 3;
+        for (int i = 0; i < total; i++) {
+            almacen.guardar(new Tasku(String.format("Tarea %04d", total - i), null));
+        }
+        ConsultaTaskus porId = new ConsultaTaskus(null, null, null, null, null, null,
+                ConsultaTaskus.parsearOrden("-id"), null, AlmacenLog.LOTE + 5);
+        ConsultaTaskus porTitulo = new ConsultaTaskus(null, null, null, null, null, null,
+                ConsultaTaskus.parsearOrden("titulo"), null, 3);
+
+        // When: una escritura desde el consumidor no espera al recorrido
+        List<Tasku> recorridas = new ArrayList<>();
+        almacen.recorrer(null, null, tasku -> {
+            if (recorridas.isEmpty()) {
+                almacen.guardar(new Tasku("Escrita al recorrer", null));
+            }
+            recorridas.add(tasku);
+        });
+
+        // Then: la escrita sale en un lote posterior
+        assertThat(recorridas).hasSize(total + 1).extracting(Tasku::getId).isSorted();
+        assertThat(recorridas.get(total).getTitulo()).isEqualTo("Escrita al recorrer");
+        assertThat(almacen.listar(porId)).hasSize(AlmacenLog.LOTE + 5)
+                .extracting(Tasku::getId).isSortedAccordingTo(Comparator.reverseOrder());
+        assertThat(almacen.listar(porTitulo)).extracting(Tasku::getTitulo)
+                .containsExactly("Escrita al recorrer", "Tarea 0001", "Tarea 0002");
+    }
+
+    private static void terminar(TransactionSynchronizationRegistry registro, Map<Object, Object> recursos,
+                                 int transacciones) {
+        ArgumentCaptor<Synchronization> sincronizacion = ArgumentCaptor.forClass(Synchronization.class);
+        verify(registro, times(transacciones)).registerInterposedSynchronization(sincronizacion.capture());
+        sincronizacion.getValue().beforeCompletion();
+        sincronizacion.getValue().afterCompletion(Status.STATUS_COMMITTED);
+        recursos.clear();
+    }
+
+    private AlmacenLog abrirAlmacen() {
+        return AlmacenLog.abrir(directorio, true);
+    }
+}
@@ -0,0 +1,124 @@
+package com.tasku.almacen;
+
+import com.tasku.model.Tasku;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * El log por segmentos, con segmentos pequeños para que los registros tengan
+ * que saltar de uno a otro.
+ */
+class ArchivoLogTest {
+
+    private static final int SEGMENTO = 256;
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void testAbrir_RegistrosEnVariosSegmentos() throws IOException {
+        // Given
+        Path ruta = directorio.resolve("taskus.log");
+        try (ArchivoLog archivo = ArchivoLog.abrir(ruta, null, SEGMENTO)) {
+            for (long id = 1; id <= 40; id++) {
+                archivo.escribir(tasku(id), 0);
+            }
+            archivo.eliminar(7, 0);
+        }
+
+        // When
+        List<Long> leidas = new ArrayList<>();
+        List<Long> eliminadas = new ArrayList<>();
+        try (ArchivoLog archivo = ArchivoLog.abrir(ruta, lector(leidas, eliminadas), SEGMENTO)) {
+
+            // Then
+            assertThat(leidas).hasSize(40).isSorted();
+            assertThat(eliminadas).containsExactly(7L);
+            assertThat(archivo.descartados()).isZero();
+            assertThat(archivo.tamano()).isGreaterThan(10 * SEGMENTO);
+        }
+    }
+
+    @Test
+    void testAbrir_DescartaLaEscrituraIncompletaDeUnSegmentoPosterior() throws IOException {
+        // Given: el último registro, ya en otro segmento, se quedó a medias
+        Path ruta = directorio.resolve("taskus.log");
+        long antes;
+        long despues;
+        try (ArchivoLog archivo = ArchivoLog.abrir(ruta, null, SEGMENTO)) {
+            for (long id = 1; id <= 20; id++) {
+                archivo.escribir(tasku(id), 0);
+            }
+            antes = archivo.tamano();
+            archivo.escribir(tasku(21), 0);
+            despues = archivo.tamano();
+        }
+        try (RandomAccessFile archivo = new RandomAccessFile(ruta.toFile(), "rw")) {
+            archivo.seek(despues - 4);
+            archivo.write(new byte[] {1, 2, 3});
+        }
+
+        // When
+        List<Long> leidas = new ArrayList<>();
+        try (ArchivoLog archivo = ArchivoLog.abrir(ruta, lector(leidas, new ArrayList<>()), SEGMENTO)) {
+            archivo.escribir(tasku(22), 0);
+        }
+        leidas.clear();
+        try (ArchivoLog archivo = ArchivoLog.abrir(ruta, lector(leidas, new ArrayList<>()), SEGMENTO)) {
+
+            // Then
+            assertThat(leidas).hasSize(21).endsWith(20L, 22L);
+            assertThat(archivo.tamano()).isGreaterThan(antes);
+        }
+    }
+
+    @Test
+    void testReescribir_RespetaLosSegmentos() throws IOException {
+        // Given
+        Path ruta = directorio.resolve("taskus.log");
+        List<Tasku> taskus = new ArrayList<>();
+        for (long id = 1; id <= 40; id++) {
+            taskus.add(tasku(id));
+        }
+
+        // When
+        ArchivoLog.reescribir(ruta, 41, taskus, SEGMENTO);
+
+        // Then
+        List<Long> leidas = new ArrayList<>();
+        try (ArchivoLog archivo = ArchivoLog.abrir(ruta, lector(leidas, new ArrayList<>()), SEGMENTO)) {
+            assertThat(leidas).hasSize(40).isSorted();
+            assertThat(archivo.primerIdLibre()).isEqualTo(41);
+            assertThat(archivo.tamano()).isGreaterThan(10 * SEGMENTO);
+        }
+    }
+
+    private static Tasku tasku(long id) {
+        Tasku tasku = new Tasku("Tarea " + id, "Descripción de la tarea " + id);
+        tasku.setId(id);
+        tasku.setVersion(0L);
+        return tasku;
+    }
+
+    private static ArchivoLog.Lector lector(List<Long> leidas, List<Long> eliminadas) {
+        return new ArchivoLog.Lector() {
+            @Override
+            public void escrita(Tasku tasku) {
+                leidas.add(tasku.getId());
+            }
+
+            @Override
+            public void eliminada(long id) {
+                eliminadas.add(id);
+            }
+        };
+    }
+}
@@ -0,0 +1,302 @@
+package com.tasku.almacen;
+
+import com.tasku.dto.TaskuParcial;
+import com.tasku.model.Tasku;
+import com.tasku.repository.ConsultaTaskus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Lo que cualquier {@link AlmacenTaskus} tiene que cumplir. Cada subclase da
+ * su almacén y cómo envolver cada paso en una transacción. Los almacenes pueden
+ * tener ya tareas de otras pruebas: cada prueba filtra por un título propio y
+ * los recuentos se comparan con los de antes.
+ */
+abstract class ContratoAlmacenTaskus {
+
+    private String marca;
+
+    protected abstract AlmacenTaskus almacen();
+
+    protected <T> T enTransaccion(Supplier<T> paso) {
+        return paso.get();
+    }
+
+    @BeforeEach
+    void marcar() {
+        marca = "Contrato " + System.nanoTime();
+    }
+
+    @Test
+    void testGuardar_AsignaIdYSeLee() {
+        // When
+        Tasku guardada = guardar(marca, "Descripción", false);
+
+        // Then
+        assertThat(guardada.getId()).isNotNull();
+        Optional<Tasku> leida = enTransaccion(() -> almacen().buscarPorId(guardada.getId()));
+        assertThat(leida).hasValueSatisfying(tasku -> {
+            assertThat(tasku.getTitulo()).isEqualTo(marca);
+            assertThat(tasku.getDescripcion()).isEqualTo("Descripción");
+            assertThat(tasku.getCompletada()).isFalse();
+            assertThat(tasku.getFechaCreacion()).isEqualTo(guardada.getFechaCreacion());
+        });
+        assertThat(enTransaccion(() -> almacen().buscarModificacion(guardada.getId())))
+                .contains(guardada.getFechaCreacion());
+        assertThat(enTransaccion(() -> almacen().buscarPorId(Long.MAX_VALUE))).isEmpty();
+    }
+
+    @Test
+    void testListar_FiltrosOrdenYCursor() {
+        // Given
+        Tasku b = guardar(marca + " b", null, false);
+        Tasku a = guardar(marca + " a", null, false);
+        Tasku c = guardar(marca + " c", null, false);
+        Tasku completada = guardar(marca + " d", null, true);
+        ConsultaTaskus primera = new ConsultaTaskus(false, marca.toUpperCase(), null, null, null, null,
+                ConsultaTaskus.parsearOrden("titulo"), null, 2);
+
+        // When
+        List<Tasku> pagina = enTransaccion(() -> almacen().listar(primera));
+        ConsultaTaskus segunda = new ConsultaTaskus(false, marca, null, null, null, null, primera.orden(),
+                ConsultaTaskus.parsearCursor(primera.orden(), primera.cursorDespuesDe(pagina.get(1))), 2);
+
+        // Then
+        assertThat(pagina).extracting(Tasku::getId).containsExactly(a.getId(), b.getId());
+        assertThat(enTransaccion(() -> almacen().listar(segunda))).extracting(Tasku::getId)
+                .containsExactly(c.getId());
+        assertThat(enTransaccion(() -> almacen().listarIds(segunda))).containsExactly(c.getId());
+        assertThat(enTransaccion(() -> almacen().listarPagina(true, marca, null, 10))).extracting(Tasku::getId)
+                .containsExactly(completada.getId());
+        assertThat(enTransaccion(() -> almacen().listarPagina(null, marca, a.getId(), 10))).extracting(Tasku::getId)
+                .containsExactly(c.getId(), completada.getId());
+    }
+
+    @Test
+    void testListar_OrdenDescendenteYFechas() {
+        // Given
+        Tasku primera = guardar(marca + " 1", null, false);
+        Tasku segunda = guardar(marca + " 2", null, false);
+        LocalDateTime creadaDesde = segunda.getFechaCreacion();
+        ConsultaTaskus porId = new ConsultaTaskus(null, marca, null, null, null, null,
+                ConsultaTaskus.parsearOrden("-id"), null, 10);
+        ConsultaTaskus desde = new ConsultaTaskus(null, marca, creadaDesde, null, null, null, null, null, 10);
+
+        // When / Then
+        assertThat(enTransaccion(() -> almacen().listar(porId))).extracting(Tasku::getId)
+                .containsExactly(segunda.getId(), primera.getId());
+        assertThat(enTransaccion(() -> almacen().listar(desde))).extracting(Tasku::getId)
+                .contains(segunda.getId());
+    }
+
+    @Test
+    void testListar_Proyeccion() {
+        // Given
+        Tasku guardada = guardar(marca, "Descripción larga", false);
+        ConsultaTaskus consulta = ConsultaTaskus.porEstadoYTitulo(null, marca, null, 10);
+
+        // When
+        List<TaskuParcial> parciales = enTransaccion(() -> almacen().listar(consulta, TaskuParcial.RESUMEN));
+        List<TaskuParcial> recorridas = new ArrayList<>();
+        enTransaccion(() -> {
+            almacen().recorrerCampos(consulta, TaskuParcial.RESUMEN, recorridas::add);
+            return null;
+        });
+
+        // Then
+        assertThat(parciales).singleElement().satisfies(parcial -> {
+            assertThat(parcial.id()).isEqualTo(guardada.getId());
+            assertThat(parcial.titulo()).isEqualTo(marca);
+            assertThat(parcial.descripcion()).isNull();
+        });
+        assertThat(recorridas).isEqualTo(parciales);
+    }
+
+    @Test
+    void testListarEntreIds_SoloLasQueCumplenLaConsulta() {
+        // Given
+        Tasku primera = guardar(marca + " 1", "Descripción", true);
+        Tasku pendiente = guardar(marca + " 2", null, false);
+        Tasku tercera = guardar(marca + " 3", null, true);
+        ConsultaTaskus consulta = new ConsultaTaskus(true, null, null, null, null, null,
+                ConsultaTaskus.parsearOrden("-id"), List.of(tercera.getId()), 10);
+
+        // When
+        List<TaskuParcial> pagina = enTransaccion(() -> almacen().listarEntreIds(consulta,
+                List.of(primera.getId(), pendiente.getId(), tercera.getId(), Long.MAX_VALUE), TaskuParcial.RESUMEN));
+
+        // Then: ni la pendiente, ni la del cursor, ni la que no existe
+        assertThat(pagina).singleElement().satisfies(parcial -> {
+            assertThat(parcial.id()).isEqualTo(primera.getId());
+            assertThat(parcial.titulo()).isEqualTo(marca + " 1");
+            assertThat(parcial.descripcion()).isNull();
+        });
+    }
+
+    @Test
+    void testRecorrer_SinLimite() {
+        // Given
+        for (int i = 0; i < 5; i++) {
+            guardar(marca + " " + i, null, i % 2 == 0);
+        }
+
+        // When
+        List<Tasku> pendientes = new ArrayList<>();
+        enTransaccion(() -> {
+            almacen().recorrer(false, marca, pendientes::add);
+            return null;
+        });
+
+        // Then
+        assertThat(pendientes).extracting(Tasku::getTitulo).containsExactly(marca + " 1", marca + " 3");
+    }
+
+    @Test
+    void testBuscar_PorTituloEstadoEIds() {
+        // Given
+        Tasku pendiente = guardar(marca + " Factura", null, false);
+        Tasku completada = guardar(marca + " Otra", null, true);
+
+        // When / Then
+        assertThat(enTransaccion(() -> almacen().buscarPorTitulo(marca.toLowerCase() + " factura")))
+                .extracting(Tasku::getId).containsExactly(pendiente.getId());
+        assertThat(enTransaccion(() -> almacen().buscarPorCompletada(true))).extracting(Tasku::getId)
+                .contains(completada.getId()).doesNotContain(pendiente.getId());
+        assertThat(enTransaccion(() -> almacen().buscarPorCompletada(null))).isEmpty();
+        assertThat(enTransaccion(() -> almacen().buscarPorIds(List.of(pendiente.getId(), Long.MAX_VALUE))))
+                .extracting(Tasku::getId).containsExactly(pendiente.getId());
+        assertThat(enTransaccion(() -> almacen().listarTodas())).extracting(Tasku::getId)
+                .contains(pendiente.getId(), completada.getId());
+    }
+
+    @Test
+    void testActualizarDirecto_DevuelveElEstadoAnterior() {
+        // Given
+        Tasku guardada = guardar(marca, "Antes", false);
+
+        // When
+        Optional<AlmacenTaskus.Actualizacion> cambiada = enTransaccion(() ->
+                almacen().actualizarDirecto(guardada.getId(), marca + " después", null, true));
+        Optional<AlmacenTaskus.Actualizacion> igual = enTransaccion(() ->
+                almacen().actualizarDirecto(guardada.getId(), null, null, true));
+
+        // Then
+        assertThat(cambiada).hasValueSatisfying(cambio -> {
+            assertThat(cambio.completadaAnterior()).isFalse();
+            assertThat(cambio.tasku().getTitulo()).isEqualTo(marca + " después");
+            assertThat(cambio.tasku().getDescripcion()).isEqualTo("Antes");
+            assertThat(cambio.tasku().getCompletada()).isTrue();
+            assertThat(cambio.tasku().getFechaActualizacion()).isNotNull();
+        });
+        assertThat(igual).hasValueSatisfying(cambio -> {
+            assertThat(cambio.completadaAnterior()).isTrue();
+            assertThat(cambio.tasku().getVersion()).isEqualTo(cambiada.get().tasku().getVersion() + 1);
+        });
+        // Lo devuelto es lo que queda escrito
+        assertThat(enTransaccion(() -> almacen().buscarPorId(guardada.getId()))).hasValueSatisfying(tasku -> {
+            assertThat(tasku.getTitulo()).isEqualTo(marca + " después");
+            assertThat(tasku.getCompletada()).isTrue();
+            assertThat(tasku.getFechaCreacion()).isEqualTo(guardada.getFechaCreacion());
+            assertThat(tasku.getFechaActualizacion()).isEqualTo(igual.get().tasku().getFechaActualizacion());
+            assertThat(tasku.getVersion()).isEqualTo(igual.get().tasku().getVersion());
+        });
+        assertThat(enTransaccion(() -> almacen().actualizarDirecto(Long.MAX_VALUE, marca, null, null)))
+                .isEmpty();
+    }
+
+    @Test
+    void testGuardarCambios_TareaCargada() {
+        // Given
+        Tasku guardada = guardar(marca, null, false);
+
+        // When
+        enTransaccion(() -> {
+            Tasku tasku = almacen().buscarPorIdParaActualizar(guardada.getId()).orElseThrow();
+            tasku.setCompletada(true);
+            tasku.setDescripcion("Cambiada");
+            almacen().guardarCambios(tasku);
+            return null;
+        });
+
+        // Then
+        assertThat(enTransaccion(() -> almacen().buscarPorId(guardada.getId()))).hasValueSatisfying(tasku -> {
+            assertThat(tasku.getCompletada()).isTrue();
+            assertThat(tasku.getDescripcion()).isEqualTo("Cambiada");
+            assertThat(tasku.modificadaEn()).isAfterOrEqualTo(guardada.getFechaCreacion());
+        });
+    }
+
+    @Test
+    void testCompletar_SoloPendientes() {
+        // Given
+        Tasku pendiente = guardar(marca + " 1", null, false);
+        Tasku completada = guardar(marca + " 2", null, true);
+
+        // When
+        List<Tasku> cambiadas = enTransaccion(() ->
+                almacen().completar(List.of(pendiente.getId(), completada.getId())));
+
+        // Then
+        assertThat(cambiadas).extracting(Tasku::getId).containsExactly(pendiente.getId());
+        assertThat(cambiadas.get(0).getCompletada()).isTrue();
+        assertThat(enTransaccion(() -> almacen().completar(List.of()))).isEmpty();
+    }
+
+    @Test
+    void testEliminar() {
+        // Given
+        Tasku porId = guardar(marca + " 1", null, true);
+        Tasku cargada = guardar(marca + " 2", null, false);
+
+        // When
+        Optional<Tasku> eliminada = enTransaccion(() -> almacen().eliminarPorId(porId.getId()));
+        enTransaccion(() -> {
+            almacen().eliminar(almacen().buscarPorIdParaActualizar(cargada.getId()).orElseThrow());
+            return null;
+        });
+
+        // Then
+        assertThat(eliminada).hasValueSatisfying(tasku -> assertThat(tasku.getCompletada()).isTrue());
+        assertThat(enTransaccion(() -> almacen().buscarPorId(porId.getId()))).isEmpty();
+        assertThat(enTransaccion(() -> almacen().buscarPorId(cargada.getId()))).isEmpty();
+        assertThat(enTransaccion(() -> almacen().eliminarPorId(porId.getId()))).isEmpty();
+    }
+
+    @Test
+    void testContar() {
+        // Given: lo del día sale del registro de cambios, que no se escribe aquí
+        LocalDateTime inicio = Tasku.ahora();
+        long completadas = enTransaccion(() -> almacen().contarPorCompletada(true));
+        long pendientes = enTransaccion(() -> almacen().contarPorCompletada(false));
+        AlmacenTaskus.Resumen resumen = enTransaccion(() -> almacen().contarResumen(inicio, List.of()));
+
+        // When
+        guardar(marca + " 1", null, false);
+        Tasku segunda = guardar(marca + " 2", null, false);
+        enTransaccion(() -> almacen().actualizarDirecto(segunda.getId(), null, null, true));
+
+        // Then
+        assertThat(enTransaccion(() -> almacen().contarPorCompletada(true))).isEqualTo(completadas + 1);
+        assertThat(enTransaccion(() -> almacen().contarPorCompletada(false))).isEqualTo(pendientes + 1);
+        assertThat(enTransaccion(() -> almacen().contarResumen(inicio, List.of()))).satisfies(despues -> {
+            assertThat(despues.completadas()).isEqualTo(resumen.completadas() + 1);
+            assertThat(despues.pendientes()).isEqualTo(resumen.pendientes() + 1);
+        });
+    }
+
+    private Tasku guardar(String titulo, String descripcion, boolean completada) {
+        Tasku tasku = new Tasku(titulo, descripcion);
+        tasku.setCompletada(completada);
+        // Como una tarea nueva, que solo tiene fecha de actualización si se cambia después
+        tasku.setFechaActualizacion(null);
+        return enTransaccion(() -> almacen().guardar(tasku));
+    }
+}
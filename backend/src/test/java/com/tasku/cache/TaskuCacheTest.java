@@ -0,0 +1,98 @@
+package com.tasku.cache;
+
+import com.tasku.event.TaskuCambio;
+import com.tasku.model.Tasku;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TaskuCacheTest {
+
+    private TaskuCache cache;
+    private Tasku tasku;
+    private AtomicInteger cargas;
+    private Function<Long, Optional<Tasku>> cargador;
+
+    @BeforeEach
+    void setUp() {
+        cache = new TaskuCache();
+        cache.tamanoMaximo = 100;
+        cache.ttl = Duration.ofMinutes(5);
+        cache.iniciar();
+
+        tasku = new Tasku("Tarea", "Descripción");
+        tasku.setId(1L);
+        cargas = new AtomicInteger();
+        cargador = id -> {
+            cargas.incrementAndGet();
+            return Optional.of(tasku);
+        };
+    }
+
+    @Test
+    void testObtener_SegundaLecturaDesdeCache() {
+        // When
+        cache.obtener(1L, cargador);
+        Optional<Tasku> resultado = cache.obtener(1L, cargador);
+
+        // Then
+        assertThat(resultado).isPresent();
+        assertThat(resultado.get().getTitulo()).isEqualTo("Tarea");
+        assertThat(resultado.get()).isNotSameAs(tasku);
+        assertThat(cargas).hasValue(1);
+        assertThat(cache.aciertos()).isEqualTo(1);
+        assertThat(cache.fallos()).isEqualTo(1);
+    }
+
+    @Test
+    void testObtener_NoGuardaAusentes() {
+        // When
+        cache.obtener(2L, id -> Optional.empty());
+
+        // Then
+        assertThat(cache.tamano()).isZero();
+    }
+
+    @Test
+    void testCambioPendiente_LeeDeLaBaseDeDatos() {
+        // Given
+        TaskuCambio cambio = TaskuCambio.actualizada(tasku, false);
+        cache.obtener(1L, cargador);
+
+        // When
+        cache.marcarPendiente(cambio);
+        cache.obtener(1L, cargador);
+        cache.obtener(1L, cargador);
+
+        // Then
+        assertThat(cargas).hasValue(3);
+
+        // When
+        cache.liberarPendiente(cambio);
+        cache.obtener(1L, cargador);
+        cache.obtener(1L, cargador);
+
+        // Then
+        assertThat(cargas).hasValue(4);
+    }
+
+    @Test
+    void testObtener_NoGuardaLecturaInvalidadaDuranteLaCarga() {
+        // When
+        cache.obtener(1L, id -> {
+            // Un cambio se confirma mientras la lectura consulta la base de datos
+            cache.invalidar(id);
+            return Optional.of(tasku);
+        });
+        cache.obtener(1L, cargador);
+
+        // Then
+        assertThat(cargas).hasValue(1);
+    }
+}
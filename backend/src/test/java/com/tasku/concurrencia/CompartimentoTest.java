@@ -0,0 +1,83 @@
+package com.tasku.concurrencia;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CompartimentoTest {
+
+    private Compartimento compartimento;
+
+    @BeforeEach
+    void setUp() {
+        compartimento = new Compartimento(ClaseOperacion.BUSQUEDA, 1, 1, Duration.ofSeconds(5));
+    }
+
+    @Test
+    void testEntrar_ColaLlenaRechazaSinEsperar() throws Exception {
+        // Given: una en curso y otra esperando turno
+        compartimento.entrar();
+        Thread enCola = Thread.ofVirtual().start(() -> {
+            try {
+                compartimento.entrar();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        while (compartimento.enCola() == 0) {
+            Thread.onSpinWait();
+        }
+
+        // When
+        long inicio = System.nanoTime();
+        assertThatThrownBy(compartimento::entrar)
+                .isInstanceOf(ConcurrenciaAgotadaException.class)
+                .hasMessageContaining("busqueda");
+
+        // Then: el rechazo no esperó los cinco segundos
+        assertThat(Duration.ofNanos(System.nanoTime() - inicio)).isLessThan(Duration.ofSeconds(1));
+        compartimento.salir();
+        enCola.join(Duration.ofSeconds(5));
+        assertThat(compartimento.enCurso()).isEqualTo(1);
+    }
+
+    @Test
+    void testEntrar_TurnoQueNoLlegaRechazaTrasLaEspera() throws Exception {
+        // Given
+        Compartimento corto = new Compartimento(ClaseOperacion.LECTURA, 1, 5, Duration.ofMillis(50));
+        corto.entrar();
+
+        // When / Then
+        assertThatThrownBy(corto::entrar)
+                .isInstanceOf(ConcurrenciaAgotadaException.class)
+                .satisfies(e -> assertThat(((ConcurrenciaAgotadaException) e).getEspera())
+                        .isEqualTo(Duration.ofMillis(50)));
+        // El rechazado no se queda ocupando sitio en la cola
+        corto.salir();
+        corto.entrar();
+        assertThat(corto.enCurso()).isEqualTo(1);
+    }
+
+    @Test
+    void testCompartimentos_Independientes() throws Exception {
+        // Given: búsqueda saturada
+        Compartimento lectura = new Compartimento(ClaseOperacion.LECTURA, 1, 0, Duration.ofMillis(50));
+        compartimento.entrar();
+
+        // When
+        lectura.entrar();
+
+        // Then
+        assertThat(lectura.enCurso()).isEqualTo(1);
+    }
+
+    @Test
+    void testCrear_NoValido() {
+        assertThatThrownBy(() -> new Compartimento(ClaseOperacion.LECTURA, 0, 1, Duration.ofSeconds(1)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,167 @@
+package com.tasku.concurrencia;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LecturasCompartidasTest {
+
+    private LecturasCompartidas lecturas;
+    private SimpleMeterRegistry registro;
+
+    @BeforeEach
+    void setUp() {
+        registro = new SimpleMeterRegistry();
+        lecturas = new LecturasCompartidas();
+        lecturas.registro = registro;
+        lecturas.activas = true;
+        lecturas.espera = Duration.ofSeconds(5);
+        lecturas.iniciar();
+    }
+
+    @Test
+    void testLeer_IgualesALaVezEjecutanUnaSola() throws Exception {
+        // Given: la primera lectura no termina hasta que las demás están esperando
+        int peticiones = 8;
+        AtomicInteger ejecuciones = new AtomicInteger();
+        CountDownLatch dentro = new CountDownLatch(1);
+        CountDownLatch soltar = new CountDownLatch(1);
+        ExecutorService hilos = Executors.newVirtualThreadPerTaskExecutor();
+        List<Future<String>> resultados = new ArrayList<>();
+
+        try {
+            // When
+            resultados.add(hilos.submit(() -> lecturas.leer("pendientes", () -> {
+                ejecuciones.incrementAndGet();
+                dentro.countDown();
+                esperar(soltar);
+                return "pagina";
+            })));
+            dentro.await();
+            for (int i = 1; i < peticiones; i++) {
+                resultados.add(hilos.submit(() -> lecturas.leer("pendientes", () -> {
+                    ejecuciones.incrementAndGet();
+                    return "otra";
+                })));
+            }
+            while (lecturas.esperando() < peticiones - 1) {
+                Thread.sleep(1);
+            }
+            soltar.countDown();
+
+            // Then
+            for (Future<String> resultado : resultados) {
+                assertThat(resultado.get(5, TimeUnit.SECONDS)).isEqualTo("pagina");
+            }
+            assertThat(ejecuciones).hasValue(1);
+            assertThat(contador("ejecutada")).isEqualTo(1);
+            assertThat(contador("compartida")).isEqualTo(peticiones - 1);
+        } finally {
+            hilos.shutdownNow();
+        }
+    }
+
+    @Test
+    void testLeer_TerminadaNoSeGuarda() {
+        // Given
+        AtomicInteger ejecuciones = new AtomicInteger();
+
+        // When
+        lecturas.leer("pendientes", ejecuciones::incrementAndGet);
+        lecturas.leer("pendientes", ejecuciones::incrementAndGet);
+
+        // Then: cada lectura que llega sin otra en curso consulta de nuevo
+        assertThat(ejecuciones).hasValue(2);
+        assertThat(contador("compartida")).isZero();
+    }
+
+    @Test
+    void testLeer_EsperaAgotadaLeePorSuCuenta() throws Exception {
+        // Given
+        lecturas.espera = Duration.ofMillis(20);
+        CountDownLatch dentro = new CountDownLatch(1);
+        CountDownLatch soltar = new CountDownLatch(1);
+        Thread lenta = Thread.ofVirtual().start(() -> lecturas.leer("pendientes", () -> {
+            dentro.countDown();
+            esperar(soltar);
+            return "lenta";
+        }));
+        dentro.await();
+
+        // When
+        String resultado = lecturas.leer("pendientes", () -> "propia");
+
+        // Then
+        assertThat(resultado).isEqualTo("propia");
+        assertThat(contador("espera_agotada")).isEqualTo(1);
+        soltar.countDown();
+        lenta.join(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void testLeer_FalloSeComparte() throws Exception {
+        // Given
+        CountDownLatch dentro = new CountDownLatch(1);
+        CountDownLatch soltar = new CountDownLatch(1);
+        ExecutorService hilos = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            Future<Object> primera = hilos.submit(() -> lecturas.leer("pendientes", () -> {
+                dentro.countDown();
+                esperar(soltar);
+                throw new IllegalStateException("Base de datos caída");
+            }));
+            dentro.await();
+            Future<Object> segunda = hilos.submit(() -> lecturas.leer("pendientes", () -> "no se ejecuta"));
+            while (lecturas.esperando() < 1) {
+                Thread.sleep(1);
+            }
+
+            // When
+            soltar.countDown();
+
+            // Then
+            assertThatThrownBy(() -> primera.get(5, TimeUnit.SECONDS)).hasRootCauseMessage("Base de datos caída");
+            assertThatThrownBy(() -> segunda.get(5, TimeUnit.SECONDS)).hasRootCauseMessage("Base de datos caída");
+        } finally {
+            hilos.shutdownNow();
+        }
+    }
+
+    @Test
+    void testLeer_Desactivadas() {
+        // Given
+        lecturas.activas = false;
+
+        // When
+        String resultado = lecturas.leer("pendientes", () -> "directa");
+
+        // Then
+        assertThat(resultado).isEqualTo("directa");
+        assertThat(contador("ejecutada")).isZero();
+    }
+
+    private double contador(String resultado) {
+        return registro.get("tasku.lecturas.compartidas").tag("resultado", resultado).counter().count();
+    }
+
+    private static void esperar(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.tasku.concurrencia;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PermisosBaseDatosTest {
+
+    private PermisosBaseDatos permisos;
+
+    @BeforeEach
+    void setUp() {
+        permisos = new PermisosBaseDatos();
+        permisos.maximo = 2;
+        permisos.espera = Duration.ofMillis(50);
+        permisos.iniciar();
+    }
+
+    @Test
+    void testAdquirir_HastaElMaximo() throws InterruptedException {
+        permisos.adquirir();
+        permisos.adquirir();
+
+        assertThat(permisos.disponibles()).isZero();
+    }
+
+    @Test
+    void testAdquirir_AgotadoRechazaTrasLaEspera() throws InterruptedException {
+        permisos.adquirir();
+        permisos.adquirir();
+
+        assertThatThrownBy(permisos::adquirir)
+                .isInstanceOf(ConcurrenciaAgotadaException.class)
+                .satisfies(e -> assertThat(((ConcurrenciaAgotadaException) e).getEspera())
+                        .isEqualTo(Duration.ofMillis(50)));
+    }
+
+    @Test
+    void testLiberar_DevuelveElPermiso() throws InterruptedException {
+        permisos.adquirir();
+        permisos.adquirir();
+        permisos.liberar();
+
+        permisos.adquirir();
+
+        assertThat(permisos.disponibles()).isZero();
+    }
+
+    @Test
+    void testAdquirir_HiloVirtualEsperaElPermisoLiberado() throws Exception {
+        permisos.espera = Duration.ofSeconds(5);
+        permisos.adquirir();
+        permisos.adquirir();
+
+        Thread enEspera = Thread.ofVirtual().start(() -> {
+            try {
+                permisos.adquirir();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        while (permisos.enEspera() == 0) {
+            Thread.onSpinWait();
+        }
+        permisos.liberar();
+        enEspera.join(Duration.ofSeconds(5));
+
+        assertThat(enEspera.isAlive()).isFalse();
+        assertThat(permisos.disponibles()).isZero();
+    }
+}
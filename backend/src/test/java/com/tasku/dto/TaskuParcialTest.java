@@ -0,0 +1,58 @@
+package com.tasku.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TaskuParcialTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @Test
+    void testSerializar_SoloLosCamposPedidos() throws Exception {
+        // Given
+        TaskuParcial tasku = new TaskuParcial(
+                EnumSet.of(TaskuParcial.Campo.ID, TaskuParcial.Campo.FECHA_ACTUALIZACION),
+                5L, "No pedido", "Tampoco", false, LocalDateTime.of(2024, 1, 1, 10, 0), null);
+
+        // When
+        String json = objectMapper.writeValueAsString(tasku);
+
+        // Then
+        assertThat(json).isEqualTo("{\"id\":5,\"fechaActualizacion\":null}");
+    }
+
+    @Test
+    void testSerializar_Resumen() throws Exception {
+        // Given
+        TaskuParcial tasku = new TaskuParcial(TaskuParcial.RESUMEN, 5L, "Tarea", "Descripción", true,
+                LocalDateTime.of(2024, 1, 1, 10, 0), LocalDateTime.of(2024, 1, 2, 10, 0));
+
+        // When
+        String json = objectMapper.writeValueAsString(tasku);
+
+        // Then
+        assertThat(json).isEqualTo("{\"id\":5,\"titulo\":\"Tarea\",\"completada\":true,"
+                + "\"fechaCreacion\":\"2024-01-01T10:00:00\",\"fechaActualizacion\":\"2024-01-02T10:00:00\"}");
+    }
+
+    @Test
+    void testParsearCampos() {
+        assertThat(TaskuParcial.parsearCampos(null)).isEqualTo(TaskuParcial.RESUMEN);
+        assertThat(TaskuParcial.parsearCampos("titulo, ID,fechacreacion"))
+                .containsExactly(TaskuParcial.Campo.ID, TaskuParcial.Campo.TITULO, TaskuParcial.Campo.FECHA_CREACION);
+        assertThatThrownBy(() -> TaskuParcial.parsearCampos("id,prioridad"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> TaskuParcial.parsearCampos(","))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
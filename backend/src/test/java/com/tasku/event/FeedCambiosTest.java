@@ -0,0 +1,106 @@
+package com.tasku.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.smallrye.mutiny.helpers.test.AssertSubscriber;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FeedCambiosTest {
+
+    private FeedCambios feed;
+
+    @BeforeEach
+    void setUp() {
+        feed = new FeedCambios();
+        feed.objectMapper = new ObjectMapper();
+        feed.capacidad = 4;
+        feed.iniciar();
+    }
+
+    @Test
+    void testSuscribir_SoloEventosNuevos() {
+        feed.publicar("creada", "{\"id\":1}");
+        AssertSubscriber<EventoFeed> suscriptor = feed.suscribir(null)
+                .subscribe().withSubscriber(AssertSubscriber.create(10));
+
+        feed.publicar("actualizada", "{\"id\":1}");
+
+        List<EventoFeed> eventos = suscriptor.awaitItems(1).getItems();
+        assertThat(eventos).extracting(EventoFeed::tipo).containsExactly("actualizada");
+    }
+
+    @Test
+    void testSuscribir_ReanudaDesdeUltimoVisto() {
+        long primera = publicarVarios(3);
+
+        List<EventoFeed> eventos = feed.suscribir(primera)
+                .subscribe().withSubscriber(AssertSubscriber.create(10))
+                .awaitItems(2).getItems();
+
+        assertThat(eventos).extracting(EventoFeed::secuencia).containsExactly(primera + 1, primera + 2);
+    }
+
+    @Test
+    void testSuscribir_UltimoVistoFueraDelHistorial() {
+        long primera = publicarVarios(6);
+
+        EventoFeed evento = feed.suscribir(primera)
+                .subscribe().withSubscriber(AssertSubscriber.create(10))
+                .awaitItems(1).getItems().get(0);
+
+        assertThat(evento.tipo()).isEqualTo(EventoFeed.REINICIO);
+        assertThat(evento.secuencia()).isEqualTo(primera + 5);
+    }
+
+    @Test
+    void testSuscriptorLento_RecibeReinicioYContinua() {
+        AssertSubscriber<EventoFeed> suscriptor = feed.suscribir(null)
+                .subscribe().withSubscriber(AssertSubscriber.create(0));
+        long primera = publicarVarios(6);
+
+        EventoFeed reinicio = suscriptor.request(2).awaitItems(1).getItems().get(0);
+
+        // Se saltan los eventos que ya no caben en el historial
+        assertThat(reinicio.tipo()).isEqualTo(EventoFeed.REINICIO);
+        assertThat(reinicio.secuencia()).isEqualTo(primera + 5);
+        feed.publicar("eliminada", "{\"id\":1}");
+        assertThat(suscriptor.awaitItems(2).getItems().get(1).secuencia()).isEqualTo(primera + 6);
+    }
+
+    @Test
+    void testLatido_SoloConDemanda() {
+        AssertSubscriber<EventoFeed> conDemanda = feed.suscribir(null)
+                .subscribe().withSubscriber(AssertSubscriber.create(1));
+        AssertSubscriber<EventoFeed> sinDemanda = feed.suscribir(null)
+                .subscribe().withSubscriber(AssertSubscriber.create(0));
+
+        feed.latir();
+
+        assertThat(conDemanda.awaitItems(1).getItems().get(0).esLatido()).isTrue();
+        assertThat(sinDemanda.getItems()).isEmpty();
+    }
+
+    @Test
+    void testCancelar_QuitaLaSuscripcion() {
+        AssertSubscriber<EventoFeed> suscriptor = feed.suscribir(null)
+                .subscribe().withSubscriber(AssertSubscriber.create(1));
+        assertThat(feed.suscriptores()).isEqualTo(1);
+
+        suscriptor.cancel();
+
+        assertThat(feed.suscriptores()).isZero();
+    }
+
+    // Publica n eventos y devuelve la secuencia del primero
+    private long publicarVarios(int n) {
+        long primera = feed.ultimaSecuencia() + 1;
+        for (int i = 0; i < n; i++) {
+            feed.publicar("creada", "{\"id\":" + i + "}");
+        }
+        return primera;
+    }
+}
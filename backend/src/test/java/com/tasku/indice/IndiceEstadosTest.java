@@ -0,0 +1,110 @@
+package com.tasku.indice;
+
+import com.tasku.almacen.AlmacenTaskus;
+import com.tasku.dto.TaskuParcial;
+import com.tasku.event.CambioReplicado;
+import com.tasku.event.TaskuCambio;
+import com.tasku.model.Tasku;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class IndiceEstadosTest {
+
+    private static final Map<AtributoTasku, Boolean> COMPLETADAS = Map.of(AtributoTasku.COMPLETADA, true);
+    private static final Map<AtributoTasku, Boolean> PENDIENTES = Map.of(AtributoTasku.COMPLETADA, false);
+
+    private IndiceEstados indice;
+    private SimpleMeterRegistry registro;
+
+    @BeforeEach
+    void setUp() {
+        AlmacenTaskus almacen = mock(AlmacenTaskus.class);
+        // Tareas 1 a 10; las múltiplos de 3 completadas
+        doAnswer(invocacion -> {
+            Consumer<TaskuParcial> consumidor = invocacion.getArgument(2);
+            for (long id = 1; id <= 10; id++) {
+                consumidor.accept(new TaskuParcial(TaskuParcial.TODOS, id, null, null, id % 3 == 0, null, null));
+            }
+            return null;
+        }).when(almacen).recorrerCampos(any(), any(), any());
+        registro = new SimpleMeterRegistry();
+        indice = new IndiceEstados();
+        indice.almacen = almacen;
+        indice.registro = registro;
+        indice.iniciar();
+        indice.reconstruir();
+    }
+
+    @Test
+    void testContar() {
+        // When / Then
+        assertThat(indice.contar(COMPLETADAS)).isEqualTo(3);
+        assertThat(indice.contar(PENDIENTES)).isEqualTo(7);
+        assertThat(indice.contar(Map.of())).isEqualTo(10);
+        assertThat(indice.tamano()).isEqualTo(10);
+    }
+
+    @Test
+    void testIds_ConCursorEnLosDosSentidos() {
+        // When / Then
+        assertThat(indice.ids(PENDIENTES, null, false, 3)).containsExactly(1L, 2L, 4L);
+        assertThat(indice.ids(PENDIENTES, 4L, false, 3)).containsExactly(5L, 7L, 8L);
+        assertThat(indice.ids(COMPLETADAS, null, true, 10)).containsExactly(9L, 6L, 3L);
+        assertThat(indice.ids(COMPLETADAS, 6L, true, 10)).containsExactly(3L);
+    }
+
+    @Test
+    void testCambios_ActualizanElIndice() {
+        // Given
+        Tasku nueva = tasku(11L, true);
+        Tasku completada = tasku(1L, true);
+
+        // When
+        indice.actualizar(TaskuCambio.creada(nueva));
+        indice.actualizar(TaskuCambio.actualizada(completada, false));
+        indice.actualizar(TaskuCambio.eliminada(3L, true));
+        indice.replicar(new CambioReplicado(1, "otro nodo", TaskuCambio.eliminada(2L, false)));
+        // Los locales ya se aplicaron al confirmarse
+        indice.replicar(new CambioReplicado(2, CambioReplicado.ORIGEN_LOCAL, TaskuCambio.eliminada(4L, false)));
+
+        // Then
+        assertThat(indice.ids(COMPLETADAS, null, false, 10)).containsExactly(1L, 6L, 9L, 11L);
+        assertThat(indice.ids(PENDIENTES, null, false, 10)).containsExactly(4L, 5L, 7L, 8L, 10L);
+        assertThat(indice.contar(Map.of())).isEqualTo(9);
+    }
+
+    @Test
+    void testAlDia_NoDuranteUnaCarga() {
+        // When
+        indice.empezarCarga();
+
+        // Then
+        assertThat(indice.alDia()).isFalse();
+        indice.terminarCarga();
+        assertThat(indice.alDia()).isTrue();
+    }
+
+    @Test
+    void testMemoria_SeReporta() {
+        // When / Then
+        assertThat(indice.bytes()).isPositive();
+        assertThat(registro.get("tasku.indice.estados.bytes").gauge().value()).isEqualTo(indice.bytes());
+        assertThat(registro.get("tasku.indice.estados.tareas").gauge().value()).isEqualTo(10.0);
+    }
+
+    private static Tasku tasku(long id, boolean completada) {
+        Tasku tasku = new Tasku("Tarea " + id, null);
+        tasku.setId(id);
+        tasku.setCompletada(completada);
+        return tasku;
+    }
+}
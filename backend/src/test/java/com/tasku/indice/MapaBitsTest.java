@@ -0,0 +1,119 @@
+package com.tasku.indice;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MapaBitsTest {
+
+    @Test
+    void testAgregarYQuitar() {
+        // Given
+        MapaBits mapa = new MapaBits();
+
+        // When
+        boolean nuevo = mapa.agregar(5L);
+        boolean repetido = mapa.agregar(5L);
+        mapa.agregar(70_000L);
+
+        // Then
+        assertThat(nuevo).isTrue();
+        assertThat(repetido).isFalse();
+        assertThat(mapa.cardinalidad()).isEqualTo(2);
+        assertThat(mapa.contiene(70_000L)).isTrue();
+        assertThat(mapa.quitar(5L)).isTrue();
+        assertThat(mapa.quitar(5L)).isFalse();
+        assertThat(mapa.contiene(5L)).isFalse();
+        assertThat(mapa.cardinalidad()).isEqualTo(1);
+    }
+
+    @Test
+    void testBloqueDenso_PasaAMapaDeBitsYVuelve() {
+        // Given: un bloque entero de ids seguidos
+        MapaBits mapa = new MapaBits();
+        for (long id = 0; id < 65_536; id++) {
+            mapa.agregar(id);
+        }
+        long denso = mapa.bytes();
+
+        // When
+        for (long id = 0; id < 65_000; id++) {
+            mapa.quitar(id);
+        }
+
+        // Then: un bit por id cuando es denso, dos bytes por id cuando ya no
+        assertThat(denso).isLessThan(65_536 / 8 + 1024);
+        assertThat(mapa.cardinalidad()).isEqualTo(536);
+        assertThat(mapa.bytes()).isLessThan(denso);
+        assertThat(ids(mapa, null, false)).first().isEqualTo(65_000L);
+    }
+
+    @Test
+    void testRecorrer_EnLosDosSentidosDesdeUnCursor() {
+        // Given
+        MapaBits mapa = new MapaBits();
+        for (long id : new long[] {3, 10, 65_535, 65_536, 200_000}) {
+            mapa.agregar(id);
+        }
+
+        // When / Then
+        assertThat(ids(mapa, null, false)).containsExactly(3L, 10L, 65_535L, 65_536L, 200_000L);
+        assertThat(ids(mapa, 10L, false)).containsExactly(65_535L, 65_536L, 200_000L);
+        assertThat(ids(mapa, 100_000L, false)).containsExactly(200_000L);
+        assertThat(ids(mapa, null, true)).containsExactly(200_000L, 65_536L, 65_535L, 10L, 3L);
+        assertThat(ids(mapa, 65_536L, true)).containsExactly(65_535L, 10L, 3L);
+        assertThat(ids(mapa, 150_000L, true)).containsExactly(65_536L, 65_535L, 10L, 3L);
+        assertThat(ids(mapa, 3L, true)).isEmpty();
+    }
+
+    @Test
+    void testOperaciones_IgualQueUnConjunto() {
+        // Given: densidades distintas para mezclar listas y mapas de bits
+        Random aleatorio = new Random(42);
+        MapaBits a = new MapaBits();
+        MapaBits b = new MapaBits();
+        NavigableSet<Long> conjuntoA = new TreeSet<>();
+        NavigableSet<Long> conjuntoB = new TreeSet<>();
+        for (int i = 0; i < 200_000; i++) {
+            long id = aleatorio.nextInt(400_000);
+            if (id < 200_000 || aleatorio.nextInt(20) == 0) {
+                a.agregar(id);
+                conjuntoA.add(id);
+            }
+            long otro = aleatorio.nextInt(400_000);
+            if (otro >= 100_000 || aleatorio.nextInt(50) == 0) {
+                b.agregar(otro);
+                conjuntoB.add(otro);
+            }
+        }
+        for (int i = 0; i < 50_000; i++) {
+            long id = aleatorio.nextInt(400_000);
+            assertThat(a.quitar(id)).isEqualTo(conjuntoA.remove(id));
+        }
+        NavigableSet<Long> comunes = new TreeSet<>(conjuntoA);
+        comunes.retainAll(conjuntoB);
+
+        // When
+        MapaBits y = MapaBits.y(a, b);
+
+        // Then
+        assertThat(a.cardinalidad()).isEqualTo(conjuntoA.size());
+        assertThat(ids(a, null, false)).containsExactlyElementsOf(conjuntoA);
+        assertThat(ids(a, null, true)).containsExactlyElementsOf(conjuntoA.descendingSet());
+        assertThat(MapaBits.contarY(a, b)).isEqualTo(comunes.size());
+        assertThat(y.cardinalidad()).isEqualTo(comunes.size());
+        assertThat(ids(y, 150_000L, false)).containsExactlyElementsOf(comunes.tailSet(150_000L, false));
+    }
+
+    private static List<Long> ids(MapaBits mapa, Long despuesDe, boolean descendente) {
+        List<Long> ids = new ArrayList<>();
+        mapa.recorrer(despuesDe, descendente, ids::add);
+        return ids;
+    }
+}
@@ -0,0 +1,102 @@
+package com.tasku.intercambio;
+
+import com.tasku.model.Tasku;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+class CsvTaskusTest {
+
+    @Test
+    void testEscribirYLeer_ConservaLosValores() throws IOException {
+        // Given
+        Tasku rara = tasku(1L, "Con \"comillas\", coma", "Dos\r\nlíneas", true,
+                LocalDateTime.of(2024, 1, 2, 3, 4, 5, 123_456_000), LocalDateTime.of(2024, 2, 3, 4, 5, 6));
+        Tasku vacia = tasku(2L, "Vacía", "", false, LocalDateTime.of(2024, 1, 2, 3, 4), null);
+        Tasku nula = tasku(3L, "Nula", null, false, LocalDateTime.of(2024, 1, 2, 3, 4), null);
+
+        // When
+        String csv = escribir(rara, vacia, nula);
+        List<Tasku> leidas = leer(csv);
+
+        // Then
+        assertThat(csv).startsWith(CsvTaskus.CABECERA + "\n")
+                .contains("\n1,\"Con \"\"comillas\"\", coma\",\"Dos\r\nlíneas\",true,2024-01-02 03:04:05.123456,2024-02-03 04:05:06\n")
+                .contains("\n2,Vacía,\"\",false,2024-01-02 03:04:00,\n")
+                .endsWith("\n3,Nula,,false,2024-01-02 03:04:00,\n");
+        assertThat(leidas).usingRecursiveFieldByFieldElementComparator().containsExactly(rara, vacia, nula);
+    }
+
+    @Test
+    void testLeer_FormatoDeCopyYColumnasEnOtroOrden() throws IOException {
+        // Given: como lo escribe COPY de PostgreSQL, con las columnas cambiadas de sitio
+        String csv = "titulo,id,completada,fecha_creacion,otra\r\n"
+                + "Primera,7,t,2024-01-02 03:04:05.5,x\r\n"
+                + "Segunda,8,f,2024-01-02T03:04:05,\r\n";
+
+        // When
+        List<Tasku> leidas = leer(csv);
+
+        // Then
+        assertThat(leidas).extracting(Tasku::getId, Tasku::getTitulo, Tasku::getCompletada, Tasku::getFechaActualizacion)
+                .containsExactly(
+                        tuple(7L, "Primera", true, null),
+                        tuple(8L, "Segunda", false, null));
+        assertThat(leidas.get(0).getFechaCreacion()).isEqualTo(LocalDateTime.of(2024, 1, 2, 3, 4, 5, 500_000_000));
+        assertThat(leidas.get(1).getDescripcion()).isNull();
+    }
+
+    @Test
+    void testLeer_FilaNoValida() {
+        assertThatThrownBy(() -> leer(CsvTaskus.CABECERA + "\n1,Buena,,false,,\n2,Mala,,quizá,,\n"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("Fila 2:");
+        assertThatThrownBy(() -> leer(CsvTaskus.CABECERA + "\n1,\"Sin cerrar,,false,,\n"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("comillas sin cerrar");
+        assertThatThrownBy(() -> leer(CsvTaskus.CABECERA + "\n1,Fecha,,false,ayer,\n"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Fila 1: fecha no válida: ayer");
+    }
+
+    private static String escribir(Tasku... taskus) throws IOException {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        CsvTaskus.Escritor escritor = new CsvTaskus.Escritor(salida);
+        escritor.cabecera();
+        for (Tasku tasku : taskus) {
+            escritor.escribir(tasku);
+        }
+        escritor.flush();
+        return salida.toString(StandardCharsets.UTF_8);
+    }
+
+    private static List<Tasku> leer(String csv) throws IOException {
+        List<Tasku> leidas = new ArrayList<>();
+        try (LectorTaskus lector = new CsvTaskus.Lector(new StringReader(csv))) {
+            for (Tasku tasku = lector.siguiente(); tasku != null; tasku = lector.siguiente()) {
+                leidas.add(tasku);
+            }
+        }
+        return leidas;
+    }
+
+    private static Tasku tasku(Long id, String titulo, String descripcion, boolean completada,
+                               LocalDateTime creada, LocalDateTime actualizada) {
+        Tasku tasku = new Tasku(titulo, descripcion);
+        tasku.setId(id);
+        tasku.setCompletada(completada);
+        tasku.setFechaCreacion(creada);
+        tasku.setFechaActualizacion(actualizada);
+        return tasku;
+    }
+}
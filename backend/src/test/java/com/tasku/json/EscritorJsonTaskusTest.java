@@ -0,0 +1,143 @@
+package com.tasku.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.tasku.dto.TaskuParcial;
+import com.tasku.model.Tasku;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EscritorJsonTaskusTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @Test
+    void testEscribir_MismosBytesQueJackson() throws Exception {
+        // Given
+        List<Tasku> taskus = List.of(
+                tasku(1L, "Tarea", null, false, LocalDateTime.of(2024, 1, 1, 10, 0), null),
+                tasku(2L, "Comillas \" y barra \\ con\ttab\ny salto", "Control \u0001 y \u001f", true,
+                        LocalDateTime.of(2024, 1, 1, 10, 0, 5, 120_000_000), LocalDateTime.of(2024, 2, 29, 23, 59)),
+                tasku(Long.MAX_VALUE, "Acentos áéí, € y emoji 😀", "Suelto \uD800", null,
+                        LocalDateTime.of(999, 12, 31, 0, 0, 0, 1), LocalDateTime.of(2024, 1, 1, 0, 0, 0, 999_999_999)));
+
+        // When
+        String json = escribir(escritor -> {
+            for (Tasku tasku : taskus) {
+                escritor.escribir(tasku);
+            }
+        });
+
+        // Then
+        assertThat(json).isEqualTo(jackson(taskus));
+    }
+
+    @Test
+    void testEscribir_ParcialSoloLosCamposPedidos() throws Exception {
+        // Given
+        List<TaskuParcial> taskus = List.of(
+                new TaskuParcial(TaskuParcial.RESUMEN, 5L, "Tarea", "No pedida", true,
+                        LocalDateTime.of(2024, 1, 1, 10, 0), null),
+                new TaskuParcial(EnumSet.of(TaskuParcial.Campo.DESCRIPCION, TaskuParcial.Campo.FECHA_ACTUALIZACION),
+                        6L, "No pedido", "Descripción", false, null, LocalDateTime.of(2024, 1, 2, 8, 30, 15)));
+
+        // When
+        String json = escribir(escritor -> {
+            for (TaskuParcial tasku : taskus) {
+                escritor.escribir(tasku);
+            }
+        });
+
+        // Then
+        assertThat(json).isEqualTo(jackson(taskus));
+        assertThat(json).doesNotContain("No pedid");
+    }
+
+    @Test
+    void testEscribir_MasQueElBufer() throws Exception {
+        // Given
+        List<Tasku> taskus = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            taskus.add(tasku((long) i, "Tarea " + i + " ñ".repeat(i % 7), "x".repeat(i * 20), i % 2 == 0,
+                    LocalDateTime.of(2024, 1, 1 + i % 28, i % 24, i % 60), null));
+        }
+
+        // When
+        String json = escribir(escritor -> {
+            for (Tasku tasku : taskus) {
+                escritor.escribir(tasku);
+            }
+        });
+
+        // Then
+        assertThat(json).isEqualTo(jackson(taskus));
+    }
+
+    @Test
+    void testEscribir_ListaVacia() throws Exception {
+        assertThat(escribir(escritor -> { })).isEqualTo("[]");
+    }
+
+    @Test
+    void testEscribir_UnaPorLinea() throws Exception {
+        // Given
+        Tasku primera = tasku(1L, "Primera", "Con\nsalto", false, LocalDateTime.of(2024, 1, 1, 10, 0), null);
+        Tasku segunda = tasku(2L, "Segunda", null, true, LocalDateTime.of(2024, 1, 2, 10, 0), null);
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        EscritorJsonTaskus escritor = new EscritorJsonTaskus(salida);
+
+        // When
+        for (Tasku tasku : List.of(primera, segunda)) {
+            escritor.escribir(tasku);
+            escritor.finLinea();
+        }
+        escritor.flush();
+
+        // Then: sin comas entre objetos y los saltos del texto escapados
+        assertThat(salida.toString(StandardCharsets.UTF_8)).isEqualTo(jackson(primera) + "\n" + jackson(segunda) + "\n");
+    }
+
+    /**
+     * Salida de Jackson sobre bytes, como en una respuesta: el generador de
+     * bytes escapa los sustitutos, el de caracteres no.
+     */
+    private String jackson(Object valor) throws IOException {
+        return new String(objectMapper.writeValueAsBytes(valor), StandardCharsets.UTF_8);
+    }
+
+    private static Tasku tasku(Long id, String titulo, String descripcion, Boolean completada,
+                               LocalDateTime creacion, LocalDateTime actualizacion) {
+        Tasku tasku = new Tasku(titulo, descripcion);
+        tasku.setId(id);
+        tasku.setCompletada(completada);
+        tasku.setFechaCreacion(creacion);
+        tasku.setFechaActualizacion(actualizacion);
+        return tasku;
+    }
+
+    private static String escribir(Contenido contenido) throws IOException {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        EscritorJsonTaskus escritor = new EscritorJsonTaskus(salida);
+        escritor.inicioLista();
+        contenido.escribir(escritor);
+        escritor.finLista();
+        escritor.flush();
+        return salida.toString(StandardCharsets.UTF_8);
+    }
+
+    private interface Contenido {
+        void escribir(EscritorJsonTaskus escritor) throws IOException;
+    }
+}
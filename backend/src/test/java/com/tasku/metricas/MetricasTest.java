@@ -0,0 +1,39 @@
+package com.tasku.metricas;
+
+import com.tasku.H2TestProfile;
+import com.tasku.model.Tasku;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import io.restassured.http.ContentType;
+import org.junit.jupiter.api.Test;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.containsString;
+
+@QuarkusTest
+@TestProfile(H2TestProfile.class)
+class MetricasTest {
+
+    @Test
+    void testMetricasPrometheus() {
+        given()
+                .contentType(ContentType.JSON)
+                .body(new Tasku("Tarea medida", "Descripción"))
+                .when().post("/api/taskus")
+                .then()
+                .statusCode(201);
+
+        given()
+                .when().get("/q/metrics")
+                .then()
+                .statusCode(200)
+                .body(containsString("http_server_requests_seconds_bucket"))
+                .body(containsString("tasku_servicio_seconds_count{class=\"com.tasku.service.TaskuService\""))
+                .body(containsString("tasku_bd_sentencias_count{operacion=\"crear\""))
+                .body(containsString("tasku_bd_tiempo_seconds"))
+                .body(containsString("agroal_blocking_time"))
+                .body(containsString("hibernate_entities_inserts_total{entityManagerFactory=\"<default>\""))
+                .body(containsString("tasku_compartimento_en_curso{clase=\"escritura\""))
+                .body(containsString("tasku_compartimento_rechazos_total{clase=\"busqueda\""));
+    }
+}
@@ -0,0 +1,79 @@
+package com.tasku.metricas;
+
+import com.tasku.resource.TaskuResource;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.Request;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class RegistroSentenciasFilterTest {
+
+    private RegistroSentenciasFilter filtro;
+    private SimpleMeterRegistry registro;
+    private ContainerRequestContext solicitud;
+
+    @BeforeEach
+    void setUp() throws NoSuchMethodException {
+        registro = new SimpleMeterRegistry();
+        filtro = new RegistroSentenciasFilter();
+        filtro.registro = registro;
+        filtro.peticion = new SentenciasPeticion();
+        filtro.avisoSentencias = Optional.empty();
+        filtro.recurso = mock(ResourceInfo.class);
+        // Fuera del when(): si getMethod falla, no deja a medias un stub que rompa el siguiente test
+        Method metodo = TaskuResource.class.getMethod("obtenerEstadisticas", Request.class);
+        when(filtro.recurso.getResourceMethod()).thenReturn(metodo);
+        solicitud = mock(ContainerRequestContext.class, RETURNS_DEEP_STUBS);
+    }
+
+    @Test
+    void testFilter_PublicaSentenciasYTiemposPorOperacion() {
+        filtro.peticion.sentencia(TimeUnit.MILLISECONDS.toNanos(3));
+        filtro.peticion.sentencia(TimeUnit.MILLISECONDS.toNanos(5));
+        filtro.peticion.esperaConexion(TimeUnit.MILLISECONDS.toNanos(1));
+
+        filtro.filter(solicitud, mock(ContainerResponseContext.class));
+
+        DistributionSummary sentencias = registro.find("tasku.bd.sentencias")
+                .tag("operacion", "obtenerEstadisticas").summary();
+        Timer tiempo = registro.find("tasku.bd.tiempo").tag("operacion", "obtenerEstadisticas").timer();
+        Timer espera = registro.find("tasku.bd.espera.conexion").tag("operacion", "obtenerEstadisticas").timer();
+        assertThat(sentencias.totalAmount()).isEqualTo(2);
+        assertThat(tiempo.totalTime(TimeUnit.MILLISECONDS)).isEqualTo(8);
+        assertThat(espera.totalTime(TimeUnit.MILLISECONDS)).isEqualTo(1);
+    }
+
+    @Test
+    void testFilter_SinMetodoDeRecursoNoPublica() {
+        when(filtro.recurso.getResourceMethod()).thenReturn(null);
+
+        filtro.filter(solicitud, mock(ContainerResponseContext.class));
+
+        assertThat(registro.getMeters()).isEmpty();
+    }
+
+    @Test
+    void testFilter_AvisoSoloPorEncimaDelUmbral() {
+        filtro.avisoSentencias = Optional.of(1);
+        filtro.peticion.sentencia(1);
+
+        filtro.filter(solicitud, mock(ContainerResponseContext.class));
+        verify(solicitud, never()).getMethod();
+
+        filtro.peticion.sentencia(1);
+        filtro.filter(solicitud, mock(ContainerResponseContext.class));
+        verify(solicitud).getMethod();
+    }
+}
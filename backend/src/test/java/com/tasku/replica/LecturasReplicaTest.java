@@ -0,0 +1,261 @@
+package com.tasku.replica;
+
+import com.tasku.ReplicaTestProfile;
+import com.tasku.model.Tasku;
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.agroal.DataSource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import io.restassured.http.ContentType;
+import io.restassured.response.Response;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+import static io.restassured.RestAssured.given;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+/**
+ * Primaria y réplica son bases distintas que no se replican entre sí, así que
+ * cada lectura dice de dónde salió: lo escrito por la API solo está en la
+ * primaria y lo insertado aquí por JDBC solo en la réplica.
+ */
+@QuarkusTest
+@TestProfile(ReplicaTestProfile.class)
+class LecturasReplicaTest {
+
+    // Solo existen con el perfil de réplica: con Instance la aplicación que
+    // arrancan los demás tests no exige que estén
+    @Inject
+    @DataSource(RetrasoReplica.FUENTE)
+    Instance<AgroalDataSource> replica;
+
+    @Inject
+    AgroalDataSource primaria;
+
+    @Inject
+    Instance<RetrasoReplica> retraso;
+
+    @Test
+    void testListado_LeeDeLaReplicaAlDia() throws Exception {
+        // Given
+        String titulo = "Solo en la réplica " + System.nanoTime();
+        long id = insertarEnReplica(titulo);
+        ponerReplicaAlDia();
+
+        // When / Then
+        given()
+                .queryParam("titulo", titulo)
+                .when().get("/api/taskus")
+                .then()
+                .statusCode(200)
+                .body("id", contains((int) id));
+        // Por id se lee de la primaria, que alimenta la caché
+        given()
+                .when().get("/api/taskus/" + id)
+                .then()
+                .statusCode(404);
+    }
+
+    @Test
+    void testListado_ConRetrasoSinValidadores() throws Exception {
+        // Given
+        String titulo = "Retrasada " + System.nanoTime();
+        long id = insertarEnReplica(titulo);
+        ponerReplicaAlDia();
+        crearTarea("Escritura de otro cliente que la réplica no tiene");
+
+        // When / Then: las escrituras de otros no llevan el listado a la primaria, pero la
+        // respuesta no anuncia una versión que la réplica aún no tiene
+        given()
+                .queryParam("titulo", titulo)
+                .when().get("/api/taskus")
+                .then()
+                .statusCode(200)
+                .header("ETag", nullValue())
+                .header("Last-Modified", nullValue())
+                .body("id", contains((int) id));
+    }
+
+    @Test
+    void testPorIdCondicional_NoDaPorBuenaLaVersionDeLaReplica() throws Exception {
+        // Given: la réplica se quedó con la primera versión de una tarea que ya cambió
+        long id = crearTarea("Versión vieja en la réplica").then().extract().<Integer>path("id");
+        String etiqueta = given().when().get("/api/taskus/" + id).then().extract().header("ETag");
+        copiarAReplica(id);
+        given()
+                .contentType(ContentType.JSON)
+                .body(new Tasku("Versión nueva", null))
+                .when().put("/api/taskus/" + id)
+                .then()
+                .statusCode(200);
+        ponerReplicaAlDia();
+
+        // When / Then
+        given()
+                .header("If-None-Match", etiqueta)
+                .when().get("/api/taskus/" + id)
+                .then()
+                .statusCode(200)
+                .body("titulo", is("Versión nueva"));
+    }
+
+    @Test
+    void testEscritura_DejaLaCookie() {
+        // When
+        Response creada = crearTarea("Escrita por el cliente");
+
+        // Then
+        String cookie = creada.getCookie(CookieEscrituras.NOMBRE);
+        assertThat(cookie).isNotNull();
+        assertThat(Long.parseLong(cookie)).isLessThanOrEqualTo(System.currentTimeMillis());
+    }
+
+    @Test
+    void testCookie_LeeDeLaPrimariaHastaQueLaReplicaLlega() throws Exception {
+        // Given: el cliente escribió después de la última vez que la réplica estuvo al día
+        String titulo = "Con cookie " + System.nanoTime();
+        long id = insertarEnReplica(titulo);
+        ponerReplicaAlDia();
+        Thread.sleep(5);
+        String escritura = String.valueOf(System.currentTimeMillis());
+
+        // When / Then
+        given()
+                .cookie(CookieEscrituras.NOMBRE, escritura)
+                .queryParam("titulo", titulo)
+                .when().get("/api/taskus")
+                .then()
+                .statusCode(200)
+                .body("$", empty());
+
+        ponerReplicaAlDia();
+        given()
+                .cookie(CookieEscrituras.NOMBRE, escritura)
+                .queryParam("titulo", titulo)
+                .when().get("/api/taskus")
+                .then()
+                .statusCode(200)
+                .body("id", contains((int) id));
+    }
+
+    @Test
+    void testRetraso_MedidoEnCambios() throws Exception {
+        // Given
+        ponerReplicaAlDia();
+        crearTarea("Cambio pendiente de replicar");
+
+        // When
+        retraso.get().medir();
+
+        // Then
+        given()
+                .when().get("/q/metrics")
+                .then()
+                .statusCode(200)
+                .body(containsString("tasku_replica_retraso_cambios 1.0"));
+    }
+
+    @Test
+    void testRetraso_AlDiaHastaUnaMedicionAnterior() throws Exception {
+        // Given: la réplica nunca alcanza a la primaria, que sigue escribiendo
+        ponerReplicaAlDia();
+        crearTarea("Primera escritura seguida");
+        Instant antes = Instant.now();
+        retraso.get().medir();
+        long alcanzada = ultimaSecuenciaPrimaria();
+        crearTarea("Segunda escritura seguida");
+
+        // When: la réplica llega a lo que tenía la primaria en la medición anterior
+        ponerEnReplica(alcanzada);
+        retraso.get().medir();
+
+        // Then
+        assertThat(retraso.get().alDiaDesde(antes)).isTrue();
+        assertThat(retraso.get().alDiaDesde(Instant.now())).isFalse();
+    }
+
+    private static Response crearTarea(String titulo) {
+        return given()
+                .contentType(ContentType.JSON)
+                .body(new Tasku(titulo, null))
+                .when().post("/api/taskus")
+                .then()
+                .statusCode(201)
+                .extract().response();
+    }
+
+    private long insertarEnReplica(String titulo) throws SQLException {
+        try (Connection conexion = replica.get().getConnection();
+             PreparedStatement sentencia = conexion.prepareStatement(
+                     "INSERT INTO taskus (id, fecha_creacion, completada, titulo) VALUES (?, ?, FALSE, ?)")) {
+            long id = 1_000_000_000L + System.nanoTime() % 1_000_000_000L;
+            sentencia.setLong(1, id);
+            sentencia.setTimestamp(2, Timestamp.valueOf(LocalDateTime.now()));
+            sentencia.setString(3, titulo);
+            sentencia.executeUpdate();
+            return id;
+        }
+    }
+
+    private void copiarAReplica(long id) throws SQLException {
+        try (Connection origen = primaria.getConnection();
+             PreparedStatement consulta = origen.prepareStatement(
+                     "SELECT titulo, fecha_creacion FROM taskus WHERE id = ?");
+             Connection destino = replica.get().getConnection();
+             PreparedStatement insercion = destino.prepareStatement(
+                     "INSERT INTO taskus (id, fecha_creacion, completada, titulo) VALUES (?, ?, FALSE, ?)")) {
+            consulta.setLong(1, id);
+            try (ResultSet fila = consulta.executeQuery()) {
+                fila.next();
+                insercion.setLong(1, id);
+                insercion.setTimestamp(2, fila.getTimestamp("fecha_creacion"));
+                insercion.setString(3, fila.getString("titulo"));
+            }
+            insercion.executeUpdate();
+        }
+    }
+
+    /**
+     * Copia a la réplica la última secuencia del registro de la primaria, que
+     * es lo que mira la medición del retraso, y mide.
+     */
+    private void ponerReplicaAlDia() throws SQLException {
+        ponerEnReplica(ultimaSecuenciaPrimaria());
+        retraso.get().medir();
+    }
+
+    private long ultimaSecuenciaPrimaria() throws SQLException {
+        try (Connection conexion = primaria.getConnection();
+             Statement sentencia = conexion.createStatement();
+             ResultSet resultado = sentencia.executeQuery("SELECT COALESCE(MAX(secuencia), 0) FROM taskus_cambios")) {
+            resultado.next();
+            return resultado.getLong(1);
+        }
+    }
+
+    private void ponerEnReplica(long secuencia) throws SQLException {
+        try (Connection conexion = replica.get().getConnection();
+             PreparedStatement sentencia = conexion.prepareStatement(
+                     "MERGE INTO taskus_cambios (secuencia, tasku_id, registrado_en, tipo, origen) KEY (secuencia)"
+                             + " VALUES (?, 0, ?, 'CREADA', 'test')")) {
+            sentencia.setLong(1, secuencia);
+            sentencia.setTimestamp(2, Timestamp.valueOf(LocalDateTime.now()));
+            sentencia.executeUpdate();
+        }
+    }
+}
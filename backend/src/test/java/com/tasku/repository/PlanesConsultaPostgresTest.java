@@ -0,0 +1,80 @@
+package com.tasku.repository;
+
+import com.tasku.PostgresTestProfile;
+import io.quarkus.test.TestTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Comprueba que los accesos habituales a {@code taskus} usan los índices de las
+ * migraciones de PostgreSQL. Con la tabla casi vacía el planificador prefiere
+ * recorrerla, así que se le quita esa opción y se mira qué índice elige.
+ */
+@QuarkusTest
+@TestProfile(PostgresTestProfile.class)
+@EnabledIfSystemProperty(named = "tasku.test.postgres", matches = "true")
+class PlanesConsultaPostgresTest {
+
+    @Inject
+    EntityManager entityManager;
+
+    @Test
+    @TestTransaction
+    void testPaginaPendientes_UsaIndiceParcial() {
+        String plan = explicar("SELECT * FROM taskus WHERE completada = false AND id > 100 ORDER BY id LIMIT 20");
+
+        assertThat(plan).contains("idx_taskus_pendientes");
+    }
+
+    @Test
+    @TestTransaction
+    void testPaginaCompletadas_UsaIndiceParcialConPlanGenerico() {
+        // El estado va como literal: el índice parcial sirve aunque el resto de parámetros sean genéricos
+        entityManager.createNativeQuery("SET LOCAL plan_cache_mode = force_generic_plan").executeUpdate();
+        entityManager.createNativeQuery("PREPARE pagina_completadas(bigint, int) AS "
+                + "SELECT * FROM taskus WHERE completada = true AND id > $1 ORDER BY id LIMIT $2").executeUpdate();
+        try {
+            String plan = String.join("\n", lineas("EXPLAIN EXECUTE pagina_completadas(100, 20)"));
+
+            assertThat(plan).contains("idx_taskus_completadas");
+        } finally {
+            entityManager.createNativeQuery("DEALLOCATE pagina_completadas").executeUpdate();
+        }
+    }
+
+    @Test
+    @TestTransaction
+    void testBusquedaPorTitulo_UsaIndiceDeTrigramas() {
+        String plan = explicar("SELECT * FROM taskus WHERE lower(titulo) LIKE '%informe%' ESCAPE '!'");
+
+        assertThat(plan).contains("idx_taskus_titulo_trgm");
+    }
+
+    @Test
+    @TestTransaction
+    void testPaginaPorModificacion_UsaIndiceDeExpresion() {
+        String plan = explicar("SELECT * FROM taskus "
+                + "WHERE coalesce(fecha_actualizacion, fecha_creacion) >= '2024-01-01' "
+                + "ORDER BY coalesce(fecha_actualizacion, fecha_creacion), id LIMIT 20");
+
+        assertThat(plan).contains("idx_taskus_modificacion");
+    }
+
+    private String explicar(String sql) {
+        return String.join("\n", lineas("EXPLAIN " + sql));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> lineas(String sql) {
+        entityManager.createNativeQuery("SET LOCAL enable_seqscan = off").executeUpdate();
+        return entityManager.createNativeQuery(sql).getResultList();
+    }
+}
@@ -0,0 +1,61 @@
+package com.tasku.repository;
+
+import com.tasku.H2TestProfile;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Comprueba que los accesos habituales a {@code taskus} usan los índices de las
+ * migraciones de H2. Las consultas tienen la forma de las que genera
+ * {@link TaskuRepository}.
+ */
+@QuarkusTest
+@TestProfile(H2TestProfile.class)
+class PlanesConsultaTest {
+
+    @Inject
+    EntityManager entityManager;
+
+    @Test
+    void testPaginaPorEstado_UsaIndiceCompuesto() {
+        String plan = explicar("SELECT * FROM taskus WHERE completada = false AND id > 100 "
+                + "ORDER BY id FETCH FIRST 20 ROWS ONLY");
+
+        assertThat(plan).containsIgnoringCase("IDX_TASKUS_COMPLETADA_ID");
+    }
+
+    @Test
+    void testPaginaSinFiltro_UsaClavePrimariaOrdenada() {
+        String plan = explicar("SELECT * FROM taskus WHERE id > 100 ORDER BY id FETCH FIRST 20 ROWS ONLY");
+
+        assertThat(plan).containsIgnoringCase("PRIMARY_KEY").containsIgnoringCase("index sorted");
+    }
+
+    @Test
+    void testPaginaPorFechaDeCreacion_UsaIndiceOrdenado() {
+        // La forma que genera SentenciaTaskus para orden=-creada con cursor
+        String plan = explicar("SELECT * FROM taskus WHERE fecha_creacion <= TIMESTAMP '2024-01-01 00:00:00' "
+                + "AND ((fecha_creacion < TIMESTAMP '2024-01-01 00:00:00') "
+                + "OR (fecha_creacion = TIMESTAMP '2024-01-01 00:00:00' AND id < 100)) "
+                + "ORDER BY fecha_creacion DESC, id DESC FETCH FIRST 20 ROWS ONLY");
+
+        assertThat(plan).containsIgnoringCase("IDX_TASKUS_CREACION");
+    }
+
+    @Test
+    void testPurgaDelRegistro_UsaIndiceDeFecha() {
+        String plan = explicar("SELECT secuencia FROM taskus_cambios "
+                + "WHERE registrado_en < TIMESTAMP '2024-01-01 00:00:00'");
+
+        assertThat(plan).containsIgnoringCase("IDX_TASKUS_CAMBIOS_REGISTRADO");
+    }
+
+    private String explicar(String sql) {
+        return String.valueOf(entityManager.createNativeQuery("EXPLAIN " + sql).getSingleResult());
+    }
+}
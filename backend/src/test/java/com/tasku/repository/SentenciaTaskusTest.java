@@ -0,0 +1,159 @@
+package com.tasku.repository;
+
+import com.tasku.dto.TaskuParcial;
+import com.tasku.model.Tasku;
+import com.tasku.repository.ConsultaTaskus.Campo;
+import com.tasku.repository.ConsultaTaskus.Orden;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SentenciaTaskusTest {
+
+    private static final LocalDateTime INICIO = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Test
+    void testJpql_FiltrosCombinados() {
+        // Given
+        ConsultaTaskus consulta = new ConsultaTaskus(false, "informe", INICIO, null, null, INICIO.plusDays(1),
+                null, null, 10);
+
+        // When
+        String jpql = SentenciaTaskus.jpql().texto(consulta);
+
+        // Then
+        assertThat(jpql).isEqualTo("from Tasku where completada = false and lower(titulo) LIKE ?1 ESCAPE '!' "
+                + "and fechaCreacion >= ?2 "
+                + "and coalesce(fechaActualizacion, fechaCreacion) < ?3 order by id");
+        assertThat(SentenciaTaskus.parametros(consulta))
+                .containsExactly("%informe%", INICIO, INICIO.plusDays(1));
+    }
+
+    @Test
+    void testSql_CursorConVariasClaves() {
+        // Given
+        List<Orden> orden = ConsultaTaskus.parsearOrden("-creada");
+        ConsultaTaskus consulta = new ConsultaTaskus(null, null, null, null, null, null,
+                orden, List.of(INICIO, 42L), 10);
+
+        // When
+        String sql = SentenciaTaskus.sql("id").texto(consulta);
+
+        // Then
+        assertThat(sql).isEqualTo("SELECT id FROM taskus WHERE fecha_creacion <= $1 "
+                + "AND ((fecha_creacion < $1) OR (fecha_creacion = $1 AND id < $2)) "
+                + "ORDER BY fecha_creacion DESC, id DESC");
+        assertThat(SentenciaTaskus.parametros(consulta)).containsExactly(INICIO, 42L);
+    }
+
+    @Test
+    void testJpql_EntreIdsDespuesDelCursor() {
+        // Given
+        ConsultaTaskus consulta = ConsultaTaskus.porEstadoYTitulo(true, null, 42L, 10);
+
+        // When
+        String jpql = SentenciaTaskus.jpql().textoEntreIds(consulta, EnumSet.of(TaskuParcial.Campo.ID));
+
+        // Then: los ids van después de los parámetros de la consulta
+        assertThat(jpql).isEqualTo("select id from Tasku where completada = true and id > ?1 and id in ?2 "
+                + "order by id");
+        assertThat(SentenciaTaskus.parametros(consulta)).containsExactly(42L);
+    }
+
+    @Test
+    void testTexto_UnaSentenciaPorForma() {
+        // Given
+        SentenciaTaskus sentencias = SentenciaTaskus.jpql();
+
+        // When
+        String primera = sentencias.texto(ConsultaTaskus.porEstadoYTitulo(true, "a", 1L, 10));
+        String segunda = sentencias.texto(ConsultaTaskus.porEstadoYTitulo(true, "b", 500L, 20));
+        String otroEstado = sentencias.texto(ConsultaTaskus.porEstadoYTitulo(false, "a", 1L, 10));
+
+        // Then
+        assertThat(segunda).isSameAs(primera);
+        assertThat(otroEstado).isNotEqualTo(primera);
+        assertThat(sentencias.formasEnCache()).isEqualTo(2);
+    }
+
+    @Test
+    void testProyeccion_IncluyeLasColumnasDelOrden() {
+        // Given
+        ConsultaTaskus consulta = new ConsultaTaskus(null, null, null, null, null, null,
+                ConsultaTaskus.parsearOrden("-modificada"), null, 10);
+        Set<TaskuParcial.Campo> columnas = SentenciaTaskus.columnas(consulta, EnumSet.of(TaskuParcial.Campo.TITULO));
+
+        // When
+        String jpql = SentenciaTaskus.jpql().texto(consulta, columnas);
+        String sql = SentenciaTaskus.sql("id").texto(consulta, columnas);
+
+        // Then
+        assertThat(jpql).startsWith("select id, titulo, fechaCreacion, fechaActualizacion from Tasku order by ");
+        assertThat(sql).startsWith("SELECT id, titulo, fecha_creacion, fecha_actualizacion FROM taskus ORDER BY ");
+    }
+
+    @Test
+    void testParsearOrden_TerminaEnElId() {
+        // When
+        ConsultaTaskus consulta = new ConsultaTaskus(null, null, null, null, null, null,
+                ConsultaTaskus.parsearOrden("titulo, -modificada"), null, null);
+
+        // Then
+        assertThat(consulta.orden()).containsExactly(new Orden(Campo.TITULO, false),
+                new Orden(Campo.MODIFICADA, true), new Orden(Campo.ID, true));
+    }
+
+    @Test
+    void testParsearOrden_NoValido() {
+        assertThatThrownBy(() -> ConsultaTaskus.parsearOrden("prioridad"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ConsultaTaskus.parsearOrden("titulo,-titulo"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testCursor_IdaYVuelta() {
+        // Given
+        Tasku tasku = new Tasku("Título con . y |", null);
+        tasku.setId(7L);
+        List<Orden> orden = ConsultaTaskus.parsearOrden("titulo,-creada");
+        ConsultaTaskus consulta = new ConsultaTaskus(null, null, null, null, null, null, orden, null, 10);
+
+        // When
+        String cursor = consulta.cursorDespuesDe(tasku);
+
+        // Then
+        assertThat(ConsultaTaskus.parsearCursor(orden, cursor))
+                .containsExactly(tasku.getTitulo(), tasku.getFechaCreacion(), 7L);
+    }
+
+    @Test
+    void testCursor_PorIdEsElId() {
+        // Given
+        Tasku tasku = new Tasku("Tarea", null);
+        tasku.setId(15L);
+
+        // When
+        String cursor = ConsultaTaskus.porEstadoYTitulo(null, null, null, 10).cursorDespuesDe(tasku);
+
+        // Then
+        assertThat(cursor).isEqualTo("15");
+        assertThat(ConsultaTaskus.parsearCursor(null, cursor)).containsExactly(15L);
+    }
+
+    @Test
+    void testCursor_NoValido() {
+        List<Orden> orden = ConsultaTaskus.parsearOrden("-creada");
+
+        assertThatThrownBy(() -> ConsultaTaskus.parsearCursor(orden, "15"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ConsultaTaskus.parsearCursor(null, "abc"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
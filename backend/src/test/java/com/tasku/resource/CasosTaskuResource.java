@@ -0,0 +1,707 @@
+package com.tasku.resource;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tasku.model.Tasku;
+import io.restassured.config.DecoderConfig;
+import io.restassured.config.RestAssuredConfig;
+import io.restassured.http.ContentType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.lessThan;
+
+/**
+ * Los casos de /api/taskus, que se ejecutan con cada pila y cada almacén. Es
+ * abstracta porque Quarkus busca la instancia de cada test por su tipo: si una
+ * clase de test heredara de otra, la de la madre sería ambigua.
+ */
+abstract class CasosTaskuResource {
+
+    @BeforeEach
+    void setUp() {
+    }
+
+    @Test
+    void testObtenerTodas() {
+        given()
+                .when().get("/api/taskus")
+                .then()
+                .statusCode(200)
+                .body(notNullValue());
+    }
+
+    @Test
+    void testObtenerTodas_PaginadoPorCursor() {
+        for (int i = 0; i < 3; i++) {
+            given()
+                    .contentType(ContentType.JSON)
+                    .body(new Tasku("Tarea paginada " + i, "Descripción"))
+                    .when().post("/api/taskus")
+                    .then()
+                    .statusCode(201);
+        }
+
+        String cursor = given()
+                .queryParam("limit", 2)
+                .when().get("/api/taskus")
+                .then()
+                .statusCode(200)
+                .body("size()", is(2))
+                .header("X-Next-Cursor", notNullValue())
+                .extract().header("X-Next-Cursor");
+
+        given()
+                .queryParam("after", cursor)
+                .queryParam("limit", 2)
+                .when().get("/api/taskus")
+                .then()
+                .statusCode(200)
+                .body("id", everyItem(greaterThan(Integer.valueOf(cursor))));
+    }
+
+    @Test
+    void testObtenerTodas_FiltrosCombinadosOrdenYCursor() {
+        String marca = "Combinada " + System.nanoTime();
+        Integer primera = crearTarea(marca + " a");
+        Integer completada = crearTarea(marca + " b");
+        Integer segunda = crearTarea(marca + " c");
+        Integer tercera = crearTarea(marca + " d");
+        given()
+                .when().patch("/api/taskus/" + completada + "/completar")
+                .then()
+                .statusCode(200);
+
+        // Estado y título a la vez, de la más reciente a la más antigua
+        String cursor = given()
+                .queryParam("completada", false)
+                .queryParam("titulo", marca)
+                .queryParam("creadaDesde", "2000-01-01")
+                .queryParam("orden", "-creada")
+                .queryParam("limit", 2)
+                .when().get("/api/taskus")
+                .then()
+                .statusCode(200)
+                .body("id", contains(tercera, segunda))
+                .header("X-Next-Cursor", notNullValue())
+                .extract().header("X-Next-Cursor");
+
+        given()
+                .queryParam("completada", false)
+                .queryParam("titulo", marca)
+                .queryParam("creadaDesde", "2000-01-01")
+                .queryParam("orden", "-creada")
+                .queryParam("after", cursor)
+                .queryParam("limit", 2)
+                .when().get("/api/taskus")
+                .then()
+                .statusCode(200)
+                .body("id", contains(primera));
+    }
+
+    @Test
+    void testObtenerTodas_SoloPorEstado() {
+        String marca = "Por estado " + System.nanoTime();
+        Integer primera = crearTarea(marca + " 1");
+        Integer segunda = crearTarea(marca + " 2");
+        for (Integer id : List.of(primera, segunda)) {
+            given()
+                    .when().patch("/api/taskus/" + id + "/completar")
+                    .then()
+                    .statusCode(200);
+        }
+
+        // Las dos recién completadas son las de id más alto entre las completadas
+        String cursor = given()
+                .queryParam("completada", true)
+                .queryParam("orden", "-id")
+                .queryParam("limit", 2)
+                .when().get("/api/taskus")
+                .then()
+                .statusCode(200)
+                .body("id", contains(segunda, primera))
+                .body("titulo", contains(marca + " 2", marca + " 1"))
+                .header("X-Next-Cursor", notNullValue())
+                .extract().header("X-Next-Cursor");
+
+        given()
+                .queryParam("completada", true)
+                .queryParam("orden", "-id")
+                .queryParam("after", cursor)
+                .when().get("/api/taskus")
+                .then()
+                .statusCode(200)
+                .body("id", everyItem(lessThan(primera)))
+                .body("completada", everyItem(is(true)));
+
+        given()
+                .queryParam("completada", false)
+                .queryParam("after", primera - 1)
+                .when().get("/api/taskus")
+                .then()
+                .statusCode(200)
+                .body("id", not(hasItem(primera)))
+                .body("id", not(hasItem(segunda)));
+    }
+
+    @Test
+    void testObtenerTodas_OrdenPorTitulo() {
+        String marca = "Ordenada " + System.nanoTime();
+        Integer b = crearTarea(marca + " b");
+        Integer a = crearTarea(marca + " a");
+
+        given()
+                .queryParam("titulo", marca)
+                .queryParam("orden", "titulo")
+                .when().get("/api/taskus")
+                .then()
+                .statusCode(200)
+                .body("id", contains(a, b));
+    }
+
+    @Test
+    void testObtenerTodas_ParametrosNoValidos() {
+        given()
+                .queryParam("orden", "prioridad")
+                .when().get("/api/taskus")
+                .then()
+                .statusCode(400);
+
+        given()
+                .queryParam("creadaDesde", "ayer")
+                .when().get("/api/taskus")
+                .then()
+                .statusCode(400);
+
+        given()
+                .queryParam("orden", "-creada")
+                .queryParam("after", "no-es-un-cursor")
+                .when().get("/api/taskus")
+                .then()
+                .statusCode(400);
+    }
+
+    @Test
+    void testObtenerTodas_ResumenSinDescripcion() {
+        Integer id = given()
+                .contentType(ContentType.JSON)
+                .body(new Tasku("Tarea resumida " + System.nanoTime(), "Descripción larga"))
+                .when().post("/api/taskus")
+                .then()
+                .statusCode(201)
+                .extract().path("id");
+
+        given()
+                .queryParam("after", id - 1)
+                .queryParam("limit", 1)
+                .when().get("/api/taskus")
+                .then()
+                .statusCode(200)
+                .body("[0].id", is(id))
+                .body("[0]", hasKey("fechaCreacion"))
+                .body("[0]", not(hasKey("descripcion")));
+    }
+
+    @Test
+    void testObtenerTodas_CamposPedidos() {
+        String titulo = "Tarea con campos " + System.nanoTime();
+        given()
+                .contentType(ContentType.JSON)
+                .body(new Tasku(titulo, "Descripción pedida"))
+                .when().post("/api/taskus")
+                .then()
+                .statusCode(201);
+
+        given()
+                .queryParam("titulo", titulo)
+                .queryParam("fields", "titulo,descripcion")
+                .queryParam("orden", "-creada")
+                .when().get("/api/taskus")
+                .then()
+                .statusCode(200)
+                .body("[0].titulo", is(titulo))
+                .body("[0].descripcion", is("Descripción pedida"))
+                .body("[0]", not(hasKey("id")))
+                .body("[0]", not(hasKey("completada")));
+
+        given()
+                .queryParam("fields", "id,prioridad")
+                .when().get("/api/taskus")
+                .then()
+                .statusCode(400);
+    }
+
+    @Test
+    void testObtenerTodas_Stream() {
+        given()
+                .contentType(ContentType.JSON)
+                .body(new Tasku("Tarea en stream", "Descripción"))
+                .when().post("/api/taskus")
+                .then()
+                .statusCode(201);
+
+        given()
+                .queryParam("stream", true)
+                .when().get("/api/taskus")
+                .then()
+                .statusCode(200)
+                .body("titulo", hasItem("Tarea en stream"));
+    }
+
+    @Test
+    void testCrearYListar_Cbor() throws Exception {
+        ObjectMapper cbor = CborProvider.mapeador();
+        byte[] creada = given()
+                .contentType(CborProvider.APPLICATION_CBOR)
+                .accept(CborProvider.APPLICATION_CBOR)
+                .body(cbor.writeValueAsBytes(new Tasku("Tarea en CBOR", "Descripción")))
+                .when().post("/api/taskus")
+                .then()
+                .statusCode(201)
+                .contentType(CborProvider.APPLICATION_CBOR)
+                .extract().asByteArray();
+        assertThat(cbor.readValue(creada, Tasku.class).getTitulo()).isEqualTo("Tarea en CBOR");
+
+        for (boolean stream : new boolean[] {false, true}) {
+            byte[] lista = given()
+                    .accept(CborProvider.APPLICATION_CBOR)
+                    .queryParam("titulo", "Tarea en CBOR")
+                    .queryParam("stream", stream)
+                    .when().get("/api/taskus")
+                    .then()
+                    .statusCode(200)
+                    .contentType(CborProvider.APPLICATION_CBOR)
+                    .extract().asByteArray();
+            List<Map<String, Object>> taskus = cbor.readValue(lista, new TypeReference<>() { });
+            assertThat(taskus).extracting(tasku -> tasku.get("titulo")).contains("Tarea en CBOR");
+        }
+    }
+
+    @Test
+    void testObtenerTodas_ComprimidaPorEncimaDelUmbral() {
+        for (int i = 0; i < 20; i++) {
+            crearTarea("Tarea para comprimir " + i);
+        }
+
+        given()
+                .header("Accept-Encoding", "gzip")
+                .queryParam("titulo", "Tarea para comprimir")
+                .when().get("/api/taskus")
+                .then()
+                .statusCode(200)
+                .header("Content-Encoding", "gzip")
+                .body("titulo", hasItem("Tarea para comprimir 0"));
+
+        given()
+                .header("Accept-Encoding", "gzip")
+                .when().get("/api/taskus/estadisticas")
+                .then()
+                .statusCode(200)
+                .header("Content-Encoding", nullValue());
+    }
+
+    @Test
+    void testObtenerTodas_EtiquetaPorRepresentacion() {
+        for (int i = 0; i < 20; i++) {
+            crearTarea("Tarea con representaciones " + i);
+        }
+
+        // Sin descodificadores RestAssured no pide compresión
+        RestAssuredConfig sinComprimir = RestAssuredConfig.config()
+                .decoderConfig(DecoderConfig.decoderConfig().noContentDecoders());
+        String json = given()
+                .config(sinComprimir)
+                .when().get("/api/taskus")
+                .then()
+                .statusCode(200)
+                .header("Vary", is("Accept, Accept-Encoding"))
+                .extract().header("ETag");
+        String cbor = given()
+                .config(sinComprimir)
+                .accept(CborProvider.APPLICATION_CBOR)
+                .when().get("/api/taskus")
+                .then()
+                .statusCode(200)
+                .extract().header("ETag");
+        String gzip = given()
+                .header("Accept-Encoding", "gzip")
+                .when().get("/api/taskus")
+                .then()
+                .statusCode(200)
+                .header("Content-Encoding", "gzip")
+                .extract().header("ETag");
+
+        assertThat(cbor).isEqualTo(json.replaceFirst("\"$", "-cbor\""));
+        assertThat(gzip).isEqualTo("W/" + json);
+
+        // Cada copia se revalida con su propia etiqueta
+        List<String> varia = given()
+                .header("Accept-Encoding", "gzip")
+                .header("If-None-Match", gzip)
+                .when().get("/api/taskus")
+                .then()
+                .statusCode(304)
+                .header("ETag", is(gzip))
+                .extract().headers().getValues("Vary");
+        assertThat(String.join(", ", varia)).contains("Accept").contains("Accept-Encoding");
+        given()
+                .config(sinComprimir)
+                .header("If-None-Match", cbor)
+                .when().get("/api/taskus")
+                .then()
+                .statusCode(200)
+                .header("ETag", is(json));
+    }
+
+    @Test
+    void testBuscar() {
+        given()
+                .contentType(ContentType.JSON)
+                .body(new Tasku("Revisar factura del proveedor", "Descripción"))
+                .when().post("/api/taskus")
+                .then()
+                .statusCode(201);
+
+        given()
+                .queryParam("q", "FACTURA")
+                .when().get("/api/taskus/buscar")
+                .then()
+                .statusCode(200)
+                .body("titulo", hasItem("Revisar factura del proveedor"));
+    }
+
+    @Test
+    void testBuscar_SinTexto() {
+        given()
+                .when().get("/api/taskus/buscar")
+                .then()
+                .statusCode(400);
+    }
+
+    @Test
+    void testCrear_Exitoso() {
+        Tasku nuevaTasku = new Tasku("Tarea de Prueba", "Descripción de prueba");
+        
+        given()
+                .contentType(ContentType.JSON)
+                .body(nuevaTasku)
+                .when().post("/api/taskus")
+                .then()
+                .statusCode(201)
+                .body("titulo", is("Tarea de Prueba"))
+                .body("id", notNullValue());
+    }
+
+    @Test
+    void testCrear_TituloVacio() {
+        Tasku taskuInvalida = new Tasku("", "Descripción");
+        
+        given()
+                .contentType(ContentType.JSON)
+                .body(taskuInvalida)
+                .when().post("/api/taskus")
+                .then()
+                .statusCode(400);
+    }
+
+    @Test
+    void testLote_CrearActualizarEliminar() {
+        List<Integer> ids = given()
+                .contentType(ContentType.JSON)
+                .body(List.of(new Tasku("Tarea en lote 1", "Descripción"),
+                        new Tasku("", "Sin título"),
+                        new Tasku("Tarea en lote 2", "Descripción")))
+                .when().post("/api/taskus/batch")
+                .then()
+                .statusCode(200)
+                .body("estado", contains(201, 400, 201))
+                .body("[1].error", containsString("título es obligatorio"))
+                .extract().path("findAll { it.estado == 201 }.id");
+
+        Tasku cambio = new Tasku("Tarea en lote actualizada", null);
+        cambio.setId(ids.get(0).longValue());
+        Tasku inexistente = new Tasku("No existe", null);
+        inexistente.setId(99999L);
+        given()
+                .contentType(ContentType.JSON)
+                .body(List.of(cambio, inexistente))
+                .when().patch("/api/taskus/batch")
+                .then()
+                .statusCode(200)
+                .body("estado", contains(200, 404));
+
+        given()
+                .when().get("/api/taskus/" + ids.get(0))
+                .then()
+                .statusCode(200)
+                .body("titulo", is("Tarea en lote actualizada"));
+
+        given()
+                .contentType(ContentType.JSON)
+                .body(List.of(ids.get(0), ids.get(1), 99999))
+                .when().delete("/api/taskus/batch")
+                .then()
+                .statusCode(200)
+                .body("estado", contains(204, 204, 404));
+
+        given()
+                .when().get("/api/taskus/" + ids.get(1))
+                .then()
+                .statusCode(404);
+    }
+
+    @Test
+    void testCompletarTodas_PorFiltro() {
+        String marca = "Completar en bloque " + System.nanoTime();
+        Integer primera = crearTarea(marca + " a");
+        Integer segunda = crearTarea(marca + " b");
+        Integer otra = crearTarea("Fuera del filtro " + System.nanoTime());
+        given()
+                .when().patch("/api/taskus/" + segunda + "/completar")
+                .then()
+                .statusCode(200);
+
+        given()
+                .queryParam("titulo", marca)
+                .when().patch("/api/taskus/completar")
+                .then()
+                .statusCode(200)
+                .body("completadas", is(1));
+
+        given()
+                .queryParam("titulo", marca)
+                .queryParam("fields", "id,completada")
+                .when().get("/api/taskus")
+                .then()
+                .statusCode(200)
+                .body("id", contains(primera, segunda))
+                .body("completada", everyItem(is(true)));
+        given()
+                .when().get("/api/taskus/" + otra)
+                .then()
+                .statusCode(200)
+                .body("completada", is(false));
+    }
+
+    @Test
+    void testMarcarCompletada_AlternarYEstadisticas() {
+        Integer id = crearTarea("Alternada " + System.nanoTime());
+        int pendientesAntes = given().when().get("/api/taskus/estadisticas").then().extract().path("pendientes");
+
+        given()
+                .when().patch("/api/taskus/" + id + "/completar")
+                .then()
+                .statusCode(200)
+                .body("completada", is(true))
+                .body("$", not(hasKey("version")));
+        // Marcarla otra vez no cambia el estado ni los contadores
+        given()
+                .when().patch("/api/taskus/" + id + "/completar")
+                .then()
+                .statusCode(200)
+                .body("completada", is(true));
+        given()
+                .when().get("/api/taskus/estadisticas")
+                .then()
+                .body("pendientes", is(pendientesAntes - 1));
+
+        given()
+                .queryParam("completada", false)
+                .when().patch("/api/taskus/" + id + "/completar")
+                .then()
+                .statusCode(200)
+                .body("completada", is(false));
+        given()
+                .when().get("/api/taskus/estadisticas")
+                .then()
+                .body("pendientes", is(pendientesAntes));
+        given()
+                .when().patch("/api/taskus/99999/completar")
+                .then()
+                .statusCode(404);
+    }
+
+    @Test
+    void testLote_Vacio() {
+        given()
+                .contentType(ContentType.JSON)
+                .body(List.of())
+                .when().post("/api/taskus/batch")
+                .then()
+                .statusCode(400);
+    }
+
+    @Test
+    void testObtenerPorId_NoEncontrado() {
+        given()
+                .when().get("/api/taskus/99999")
+                .then()
+                .statusCode(404);
+    }
+
+    @Test
+    void testObtenerPorId_Condicional() {
+        Integer id = crearTarea("Tarea condicional");
+        
+        String etag = given()
+                .when().get("/api/taskus/" + id)
+                .then()
+                .statusCode(200)
+                .header("ETag", notNullValue())
+                .header("Last-Modified", notNullValue())
+                .extract().header("ETag");
+        
+        given()
+                .header("If-None-Match", etag)
+                .when().get("/api/taskus/" + id)
+                .then()
+                .statusCode(304)
+                .header("ETag", is(etag));
+        
+        given()
+                .header("If-None-Match", "\"otra\"")
+                .when().get("/api/taskus/" + id)
+                .then()
+                .statusCode(200)
+                .body("id", is(id));
+    }
+
+    @Test
+    void testObtenerTodas_Condicional() {
+        String etag = given()
+                .when().get("/api/taskus")
+                .then()
+                .statusCode(200)
+                .extract().header("ETag");
+        
+        given()
+                .header("If-None-Match", etag)
+                .when().get("/api/taskus")
+                .then()
+                .statusCode(304);
+        
+        crearTarea("Cambia la colección");
+        
+        given()
+                .header("If-None-Match", etag)
+                .when().get("/api/taskus")
+                .then()
+                .statusCode(200)
+                .header("ETag", not(etag));
+    }
+
+    @Test
+    void testActualizar_IfMatch() {
+        Integer id = crearTarea("Tarea con versión");
+        String etag = given()
+                .when().get("/api/taskus/" + id)
+                .then()
+                .extract().header("ETag");
+        
+        given()
+                .header("If-Match", "\"" + id + "-0\"")
+                .queryParam("completada", true)
+                .when().patch("/api/taskus/" + id + "/completar")
+                .then()
+                .statusCode(412)
+                .header("ETag", is(etag));
+        
+        String nuevaEtag = given()
+                .header("If-Match", etag)
+                .queryParam("completada", true)
+                .when().patch("/api/taskus/" + id + "/completar")
+                .then()
+                .statusCode(200)
+                .body("completada", is(true))
+                .header("ETag", not(etag))
+                .extract().header("ETag");
+        
+        // La etiqueta anterior ya no sirve para borrar
+        given()
+                .header("If-Match", etag)
+                .when().delete("/api/taskus/" + id)
+                .then()
+                .statusCode(412);
+        
+        given()
+                .header("If-Match", nuevaEtag)
+                .when().delete("/api/taskus/" + id)
+                .then()
+                .statusCode(204);
+    }
+
+    @Test
+    void testObtenerEstadisticas() {
+        given()
+                .when().get("/api/taskus/estadisticas")
+                .then()
+                .statusCode(200)
+                .body("completadas", notNullValue())
+                .body("pendientes", notNullValue())
+                .body("total", notNullValue())
+                .body("creadasHoy", notNullValue())
+                .body("completadasHoy", notNullValue());
+    }
+
+    @Test
+    void testExportar_UnaTareaPorLinea() throws Exception {
+        String marca = "Exportada " + System.nanoTime();
+        Integer id = crearTarea(marca);
+
+        String cuerpo = given()
+                .accept("application/x-ndjson")
+                .when().get("/api/taskus/export")
+                .then()
+                .statusCode(200)
+                .contentType(startsWith("application/x-ndjson"))
+                .extract().asString();
+
+        ObjectMapper mapeador = new ObjectMapper();
+        List<Map<String, Object>> filas = new ArrayList<>();
+        for (String linea : cuerpo.split("\n")) {
+            filas.add(mapeador.readValue(linea, new TypeReference<>() {}));
+        }
+        assertThat(filas).extracting(fila -> ((Number) fila.get("id")).longValue()).isSorted();
+        assertThat(filas).filteredOn(fila -> id.equals(fila.get("id"))).singleElement().satisfies(fila -> {
+            assertThat(fila.get("titulo")).isEqualTo(marca);
+            assertThat(fila.get("completada")).isEqualTo(false);
+        });
+    }
+
+    @Test
+    void testExportar_Csv() {
+        String marca = "Exportada, con coma " + System.nanoTime();
+        Integer id = crearTarea(marca);
+
+        String cuerpo = given()
+                .accept("text/csv")
+                .when().get("/api/taskus/export")
+                .then()
+                .statusCode(200)
+                .contentType(startsWith("text/csv"))
+                .extract().asString();
+
+        assertThat(cuerpo).startsWith("id,titulo,descripcion,completada,fecha_creacion,fecha_actualizacion\n");
+        assertThat(cuerpo).contains("\n" + id + ",\"" + marca + "\",,false,");
+    }
+
+    private Integer crearTarea(String titulo) {
+        return given()
+                .contentType(ContentType.JSON)
+                .body(new Tasku(titulo, null))
+                .when().post("/api/taskus")
+                .then()
+                .statusCode(201)
+                .extract().path("id");
+    }
+}
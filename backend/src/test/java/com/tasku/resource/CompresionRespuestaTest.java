@@ -0,0 +1,85 @@
+package com.tasku.resource;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompresionRespuestaTest {
+
+    @Test
+    void testElegir_SegunAcceptEncoding() {
+        assertThat(CompresionRespuesta.elegir(null)).isNull();
+        assertThat(CompresionRespuesta.elegir("identity")).isNull();
+        assertThat(CompresionRespuesta.elegir("gzip, deflate, br")).isEqualTo("gzip");
+        assertThat(CompresionRespuesta.elegir("deflate, gzip")).isEqualTo("gzip");
+        assertThat(CompresionRespuesta.elegir("gzip;q=0.5, deflate")).isEqualTo("deflate");
+        assertThat(CompresionRespuesta.elegir("gzip;q=0, br")).isNull();
+        assertThat(CompresionRespuesta.elegir("*")).isEqualTo("gzip");
+    }
+
+    @Test
+    void testSalida_PorDebajoDelUmbralSinComprimir() throws Exception {
+        // Given
+        ByteArrayOutputStream destino = new ByteArrayOutputStream();
+        AtomicBoolean comprimida = new AtomicBoolean();
+        CompresionRespuesta.SalidaCompresible salida = new CompresionRespuesta.SalidaCompresible(
+                destino, 100, "gzip", () -> comprimida.set(true));
+
+        // When
+        salida.write("[{\"id\":1}]".getBytes(StandardCharsets.UTF_8));
+        salida.flush();
+        salida.terminar();
+
+        // Then
+        assertThat(comprimida).isFalse();
+        assertThat(destino.toString(StandardCharsets.UTF_8)).isEqualTo("[{\"id\":1}]");
+    }
+
+    @Test
+    void testSalida_PorEncimaDelUmbralGzip() throws Exception {
+        // Given
+        ByteArrayOutputStream destino = new ByteArrayOutputStream();
+        AtomicBoolean comprimida = new AtomicBoolean();
+        CompresionRespuesta.SalidaCompresible salida = new CompresionRespuesta.SalidaCompresible(
+                destino, 100, "gzip", () -> comprimida.set(true));
+        byte[] cuerpo = "{\"titulo\":\"Tarea\"},".repeat(200).getBytes(StandardCharsets.UTF_8);
+
+        // When
+        salida.write(cuerpo, 0, 50);
+        assertThat(destino.size()).isZero();
+        salida.write(cuerpo, 50, cuerpo.length - 50);
+        salida.terminar();
+
+        // Then
+        assertThat(comprimida).isTrue();
+        assertThat(destino.size()).isLessThan(cuerpo.length / 10);
+        try (GZIPInputStream entrada = new GZIPInputStream(new ByteArrayInputStream(destino.toByteArray()))) {
+            assertThat(entrada.readAllBytes()).isEqualTo(cuerpo);
+        }
+    }
+
+    @Test
+    void testSalida_Deflate() throws Exception {
+        // Given
+        ByteArrayOutputStream destino = new ByteArrayOutputStream();
+        CompresionRespuesta.SalidaCompresible salida = new CompresionRespuesta.SalidaCompresible(
+                destino, 10, "deflate", () -> { });
+        byte[] cuerpo = "x".repeat(1000).getBytes(StandardCharsets.UTF_8);
+
+        // When
+        salida.write(cuerpo);
+        salida.terminar();
+
+        // Then
+        try (InflaterInputStream entrada = new InflaterInputStream(new ByteArrayInputStream(destino.toByteArray()))) {
+            assertThat(entrada.readAllBytes()).isEqualTo(cuerpo);
+        }
+    }
+}
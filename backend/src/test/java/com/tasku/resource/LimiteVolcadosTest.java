@@ -0,0 +1,76 @@
+package com.tasku.resource;
+
+import com.tasku.concurrencia.ClaseOperacion;
+import com.tasku.concurrencia.Compartimentos;
+import com.tasku.concurrencia.ConcurrenciaAgotadaException;
+import com.tasku.concurrencia.PermisosBaseDatos;
+import jakarta.ws.rs.core.StreamingOutput;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import java.io.ByteArrayOutputStream;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+class LimiteVolcadosTest {
+
+    private LimiteVolcados limite;
+
+    @BeforeEach
+    void setUp() {
+        limite = new LimiteVolcados();
+        limite.compartimentos = mock(Compartimentos.class);
+        limite.permisos = mock(PermisosBaseDatos.class);
+    }
+
+    @Test
+    void testLimitar_RetieneSitioYPermisoMientrasEscribe() throws Exception {
+        // Given
+        StreamingOutput volcado = mock(StreamingOutput.class);
+        StreamingOutput limitado = limite.limitar(volcado);
+        // Devolver el cuerpo no ocupa nada: eso pasa al escribirlo
+        verifyNoInteractions(limite.compartimentos, limite.permisos);
+
+        // When
+        limitado.write(new ByteArrayOutputStream());
+
+        // Then
+        InOrder orden = inOrder(limite.compartimentos, limite.permisos, volcado);
+        orden.verify(limite.compartimentos).entrar(ClaseOperacion.VOLCADO);
+        orden.verify(limite.permisos).adquirir();
+        orden.verify(volcado).write(any());
+        orden.verify(limite.permisos).liberar();
+        orden.verify(limite.compartimentos).salir(ClaseOperacion.VOLCADO);
+    }
+
+    @Test
+    void testLimitar_FalloAlEscribirDevuelveSitioYPermiso() throws Exception {
+        // Given
+        StreamingOutput limitado = limite.limitar(salida -> {
+            throw new IllegalStateException("Conexión cerrada");
+        });
+
+        // When / Then
+        assertThatThrownBy(() -> limitado.write(new ByteArrayOutputStream()))
+                .isInstanceOf(IllegalStateException.class);
+        verify(limite.permisos).liberar();
+        verify(limite.compartimentos).salir(ClaseOperacion.VOLCADO);
+    }
+
+    @Test
+    void testLimitar_SinPermisoNoEscribeYSaleDelCompartimento() throws Exception {
+        // Given
+        doThrow(new ConcurrenciaAgotadaException(20, Duration.ofSeconds(2))).when(limite.permisos).adquirir();
+        StreamingOutput volcado = mock(StreamingOutput.class);
+
+        // When / Then
+        assertThatThrownBy(() -> limite.limitar(volcado).write(new ByteArrayOutputStream()))
+                .isInstanceOf(ConcurrenciaAgotadaException.class);
+        verifyNoInteractions(volcado);
+        verify(limite.permisos, never()).liberar();
+        verify(limite.compartimentos).salir(ClaseOperacion.VOLCADO);
+    }
+}
@@ -0,0 +1,100 @@
+package com.tasku.resource;
+
+import com.tasku.H2TestProfile;
+import com.tasku.model.Tasku;
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import io.restassured.http.ContentType;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import static io.restassured.RestAssured.given;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+@QuarkusTest
+@TestProfile(H2TestProfile.class)
+class TaskuFeedResourceTest {
+
+    @TestHTTPResource("/api/taskus/stream")
+    URI stream;
+
+    private final HttpClient cliente = HttpClient.newHttpClient();
+
+    @Test
+    void testStream_CambiosYReanudacion() {
+        assertTimeoutPreemptively(Duration.ofSeconds(20), () -> {
+            String ultimoVisto;
+            // Un Last-Event-ID desconocido empieza con un reinicio, que confirma la suscripción
+            try (Stream<String> lineas = conectar("0")) {
+                Iterator<String> evento = lineas.iterator();
+                ultimoVisto = siguienteEvento(evento, "reinicio").id();
+
+                crearTarea("Tarea del feed");
+
+                assertThat(siguienteEvento(evento, "creada").datos()).contains("Tarea del feed");
+            }
+
+            // Al reconectar se repite lo ocurrido después del último id recibido
+            try (Stream<String> lineas = conectar(ultimoVisto)) {
+                Iterator<String> evento = lineas.iterator();
+                assertThat(siguienteEvento(evento, "creada").datos()).contains("Tarea del feed");
+            }
+        });
+    }
+
+    private Stream<String> conectar(String ultimoVisto) throws Exception {
+        HttpRequest peticion = HttpRequest.newBuilder(stream)
+                .header("Accept", "text/event-stream")
+                .header("Last-Event-ID", ultimoVisto)
+                .build();
+        HttpResponse<Stream<String>> respuesta = cliente.send(peticion, HttpResponse.BodyHandlers.ofLines());
+        assertThat(respuesta.statusCode()).isEqualTo(200);
+        return respuesta.body();
+    }
+
+    // Avanza hasta el siguiente evento con ese nombre, saltando latidos y otros eventos
+    private static Evento siguienteEvento(Iterator<String> lineas, String nombre) {
+        String id = null;
+        String tipo = null;
+        StringBuilder datos = new StringBuilder();
+        while (lineas.hasNext()) {
+            String linea = lineas.next();
+            if (linea.isEmpty()) {
+                if (nombre.equals(tipo)) {
+                    return new Evento(id, datos.toString());
+                }
+                id = null;
+                tipo = null;
+                datos.setLength(0);
+            } else if (linea.startsWith("id:")) {
+                id = linea.substring(3).trim();
+            } else if (linea.startsWith("event:")) {
+                tipo = linea.substring(6).trim();
+            } else if (linea.startsWith("data:")) {
+                datos.append(linea.substring(5).trim());
+            }
+        }
+        throw new AssertionError("El stream terminó sin el evento " + nombre);
+    }
+
+    private record Evento(String id, String datos) {
+    }
+
+    private static void crearTarea(String titulo) {
+        given()
+                .contentType(ContentType.JSON)
+                .body(new Tasku(titulo, null))
+                .when().post("/api/taskus")
+                .then()
+                .statusCode(201);
+    }
+}
@@ -0,0 +1,162 @@
+package com.tasku.resource;
+
+import com.tasku.H2TestProfile;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import io.restassured.response.Response;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static io.restassured.RestAssured.given;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.CoreMatchers.*;
+
+/**
+ * Cabecera Idempotency-Key de las escrituras. Cada caso usa claves propias.
+ */
+@QuarkusTest
+@TestProfile(H2TestProfile.class)
+class TaskuIdempotenciaTest {
+
+    @Test
+    void testCrear_RepeticionDevuelveLaMismaTarea() {
+        // Given
+        String clave = UUID.randomUUID().toString();
+        String cuerpo = "{\"titulo\":\"Idempotente\",\"descripcion\":\"Una sola vez\"}";
+        Response primera = crear(clave, cuerpo);
+        primera.then()
+                .statusCode(201)
+                .header(RespuestasIdempotentes.REPETIDA, nullValue());
+        int id = primera.path("id");
+
+        // When
+        Response repetida = crear(clave, cuerpo);
+
+        // Then
+        repetida.then()
+                .statusCode(201)
+                .header(RespuestasIdempotentes.REPETIDA, is("true"))
+                .header("ETag", is(primera.header("ETag")))
+                .body("id", is(id))
+                .body("titulo", is("Idempotente"));
+    }
+
+    @Test
+    void testCrear_SinClaveCreaCadaVez() {
+        // Given
+        String cuerpo = "{\"titulo\":\"Sin clave\"}";
+
+        // When
+        int primera = crear(null, cuerpo).then().statusCode(201).extract().path("id");
+        int segunda = crear(null, cuerpo).then().statusCode(201).extract().path("id");
+
+        // Then
+        assertThat(segunda).isNotEqualTo(primera);
+    }
+
+    @Test
+    void testCrear_MismaClaveConOtroCuerpo() {
+        // Given
+        String clave = UUID.randomUUID().toString();
+        crear(clave, "{\"titulo\":\"Original\"}").then().statusCode(201);
+
+        // When & Then
+        crear(clave, "{\"titulo\":\"Otra\"}").then()
+                .statusCode(422)
+                .body(containsString(clave));
+    }
+
+    @Test
+    void testCrear_ErrorQueDeshaceLaTransaccionLiberaLaClave() {
+        // Given: la validación falla dentro de la transacción, que se deshace sin guardar la respuesta
+        String clave = UUID.randomUUID().toString();
+        crear(clave, "{\"descripcion\":\"Sin título\"}").then().statusCode(400);
+
+        // When & Then: la petición corregida se ejecuta con la misma clave
+        crear(clave, "{\"titulo\":\"Corregida\"}").then()
+                .statusCode(201)
+                .header(RespuestasIdempotentes.REPETIDA, nullValue())
+                .body("titulo", is("Corregida"));
+    }
+
+    @Test
+    void testCrear_ClaveDemasiadoLarga() {
+        crear("x".repeat(256), "{\"titulo\":\"Clave larga\"}").then()
+                .statusCode(400)
+                .body(containsString("clave de idempotencia"));
+    }
+
+    @Test
+    void testCrearLote_Repeticion() {
+        // Given
+        String clave = UUID.randomUUID().toString();
+        String cuerpo = "[{\"titulo\":\"Lote 1\"},{\"titulo\":\"Lote 2\"}]";
+        List<Integer> ids = crearLote(clave, cuerpo).then()
+                .statusCode(200)
+                .extract().path("id");
+
+        // When & Then
+        crearLote(clave, cuerpo).then()
+                .statusCode(200)
+                .header(RespuestasIdempotentes.REPETIDA, is("true"))
+                .body("id", is(ids));
+    }
+
+    @Test
+    void testCrear_RepeticionesALaVezCreanUnaSola() throws Exception {
+        // Given
+        String clave = UUID.randomUUID().toString();
+        String cuerpo = "{\"titulo\":\"Concurrente\"}";
+        int peticiones = 8;
+        CountDownLatch salida = new CountDownLatch(1);
+        ExecutorService hilos = Executors.newFixedThreadPool(peticiones);
+        List<Future<Response>> respuestas = new ArrayList<>();
+
+        // When
+        try {
+            for (int i = 0; i < peticiones; i++) {
+                Callable<Response> peticion = () -> {
+                    salida.await();
+                    return crear(clave, cuerpo);
+                };
+                respuestas.add(hilos.submit(peticion));
+            }
+            salida.countDown();
+
+            // Then: todas esperan a la primera y reciben su tarea
+            List<Object> ids = new ArrayList<>();
+            for (Future<Response> respuesta : respuestas) {
+                Response r = respuesta.get();
+                assertThat(r.statusCode()).isEqualTo(201);
+                ids.add(r.path("id"));
+            }
+            assertThat(ids).hasSize(peticiones).containsOnly(ids.get(0));
+        } finally {
+            hilos.shutdownNow();
+        }
+    }
+
+    private static Response crear(String clave, String cuerpo) {
+        var peticion = given().contentType("application/json").body(cuerpo);
+        if (clave != null) {
+            peticion.header(RespuestasIdempotentes.CLAVE, clave);
+        }
+        return peticion.when().post("/api/taskus");
+    }
+
+    private static Response crearLote(String clave, String cuerpo) {
+        return given()
+                .contentType("application/json")
+                .header(RespuestasIdempotentes.CLAVE, clave)
+                .body(cuerpo)
+                .when().post("/api/taskus/batch");
+    }
+}
@@ -0,0 +1,237 @@
+package com.tasku.resource;
+
+import com.tasku.H2TestProfile;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static io.restassured.RestAssured.given;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.CoreMatchers.*;
+
+/**
+ * {@code POST /api/taskus/import} sobre H2, que escribe con INSERT por lotes.
+ * Cada caso usa ids propios muy por encima de los que reparte la secuencia
+ * al arrancar.
+ */
+@QuarkusTest
+@TestProfile(H2TestProfile.class)
+class TaskuImportacionTest {
+
+    private static final AtomicLong SIGUIENTES_IDS = new AtomicLong(2_000_000_000L);
+
+    @Test
+    void testImportar_Ndjson() {
+        // Given
+        long base = idsLibres();
+        String cuerpo = "{\"id\":" + base + ",\"titulo\":\"Importada 1\",\"descripcion\":\"Con descripción\","
+                + "\"completada\":true,\"fechaCreacion\":\"2024-01-02T03:04:05.123456\"}\n"
+                + "{\"id\":" + (base + 1) + ",\"titulo\":\"Importada 2\"}\n";
+
+        // When
+        given()
+                .contentType("application/x-ndjson")
+                .queryParam("importacion", "ndjson-" + base)
+                .body(utf8(cuerpo))
+                .when().post("/api/taskus/import")
+                .then()
+                .statusCode(200)
+                .body("importacion", is("ndjson-" + base))
+                .body("filas", is(2))
+                .body("terminada", is(true))
+                .body("error", nullValue());
+
+        // Then
+        given()
+                .when().get("/api/taskus/" + base)
+                .then()
+                .statusCode(200)
+                .body("titulo", is("Importada 1"))
+                .body("completada", is(true))
+                .body("fechaCreacion", is("2024-01-02T03:04:05.123456"));
+        given()
+                .when().get("/api/taskus/" + (base + 1))
+                .then()
+                .statusCode(200)
+                .body("completada", is(false))
+                .body("fechaCreacion", notNullValue());
+    }
+
+    @Test
+    void testImportar_ReanudaDesdeElPuntoDeControl() {
+        // Given: la segunda fila no tiene título
+        long base = idsLibres();
+        String importacion = "reanudada-" + base;
+        String primera = "{\"id\":" + base + ",\"titulo\":\"Primera\"}\n";
+        String tercera = "{\"id\":" + (base + 2) + ",\"titulo\":\"Tercera\"}\n";
+        given()
+                .contentType("application/x-ndjson")
+                .queryParam("importacion", importacion)
+                .body(utf8(primera + "{\"id\":" + (base + 1) + "}\n" + tercera))
+                .when().post("/api/taskus/import")
+                .then()
+                .statusCode(400)
+                .body("filas", is(1))
+                .body("terminada", is(false))
+                .body("error", containsString("Fila 2"));
+        given()
+                .when().get("/api/taskus/import/" + importacion)
+                .then()
+                .statusCode(200)
+                .body("filas", is(1));
+
+        // When: la misma entrada corregida
+        given()
+                .contentType("application/x-ndjson")
+                .queryParam("importacion", importacion)
+                .body(utf8(primera + "{\"id\":" + (base + 1) + ",\"titulo\":\"Segunda\"}\n" + tercera))
+                .when().post("/api/taskus/import")
+                .then()
+                .statusCode(200)
+                .body("filas", is(3))
+                .body("terminada", is(true));
+
+        // Then: la primera no se vuelve a insertar y una importación terminada no se repite
+        given()
+                .when().get("/api/taskus/" + (base + 1))
+                .then()
+                .statusCode(200)
+                .body("titulo", is("Segunda"));
+        given()
+                .contentType("application/x-ndjson")
+                .queryParam("importacion", importacion)
+                .body(utf8(primera))
+                .when().post("/api/taskus/import")
+                .then()
+                .statusCode(200)
+                .body("filas", is(3));
+    }
+
+    @Test
+    void testImportar_CsvExportado() {
+        // Given: comillas, comas, saltos de línea, descripción vacía y nula
+        long base = idsLibres();
+        String cuerpo = "id,titulo,descripcion,completada,fecha_creacion,fecha_actualizacion\n"
+                + base + ",\"Con \"\"comillas\"\", y coma\",\"Dos\nlíneas\",t,2024-01-02 03:04:05.5,\n"
+                + (base + 1) + ",Sin descripción,,false,2024-01-02 03:04:05,2024-02-03 04:05:06\n"
+                + (base + 2) + ",Descripción vacía,\"\",f,2024-01-02T03:04:05,\n";
+
+        // When
+        given()
+                .contentType("text/csv")
+                .body(utf8(cuerpo))
+                .when().post("/api/taskus/import")
+                .then()
+                .statusCode(200)
+                .body("filas", is(3))
+                .body("importacion", notNullValue());
+
+        // Then
+        given()
+                .when().get("/api/taskus/" + base)
+                .then()
+                .statusCode(200)
+                .body("titulo", is("Con \"comillas\", y coma"))
+                .body("descripcion", is("Dos\nlíneas"))
+                .body("completada", is(true))
+                .body("fechaCreacion", is("2024-01-02T03:04:05.5"));
+        given()
+                .when().get("/api/taskus/" + (base + 1))
+                .then()
+                .statusCode(200)
+                .body("descripcion", nullValue())
+                .body("fechaActualizacion", is("2024-02-03T04:05:06"));
+        given()
+                .when().get("/api/taskus/" + (base + 2))
+                .then()
+                .statusCode(200)
+                .body("descripcion", is(""));
+        String exportado = given()
+                .accept("text/csv")
+                .when().get("/api/taskus/export")
+                .then()
+                .statusCode(200)
+                .extract().asString();
+        assertThat(exportado).contains(base + ",\"Con \"\"comillas\"\", y coma\",\"Dos\nlíneas\",true,"
+                + "2024-01-02 03:04:05.5,\n");
+    }
+
+    @Test
+    void testImportar_MasGrandeQueElLimiteDelResto() {
+        // Given: unos 11 MB, más que los 10 MB que se admiten en el resto de rutas
+        int filas = 11_000;
+        long base = idsLibres(filas);
+        String descripcion = "d".repeat(1000);
+        StringBuilder cuerpo = new StringBuilder();
+        for (int i = 0; i < filas; i++) {
+            cuerpo.append("{\"id\":").append(base + i).append(",\"titulo\":\"Grande ").append(i)
+                    .append("\",\"descripcion\":\"").append(descripcion).append("\"}\n");
+        }
+        assertThat(cuerpo.length()).isGreaterThan(10 * 1024 * 1024);
+
+        // When
+        given()
+                .contentType("application/x-ndjson")
+                .body(utf8(cuerpo.toString()))
+                .when().post("/api/taskus/import")
+                .then()
+                .statusCode(200)
+                .body("filas", is(filas))
+                .body("terminada", is(true));
+
+        // Then
+        given()
+                .when().get("/api/taskus/" + (base + filas - 1))
+                .then()
+                .statusCode(200)
+                .body("titulo", is("Grande " + (filas - 1)));
+    }
+
+    @Test
+    void testCrear_CuerpoMasGrandeQueElLimite() {
+        // Given
+        String cuerpo = "{\"titulo\":\"Enorme\",\"descripcion\":\"" + "d".repeat(11 * 1024 * 1024) + "\"}";
+
+        // When / Then: con Expect el cliente espera la respuesta antes de mandar el cuerpo,
+        // que el servidor no va a leer
+        given()
+                .contentType("application/json")
+                .header("Expect", "100-continue")
+                .body(cuerpo)
+                .when().post("/api/taskus")
+                .then()
+                .statusCode(413);
+    }
+
+    @Test
+    void testObtenerImportacion_NoEncontrada() {
+        given()
+                .when().get("/api/taskus/import/no-existe")
+                .then()
+                .statusCode(404);
+    }
+
+    /**
+     * Diez ids sin usar. La importación deja la secuencia por encima de lo
+     * importado, así que cada caso baja desde el anterior para no caer en ids
+     * que la secuencia haya repartido después.
+     */
+    private static long idsLibres() {
+        return idsLibres(10);
+    }
+
+    private static long idsLibres(int cantidad) {
+        return SIGUIENTES_IDS.addAndGet(-cantidad);
+    }
+
+    /**
+     * El cuerpo en bytes: RestAssured no sabe codificar texto para
+     * application/x-ndjson y para text/csv usa ISO-8859-1.
+     */
+    private static byte[] utf8(String cuerpo) {
+        return cuerpo.getBytes(StandardCharsets.UTF_8);
+    }
+}
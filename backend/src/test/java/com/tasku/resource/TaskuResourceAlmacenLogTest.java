@@ -0,0 +1,31 @@
+package com.tasku.resource;
+
+import com.tasku.AlmacenLogTestProfile;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.notNullValue;
+
+/**
+ * Los mismos casos de {@link CasosTaskuResource} con las tareas en el almacén
+ * de log en lugar de la base de datos.
+ */
+@QuarkusTest
+@TestProfile(AlmacenLogTestProfile.class)
+class TaskuResourceAlmacenLogTest extends CasosTaskuResource {
+
+    @Test
+    void testImportar_NoDisponible() {
+        given()
+                .contentType("application/x-ndjson")
+                .body("{\"id\":1,\"titulo\":\"Importada\"}\n".getBytes(StandardCharsets.UTF_8))
+                .when().post("/api/taskus/import")
+                .then()
+                .statusCode(501)
+                .body("error", notNullValue());
+    }
+}
@@ -0,0 +1,15 @@
+package com.tasku.resource;
+
+import com.tasku.ReactivoTestProfile;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+/**
+ * Los mismos casos de {@link CasosTaskuResource} contra la pila reactiva.
+ */
+@QuarkusTest
+@TestProfile(ReactivoTestProfile.class)
+@EnabledIfSystemProperty(named = "tasku.test.postgres", matches = "true")
+class TaskuResourceReactivoTest extends CasosTaskuResource {
+}
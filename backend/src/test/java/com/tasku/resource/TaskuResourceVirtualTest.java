@@ -0,0 +1,68 @@
+package com.tasku.resource;
+
+import com.tasku.HilosVirtualesTestProfile;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Los mismos casos de {@link CasosTaskuResource} atendidos en hilos virtuales.
+ * Cada caso graba con JFR los eventos {@code jdk.VirtualThreadPinned} y falla
+ * si alguna petición fijó su hilo virtual al hilo portador, con la pila donde
+ * se quedó fijado. Surefire arranca además con
+ * {@code -Djdk.tracePinnedThreads=short}, que deja la traza en la salida.
+ */
+@QuarkusTest
+@TestProfile(HilosVirtualesTestProfile.class)
+class TaskuResourceVirtualTest extends CasosTaskuResource {
+
+    private Recording grabacion;
+
+    @BeforeEach
+    void grabarHilosFijados() {
+        grabacion = new Recording();
+        grabacion.enable("jdk.VirtualThreadPinned").withStackTrace();
+        grabacion.start();
+    }
+
+    @AfterEach
+    void sinHilosFijados() throws IOException {
+        grabacion.stop();
+        Path archivo = Files.createTempFile("hilos-fijados", ".jfr");
+        try {
+            grabacion.dump(archivo);
+            List<RecordedEvent> fijados = RecordingFile.readAllEvents(archivo);
+            assertThat(fijados)
+                    .as(() -> "Hilos virtuales fijados a su portador:\n" + fijados.stream()
+                            .map(TaskuResourceVirtualTest::pila)
+                            .collect(Collectors.joining("\n\n")))
+                    .isEmpty();
+        } finally {
+            grabacion.close();
+            Files.deleteIfExists(archivo);
+        }
+    }
+
+    private static String pila(RecordedEvent evento) {
+        if (evento.getStackTrace() == null) {
+            return evento.getThread().getJavaName() + " (sin pila)";
+        }
+        return evento.getStackTrace().getFrames().stream()
+                .map(RecordedFrame::getMethod)
+                .map(metodo -> "    " + metodo.getType().getName() + "." + metodo.getName())
+                .collect(Collectors.joining("\n", evento.getDuration() + " en " + evento.getThread().getJavaName() + "\n", ""));
+    }
+}
@@ -0,0 +1,80 @@
+package com.tasku.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IndiceNgramasTest {
+
+    private IndiceNgramas indice;
+
+    @BeforeEach
+    void setUp() {
+        indice = new IndiceNgramas();
+        indice.indexar(1L, "Comprar leche");
+        indice.indexar(2L, "Comprar pan y leche en la tienda");
+        indice.indexar(3L, "Llamar al médico");
+    }
+
+    @Test
+    void testBuscar_OrdenaPorRelevancia() {
+        // When
+        List<Long> resultado = indice.buscar("LECHE", 0, 10);
+
+        // Then
+        assertThat(resultado).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void testBuscar_SoloSubcadenasCompletas() {
+        // When
+        List<Long> resultado = indice.buscar("leche médico", 0, 10);
+
+        // Then
+        assertThat(resultado).isEmpty();
+    }
+
+    @Test
+    void testBuscar_ConsultaCorta() {
+        // When
+        List<Long> resultado = indice.buscar("al", 0, 10);
+
+        // Then
+        assertThat(resultado).containsExactly(3L);
+    }
+
+    @Test
+    void testBuscar_Paginado() {
+        // When
+        List<Long> primeraPagina = indice.buscar("comprar", 0, 1);
+        List<Long> segundaPagina = indice.buscar("comprar", 1, 1);
+
+        // Then
+        assertThat(primeraPagina).containsExactly(1L);
+        assertThat(segundaPagina).containsExactly(2L);
+    }
+
+    @Test
+    void testIndexar_ReemplazaTextoAnterior() {
+        // When
+        indice.indexar(1L, "Pagar la luz");
+
+        // Then
+        assertThat(indice.buscar("leche", 0, 10)).containsExactly(2L);
+        assertThat(indice.buscar("luz", 0, 10)).containsExactly(1L);
+        assertThat(indice.tamano()).isEqualTo(3);
+    }
+
+    @Test
+    void testEliminar() {
+        // When
+        indice.eliminar(2L);
+
+        // Then
+        assertThat(indice.buscar("comprar", 0, 10)).containsExactly(1L);
+        assertThat(indice.tamano()).isEqualTo(2);
+    }
+}
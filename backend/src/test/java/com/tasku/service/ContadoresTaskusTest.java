@@ -0,0 +1,213 @@
+package com.tasku.service;
+
+import com.tasku.almacen.AlmacenTaskus;
+import com.tasku.dto.EstadisticasTaskus;
+import com.tasku.event.CambioReplicado;
+import com.tasku.event.TaskuCambio;
+import com.tasku.model.RegistroCambio;
+import com.tasku.model.Tasku;
+import jakarta.transaction.Status;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ContadoresTaskusTest {
+
+    @Mock
+    AlmacenTaskus almacen;
+
+    @Mock
+    RelayCambios relay;
+
+    @Mock
+    TransactionSynchronizationRegistry transacciones;
+
+    @InjectMocks
+    ContadoresTaskus contadores;
+
+    private Tasku tasku;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        contadores.espera = Duration.ZERO;
+        when(relay.sinEntregar(any())).thenAnswer(invocacion -> {
+            Function<List<RegistroCambio.Tramo>, ?> paso = invocacion.getArgument(0);
+            return paso.apply(List.of(RegistroCambio.Tramo.despuesDe(40)));
+        });
+        when(almacen.contarResumen(any(), any())).thenReturn(resumen(5, 3, 2, 1));
+        when(transacciones.getTransactionStatus()).thenReturn(Status.STATUS_ACTIVE);
+        contadores.reconciliar();
+
+        tasku = new Tasku("Tarea", "Descripción");
+        tasku.setId(10L);
+    }
+
+    @Test
+    void testLeer_ValoresReconciliados() {
+        // When
+        EstadisticasTaskus resultado = contadores.leer();
+
+        // Then
+        assertThat(resultado).isEqualTo(new EstadisticasTaskus(5, 3, 8, 2, 1));
+        verify(almacen).contarResumen(any(), eq(List.of(new RegistroCambio.Tramo(41, Long.MAX_VALUE))));
+    }
+
+    @Test
+    void testAplicar_CicloDeVida() {
+        // When
+        aplicar(TaskuCambio.creada(tasku));
+
+        // Then
+        assertThat(contadores.leer()).isEqualTo(new EstadisticasTaskus(5, 4, 9, 3, 1));
+
+        // When
+        tasku.setCompletada(true);
+        aplicar(TaskuCambio.actualizada(tasku, false));
+
+        // Then
+        assertThat(contadores.leer()).isEqualTo(new EstadisticasTaskus(6, 3, 9, 3, 2));
+
+        // When: reabrirla y borrarla no cambia lo que pasó hoy
+        tasku.setCompletada(false);
+        aplicar(TaskuCambio.actualizada(tasku, true));
+        aplicar(TaskuCambio.eliminada(10L, false));
+
+        // Then
+        assertThat(contadores.leer()).isEqualTo(new EstadisticasTaskus(5, 3, 8, 3, 2));
+    }
+
+    @Test
+    void testAplicar_ActualizacionSinCambioDeEstado() {
+        // When
+        aplicar(TaskuCambio.actualizada(tasku, false));
+
+        // Then
+        assertThat(contadores.leer()).isEqualTo(new EstadisticasTaskus(5, 3, 8, 2, 1));
+    }
+
+    @Test
+    void testReconciliar_NoEsperaACambiosSinConfirmar() {
+        // Given: una transacción abierta que aún no ha llegado al commit
+        when(almacen.contarResumen(any(), any())).thenReturn(resumen(0, 0, 0, 0));
+        contadores.registrarSinTransaccion(TaskuCambio.creada(tasku));
+
+        // When
+        contadores.reconciliar();
+
+        // Then
+        assertThat(contadores.leer().total()).isZero();
+    }
+
+    @Test
+    void testReconciliar_AplazadaConUnCommitAMedias() {
+        // Given
+        TaskuCambio cambio = TaskuCambio.creada(tasku);
+        contadores.confirmar(cambio);
+        when(almacen.contarResumen(any(), any())).thenReturn(resumen(0, 0, 0, 0));
+
+        // When
+        contadores.reconciliar();
+
+        // Then
+        assertThat(contadores.leer().total()).isEqualTo(8);
+
+        // When: al terminar el commit
+        contadores.aplicar(cambio);
+        contadores.reconciliar();
+
+        // Then
+        assertThat(contadores.leer().total()).isZero();
+    }
+
+    @Test
+    void testReconciliar_AplazadaConCambiosSinTransaccion() {
+        // Given: sin transacción se notifican a la vez AFTER_SUCCESS y AFTER_FAILURE
+        when(transacciones.getTransactionStatus()).thenReturn(Status.STATUS_NO_TRANSACTION);
+        TaskuCambio cambio = TaskuCambio.creada(tasku);
+        TaskuCambio otro = TaskuCambio.creada(tasku);
+        aplicar(cambio);
+        contadores.descartar(cambio);
+        contadores.registrarSinTransaccion(otro);
+        when(almacen.contarResumen(any(), any())).thenReturn(resumen(0, 0, 0, 0));
+
+        // When: el segundo aviso de un cambio no cuenta como si terminara el otro
+        contadores.reconciliar();
+
+        // Then
+        assertThat(contadores.leer().total()).isEqualTo(9);
+
+        // When
+        contadores.aplicar(otro);
+        contadores.descartar(otro);
+        contadores.reconciliar();
+
+        // Then
+        assertThat(contadores.leer().total()).isZero();
+    }
+
+    @Test
+    void testReconciliar_NoAplicaLoQueYaContoSinEntregar() {
+        // Given
+        when(almacen.contarResumen(any(), any()))
+                .thenReturn(new AlmacenTaskus.Resumen(5, 3, 2, 1, Set.of(42L)));
+        contadores.reconciliar();
+
+        // When
+        contadores.replicar(new CambioReplicado(42, "otro-nodo", TaskuCambio.creada(tasku)));
+
+        // Then
+        assertThat(contadores.leer().total()).isEqualTo(8);
+
+        // When
+        contadores.replicar(new CambioReplicado(43, "otro-nodo", TaskuCambio.creada(tasku)));
+
+        // Then
+        assertThat(contadores.leer().total()).isEqualTo(9);
+    }
+
+    @Test
+    void testReplicar_SoloCambiosDeOtrosNodos() {
+        // When
+        contadores.replicar(new CambioReplicado(1, CambioReplicado.ORIGEN_LOCAL, TaskuCambio.creada(tasku)));
+
+        // Then
+        assertThat(contadores.leer().total()).isEqualTo(8);
+
+        // When
+        contadores.replicar(new CambioReplicado(2, "otro-nodo", TaskuCambio.creada(tasku)));
+
+        // Then
+        assertThat(contadores.leer()).isEqualTo(new EstadisticasTaskus(5, 4, 9, 3, 1));
+
+        // When: uno que ya incluían los contadores cargados al arrancar
+        contadores.replicar(new CambioReplicado(3, "otro-nodo", TaskuCambio.creada(tasku), true));
+
+        // Then
+        assertThat(contadores.leer()).isEqualTo(new EstadisticasTaskus(5, 4, 9, 3, 1));
+    }
+
+    private void aplicar(TaskuCambio cambio) {
+        contadores.registrarSinTransaccion(cambio);
+        contadores.confirmar(cambio);
+        contadores.aplicar(cambio);
+    }
+
+    private static AlmacenTaskus.Resumen resumen(long completadas, long pendientes, long creadas,
+                                                 long completadasDesde) {
+        return new AlmacenTaskus.Resumen(completadas, pendientes, creadas, completadasDesde, Set.of());
+    }
+}
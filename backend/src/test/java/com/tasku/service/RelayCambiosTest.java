@@ -0,0 +1,196 @@
+package com.tasku.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tasku.event.CambioReplicado;
+import com.tasku.event.TaskuCambio;
+import com.tasku.model.RegistroCambio;
+import com.tasku.model.Tasku;
+import com.tasku.repository.RegistroCambioRepository;
+import jakarta.enterprise.event.Event;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class RelayCambiosTest {
+
+    @Mock
+    RegistroCambioRepository repository;
+
+    @Mock
+    Event<CambioReplicado> eventos;
+
+    @InjectMocks
+    RelayCambios relay;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        relay.objectMapper = new ObjectMapper().findAndRegisterModules();
+        relay.tamanoLote = 10;
+        relay.esperaHuecos = Duration.ofMinutes(1);
+        relay.retrasoMaximo = Duration.ofMinutes(1);
+        relay.revisionHuecos = Duration.ofMinutes(10);
+        relay.reanudarDesde(0);
+    }
+
+    @Test
+    void testRelevar_EntregaEnOrden() throws Exception {
+        // Given
+        Tasku tasku = new Tasku("Tarea", "Descripción");
+        tasku.setId(7L);
+        RegistroCambio creada = registro(1, new TaskuCambio(TaskuCambio.Tipo.CREADA, 7L, tasku, null),
+                relay.objectMapper.writeValueAsString(tasku));
+        RegistroCambio eliminada = registro(2, TaskuCambio.eliminada(7L, false), null);
+        when(repository.leerDesde(0, 10)).thenReturn(List.of(creada, eliminada));
+
+        // When
+        int entregados = relay.relevar();
+
+        // Then
+        ArgumentCaptor<CambioReplicado> captor = ArgumentCaptor.forClass(CambioReplicado.class);
+        verify(eventos, times(2)).fire(captor.capture());
+        assertThat(entregados).isEqualTo(2);
+        assertThat(relay.ultimaEntregada()).isEqualTo(2);
+        assertThat(captor.getAllValues().get(0).cambio().tasku().getTitulo()).isEqualTo("Tarea");
+        assertThat(captor.getAllValues().get(0).esLocal()).isFalse();
+        assertThat(captor.getAllValues().get(1).cambio().tipo()).isEqualTo(TaskuCambio.Tipo.ELIMINADA);
+    }
+
+    @Test
+    void testRelevar_EsperaLosHuecos() {
+        // Given
+        when(repository.leerDesde(0, 10)).thenReturn(List.of(
+                registro(1, TaskuCambio.eliminada(1L, false), null),
+                registro(3, TaskuCambio.eliminada(3L, false), null)));
+
+        // When
+        int entregados = relay.relevar();
+
+        // Then
+        assertThat(entregados).isEqualTo(1);
+        assertThat(relay.ultimaEntregada()).isEqualTo(1);
+    }
+
+    @Test
+    void testAlDia_SoloTrasUnaPasadaHastaElFinal() {
+        // Given
+        when(repository.leerDesde(0, 10)).thenReturn(List.of(
+                registro(1, TaskuCambio.eliminada(1L, false), null),
+                registro(3, TaskuCambio.eliminada(3L, false), null)));
+        when(repository.leerDesde(3, 10)).thenReturn(List.of());
+        assertThat(relay.alDia()).isFalse();
+
+        // When / Then: detenido en el hueco, y al día cuando se llena
+        relay.relevar();
+        assertThat(relay.alDia()).isFalse();
+        when(repository.leerDesde(1, 10)).thenReturn(List.of(
+                registro(2, TaskuCambio.eliminada(2L, false), null),
+                registro(3, TaskuCambio.eliminada(3L, false), null)));
+        relay.relevar();
+        assertThat(relay.alDia()).isTrue();
+        relay.retrasoMaximo = Duration.ZERO;
+        assertThat(relay.alDia()).isFalse();
+    }
+
+    @Test
+    void testRelevar_SaltaLosHuecosVencidos() {
+        // Given
+        relay.esperaHuecos = Duration.ZERO;
+        when(repository.leerDesde(0, 10)).thenReturn(List.of(registro(3, TaskuCambio.eliminada(3L, false), null)));
+
+        // When
+        int entregados = relay.relevar();
+
+        // Then
+        assertThat(entregados).isEqualTo(1);
+        assertThat(relay.ultimaEntregada()).isEqualTo(3);
+    }
+
+    @Test
+    void testRelevar_EntregaLosSaltadosQueAparecenTarde() {
+        // Given: se saltan el 1 y el 2, y luego se confirma el 2
+        relay.esperaHuecos = Duration.ZERO;
+        when(repository.leerDesde(0, 10)).thenReturn(List.of(registro(3, TaskuCambio.eliminada(3L, false), null)));
+        relay.relevar();
+        when(repository.leerDesde(3, 10)).thenReturn(List.of());
+        when(repository.leerEntre(1, 2)).thenReturn(List.of(registro(2, TaskuCambio.eliminada(2L, false), null)));
+
+        // When
+        int entregados = relay.relevar();
+
+        // Then: solo el 1 se sigue revisando
+        assertThat(entregados).isEqualTo(1);
+        ArgumentCaptor<CambioReplicado> captor = ArgumentCaptor.forClass(CambioReplicado.class);
+        verify(eventos, times(2)).fire(captor.capture());
+        assertThat(captor.getAllValues()).extracting(CambioReplicado::secuencia).containsExactly(3L, 2L);
+        relay.relevar();
+        verify(repository).leerEntre(1, 1);
+    }
+
+    @Test
+    void testRelevar_DejaDeRevisarLosSaltadosViejos() {
+        // Given
+        relay.esperaHuecos = Duration.ZERO;
+        relay.revisionHuecos = Duration.ZERO;
+        when(repository.leerDesde(0, 10)).thenReturn(List.of(registro(3, TaskuCambio.eliminada(3L, false), null)));
+        relay.relevar();
+        when(repository.leerDesde(3, 10)).thenReturn(List.of());
+
+        // When
+        relay.relevar();
+        relay.relevar();
+
+        // Then: se revisa una vez más y se abandona
+        verify(repository, times(1)).leerEntre(1, 2);
+    }
+
+    @Test
+    void testRelevar_MarcaLosCargadosAlArrancar() {
+        // Given: el estado se cargó de las tablas con el registro en la secuencia 2
+        relay.cargadaAlArrancar = 2;
+        when(repository.leerDesde(0, 10)).thenReturn(List.of(
+                registro(1, TaskuCambio.eliminada(1L, false), null),
+                registro(2, TaskuCambio.eliminada(2L, false), null),
+                registro(3, TaskuCambio.eliminada(3L, false), null)));
+
+        // When
+        relay.relevar();
+
+        // Then
+        ArgumentCaptor<CambioReplicado> captor = ArgumentCaptor.forClass(CambioReplicado.class);
+        verify(eventos, times(3)).fire(captor.capture());
+        assertThat(captor.getAllValues()).extracting(CambioReplicado::aplicaAEstadoCargado)
+                .containsExactly(false, false, true);
+    }
+
+    @Test
+    void testRelevar_SinCambios() {
+        // Given
+        when(repository.leerDesde(anyLong(), anyInt())).thenReturn(List.of());
+
+        // When
+        int entregados = relay.relevar();
+
+        // Then
+        assertThat(entregados).isZero();
+        verify(eventos, never()).fire(any());
+    }
+
+    private static RegistroCambio registro(long secuencia, TaskuCambio cambio, String datos) {
+        RegistroCambio registro = new RegistroCambio(cambio, datos, "otro-nodo");
+        registro.setSecuencia(secuencia);
+        return registro;
+    }
+}
@@ -0,0 +1,67 @@
+package com.tasku.service;
+
+import com.tasku.H2TestProfile;
+import com.tasku.event.CambioReplicado;
+import com.tasku.event.TaskuCambio;
+import com.tasku.model.RegistroCambio;
+import com.tasku.model.Tasku;
+import com.tasku.repository.RegistroCambioRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@QuarkusTest
+@TestProfile(H2TestProfile.class)
+class ReplicacionTest {
+
+    @Inject
+    TaskuService service;
+
+    @Inject
+    RegistroCambioRepository registro;
+
+    @Inject
+    RelayCambios relay;
+
+    @Test
+    void testRegistro_MismaTransaccionQueElCambio() {
+        // Given
+        long antes = registro.ultimaSecuencia();
+
+        // When
+        Tasku creada = service.crear(new Tasku("Tarea registrada", null));
+        service.marcarCompletada(creada.getId(), true);
+
+        // Then
+        List<RegistroCambio> cambios = registro.leerDesde(antes, 10);
+        assertThat(cambios).extracting(RegistroCambio::getTipo)
+                .containsExactly(TaskuCambio.Tipo.CREADA, TaskuCambio.Tipo.ACTUALIZADA);
+        assertThat(cambios).allMatch(cambio -> cambio.getTaskuId().equals(creada.getId())
+                && cambio.getOrigen().equals(CambioReplicado.ORIGEN_LOCAL));
+        assertThat(cambios.get(1).getDatos()).contains("\"completada\":true");
+    }
+
+    @Test
+    void testRelevo_AplicaCambiosDeOtrosNodos() {
+        // Given
+        relay.relevar();
+        long pendientesAntes = service.obtenerEstadisticas().pendientes();
+        Tasku ajena = new Tasku("Tarea de otro nodo", null);
+        ajena.setId(Long.MAX_VALUE);
+        QuarkusTransaction.requiringNew().run(() -> registro.persist(
+                new RegistroCambio(TaskuCambio.creada(ajena), "{\"titulo\":\"Tarea de otro nodo\"}", "otro-nodo")));
+
+        // When
+        relay.relevar();
+
+        // Then
+        assertThat(relay.ultimaEntregada()).isEqualTo(registro.ultimaSecuencia());
+        assertThat(service.obtenerEstadisticas().pendientes()).isEqualTo(pendientesAntes + 1);
+    }
+}
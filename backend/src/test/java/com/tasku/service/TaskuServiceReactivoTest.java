@@ -0,0 +1,150 @@
+package com.tasku.service;
+
+import com.tasku.event.TaskuCambio;
+import com.tasku.model.Tasku;
+import com.tasku.repository.TaskuRepositoryReactivo;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.event.Event;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class TaskuServiceReactivoTest {
+
+    @Mock
+    TaskuRepositoryReactivo repository;
+
+    @Mock
+    ContadoresTaskus contadores;
+
+    @Mock
+    Event<TaskuCambio> eventos;
+
+    @InjectMocks
+    TaskuServiceReactivo service;
+
+    private Tasku tasku;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        tasku = new Tasku("Tarea 1", "Descripción de la tarea 1");
+        tasku.setId(1L);
+        tasku.setCompletada(false);
+        // actualizar() aplica los cambios sobre la tarea existente, como lo haría la base de datos
+        when(repository.actualizar(eq(1L), any())).thenAnswer(invocacion -> {
+            Boolean anterior = tasku.getCompletada();
+            invocacion.<Consumer<Tasku>>getArgument(1).accept(tasku);
+            return Uni.createFrom().item(Optional.of(TaskuCambio.actualizada(tasku, anterior)));
+        });
+        when(repository.actualizar(eq(99L), any())).thenReturn(Uni.createFrom().item(Optional.empty()));
+    }
+
+    @Test
+    void testObtenerPagina_NormalizaFiltros() {
+        when(repository.listarPagina(true, "Tarea", null, TaskuService.LIMITE_POR_DEFECTO))
+                .thenReturn(Uni.createFrom().item(List.of(tasku)));
+
+        List<Tasku> resultado = service.obtenerPagina(true, "  Tarea ", null, null).await().indefinitely();
+
+        assertThat(resultado).containsExactly(tasku);
+    }
+
+    @Test
+    void testObtenerPorId_IdInvalido() {
+        Optional<Tasku> resultado = service.obtenerPorId(0L).await().indefinitely();
+
+        assertThat(resultado).isEmpty();
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void testBuscar_SinTexto() {
+        assertThatThrownBy(() -> service.buscar("  ", 0, null).await().indefinitely())
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("El texto de búsqueda es obligatorio");
+    }
+
+    @Test
+    void testCrear_PublicaElCambio() {
+        Tasku nueva = new Tasku("Nueva tarea", "Descripción");
+        when(repository.guardar(nueva)).thenAnswer(invocacion -> {
+            nueva.setId(5L);
+            return Uni.createFrom().item(nueva);
+        });
+
+        Tasku resultado = service.crear(nueva).await().indefinitely();
+
+        assertThat(resultado.getId()).isEqualTo(5L);
+        verify(eventos).fire(TaskuCambio.creada(nueva));
+    }
+
+    @Test
+    void testCrear_TituloVacio() {
+        Tasku nueva = new Tasku("", "Descripción");
+
+        assertThatThrownBy(() -> service.crear(nueva).await().indefinitely())
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("El título es obligatorio");
+        verify(repository, never()).guardar(any());
+        verifyNoInteractions(eventos);
+    }
+
+    @Test
+    void testActualizar_AplicaCambiosYPublica() {
+        Tasku cambios = new Tasku("Tarea renombrada", null);
+        cambios.setCompletada(true);
+
+        Optional<Tasku> resultado = service.actualizar(1L, cambios).await().indefinitely();
+
+        assertThat(resultado).isPresent();
+        assertThat(resultado.get().getTitulo()).isEqualTo("Tarea renombrada");
+        assertThat(resultado.get().getDescripcion()).isEqualTo("Descripción de la tarea 1");
+        verify(eventos).fire(TaskuCambio.actualizada(tasku, false));
+    }
+
+    @Test
+    void testActualizar_NoEncontrada() {
+        Optional<Tasku> resultado = service.actualizar(99L, new Tasku("Otra", null)).await().indefinitely();
+
+        assertThat(resultado).isEmpty();
+        verifyNoInteractions(eventos);
+    }
+
+    @Test
+    void testActualizar_TareaNula() {
+        assertThatThrownBy(() -> service.actualizar(1L, null).await().indefinitely())
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("La tarea no puede ser nula");
+    }
+
+    @Test
+    void testMarcarCompletada_PorDefectoCompleta() {
+        Optional<Tasku> resultado = service.marcarCompletada(1L, null).await().indefinitely();
+
+        assertThat(resultado).isPresent();
+        assertThat(resultado.get().getCompletada()).isTrue();
+    }
+
+    @Test
+    void testEliminar() {
+        when(repository.eliminarPorId(1L)).thenReturn(Uni.createFrom().item(Optional.of(tasku)));
+        when(repository.eliminarPorId(99L)).thenReturn(Uni.createFrom().item(Optional.empty()));
+
+        assertThat(service.eliminar(1L).await().indefinitely()).isTrue();
+        assertThat(service.eliminar(99L).await().indefinitely()).isFalse();
+        verify(eventos).fire(TaskuCambio.eliminada(1L, false));
+    }
+}
@@ -1,7 +1,16 @@
 package com.tasku.service;
 
+import com.tasku.almacen.AlmacenTaskus;
+import com.tasku.cache.TaskuCache;
+import com.tasku.dto.EstadisticasTaskus;
+import com.tasku.dto.TaskuParcial;
+import com.tasku.event.TaskuCambio;
+import com.tasku.indice.AtributoTasku;
+import com.tasku.indice.IndiceEstados;
 import com.tasku.model.Tasku;
-import com.tasku.repository.TaskuRepository;
+import com.tasku.repository.ConsultaTaskus;
+import com.tasku.search.BuscadorTitulos;
+import jakarta.enterprise.event.Event;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -10,17 +19,38 @@ import org.mockito.MockitoAnnotations;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 class TaskuServiceTest {
 
     @Mock
-    TaskuRepository repository;
+    AlmacenTaskus almacen;
+
+    @Mock
+    BuscadorTitulos buscador;
+
+    @Mock
+    Event<TaskuCambio> eventos;
+
+    @Mock
+    TaskuCache cache;
+
+    @Mock
+    ContadoresTaskus contadores;
+
+    @Mock
+    IndiceEstados indice;
+
+    @Mock
+    RelayCambios relay;
 
     @InjectMocks
     TaskuService service;
@@ -31,6 +61,10 @@ class TaskuServiceTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        when(indice.alDia()).thenReturn(true);
+        when(relay.alDia()).thenReturn(true);
+        when(cache.obtener(any(), any())).thenAnswer(invocacion ->
+                invocacion.<Function<Long, Optional<Tasku>>>getArgument(1).apply(invocacion.getArgument(0)));
         tasku1 = new Tasku("Tarea 1", "Descripción de la tarea 1");
         tasku1.setId(1L);
         tasku1.setCompletada(false);
@@ -44,7 +78,7 @@ class TaskuServiceTest {
     void testObtenerTodas() {
         // Given
         List<Tasku> taskus = Arrays.asList(tasku1, tasku2);
-        when(repository.listAll()).thenReturn(taskus);
+        when(almacen.listarTodas()).thenReturn(taskus);
 
         // When
         List<Tasku> resultado = service.obtenerTodas();
@@ -53,13 +87,119 @@ class TaskuServiceTest {
         assertThat(resultado).isNotNull();
         assertThat(resultado).hasSize(2);
         assertThat(resultado).contains(tasku1, tasku2);
-        verify(repository).listAll();
+        verify(almacen).listarTodas();
+    }
+
+    @Test
+    void testObtenerPagina() {
+        // Given
+        when(almacen.listarPagina(false, "Tarea", 10L, 2)).thenReturn(Arrays.asList(tasku1));
+
+        // When
+        List<Tasku> resultado = service.obtenerPagina(false, "  Tarea  ", 10L, 2);
+
+        // Then
+        assertThat(resultado).containsExactly(tasku1);
+        verify(almacen).listarPagina(false, "Tarea", 10L, 2);
+    }
+
+    @Test
+    void testObtenerPagina_LimiteNormalizado() {
+        // When
+        service.obtenerPagina(null, "", null, null);
+        service.obtenerPagina(null, null, null, 1_000_000);
+
+        // Then
+        verify(almacen).listarPagina(null, null, null, TaskuService.LIMITE_POR_DEFECTO);
+        verify(almacen).listarPagina(null, null, null, TaskuService.LIMITE_MAXIMO);
+    }
+
+    @Test
+    void testObtenerPagina_ConsultaNormalizada() {
+        // Given
+        ConsultaTaskus consulta = new ConsultaTaskus(true, "  Informe ", null, null, null, null,
+                ConsultaTaskus.parsearOrden("-creada"), null, 1_000_000);
+        TaskuParcial resumen = new TaskuParcial(TaskuParcial.RESUMEN, 1L, "Informe", null, true, null, null);
+        when(almacen.listar(any(), any())).thenReturn(Arrays.asList(resumen));
+
+        // When
+        List<TaskuParcial> resultado = service.obtenerPagina(consulta, TaskuParcial.RESUMEN);
+
+        // Then
+        assertThat(resultado).containsExactly(resumen);
+        verify(almacen).listar(consulta.conTituloYLimite("Informe", TaskuService.LIMITE_MAXIMO),
+                TaskuParcial.RESUMEN);
+    }
+
+    @Test
+    void testObtenerPagina_SoloPorEstadoDesdeElIndice() {
+        // Given
+        ConsultaTaskus consulta = ConsultaTaskus.porEstadoYTitulo(true, null, 1L, 10);
+        when(indice.ids(Map.of(AtributoTasku.COMPLETADA, true), 1L, false, 10)).thenReturn(List.of(2L));
+        TaskuParcial resumen = new TaskuParcial(TaskuParcial.RESUMEN, 2L, "Tarea 2", null, true, null, null);
+        when(almacen.listarEntreIds(consulta, List.of(2L), TaskuParcial.RESUMEN)).thenReturn(List.of(resumen));
+
+        // When
+        List<TaskuParcial> resultado = service.obtenerPagina(consulta, TaskuParcial.RESUMEN);
+
+        // Then
+        assertThat(resultado).containsExactly(resumen);
+        verify(almacen, never()).listar(any(), any());
+        verify(almacen, never()).buscarPorIds(any());
+    }
+
+    @Test
+    void testObtenerPagina_SoloPorEstadoConElIndiceAtrasado() {
+        // Given: la tarea 1 ya no está completada cuando se lee
+        ConsultaTaskus consulta = ConsultaTaskus.porEstadoYTitulo(true, null, null, 10);
+        when(indice.ids(Map.of(AtributoTasku.COMPLETADA, true), null, false, 10)).thenReturn(List.of(1L, 2L));
+        TaskuParcial resumen = new TaskuParcial(TaskuParcial.RESUMEN, 2L, "Tarea 2", null, true, null, null);
+        when(almacen.listarEntreIds(consulta, List.of(1L, 2L), TaskuParcial.RESUMEN)).thenReturn(List.of(resumen));
+        when(almacen.listar(consulta, TaskuParcial.RESUMEN)).thenReturn(List.of(resumen));
+
+        // When
+        List<TaskuParcial> resultado = service.obtenerPagina(consulta, TaskuParcial.RESUMEN);
+
+        // Then
+        assertThat(resultado).containsExactly(resumen);
+        verify(almacen).listar(consulta, TaskuParcial.RESUMEN);
+    }
+
+    @Test
+    void testObtenerPagina_SoloPorEstadoConElRelevoAtrasado() {
+        // Given: el índice puede no tener tareas que otro nodo acaba de completar
+        ConsultaTaskus consulta = ConsultaTaskus.porEstadoYTitulo(true, null, null, 10);
+        when(relay.alDia()).thenReturn(false);
+        TaskuParcial resumen = new TaskuParcial(TaskuParcial.RESUMEN, 3L, "Tarea 3", null, true, null, null);
+        when(almacen.listar(consulta, TaskuParcial.RESUMEN)).thenReturn(List.of(resumen));
+
+        // When
+        List<TaskuParcial> resultado = service.obtenerPagina(consulta, TaskuParcial.RESUMEN);
+
+        // Then
+        assertThat(resultado).containsExactly(resumen);
+        verify(indice, never()).ids(any(), any(), anyBoolean(), anyInt());
+    }
+
+    @Test
+    void testObtenerPagina_SoloPorEstadoConElIndiceReconstruyendose() {
+        // Given
+        ConsultaTaskus consulta = ConsultaTaskus.porEstadoYTitulo(false, null, null, 10);
+        when(indice.alDia()).thenReturn(false);
+        when(almacen.listar(consulta, TaskuParcial.RESUMEN)).thenReturn(List.of());
+
+        // When
+        service.obtenerPagina(consulta, TaskuParcial.RESUMEN);
+
+        // Then
+        verify(almacen).listar(consulta, TaskuParcial.RESUMEN);
+        verify(indice, never()).ids(any(), any(), anyBoolean(), anyInt());
     }
 
     @Test
     void testObtenerPorId_Exitoso() {
         // Given
-        when(repository.buscarPorId(1L)).thenReturn(Optional.of(tasku1));
+        when(almacen.buscarPorId(1L)).thenReturn(Optional.of(tasku1));
 
         // When
         Optional<Tasku> resultado = service.obtenerPorId(1L);
@@ -68,20 +208,20 @@ class TaskuServiceTest {
         assertThat(resultado).isPresent();
         assertThat(resultado.get()).isEqualTo(tasku1);
         assertThat(resultado.get().getTitulo()).isEqualTo("Tarea 1");
-        verify(repository).buscarPorId(1L);
+        verify(almacen).buscarPorId(1L);
     }
 
     @Test
     void testObtenerPorId_NoEncontrado() {
         // Given
-        when(repository.buscarPorId(999L)).thenReturn(Optional.empty());
+        when(almacen.buscarPorId(999L)).thenReturn(Optional.empty());
 
         // When
         Optional<Tasku> resultado = service.obtenerPorId(999L);
 
         // Then
         assertThat(resultado).isEmpty();
-        verify(repository).buscarPorId(999L);
+        verify(almacen).buscarPorId(999L);
     }
 
     @Test
@@ -95,14 +235,14 @@ class TaskuServiceTest {
         assertThat(resultadoNull).isEmpty();
         assertThat(resultadoNegativo).isEmpty();
         assertThat(resultadoCero).isEmpty();
-        verify(repository, never()).buscarPorId(any());
+        verify(almacen, never()).buscarPorId(any());
     }
 
     @Test
     void testObtenerPorCompletada() {
         // Given
         List<Tasku> completadas = Arrays.asList(tasku2);
-        when(repository.findByCompletada(true)).thenReturn(completadas);
+        when(almacen.buscarPorCompletada(true)).thenReturn(completadas);
 
         // When
         List<Tasku> resultado = service.obtenerPorCompletada(true);
@@ -111,14 +251,14 @@ class TaskuServiceTest {
         assertThat(resultado).isNotNull();
         assertThat(resultado).hasSize(1);
         assertThat(resultado.get(0).getCompletada()).isTrue();
-        verify(repository).findByCompletada(true);
+        verify(almacen).buscarPorCompletada(true);
     }
 
     @Test
     void testBuscarPorTitulo() {
         // Given
         List<Tasku> taskus = Arrays.asList(tasku1);
-        when(repository.buscarPorTitulo("Tarea 1")).thenReturn(taskus);
+        when(almacen.buscarPorTitulo("Tarea 1")).thenReturn(taskus);
 
         // When
         List<Tasku> resultado = service.buscarPorTitulo("Tarea 1");
@@ -126,14 +266,14 @@ class TaskuServiceTest {
         // Then
         assertThat(resultado).isNotNull();
         assertThat(resultado).hasSize(1);
-        verify(repository).buscarPorTitulo("Tarea 1");
+        verify(almacen).buscarPorTitulo("Tarea 1");
     }
 
     @Test
     void testBuscarPorTitulo_Vacio() {
         // Given
         List<Tasku> todas = Arrays.asList(tasku1, tasku2);
-        when(repository.listAll()).thenReturn(todas);
+        when(almacen.listarTodas()).thenReturn(todas);
 
         // When
         List<Tasku> resultado = service.buscarPorTitulo("");
@@ -141,14 +281,36 @@ class TaskuServiceTest {
         // Then
         assertThat(resultado).isNotNull();
         assertThat(resultado).hasSize(2);
-        verify(repository).listAll();
+        verify(almacen).listarTodas();
+    }
+
+    @Test
+    void testBuscar_Paginado() {
+        // Given
+        when(buscador.buscar("tarea", 20, 10)).thenReturn(Arrays.asList(tasku2, tasku1));
+
+        // When
+        List<Tasku> resultado = service.buscar(" tarea ", 2, 10);
+
+        // Then
+        assertThat(resultado).containsExactly(tasku2, tasku1);
+        verify(buscador).buscar("tarea", 20, 10);
+    }
+
+    @Test
+    void testBuscar_TextoVacio() {
+        // When & Then
+        assertThatThrownBy(() -> service.buscar("  ", 0, 10))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("texto de búsqueda");
+        verifyNoInteractions(buscador);
     }
 
     @Test
     void testCrear_Exitoso() {
         // Given
         Tasku nuevaTasku = new Tasku("Nueva Tarea", "Nueva descripción");
-        when(repository.guardar(any(Tasku.class))).thenReturn(nuevaTasku);
+        when(almacen.guardar(any(Tasku.class))).thenReturn(nuevaTasku);
 
         // When
         Tasku resultado = service.crear(nuevaTasku);
@@ -156,7 +318,8 @@ class TaskuServiceTest {
         // Then
         assertThat(resultado).isNotNull();
         assertThat(resultado.getTitulo()).isEqualTo("Nueva Tarea");
-        verify(repository).guardar(nuevaTasku);
+        verify(almacen).guardar(nuevaTasku);
+        verify(eventos).fire(any(TaskuCambio.class));
     }
 
     @Test
@@ -165,7 +328,7 @@ class TaskuServiceTest {
         assertThatThrownBy(() -> service.crear(null))
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessageContaining("no puede ser nula");
-        verify(repository, never()).guardar(any());
+        verify(almacen, never()).guardar(any());
     }
 
     @Test
@@ -177,15 +340,17 @@ class TaskuServiceTest {
         assertThatThrownBy(() -> service.crear(taskuSinTitulo))
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessageContaining("título es obligatorio");
-        verify(repository, never()).guardar(any());
+        verify(almacen, never()).guardar(any());
     }
 
     @Test
     void testActualizar_Exitoso() {
         // Given
-        Tasku taskuActualizada = new Tasku("Título Actualizado", "Nueva descripción");
-        when(repository.buscarPorId(1L)).thenReturn(Optional.of(tasku1));
-        doNothing().when(repository).persist(any(Tasku.class));
+        Tasku taskuActualizada = new Tasku("  Título Actualizado ", "Nueva descripción");
+        Tasku actualizada = new Tasku("Título Actualizado", "Nueva descripción");
+        actualizada.setId(1L);
+        when(almacen.actualizarDirecto(1L, "Título Actualizado", "Nueva descripción", false))
+                .thenReturn(Optional.of(new AlmacenTaskus.Actualizacion(actualizada, false)));
 
         // When
         Optional<Tasku> resultado = service.actualizar(1L, taskuActualizada);
@@ -193,91 +358,187 @@ class TaskuServiceTest {
         // Then
         assertThat(resultado).isPresent();
         assertThat(resultado.get().getTitulo()).isEqualTo("Título Actualizado");
-        verify(repository).buscarPorId(1L);
-        verify(repository).persist(any(Tasku.class));
+        verify(almacen, never()).buscarPorId(any());
+        verify(almacen, never()).guardar(any());
+        verify(eventos).fire(TaskuCambio.actualizada(actualizada, false));
     }
 
     @Test
     void testActualizar_NoEncontrado() {
         // Given
         Tasku taskuActualizada = new Tasku("Título", "Descripción");
-        when(repository.buscarPorId(999L)).thenReturn(Optional.empty());
+        when(almacen.actualizarDirecto(eq(999L), any(), any(), any())).thenReturn(Optional.empty());
 
         // When
         Optional<Tasku> resultado = service.actualizar(999L, taskuActualizada);
 
-        // Then
+        // Then: una sola sentencia, sin leer la tarea para comprobarlo
         assertThat(resultado).isEmpty();
-        verify(repository).buscarPorId(999L);
-        verify(repository, never()).persist(any(Tasku.class));
+        verify(almacen).actualizarDirecto(eq(999L), any(), any(), any());
+        verify(almacen, never()).buscarPorIdParaActualizar(any());
+        verify(almacen, never()).guardar(any());
+        verify(eventos, never()).fire(any());
+    }
+
+    @Test
+    void testActualizar_PrecondicionCumplida() {
+        // Given
+        Tasku taskuActualizada = new Tasku("Título Actualizado", "Nueva descripción");
+        when(almacen.buscarPorIdParaActualizar(1L)).thenReturn(Optional.of(tasku1));
+
+        // When
+        Optional<Tasku> resultado = service.actualizar(1L, taskuActualizada, tasku -> true);
+
+        // Then: la tarea cargada se entrega al almacén una vez cambiada
+        assertThat(resultado).isPresent();
+        assertThat(tasku1.getTitulo()).isEqualTo("Título Actualizado");
+        verify(almacen).buscarPorIdParaActualizar(1L);
+        verify(almacen).guardarCambios(tasku1);
+        verify(almacen, never()).guardar(any());
+        verify(almacen, never()).actualizarDirecto(any(), any(), any(), any());
+    }
+
+    @Test
+    void testActualizar_PrecondicionFallida() {
+        // Given
+        Tasku taskuActualizada = new Tasku("Título Actualizado", "Nueva descripción");
+        when(almacen.buscarPorIdParaActualizar(1L)).thenReturn(Optional.of(tasku1));
+
+        // When / Then
+        assertThatThrownBy(() -> service.actualizar(1L, taskuActualizada, tasku -> false))
+                .isInstanceOf(PrecondicionFallidaException.class);
+        assertThat(tasku1.getTitulo()).isEqualTo("Tarea 1");
+        verify(almacen, never()).guardarCambios(any());
+        verify(eventos, never()).fire(any());
+    }
+
+    @Test
+    void testEliminar_PrecondicionFallida() {
+        // Given
+        when(almacen.buscarPorIdParaActualizar(1L)).thenReturn(Optional.of(tasku1));
+
+        // When / Then
+        assertThatThrownBy(() -> service.eliminar(1L, tasku -> false))
+                .isInstanceOf(PrecondicionFallidaException.class);
+        verify(almacen, never()).eliminar(any());
+        verify(almacen, never()).eliminarPorId(any());
     }
 
     @Test
     void testEliminar_Exitoso() {
         // Given
-        when(repository.eliminarPorId(1L)).thenReturn(true);
+        when(almacen.eliminarPorId(1L)).thenReturn(Optional.of(tasku1));
 
         // When
         boolean resultado = service.eliminar(1L);
 
         // Then
         assertThat(resultado).isTrue();
-        verify(repository).eliminarPorId(1L);
+        verify(almacen).eliminarPorId(1L);
+        verify(eventos).fire(TaskuCambio.eliminada(1L, false));
     }
 
     @Test
     void testEliminar_NoEncontrado() {
         // Given
-        when(repository.eliminarPorId(999L)).thenReturn(false);
+        when(almacen.eliminarPorId(999L)).thenReturn(Optional.empty());
 
         // When
         boolean resultado = service.eliminar(999L);
 
         // Then
         assertThat(resultado).isFalse();
-        verify(repository).eliminarPorId(999L);
+        verify(almacen).eliminarPorId(999L);
+        verify(eventos, never()).fire(any());
     }
 
     @Test
     void testMarcarCompletada_Exitoso() {
         // Given
-        when(repository.buscarPorId(1L)).thenReturn(Optional.of(tasku1));
-        doNothing().when(repository).persist(any(Tasku.class));
+        Tasku completada = new Tasku("Tarea 1", "Descripción de la tarea 1");
+        completada.setId(1L);
+        completada.setCompletada(true);
+        when(almacen.actualizarDirecto(1L, null, null, true))
+                .thenReturn(Optional.of(new AlmacenTaskus.Actualizacion(completada, false)));
 
         // When
         Optional<Tasku> resultado = service.marcarCompletada(1L, true);
 
-        // Then
+        // Then: un solo UPDATE, sin leer la tarea antes
         assertThat(resultado).isPresent();
         assertThat(resultado.get().getCompletada()).isTrue();
-        verify(repository).buscarPorId(1L);
-        verify(repository).persist(any(Tasku.class));
+        verify(almacen).actualizarDirecto(1L, null, null, true);
+        verify(almacen, never()).buscarPorId(any());
+        verify(almacen, never()).guardar(any());
+        verify(eventos).fire(TaskuCambio.actualizada(completada, false));
+    }
+
+    @Test
+    void testMarcarCompletada_YaCompletada() {
+        // Given
+        when(almacen.actualizarDirecto(2L, null, null, true))
+                .thenReturn(Optional.of(new AlmacenTaskus.Actualizacion(tasku2, true)));
+
+        // When
+        Optional<Tasku> resultado = service.marcarCompletada(2L, true);
+
+        // Then: el estado anterior viene con la fila, sin un segundo UPDATE
+        assertThat(resultado).contains(tasku2);
+        verify(almacen).actualizarDirecto(2L, null, null, true);
+        verify(eventos).fire(TaskuCambio.actualizada(tasku2, true));
+        verify(almacen, never()).buscarPorIdParaActualizar(any());
+    }
+
+    @Test
+    void testMarcarCompletada_NoEncontrada() {
+        // Given
+        when(almacen.actualizarDirecto(eq(999L), any(), any(), any())).thenReturn(Optional.empty());
+
+        // When
+        Optional<Tasku> resultado = service.marcarCompletada(999L, true);
+
+        // Then
+        assertThat(resultado).isEmpty();
+        verify(eventos, never()).fire(any());
     }
 
     @Test
     void testContarCompletadas() {
         // Given
-        when(repository.contarPorCompletada(true)).thenReturn(5L);
+        when(indice.contar(Map.of(AtributoTasku.COMPLETADA, true))).thenReturn(5L);
 
         // When
         long resultado = service.contarCompletadas();
 
         // Then
         assertThat(resultado).isEqualTo(5L);
-        verify(repository).contarPorCompletada(true);
+        verifyNoInteractions(almacen);
     }
 
     @Test
     void testContarPendientes() {
         // Given
-        when(repository.contarPorCompletada(false)).thenReturn(3L);
+        when(indice.contar(Map.of(AtributoTasku.COMPLETADA, false))).thenReturn(3L);
 
         // When
         long resultado = service.contarPendientes();
 
         // Then
         assertThat(resultado).isEqualTo(3L);
-        verify(repository).contarPorCompletada(false);
+        verifyNoInteractions(almacen);
     }
-}
 
+    @Test
+    void testObtenerEstadisticas() {
+        // Given
+        EstadisticasTaskus estadisticas = new EstadisticasTaskus(5, 3, 8, 2, 1);
+        when(contadores.leer()).thenReturn(estadisticas);
+
+        // When
+        EstadisticasTaskus resultado = service.obtenerEstadisticas();
+
+        // Then
+        assertThat(resultado).isEqualTo(estadisticas);
+        verifyNoInteractions(almacen);
+    }
+}
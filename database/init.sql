@@ -1,14 +1,6 @@
 -- Script de inicialización de la base de datos PostgreSQL
--- Crea la tabla de tareas (tasku)
+-- El esquema lo crean las migraciones de Flyway del backend
+-- (backend/src/main/resources/db/migration/postgresql) al arrancar.
+-- Aquí solo se instala pg_trgm, que necesita un superusuario.
 
-CREATE TABLE IF NOT EXISTS tasku (
-    id BIGSERIAL PRIMARY KEY,
-    title VARCHAR(255) NOT NULL,
-    description TEXT,
-    completed BOOLEAN DEFAULT FALSE,
-    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
-);
-
--- Índice para búsquedas por estado de completado
-CREATE INDEX IF NOT EXISTS idx_tasku_completed ON tasku(completed);
+CREATE EXTENSION IF NOT EXISTS pg_trgm;